@@ -0,0 +1,75 @@
+package net.jackson;
+
+import net.fabricmc.loader.api.FabricLoader;
+import net.minecraft.item.Item;
+import net.minecraft.registry.Registries;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// Turns a BillOfMaterials expansion into readable lines for the recipe screen and the text export
+public class BomReport {
+    private static final Path EXPORT_DIR = FabricLoader.getInstance().getConfigDir().resolve("lessthanenoughitems").resolve("bom");
+
+    // Recipe choices are memoized inside the engine, so keep one around per graph and preference
+    private static BillOfMaterials engine = null;
+
+    private static BillOfMaterials engine(RecipeGraph graph) {
+        int preference = RecipeViewerConfig.getInstance().getBomPreference();
+        if (engine == null || engine.getGraph() != graph || engine.getPreference() != preference) {
+            engine = new BillOfMaterials(graph, preference);
+        }
+        return engine;
+    }
+
+    // Throws ArithmeticException when the amounts overflow a long
+    public static BillOfMaterials.Result expand(RecipeGraph graph, Item item, long quantity) {
+        return engine(graph).expand(Registries.ITEM.getRawId(item), quantity);
+    }
+
+    public static List<String> build(Item item, long quantity) {
+        List<String> lines = new ArrayList<>();
+        RecipeGraph graph = RecipeIndex.getGraph();
+        if (graph == null) {
+            lines.add("Recipes are still loading...");
+            return lines;
+        }
+
+        BillOfMaterials.Result result;
+        try {
+            result = expand(graph, item, quantity);
+        } catch (ArithmeticException e) {
+            lines.add("Too many to count");
+            return lines;
+        }
+
+        lines.add("Bill of materials: " + quantity + "x " + item.getName().getString());
+        lines.add("Raw materials:");
+        for (int i = 0; i < result.rawItems.length; i++) {
+            lines.add("  " + result.rawCounts[i] + "x " + name(result.rawItems[i]));
+        }
+        if (result.steps.length > 0) {
+            lines.add("Crafts:");
+            for (int i = 0; i < result.steps.length; i++) {
+                int recipe = result.steps[i];
+                long made = result.stepBatches[i] * graph.resultCount(recipe);
+                lines.add("  " + made + "x " + name(graph.result(recipe)) + " (" + result.stepBatches[i] + " crafts)");
+            }
+        }
+        return lines;
+    }
+
+    public static Path export(Item item, long quantity) throws IOException {
+        Files.createDirectories(EXPORT_DIR);
+        Path file = EXPORT_DIR.resolve(Registries.ITEM.getId(item).getPath() + "_x" + quantity + ".txt");
+        Files.write(file, build(item, quantity));
+        return file;
+    }
+
+    private static String name(int rawId) {
+        return Registries.ITEM.get(rawId).getName().getString();
+    }
+}
@@ -0,0 +1,184 @@
+package net.jackson;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+
+// A recipe with every ingredient slot resolved up front into its alternatives (tags expanded),
+// so rendering is just an array index into slots instead of parsing JSON every frame
+public class CompiledRecipe {
+    public static final long CYCLE_INTERVAL_MS = 1000; // 1 second per ingredient
+
+    // Slot layouts per recipe type
+    public static final int GRID_SLOTS = 9;
+    public static final int COOKING_INPUT = 0;
+    public static final int SMITHING_TEMPLATE = 0;
+    public static final int SMITHING_BASE = 1;
+    public static final int SMITHING_ADDITION = 2;
+    public static final int TRANSMUTE_MATERIAL = 0; // top-left
+    public static final int TRANSMUTE_INPUT = 4; // center
+
+    public final JsonObject json;
+    public final String type;
+    public final ItemStack[][] slots;
+    public final ItemStack result;
+    public final String resultId;
+    public final int cookingTime;
+    public final float experience;
+
+    private CompiledRecipe(JsonObject json, String type, ItemStack[][] slots, ItemStack result, String resultId,
+                           int cookingTime, float experience) {
+        this.json = json;
+        this.type = type;
+        this.slots = slots;
+        this.result = result;
+        this.resultId = resultId;
+        this.cookingTime = cookingTime;
+        this.experience = experience;
+    }
+
+    // Shared clock so every cycling slot on screen advances together
+    public static long cycle() {
+        return System.currentTimeMillis() / CYCLE_INTERVAL_MS;
+    }
+
+    public static ItemStack pick(ItemStack[] alternatives, long cycle) {
+        if (alternatives == null || alternatives.length == 0) {
+            return ItemStack.EMPTY;
+        }
+        return alternatives[(int) (cycle % alternatives.length)];
+    }
+
+    public ItemStack slot(int index, long cycle) {
+        return index < slots.length ? pick(slots[index], cycle) : ItemStack.EMPTY;
+    }
+
+    public static CompiledRecipe compile(JsonObject json, Item targetItem) {
+        String type = json.has("type") ? json.get("type").getAsString() : "";
+
+        // Result can be either {"id": ..., "count": ...} or a bare id (transmute recipes)
+        String resultId = "minecraft:barrier";
+        int count = 1;
+        JsonElement resultElement = json.get("result");
+        if (resultElement != null && resultElement.isJsonObject()) {
+            JsonObject result = resultElement.getAsJsonObject();
+            if (result.has("id")) resultId = result.get("id").getAsString();
+            if (result.has("count")) count = result.get("count").getAsInt();
+        } else if (resultElement != null && resultElement.isJsonPrimitive()) {
+            resultId = resultElement.getAsString();
+        }
+        ItemStack result = new ItemStack(IngredientResolver.resolveItem(resultId), count);
+
+        ItemStack[][] slots;
+        switch (type) {
+            case "minecraft:crafting_shaped":
+                slots = compileShaped(json);
+                break;
+            case "minecraft:crafting_shapeless":
+                slots = compileShapeless(json);
+                break;
+            case "minecraft:crafting_transmute":
+                slots = compileTransmute(json, targetItem, resultId);
+                break;
+            case "minecraft:blasting":
+            case "minecraft:smelting":
+            case "minecraft:smoking":
+            case "minecraft:campfire_cooking":
+                slots = new ItemStack[][]{IngredientResolver.resolveAlternatives(json.get("ingredient"))};
+                break;
+            case "minecraft:smithing_transform":
+                slots = new ItemStack[][]{
+                    IngredientResolver.resolveAlternatives(json.get("template")),
+                    IngredientResolver.resolveAlternatives(json.get("base")),
+                    IngredientResolver.resolveAlternatives(json.get("addition"))
+                };
+                break;
+            default:
+                slots = new ItemStack[0][];
+                break;
+        }
+
+        int cookingTime = json.has("cookingtime") ? json.get("cookingtime").getAsInt() : 200;
+        float experience = json.has("experience") ? json.get("experience").getAsFloat() : 0.0f;
+
+        return new CompiledRecipe(json, type, slots, result, resultId, cookingTime, experience);
+    }
+
+    private static ItemStack[][] compileShaped(JsonObject json) {
+        ItemStack[][] slots = emptyGrid();
+        JsonArray pattern = json.getAsJsonArray("pattern");
+        JsonObject key = json.getAsJsonObject("key");
+        if (pattern == null || key == null) {
+            return slots;
+        }
+
+        // Resolve each key symbol once, then share the arrays between the slots that use it
+        ItemStack[][] bySymbol = new ItemStack[128][];
+        for (String symbol : key.keySet()) {
+            char c = symbol.charAt(0);
+            if (c < bySymbol.length) {
+                bySymbol[c] = IngredientResolver.resolveAlternatives(key.get(symbol));
+            }
+        }
+
+        for (int row = 0; row < pattern.size() && row < 3; row++) {
+            String line = pattern.get(row).getAsString();
+            for (int col = 0; col < line.length() && col < 3; col++) {
+                char symbol = line.charAt(col);
+                if (symbol != ' ' && symbol < bySymbol.length && bySymbol[symbol] != null) {
+                    slots[row * 3 + col] = bySymbol[symbol];
+                }
+            }
+        }
+        return slots;
+    }
+
+    private static ItemStack[][] compileShapeless(JsonObject json) {
+        ItemStack[][] slots = emptyGrid();
+        if (json.has("ingredients")) {
+            JsonArray ingredients = json.getAsJsonArray("ingredients");
+            for (int i = 0; i < ingredients.size() && i < GRID_SLOTS; i++) {
+                slots[i] = IngredientResolver.resolveAlternatives(ingredients.get(i));
+            }
+        } else if (json.has("ingredient")) {
+            slots[0] = IngredientResolver.resolveAlternatives(json.get("ingredient"));
+        }
+        return slots;
+    }
+
+    private static ItemStack[][] compileTransmute(JsonObject json, Item targetItem, String resultId) {
+        ItemStack[][] slots = emptyGrid();
+
+        // Base item in the center - prefer the recipe's own input so every variant gets shown
+        if (json.has("input")) {
+            slots[TRANSMUTE_INPUT] = IngredientResolver.resolveAlternatives(json.get("input"));
+        } else {
+            slots[TRANSMUTE_INPUT] = new ItemStack[]{new ItemStack(targetItem)};
+        }
+
+        // Dye in the top-left corner
+        if (json.has("material")) {
+            slots[TRANSMUTE_MATERIAL] = IngredientResolver.resolveAlternatives(json.get("material"));
+        } else {
+            Item dye = IngredientResolver.getDyeForItem(resultId);
+            if (dye != null) {
+                slots[TRANSMUTE_MATERIAL] = new ItemStack[]{new ItemStack(dye)};
+            }
+        }
+        return slots;
+    }
+
+    private static ItemStack[][] emptyGrid() {
+        ItemStack[][] slots = new ItemStack[GRID_SLOTS][];
+        for (int i = 0; i < GRID_SLOTS; i++) {
+            slots[i] = new ItemStack[0];
+        }
+        return slots;
+    }
+
+    public String displayType() {
+        return json.has("recipe_type_display") ? json.get("recipe_type_display").getAsString() : "Recipe";
+    }
+}
@@ -1,49 +0,0 @@
-package net.jackson;
-
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import net.fabricmc.loader.api.FabricLoader;
-
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-
-public class Config {
-    private static final Path CONFIG_PATH = FabricLoader.getInstance().getConfigDir().resolve("lessthanenoughitems.json");
-    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
-
-    public boolean hideNonCraftables = false;
-    public int itemsPerRow = 15;
-    public int rowsPerPage = 20;
-
-    private static Config instance;
-
-    public static Config getInstance() {
-        if (instance == null) {
-            instance = load();
-        }
-        return instance;
-    }
-
-    private static Config load() {
-        if (Files.exists(CONFIG_PATH)) {
-            try {
-                String json = Files.readString(CONFIG_PATH);
-                return GSON.fromJson(json, Config.class);
-            } catch (Exception e) {
-                System.err.println("Failed to load config, using defaults: " + e.getMessage());
-            }
-        }
-        return new Config();
-    }
-
-    public void save() {
-        try {
-            Files.createDirectories(CONFIG_PATH.getParent());
-            String json = GSON.toJson(this);
-            Files.writeString(CONFIG_PATH, json);
-        } catch (IOException e) {
-            System.err.println("Failed to save config: " + e.getMessage());
-        }
-    }
-}
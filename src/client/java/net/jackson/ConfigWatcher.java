@@ -0,0 +1,99 @@
+package net.jackson;
+
+import net.minecraft.client.MinecraftClient;
+
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Objects;
+
+// Picks up hand edits to the config file while the game runs. Only what changed is refreshed: the overlay's
+// layout for grid size changes, the filtered catalog for filter changes, the HUD for a new pin. Everything
+// else reads the config live and needs nothing
+public class ConfigWatcher {
+    // Editors often save in several steps (truncate, write, rename) - let them finish before reading
+    private static final long SETTLE_MS = 100;
+
+    public static void start() {
+        Path file = RecipeViewerConfig.getPath();
+        Path directory = file.getParent();
+        WatchService watcher;
+        try {
+            Files.createDirectories(directory);
+            watcher = FileSystems.getDefault().newWatchService();
+            directory.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (Exception e) {
+            System.err.println("Config hot reload unavailable: " + e.getMessage());
+            return;
+        }
+
+        Thread thread = new Thread(() -> watch(watcher, file.getFileName()), "LTEI Config Watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private static void watch(WatchService watcher, Path fileName) {
+        while (true) {
+            try {
+                WatchKey key = watcher.take();
+                boolean touched = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    touched |= fileName.equals(event.context());
+                }
+                key.reset();
+                if (!touched) {
+                    continue;
+                }
+
+                Thread.sleep(SETTLE_MS);
+                // Whatever else arrived while settling is the same edit
+                WatchKey more = watcher.poll();
+                if (more != null) {
+                    more.pollEvents();
+                    more.reset();
+                }
+                reload();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            } catch (Exception e) {
+                System.err.println("Config watcher error: " + e.getMessage());
+            }
+        }
+    }
+
+    private static void reload() {
+        RecipeViewerConfig loaded;
+        try {
+            loaded = RecipeViewerConfig.readExternalChange();
+        } catch (Exception e) {
+            System.err.println("Ignoring config edit that doesn't parse: " + e.getMessage());
+            return;
+        }
+        if (loaded == null) {
+            return; // Our own save
+        }
+        MinecraftClient.getInstance().execute(() -> apply(loaded));
+    }
+
+    private static void apply(RecipeViewerConfig loaded) {
+        RecipeViewerConfig old = RecipeViewerConfig.getInstance();
+        RecipeViewerConfig.replace(loaded);
+
+        if (old.itemsPerRow != loaded.itemsPerRow || old.rowsPerPage != loaded.rowsPerPage) {
+            ItemListOverlay.onLayoutChanged();
+        }
+        if (old.showOnlyCraftable != loaded.showOnlyCraftable || old.showOnlyCraftableNow != loaded.showOnlyCraftableNow) {
+            ItemListOverlay.onFilterChanged();
+        }
+        if (!Objects.equals(old.pinnedItem, loaded.pinnedItem) || old.pinnedRecipeIndex != loaded.pinnedRecipeIndex ||
+            old.pinnedBom != loaded.pinnedBom || old.pinnedQuantity != loaded.pinnedQuantity) {
+            PinnedPlan.onPinChanged();
+        }
+        LessThanEnoughItems.LOGGER.debug("Config reloaded from {}", RecipeViewerConfig.getPath().getFileName());
+    }
+}
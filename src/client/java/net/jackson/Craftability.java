@@ -0,0 +1,39 @@
+package net.jackson;
+
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.item.Item;
+import net.minecraft.registry.Registries;
+
+// Which items the player can craft right now, kept current from the inventory index once per client tick
+public class Craftability {
+    private static CraftabilityEngine engine = null;
+    private static int revision = 0;
+
+    static void onGraphChanged(RecipeGraph graph) {
+        // Only grid recipes count as "craft right now" - smelting or smithing needs a station and time
+        engine = new CraftabilityEngine(graph, RecipeGraph.KIND_CRAFTING);
+        revision++;
+        ItemListOverlay.onCraftabilityChanged();
+    }
+
+    // Runs after InventoryIndex.tick, so everything that changed this tick is handled in one pass
+    public static void tick(MinecraftClient client) {
+        if (engine == null) {
+            return;
+        }
+        InventoryIndex.drainChanged(engine::markDirty);
+        if (engine.recompute(InventoryIndex::count)) {
+            revision++;
+            ItemListOverlay.onCraftabilityChanged();
+        }
+    }
+
+    public static boolean isCraftableNow(Item item) {
+        return engine != null && engine.isCraftable(Registries.ITEM.getRawId(item));
+    }
+
+    // Bumped whenever the set of craftable items may have changed
+    public static int getRevision() {
+        return revision;
+    }
+}
@@ -0,0 +1,139 @@
+package net.jackson;
+
+import com.google.gson.JsonObject;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayNetworking;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.item.Item;
+import net.minecraft.screen.ScreenHandler;
+import net.minecraft.screen.slot.SlotActionType;
+import net.minecraft.text.Text;
+
+import java.util.function.IntUnaryOperator;
+
+// Sends a planned batch craft to the server a few clicks per tick, so a long sequence doesn't arrive as one
+// burst, and reports how many packets it took once the last one is out. Servers running the mod get a single
+// bulk craft request instead and do the crafting themselves
+public class CraftingPipeline {
+    private static final int CLICKS_PER_TICK = 8;
+    private static final int SERVER_REPLY_TIMEOUT_TICKS = 100;
+
+    private static BatchCraftPlanner.Sequence sequence = null;
+    private static IntUnaryOperator slotMap;
+    private static int syncId;
+    private static int next;
+    private static Item resultItem;
+    private static int itemsMade;
+    private static int serverWait = 0; // Ticks left for an outstanding bulk craft reply
+
+    public static void register() {
+        ClientPlayNetworking.registerGlobalReceiver(BulkCraftResultPayload.ID, (payload, context) ->
+            onServerResult(context.client(), payload));
+    }
+
+    public static boolean isBusy() {
+        return sequence != null || serverWait > 0;
+    }
+
+    // Only recipes that came from the server carry the id it knows them by
+    public static boolean canCraftOnServer(JsonObject recipe) {
+        return recipe.has("recipe_id") && ClientPlayNetworking.canSend(BulkCraftPayload.ID);
+    }
+
+    public static void startOnServer(ScreenHandler handler, JsonObject recipe, int crafts, Item result) {
+        resultItem = result;
+        serverWait = SERVER_REPLY_TIMEOUT_TICKS;
+        ClientPlayNetworking.send(new BulkCraftPayload(handler.syncId, recipe.get("recipe_id").getAsString(), crafts));
+    }
+
+    private static void onServerResult(MinecraftClient client, BulkCraftResultPayload payload) {
+        if (serverWait == 0 || client.player == null) {
+            return;
+        }
+        serverWait = 0;
+        String message;
+        if (payload.status() == BulkCraftResultPayload.REJECTED) {
+            message = "The server couldn't craft that here";
+        } else if (payload.crafts() == 0) {
+            message = payload.status() == BulkCraftResultPayload.INVENTORY_FULL ?
+                "No room in the inventory to craft" : "Not enough ingredients to craft";
+        } else {
+            message = "Crafted " + payload.items() + "x " + resultItem.getName().getString() + " on the server";
+            if (payload.status() == BulkCraftResultPayload.INVENTORY_FULL) {
+                message += " (inventory full)";
+            }
+        }
+        client.player.sendMessage(Text.literal(message), true);
+    }
+
+    // slotMap turns the planner's abstract slots into slot ids of the handler the clicks are meant for
+    public static void start(ScreenHandler handler, BatchCraftPlanner.Sequence planned, IntUnaryOperator map,
+                             Item result, int resultCount) {
+        sequence = planned;
+        slotMap = map;
+        syncId = handler.syncId;
+        next = 0;
+        resultItem = result;
+        itemsMade = planned.crafts * resultCount;
+    }
+
+    // A single placement is a few dozen clicks at most, so it goes out at once like the recipe book's own
+    public static void sendNow(MinecraftClient client, ScreenHandler handler, BatchCraftPlanner.Sequence planned,
+                               IntUnaryOperator map) {
+        for (int i = 0; i < planned.size(); i++) {
+            client.interactionManager.clickSlot(handler.syncId, map.applyAsInt(planned.slots[i]), planned.buttons[i],
+                actionType(planned.actions[i]), client.player);
+        }
+    }
+
+    public static void tick(MinecraftClient client) {
+        if (serverWait > 0 && --serverWait == 0) {
+            System.err.println("No reply to bulk craft request");
+        }
+        if (sequence == null) {
+            return;
+        }
+        if (client.player == null || client.interactionManager == null ||
+            client.player.currentScreenHandler.syncId != syncId) {
+            // The table was closed under us - whatever was already sent has happened, the rest is dropped
+            if (client.player != null) {
+                client.player.sendMessage(Text.literal("Crafting interrupted after " + next + " of " +
+                    sequence.size() + " packets"), true);
+            }
+            sequence = null;
+            return;
+        }
+
+        LteiEvents.CraftBurst event = new LteiEvents.CraftBurst();
+        event.begin();
+        int first = next;
+        int end = Math.min(sequence.size(), next + CLICKS_PER_TICK);
+        for (; next < end; next++) {
+            client.interactionManager.clickSlot(syncId, slotMap.applyAsInt(sequence.slots[next]),
+                sequence.buttons[next], actionType(sequence.actions[next]), client.player);
+        }
+        event.packets = next - first;
+        event.sent = next;
+        event.total = sequence.size();
+        event.commit();
+
+        if (next == sequence.size()) {
+            String message = "Crafted " + itemsMade + "x " + resultItem.getName().getString() + " using " + next + " packets";
+            if (sequence.status == BatchCraftPlanner.INVENTORY_FULL) {
+                message += " (inventory full)";
+            }
+            client.player.sendMessage(Text.literal(message), true);
+            sequence = null;
+        }
+    }
+
+    private static SlotActionType actionType(int action) {
+        switch (action) {
+            case BatchCraftPlanner.QUICK_MOVE:
+                return SlotActionType.QUICK_MOVE;
+            case BatchCraftPlanner.QUICK_CRAFT:
+                return SlotActionType.QUICK_CRAFT;
+            default:
+                return SlotActionType.PICKUP;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package net.jackson;
+
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.Items;
+import net.minecraft.registry.Registries;
+
+// ItemIds over the item registry, going through IngredientResolver so ids and tags resolve exactly as they do
+// for display - including its stand-ins for tags that aren't bound yet
+public class GameItemIds implements ItemIds {
+    @Override
+    public int size() {
+        return Registries.ITEM.size();
+    }
+
+    @Override
+    public int rawId(String id) {
+        Item item = IngredientResolver.resolveItem(id);
+        return item == Items.AIR ? -1 : Registries.ITEM.getRawId(item);
+    }
+
+    @Override
+    public int[] tag(String tag) {
+        ItemStack[] alternatives = IngredientResolver.resolveAlternatives("#" + tag);
+        int[] ids = new int[alternatives.length];
+        for (int i = 0; i < alternatives.length; i++) {
+            ids[i] = alternatives[i].isEmpty() ? -1 : Registries.ITEM.getRawId(alternatives[i].getItem());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,31 @@
+package net.jackson;
+
+import net.minecraft.item.Item;
+
+// Starts compiling an item's recipe view once the cursor has rested on it, so the click opens instantly
+public class HoverPrefetcher {
+    private static final long DWELL_MS = 100;
+
+    private static Item hoveredItem = null;
+    private static long hoverStartTime = 0;
+    private static boolean prefetched = false;
+
+    // Called every frame with the item under the cursor (or null)
+    public static void onHover(Item item) {
+        if (item != hoveredItem) {
+            hoveredItem = item;
+            hoverStartTime = System.currentTimeMillis();
+            prefetched = false;
+            return;
+        }
+
+        if (item == null || prefetched) {
+            return;
+        }
+
+        if (System.currentTimeMillis() - hoverStartTime >= DWELL_MS) {
+            prefetched = true;
+            RecipeView.prefetch(item);
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package net.jackson;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.Items;
+import net.minecraft.registry.Registries;
+import net.minecraft.registry.RegistryKeys;
+import net.minecraft.registry.entry.RegistryEntry;
+import net.minecraft.registry.tag.TagKey;
+import net.minecraft.util.Identifier;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class IngredientResolver {
+    private static final ItemStack[] NO_ALTERNATIVES = new ItemStack[0];
+
+    // Expanded tags are shared by every recipe that references them, so each tag is only walked once
+    private static final Map<String, ItemStack[]> TAG_CACHE = new ConcurrentHashMap<>();
+
+    // Ingredient JSON -> bitset over raw item ids of everything that fills the slot
+    private static final Map<String, long[]> MEMBERSHIP_CACHE = new ConcurrentHashMap<>();
+
+    public static void clearTagCache() {
+        TAG_CACHE.clear();
+        MEMBERSHIP_CACHE.clear();
+    }
+
+    // Which items satisfy the ingredient, as a bitset, so checking a held item is a single bit test
+    public static long[] membership(JsonElement ingredient) {
+        String key = ingredient.toString();
+        long[] cached = MEMBERSHIP_CACHE.get(key);
+        if (cached != null) {
+            LteiStats.MEMBERSHIPS.hit();
+            return cached;
+        }
+        LteiStats.MEMBERSHIPS.miss();
+
+        long[] bits = new long[(Registries.ITEM.size() + 63) >>> 6];
+        for (ItemStack stack : resolveAlternatives(ingredient)) {
+            if (!stack.isEmpty()) {
+                int rawId = Registries.ITEM.getRawId(stack.getItem());
+                bits[rawId >>> 6] |= 1L << rawId;
+            }
+        }
+        // Same rule as the tag cache: a fallback from before tags were bound must not stick
+        if (tagsExpanded(ingredient)) {
+            MEMBERSHIP_CACHE.put(key, bits);
+        }
+        return bits;
+    }
+
+    public static long[] membership(Item item) {
+        long[] bits = new long[(Registries.ITEM.size() + 63) >>> 6];
+        int rawId = Registries.ITEM.getRawId(item);
+        bits[rawId >>> 6] |= 1L << rawId;
+        return bits;
+    }
+
+    // Rough heap footprint of both caches for the stats readout - a cached stack is counted at ~40 bytes
+    public static long estimatedBytes() {
+        long bytes = 0;
+        for (ItemStack[] stacks : TAG_CACHE.values()) {
+            bytes += 16 + stacks.length * (4L + 40);
+        }
+        for (long[] bits : MEMBERSHIP_CACHE.values()) {
+            bytes += 16 + bits.length * 8L;
+        }
+        return bytes;
+    }
+
+    private static boolean tagsExpanded(JsonElement ingredient) {
+        if (ingredient.isJsonArray()) {
+            for (JsonElement option : ingredient.getAsJsonArray()) {
+                if (!tagsExpanded(option)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        String idOrTag = ingredient.getAsString();
+        return !idOrTag.startsWith("#") || TAG_CACHE.containsKey(idOrTag);
+    }
+
+    // Resolve an ingredient (single id, tag, or array of either) into every item that can fill the slot
+    public static ItemStack[] resolveAlternatives(JsonElement ingredient) {
+        if (ingredient == null || ingredient.isJsonNull()) {
+            return NO_ALTERNATIVES;
+        }
+
+        if (ingredient.isJsonArray()) {
+            JsonArray options = ingredient.getAsJsonArray();
+            List<ItemStack> alternatives = new ArrayList<>();
+            for (JsonElement option : options) {
+                for (ItemStack stack : resolveAlternatives(option.getAsString())) {
+                    alternatives.add(stack);
+                }
+            }
+            return alternatives.toArray(NO_ALTERNATIVES);
+        }
+
+        return resolveAlternatives(ingredient.getAsString());
+    }
+
+    public static ItemStack[] resolveAlternatives(String idOrTag) {
+        if (idOrTag.startsWith("#")) {
+            return expandTag(idOrTag);
+        }
+        return new ItemStack[]{new ItemStack(resolveItem(idOrTag))};
+    }
+
+    private static ItemStack[] expandTag(String tag) {
+        ItemStack[] cached = TAG_CACHE.get(tag);
+        if (cached != null) {
+            LteiStats.TAGS.hit();
+            return cached;
+        }
+        LteiStats.TAGS.miss();
+
+        List<ItemStack> stacks = new ArrayList<>();
+        try {
+            TagKey<Item> key = TagKey.of(RegistryKeys.ITEM, Identifier.of(tag.substring(1)));
+            for (RegistryEntry<Item> entry : Registries.ITEM.iterateEntries(key)) {
+                stacks.add(new ItemStack(entry.value()));
+            }
+        } catch (Exception e) {
+            System.err.println("Failed to expand tag: " + tag + " (" + e.getMessage() + ")");
+        }
+
+        if (stacks.isEmpty()) {
+            // Tags are only bound once we're in a world - don't cache the fallback so it resolves properly later
+            return new ItemStack[]{new ItemStack(getRepresentativeItemFromTag(tag))};
+        }
+
+        ItemStack[] expanded = stacks.toArray(NO_ALTERNATIVES);
+        TAG_CACHE.put(tag, expanded);
+        return expanded;
+    }
+
+    // Helper method to resolve tags to actual items
+    public static Item resolveItem(String idOrTag) {
+        if (idOrTag.startsWith("#")) {
+            // This is a tag, map it to a representative item
+            return getRepresentativeItemFromTag(idOrTag);
+        } else {
+            try {
+                return Registries.ITEM.get(Identifier.of(idOrTag));
+            } catch (Exception e) {
+                System.err.println("Failed to parse item ID: " + idOrTag);
+                return Items.BARRIER; // Fallback item
+            }
+        }
+    }
+
+    private static Item getRepresentativeItemFromTag(String tag) {
+        // Map common tags to representative items
+        switch (tag) {
+            case "#minecraft:planks":
+                return Items.OAK_PLANKS;
+            case "#minecraft:logs":
+            case "#minecraft:logs_that_burn":
+                return Items.OAK_LOG;
+            case "#minecraft:acacia_logs":
+                return Items.ACACIA_LOG;
+            case "#minecraft:birch_logs":
+                return Items.BIRCH_LOG;
+            case "#minecraft:cherry_logs":
+                return Items.CHERRY_LOG;
+            case "#minecraft:dark_oak_logs":
+                return Items.DARK_OAK_LOG;
+            case "#minecraft:jungle_logs":
+                return Items.JUNGLE_LOG;
+            case "#minecraft:mangrove_logs":
+                return Items.MANGROVE_LOG;
+            case "#minecraft:oak_logs":
+                return Items.OAK_LOG;
+            case "#minecraft:spruce_logs":
+                return Items.SPRUCE_LOG;
+            case "#minecraft:stone_crafting_materials":
+                return Items.COBBLESTONE;
+            case "#minecraft:coals":
+                return Items.COAL;
+            case "#minecraft:wooden_slabs":
+                return Items.OAK_SLAB;
+            case "#minecraft:bundles":
+                return Items.BUNDLE;
+            case "#minecraft:shulker_boxes":
+                return Items.SHULKER_BOX;
+            case "#minecraft:trim_materials":
+                return Items.IRON_INGOT;
+            case "#minecraft:trimmable_armor":
+                return Items.IRON_CHESTPLATE;
+            case "#minecraft:netherite_tool_materials":
+                return Items.NETHERITE_INGOT;
+            case "#minecraft:crimson_stems":
+                return Items.CRIMSON_STEM;
+
+            // Tool material tags
+            case "#minecraft:wooden_tool_materials":
+            case "#minecraft:wood_tool_materials":
+                return Items.OAK_PLANKS;
+            case "#minecraft:stone_tool_materials":
+                return Items.COBBLESTONE;
+            case "#minecraft:iron_tool_materials":
+                return Items.IRON_INGOT;
+            case "#minecraft:golden_tool_materials":
+            case "#minecraft:gold_tool_materials":
+                return Items.GOLD_INGOT;
+            case "#minecraft:diamond_tool_materials":
+                return Items.DIAMOND;
+            case "#minecraft:netherite_upgrade_materials":
+                return Items.NETHERITE_INGOT;
+
+            // Stick for tool handles
+            case "#minecraft:tool_handles":
+            case "#minecraft:sticks":
+                return Items.STICK;
+
+            // Stone variants
+            case "#minecraft:stone_variants":
+                return Items.STONE;
+            case "#minecraft:cobblestone_variants":
+                return Items.COBBLESTONE;
+
+            // Wool and dyes
+            case "#minecraft:wool":
+                return Items.WHITE_WOOL;
+            case "#minecraft:dyes":
+                return Items.RED_DYE;
+
+            // Ingots
+            case "#minecraft:iron_ores":
+                return Items.IRON_ORE;
+            case "#minecraft:gold_ores":
+                return Items.GOLD_ORE;
+            case "#minecraft:copper_ores":
+                return Items.COPPER_ORE;
+            case "#minecraft:diamond_ores":
+                return Items.DIAMOND_ORE;
+
+            default:
+                // If unknown tag, try to extract the item name and use that
+                String cleanTag = tag.replace("#minecraft:", "");
+                if (cleanTag.endsWith("_logs")) {
+                    // Try to find a log item matching the pattern
+                    String logType = cleanTag.replace("_logs", "_log");
+                    try {
+                        return Registries.ITEM.get(Identifier.of("minecraft", logType));
+                    } catch (Exception e) {
+                        System.err.println("Unknown tag: " + tag + ", could not resolve to " + logType + ", using oak log as fallback");
+                        return Items.OAK_LOG;
+                    }
+                }
+                System.err.println("Unknown tag: " + tag + ", using barrier as fallback");
+                return Items.BARRIER;
+        }
+    }
+
+    // Helper method to determine the dye needed for a colored item
+    public static Item getDyeForItem(String itemId) {
+        if (itemId.contains("white_")) return Items.WHITE_DYE;
+        if (itemId.contains("orange_")) return Items.ORANGE_DYE;
+        if (itemId.contains("magenta_")) return Items.MAGENTA_DYE;
+        if (itemId.contains("light_blue_")) return Items.LIGHT_BLUE_DYE;
+        if (itemId.contains("yellow_")) return Items.YELLOW_DYE;
+        if (itemId.contains("lime_")) return Items.LIME_DYE;
+        if (itemId.contains("pink_")) return Items.PINK_DYE;
+        if (itemId.contains("gray_")) return Items.GRAY_DYE;
+        if (itemId.contains("light_gray_")) return Items.LIGHT_GRAY_DYE;
+        if (itemId.contains("cyan_")) return Items.CYAN_DYE;
+        if (itemId.contains("purple_")) return Items.PURPLE_DYE;
+        if (itemId.contains("blue_")) return Items.BLUE_DYE;
+        if (itemId.contains("brown_")) return Items.BROWN_DYE;
+        if (itemId.contains("green_")) return Items.GREEN_DYE;
+        if (itemId.contains("red_")) return Items.RED_DYE;
+        if (itemId.contains("black_")) return Items.BLACK_DYE;
+        return null; // No dye needed
+    }
+}
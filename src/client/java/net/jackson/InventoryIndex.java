@@ -0,0 +1,315 @@
+package net.jackson;
+
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.entity.player.PlayerInventory;
+import net.minecraft.inventory.CraftingResultInventory;
+import net.minecraft.inventory.RecipeInputInventory;
+import net.minecraft.item.ItemStack;
+import net.minecraft.registry.Registries;
+import net.minecraft.screen.ScreenHandler;
+import net.minecraft.screen.slot.Slot;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+// Item raw id -> total count, kept up to date as the player's inventory changes so craft checks are lookups
+// instead of inventory scans. Counts also include a second segment for whatever container (chest, barrel, ...)
+// is open, so have/missing and craftable-now see its contents too. Crafts only draw from the player's own
+// slots, so those are also counted on their own
+public class InventoryIndex {
+    // Only the main inventory and hotbar - armor and offhand can't feed a crafting grid
+    public static final int SLOT_COUNT = PlayerInventory.MAIN_SIZE;
+    private static final int NONE = -1;
+
+    private static int[] counts = new int[0];     // raw id -> total count
+    private static int[] playerCounts = new int[0]; // raw id -> count in the player's own slots
+    private static long[] changedItems = new long[0]; // raw ids whose count changed since the last drain
+    private static int[] changeStamp = new int[0];    // raw id -> value of changeClock when its count last changed
+    private static int changeClock = 0;
+    private static final int[] slotItem = new int[SLOT_COUNT];  // slot -> raw id, or NONE when empty
+    private static final int[] slotCount = new int[SLOT_COUNT];
+
+    private static PlayerEntity trackedPlayer = null;
+    private static int lastChangeCount = -1;
+    private static int revision = 0;
+
+    // Container segment: handler slot ids of the open container's own slots, and our copy of their contents
+    private static ScreenHandler trackedHandler = null;
+    private static int[] containerSlots = new int[0];
+    private static int[] containerItem = new int[0];
+    private static int[] containerCount = new int[0];
+    private static int lastHandlerRevision = -1;
+    private static int lastContainerChangeCount = -1;
+
+    static {
+        Arrays.fill(slotItem, NONE);
+    }
+
+    // Called every client tick; cheap unless the inventory actually changed
+    public static void tick(MinecraftClient client) {
+        PlayerEntity player = client.player;
+        if (player == null) {
+            if (trackedPlayer != null) {
+                reset();
+            }
+            return;
+        }
+
+        // A new player entity (respawn, dimension change, new world) means a full resync
+        if (player != trackedPlayer) {
+            reset();
+            trackedPlayer = player;
+        }
+        refresh();
+        refreshContainer(player.currentScreenHandler);
+    }
+
+    // Track the open container's slots. The server bumps the handler revision when it syncs contents, and
+    // our own clicks move items through the player inventory, so between the two a diff is only needed
+    // when one of them moved
+    private static void refreshContainer(ScreenHandler handler) {
+        if (handler == trackedPlayer.playerScreenHandler) {
+            handler = null;
+        }
+        if (handler != trackedHandler) {
+            clearContainer();
+            trackedHandler = handler;
+            if (handler == null) {
+                return;
+            }
+            containerSlots = storageSlots(handler);
+            containerItem = new int[containerSlots.length];
+            containerCount = new int[containerSlots.length];
+            Arrays.fill(containerItem, NONE);
+        }
+        if (handler == null) {
+            return;
+        }
+
+        int handlerRevision = handler.getRevision();
+        if (handlerRevision == lastHandlerRevision && lastChangeCount == lastContainerChangeCount) {
+            return;
+        }
+        lastHandlerRevision = handlerRevision;
+        lastContainerChangeCount = lastChangeCount;
+        ensureCapacity();
+
+        boolean changed = false;
+        for (int i = 0; i < containerSlots.length; i++) {
+            ItemStack stack = handler.getSlot(containerSlots[i]).getStack();
+            int rawId = stack.isEmpty() ? NONE : Registries.ITEM.getRawId(stack.getItem());
+            int count = stack.isEmpty() ? 0 : stack.getCount();
+            if (rawId != containerItem[i] || count != containerCount[i]) {
+                if (containerItem[i] != NONE) {
+                    counts[containerItem[i]] -= containerCount[i];
+                    markChanged(containerItem[i]);
+                }
+                if (rawId != NONE) {
+                    counts[rawId] += count;
+                    markChanged(rawId);
+                }
+                containerItem[i] = rawId;
+                containerCount[i] = count;
+                changed = true;
+            }
+        }
+        if (changed) {
+            revision++;
+        }
+    }
+
+    // Storage slots only - the player's own slots are the other segment, and a crafting grid or its result
+    // isn't stock
+    private static int[] storageSlots(ScreenHandler handler) {
+        int[] slots = new int[handler.slots.size()];
+        int size = 0;
+        for (Slot slot : handler.slots) {
+            if (!(slot.inventory instanceof PlayerInventory) && !(slot.inventory instanceof RecipeInputInventory) &&
+                !(slot.inventory instanceof CraftingResultInventory)) {
+                slots[size++] = slot.id;
+            }
+        }
+        return Arrays.copyOf(slots, size);
+    }
+
+    private static void clearContainer() {
+        for (int i = 0; i < containerItem.length; i++) {
+            if (containerItem[i] != NONE) {
+                counts[containerItem[i]] -= containerCount[i];
+                markChanged(containerItem[i]);
+            }
+        }
+        if (containerItem.length > 0) {
+            revision++;
+        }
+        trackedHandler = null;
+        containerSlots = new int[0];
+        containerItem = new int[0];
+        containerCount = new int[0];
+        lastHandlerRevision = -1;
+        lastContainerChangeCount = -1;
+    }
+
+    // Bring the index up to date with the inventory. Vanilla only exposes a change counter on the client
+    // (screen handler listeners fire server-side), so changed slots are found by diffing against our copy
+    public static void refresh() {
+        if (trackedPlayer == null) {
+            return;
+        }
+        PlayerInventory inventory = trackedPlayer.getInventory();
+        int changeCount = inventory.getChangeCount();
+        if (changeCount == lastChangeCount) {
+            return;
+        }
+        lastChangeCount = changeCount;
+        ensureCapacity();
+
+        boolean changed = false;
+        for (int slot = 0; slot < SLOT_COUNT; slot++) {
+            ItemStack stack = inventory.getStack(slot);
+            int rawId = stack.isEmpty() ? NONE : Registries.ITEM.getRawId(stack.getItem());
+            int count = stack.isEmpty() ? 0 : stack.getCount();
+            if (rawId != slotItem[slot] || count != slotCount[slot]) {
+                updateSlot(slot, rawId, count);
+                changed = true;
+            }
+        }
+        if (changed) {
+            revision++;
+        }
+    }
+
+    private static void updateSlot(int slot, int rawId, int count) {
+        int oldId = slotItem[slot];
+        if (oldId == rawId) {
+            counts[rawId] += count - slotCount[slot];
+            playerCounts[rawId] += count - slotCount[slot];
+            slotCount[slot] = count;
+            markChanged(rawId);
+            return;
+        }
+
+        if (oldId != NONE) {
+            counts[oldId] -= slotCount[slot];
+            playerCounts[oldId] -= slotCount[slot];
+            markChanged(oldId);
+        }
+        slotItem[slot] = rawId;
+        slotCount[slot] = count;
+        if (rawId != NONE) {
+            counts[rawId] += count;
+            playerCounts[rawId] += count;
+            markChanged(rawId);
+        }
+    }
+
+    private static void markChanged(int rawId) {
+        changedItems[rawId >>> 6] |= 1L << rawId;
+        changeStamp[rawId] = ++changeClock;
+    }
+
+    // Bumped on every count change. Unlike drainChanged, any number of watchers can poll this: remember the
+    // clock, then later ask changedSince for just the items you care about
+    public static int getChangeClock() {
+        return changeClock;
+    }
+
+    public static boolean changedSince(int rawId, int clock) {
+        return rawId >= 0 && rawId < changeStamp.length && changeStamp[rawId] - clock > 0;
+    }
+
+    // Hand every item whose count changed since the last call to the consumer, once each
+    public static void drainChanged(IntConsumer consumer) {
+        for (int word = 0; word < changedItems.length; word++) {
+            long bits = changedItems[word];
+            changedItems[word] = 0;
+            while (bits != 0) {
+                consumer.accept((word << 6) + Long.numberOfTrailingZeros(bits));
+                bits &= bits - 1;
+            }
+        }
+    }
+
+    private static void ensureCapacity() {
+        int size = Registries.ITEM.size();
+        if (counts.length < size) {
+            counts = Arrays.copyOf(counts, size);
+            playerCounts = Arrays.copyOf(playerCounts, size);
+            changedItems = Arrays.copyOf(changedItems, (size + 63) >>> 6);
+            changeStamp = Arrays.copyOf(changeStamp, size);
+        }
+    }
+
+    private static void reset() {
+        clearContainer();
+        // Everything we were holding is gone as far as listeners are concerned
+        for (int slot = 0; slot < SLOT_COUNT; slot++) {
+            if (slotItem[slot] != NONE) {
+                markChanged(slotItem[slot]);
+            }
+        }
+        Arrays.fill(counts, 0);
+        Arrays.fill(playerCounts, 0);
+        Arrays.fill(slotItem, NONE);
+        Arrays.fill(slotCount, 0);
+        trackedPlayer = null;
+        lastChangeCount = -1;
+        revision++;
+    }
+
+    // The live count array, indexed by raw id - read only
+    public static int[] getCounts() {
+        refresh();
+        return counts;
+    }
+
+    public static int count(int rawId) {
+        return rawId >= 0 && rawId < counts.length ? counts[rawId] : 0;
+    }
+
+    // Total held across every item in the membership bitset (see IngredientResolver.membership)
+    public static int count(long[] membership) {
+        refresh();
+        int total = 0;
+        for (int word = 0; word < membership.length; word++) {
+            long bits = membership[word];
+            while (bits != 0) {
+                total += count((word << 6) + Long.numberOfTrailingZeros(bits));
+                bits &= bits - 1;
+            }
+        }
+        return total;
+    }
+
+    // What the player holds themselves, without the open container - what a craft can actually use
+    public static int playerCount(int rawId) {
+        return rawId >= 0 && rawId < playerCounts.length ? playerCounts[rawId] : 0;
+    }
+
+    public static int playerCount(long[] membership) {
+        refresh();
+        int total = 0;
+        for (int word = 0; word < membership.length; word++) {
+            long bits = membership[word];
+            while (bits != 0) {
+                total += playerCount((word << 6) + Long.numberOfTrailingZeros(bits));
+                bits &= bits - 1;
+            }
+        }
+        return total;
+    }
+
+    // Rough heap footprint of the index arrays, for the stats readout
+    public static long estimatedBytes() {
+        long perItem = 16L * 4 + (counts.length + playerCounts.length + changeStamp.length) * 4L + changedItems.length * 8L;
+        long perSlot = 16L * 2 + SLOT_COUNT * 8L;
+        long container = 16L * 3 + (containerSlots.length + containerItem.length + containerCount.length) * 4L;
+        return perItem + perSlot + container;
+    }
+
+    // Bumped whenever any slot changes, so callers can cheaply tell whether their results are stale
+    public static int getRevision() {
+        return revision;
+    }
+}
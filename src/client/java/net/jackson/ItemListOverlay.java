@@ -3,15 +3,18 @@ package net.jackson;
 import net.fabricmc.loader.api.FabricLoader;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.gui.DrawContext;
+import net.minecraft.client.gui.Element;
 import net.minecraft.client.gui.screen.Screen;
+import net.minecraft.client.gui.screen.ingame.HandledScreen;
 import net.minecraft.client.gui.widget.TextFieldWidget;
-import net.minecraft.client.util.math.Rect2i;
 import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
 import net.minecraft.item.Items;
 import net.minecraft.registry.Registries;
 import net.minecraft.text.Text;
 import net.minecraft.util.Identifier;
+import net.minecraft.util.Language;
+import org.lwjgl.glfw.GLFW;
 
 import java.io.InputStream;
 import java.util.*;
@@ -20,6 +23,7 @@ import java.util.stream.Collectors;
 public class ItemListOverlay {
     private static final int ITEM_SIZE = 16;
     private static final int PADDING = 4;
+    private static final int GRID_START_Y = 25; // Leave space for the search field
 
     private static final Set<Item> EXCLUDED_ITEMS = Set.of(
             Items.AIR
@@ -34,6 +38,10 @@ public class ItemListOverlay {
     public static final Map<String, Boolean> RECIPE_CACHE = new HashMap<>(); // Made public for RecipeScreen access
     private static boolean isCraftableCacheLoaded = false;
 
+    // Search index over every item's name, rebuilt when the language (and so the names) changes
+    private static ItemSearch itemSearch;
+    private static Language searchLanguage;
+
     private static TextFieldWidget searchField;
     private static String lastSearchText = "";
     private static boolean searchFieldInitialized = false;
@@ -51,6 +59,8 @@ public class ItemListOverlay {
     }
 
     public static void reloadItems() {
+        LteiEvents.CatalogBuild event = new LteiEvents.CatalogBuild();
+        event.begin();
         ALL_ITEMS.clear();
         FILTERED_ITEMS.clear();
         loadCraftableItems();
@@ -69,6 +79,8 @@ public class ItemListOverlay {
         // Sort alphabetically
         ALL_ITEMS.sort(Comparator.comparing(stack -> stack.getName().getString()));
         updateFilteredItems();
+        event.items = ALL_ITEMS.size();
+        event.commit();
     }
 
     private static void loadCraftableItems() {
@@ -156,10 +168,21 @@ public class ItemListOverlay {
     }
 
     private static void updateFilteredItems() {
+        LteiEvents.Search event = new LteiEvents.Search();
+        event.begin();
+        long start = System.nanoTime();
         List<ItemStack> baseItems;
 
         // Apply craftable filter if enabled - use fast cache lookup
-        if (RecipeViewerConfig.getInstance().showOnlyCraftable) {
+        if (RecipeViewerConfig.getInstance().isCraftableNowMode()) {
+            // Straight from the craftability engine, which is already current for this tick
+            baseItems = new ArrayList<>();
+            for (ItemStack stack : ALL_ITEMS) {
+                if (Craftability.isCraftableNow(stack.getItem())) {
+                    baseItems.add(stack);
+                }
+            }
+        } else if (RecipeViewerConfig.getInstance().showOnlyCraftable) {
             if (isCraftableCacheLoaded) {
                 // Use pre-computed cache for instant filtering
                 baseItems = new ArrayList<>(CRAFTABLE_ITEMS_CACHE);
@@ -180,19 +203,60 @@ public class ItemListOverlay {
         }
 
         // Apply search filter - optimized with early exit
-        String searchText = (searchField != null ? searchField.getText() : "").toLowerCase().trim();
+        String searchText = ItemSearch.normalize(searchField != null ? searchField.getText() : "");
+        event.candidates = baseItems.size();
         if (!searchText.isEmpty()) {
+            ItemSearch search = searchIndex();
             baseItems = baseItems.parallelStream() // Use parallel stream for better performance
-                    .filter(stack -> {
-                        String itemName = stack.getName().getString().toLowerCase();
-                        String itemId = Registries.ITEM.getId(stack.getItem()).getPath().toLowerCase();
-                        return itemName.contains(searchText) || itemId.contains(searchText);
-                    })
+                    .filter(stack -> search.matches(Registries.ITEM.getRawId(stack.getItem()), searchText))
                     .collect(Collectors.toList());
         }
 
         FILTERED_ITEMS.clear();
         FILTERED_ITEMS.addAll(baseItems);
+        LteiStats.SEARCH.record(System.nanoTime() - start);
+        event.end();
+        if (event.shouldCommit()) {
+            RecipeViewerConfig config = RecipeViewerConfig.getInstance();
+            event.query = searchText;
+            event.filter = config.isCraftableNowMode() ? "craftable now" : config.showOnlyCraftable ? "craftable" : "all";
+            event.results = FILTERED_ITEMS.size();
+            event.commit();
+        }
+
+        // Keep the page window valid and drop a selection that no longer points at the same list
+        int itemsPerPage = itemsPerPage();
+        currentPage = Math.min(currentPage, Math.max(0, (FILTERED_ITEMS.size() - 1) / itemsPerPage));
+        selectedIndex = -1;
+    }
+
+    private static ItemSearch searchIndex() {
+        Language language = Language.getInstance();
+        if (itemSearch == null || searchLanguage != language) {
+            itemSearch = new ItemSearch(Registries.ITEM.size(), raw -> Registries.ITEM.get(raw).getName().getString(),
+                raw -> Registries.ITEM.getId(Registries.ITEM.get(raw)).toString());
+            searchLanguage = language;
+        }
+        return itemSearch;
+    }
+
+    // Called at most once per tick, when the set of items craftable from the inventory changes
+    public static void onCraftabilityChanged() {
+        if (RecipeViewerConfig.getInstance().isCraftableNowMode()) {
+            updateFilteredItems();
+        }
+    }
+
+    // The grid size changed under us: rebuild the search field at the new width and keep the page in range
+    public static void onLayoutChanged() {
+        searchFieldInitialized = false;
+        currentPage = Math.min(currentPage, Math.max(0, (FILTERED_ITEMS.size() - 1) / itemsPerPage()));
+        selectedIndex = -1;
+    }
+
+    // The craftable filter changed - refilter the catalog we already have instead of reloading it
+    public static void onFilterChanged() {
+        updateFilteredItems();
     }
 
     private static void initializeSearchField() {
@@ -208,6 +272,10 @@ public class ItemListOverlay {
         searchField.setPlaceholder(Text.literal("Search items..."));
         searchField.setText(lastSearchText);
         searchField.setChangedListener(text -> {
+            // setText() reports a change even when nothing changed - don't refilter for those
+            if (text.equals(lastSearchText)) {
+                return;
+            }
             lastSearchText = text;
             // Debounce the filtering to improve performance
             scheduleFilterUpdate();
@@ -217,31 +285,109 @@ public class ItemListOverlay {
         searchFieldInitialized = true;
     }
 
-    // Add debouncing for better performance
+    // Add debouncing for better performance - checked from render, so no thread per keystroke
     private static long lastFilterUpdateTime = 0;
+    private static boolean filterUpdatePending = false;
     private static final long FILTER_DEBOUNCE_MS = 150; // 150ms debounce
 
     private static void scheduleFilterUpdate() {
         lastFilterUpdateTime = System.currentTimeMillis();
-        // Use a separate thread to avoid blocking the main thread
-        new Thread(() -> {
-            try {
-                Thread.sleep(FILTER_DEBOUNCE_MS);
-                // Only update if no new input came in during the delay
-                if (System.currentTimeMillis() - lastFilterUpdateTime >= FILTER_DEBOUNCE_MS) {
-                    MinecraftClient.getInstance().execute(() -> updateFilteredItems());
-                }
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
-        }).start();
+        filterUpdatePending = true;
+    }
+
+    private static void runPendingFilterUpdate() {
+        // Only update if no new input came in during the delay
+        if (filterUpdatePending && System.currentTimeMillis() - lastFilterUpdateTime >= FILTER_DEBOUNCE_MS) {
+            filterUpdatePending = false;
+            updateFilteredItems();
+        }
+    }
+
+    // What the open crafting grid makes - looked up again only when the grid's contents change
+    private static final int[] gridItems = new int[SlotLayout.GRID_SIZE];
+    private static final int[] lastGridItems = new int[SlotLayout.GRID_SIZE];
+    private static GridRecipeIndex lastGridIndex = null;
+    private static ItemStack gridResult = ItemStack.EMPTY;
+
+    private static ItemStack currentGridResult(MinecraftClient client) {
+        GridRecipeIndex index = RecipeIndex.getGridIndex();
+        if (index == null || !(client.currentScreen instanceof HandledScreen<?> screen)) {
+            return ItemStack.EMPTY;
+        }
+        SlotLayout layout = SlotMapping.forHandler(screen.getScreenHandler());
+        if (layout == null) {
+            return ItemStack.EMPTY;
+        }
+
+        for (int position = 0; position < gridItems.length; position++) {
+            int slot = layout.gridSlot(position);
+            ItemStack stack = slot == SlotLayout.NONE ? ItemStack.EMPTY : screen.getScreenHandler().getSlot(slot).getStack();
+            gridItems[position] = stack.isEmpty() ? -1 : Registries.ITEM.getRawId(stack.getItem());
+        }
+        if (index != lastGridIndex || !Arrays.equals(gridItems, lastGridItems)) {
+            lastGridIndex = index;
+            System.arraycopy(gridItems, 0, lastGridItems, 0, gridItems.length);
+            int recipe = index.lookup(gridItems);
+            RecipeGraph graph = RecipeIndex.getGraph();
+            gridResult = recipe == GridRecipeIndex.NONE || graph == null ? ItemStack.EMPTY
+                : new ItemStack(Registries.ITEM.get(graph.result(recipe)), graph.resultCount(recipe));
+        }
+        return gridResult;
     }
 
-    private static final Map<Rect2i, Item> clickableAreas = new HashMap<>();
     private static int currentPage = 0;
     private static int totalPages = 1;
 
+    // Keyboard selection, as an index into FILTERED_ITEMS (-1 when nothing is selected)
+    private static int selectedIndex = -1;
+
+    private static int itemsPerPage() {
+        RecipeViewerConfig config = RecipeViewerConfig.getInstance();
+        return Math.max(1, config.itemsPerRow * config.rowsPerPage);
+    }
+
+    private static int gridStartX() {
+        int screenWidth = MinecraftClient.getInstance().getWindow().getScaledWidth();
+        return screenWidth - (RecipeViewerConfig.getInstance().itemsPerRow * (ITEM_SIZE + PADDING)) - 10;
+    }
+
+    // Work out which item is under the cursor from the page window alone - no per-frame hit boxes
+    private static int indexAt(double mouseX, double mouseY) {
+        RecipeViewerConfig config = RecipeViewerConfig.getInstance();
+        int cellSize = ITEM_SIZE + PADDING;
+        double localX = mouseX - gridStartX();
+        double localY = mouseY - GRID_START_Y;
+        if (localX < 0 || localY < 0) {
+            return -1;
+        }
+
+        int col = (int) (localX / cellSize);
+        int row = (int) (localY / cellSize);
+        if (col >= config.itemsPerRow || row >= config.rowsPerPage ||
+            localX - col * cellSize > ITEM_SIZE || localY - row * cellSize > ITEM_SIZE) {
+            return -1;
+        }
+
+        int index = currentPage * itemsPerPage() + row * config.itemsPerRow + col;
+        return index < FILTERED_ITEMS.size() ? index : -1;
+    }
+
     public static void render(DrawContext context, int mouseX, int mouseY) {
+        LteiEvents.OverlayRender event = new LteiEvents.OverlayRender();
+        event.begin();
+        long start = System.nanoTime();
+        renderOverlay(context, mouseX, mouseY);
+        LteiStats.OVERLAY_RENDER.record(System.nanoTime() - start);
+        event.end();
+        if (event.shouldCommit()) {
+            int itemsPerPage = itemsPerPage();
+            event.page = currentPage;
+            event.itemsDrawn = Math.max(0, Math.min(FILTERED_ITEMS.size(), (currentPage + 1) * itemsPerPage) - currentPage * itemsPerPage);
+            event.commit();
+        }
+    }
+
+    private static void renderOverlay(DrawContext context, int mouseX, int mouseY) {
         // Only initialize search field if not already initialized or if window scaling changed
         MinecraftClient client = MinecraftClient.getInstance();
         int screenWidth = client.getWindow().getScaledWidth();
@@ -249,8 +395,8 @@ public class ItemListOverlay {
         int overlayWidth = config.itemsPerRow * (ITEM_SIZE + PADDING) + 10;
         int expectedX = screenWidth - overlayWidth - 10;
 
-        // Only recreate if position changed or not initialized
-        if (!searchFieldInitialized || searchField == null || searchField.getX() != expectedX) {
+        // Only recreate if position changed or not initialized (the field sits 10px inside the overlay)
+        if (!searchFieldInitialized || searchField == null || searchField.getX() != expectedX + 10) {
             boolean wasFocused = searchFieldFocused; // Preserve focus state
             initializeSearchField();
             if (wasFocused) {
@@ -259,19 +405,24 @@ public class ItemListOverlay {
             }
         }
 
-        clickableAreas.clear();
+        runPendingFilterUpdate();
 
         List<ItemStack> itemsToShow = FILTERED_ITEMS;
 
-        int itemsPerPage = config.itemsPerRow * config.rowsPerPage;
+        int itemsPerPage = itemsPerPage();
         totalPages = Math.max(1, (itemsToShow.size() + itemsPerPage - 1) / itemsPerPage);
 
-        int startX = screenWidth - (config.itemsPerRow * (ITEM_SIZE + PADDING)) - 10;
-        int startY = 25; // Leave more space for search field
+        int startX = gridStartX();
+        int startY = GRID_START_Y;
+
+        ItemStack gridStack = currentGridResult(client);
 
         // Draw semi-transparent background
         int bgWidth = config.itemsPerRow * (ITEM_SIZE + PADDING) + 10;
         int bgHeight = config.rowsPerPage * (ITEM_SIZE + PADDING) + 45; // Extra space for search and buttons
+        if (!gridStack.isEmpty()) {
+            bgHeight += 20; // Room for the grid match line
+        }
         context.fill(startX - 5, 2, startX + bgWidth, startY + bgHeight, 0x88000000);
 
         // Draw search field background for better visibility
@@ -301,27 +452,31 @@ public class ItemListOverlay {
             }
         }
 
+        // Walk the current page window directly instead of copying it out of the list
         int indexStart = currentPage * itemsPerPage;
-        List<ItemStack> visibleItems = itemsToShow.stream()
-                .skip(indexStart)
-                .limit(itemsPerPage)
-                .toList();
-
-        Item hoveredItem = null;
-
-        int row = 0, col = 0;
-        for (ItemStack stack : visibleItems) {
-            Item item = stack.getItem();
-            int drawX = startX + col * (ITEM_SIZE + PADDING);
-            int drawY = startY + row * (ITEM_SIZE + PADDING);
-
-            Rect2i rect = new Rect2i(drawX, drawY, ITEM_SIZE, ITEM_SIZE);
-            clickableAreas.put(rect, item);
-
-            if (mouseX >= drawX && mouseX <= drawX + ITEM_SIZE &&
-                    mouseY >= drawY && mouseY <= drawY + ITEM_SIZE) {
+        int indexEnd = Math.min(itemsToShow.size(), indexStart + itemsPerPage);
+        int hoveredIndex = indexAt(mouseX, mouseY);
+        ItemStack hoveredStack = hoveredIndex >= 0 ? itemsToShow.get(hoveredIndex) : null;
+        Item hoveredItem = hoveredStack != null ? hoveredStack.getItem() : null;
+
+        for (int index = indexStart; index < indexEnd; index++) {
+            ItemStack stack = itemsToShow.get(index);
+            int slot = index - indexStart;
+            int drawX = startX + (slot % config.itemsPerRow) * (ITEM_SIZE + PADDING);
+            int drawY = startY + (slot / config.itemsPerRow) * (ITEM_SIZE + PADDING);
+
+            if (Craftability.isCraftableNow(stack.getItem())) {
+                context.fill(drawX - 1, drawY - 1, drawX + ITEM_SIZE + 1, drawY + ITEM_SIZE + 1, 0x6600CC00); // green - craftable right now
+            }
+            if (index == hoveredIndex) {
                 context.fill(drawX - 1, drawY - 1, drawX + ITEM_SIZE + 1, drawY + ITEM_SIZE + 1, 0x88FFFFFF); // white hover
-                hoveredItem = item;
+            }
+            if (index == selectedIndex) {
+                // Keyboard selection outline
+                context.fill(drawX - 2, drawY - 2, drawX + ITEM_SIZE + 2, drawY - 1, 0xFFFFFF55);
+                context.fill(drawX - 2, drawY + ITEM_SIZE + 1, drawX + ITEM_SIZE + 2, drawY + ITEM_SIZE + 2, 0xFFFFFF55);
+                context.fill(drawX - 2, drawY - 1, drawX - 1, drawY + ITEM_SIZE + 1, 0xFFFFFF55);
+                context.fill(drawX + ITEM_SIZE + 1, drawY - 1, drawX + ITEM_SIZE + 2, drawY + ITEM_SIZE + 1, 0xFFFFFF55);
             }
 
             // Use higher z-level for item rendering to ensure it's on top
@@ -329,19 +484,16 @@ public class ItemListOverlay {
             context.getMatrices().translate(0, 0, 200); // Higher z-level
             context.drawItem(stack, drawX, drawY);
             context.getMatrices().pop();
-
-            col++;
-            if (col >= config.itemsPerRow) {
-                col = 0;
-                row++;
-            }
         }
 
+        // Start compiling the hovered item's recipes in the background once the cursor settles
+        HoverPrefetcher.onHover(hoveredItem);
+
         // Draw toggle button for non-craftables filter
         int screenWidthForButton = client.getWindow().getScaledWidth();
         int buttonStartX = screenWidthForButton - (config.itemsPerRow * (ITEM_SIZE + PADDING)) - 10;
         int toggleY = startY + config.rowsPerPage * (ITEM_SIZE + PADDING) + 5;
-        String toggleText = config.showOnlyCraftable ? "Show All" : "Craftables Only";
+        String toggleText = config.nextFilterLabel();
         int toggleWidth = client.textRenderer.getWidth(toggleText) + 8;
 
         boolean toggleHovered = mouseX >= buttonStartX && mouseX <= buttonStartX + toggleWidth &&
@@ -356,12 +508,18 @@ public class ItemListOverlay {
         context.drawText(client.textRenderer, "Page " + (currentPage + 1) + " / " + totalPages,
                 buttonStartX, toggleY + 15, 0xFFFFFF, false);
 
+        // What the crafting grid currently matches, including mirrored and shapeless arrangements
+        if (!gridStack.isEmpty()) {
+            context.drawItem(gridStack, buttonStartX, toggleY + 27);
+            context.drawText(client.textRenderer, gridStack.getCount() + "x " + gridStack.getName().getString(),
+                    buttonStartX + 20, toggleY + 31, 0x55FF55, false);
+        }
+
         // Tooltip - render at highest z-level
-        if (hoveredItem != null) {
+        if (hoveredStack != null) {
             context.getMatrices().push();
             context.getMatrices().translate(0, 0, 400); // Highest z-level for tooltips
-            ItemStack stack = new ItemStack(hoveredItem);
-            context.drawTooltip(client.textRenderer, List.of(stack.getName()), mouseX, mouseY);
+            context.drawTooltip(client.textRenderer, List.of(hoveredStack.getName()), mouseX, mouseY);
             context.getMatrices().pop();
         }
     }
@@ -396,7 +554,7 @@ public class ItemListOverlay {
         int screenWidth = MinecraftClient.getInstance().getWindow().getScaledWidth();
         int buttonStartX = screenWidth - (config.itemsPerRow * (ITEM_SIZE + PADDING)) - 10;
         int toggleY = 25 + config.rowsPerPage * (ITEM_SIZE + PADDING) + 5; // Updated to match new startY
-        String toggleText = config.showOnlyCraftable ? "Show All" : "Craftables Only";
+        String toggleText = config.nextFilterLabel();
         int toggleWidth = MinecraftClient.getInstance().textRenderer.getWidth(toggleText) + 8;
 
         if (mouseX >= buttonStartX && mouseX <= buttonStartX + toggleWidth &&
@@ -407,72 +565,131 @@ public class ItemListOverlay {
         }
 
         // Check item clicks
-        for (Map.Entry<Rect2i, Item> entry : clickableAreas.entrySet()) {
-            Rect2i rect = entry.getKey();
-            if (mouseX >= rect.getX() && mouseX <= rect.getX() + rect.getWidth() &&
-                    mouseY >= rect.getY() && mouseY <= rect.getY() + rect.getHeight()) {
-
-                // Store the current screen before navigating to recipe screen
-                setPreviousScreen(MinecraftClient.getInstance().currentScreen);
-                MinecraftClient.getInstance().setScreen(new RecipeScreen(entry.getValue()));
-                return true;
-            }
+        int index = indexAt(mouseX, mouseY);
+        if (index >= 0) {
+            selectedIndex = index;
+            openSelected();
+            return true;
         }
         return false;
     }
 
+    private static void openSelected() {
+        if (selectedIndex < 0 || selectedIndex >= FILTERED_ITEMS.size()) {
+            return;
+        }
+        // Store the current screen before navigating to recipe screen
+        setPreviousScreen(MinecraftClient.getInstance().currentScreen);
+        RecipeScreen.open(FILTERED_ITEMS.get(selectedIndex).getItem());
+    }
+
     public static boolean handleKeyPress(int keyCode, int scanCode, int modifiers) {
-        // Only handle key presses if the search field is focused
         if (searchField != null && searchField.isFocused()) {
-            // Handle character input through keyPressed instead of charTyped
-            boolean handled = searchField.keyPressed(keyCode, scanCode, modifiers);
-
-            // If the search field handled it (like backspace, delete, arrow keys), we're done
-            if (handled) {
+            if (keyCode == GLFW.GLFW_KEY_ESCAPE) {
+                setSearchFocused(false);
                 return true;
             }
-
-            // Handle special keys that might not be handled by the text field
-            if (keyCode == 259) { // GLFW_KEY_BACKSPACE
-                String currentText = searchField.getText();
-                if (!currentText.isEmpty()) {
-                    searchField.setText(currentText.substring(0, currentText.length() - 1));
-                    return true;
+            if (keyCode == GLFW.GLFW_KEY_ENTER || keyCode == GLFW.GLFW_KEY_KP_ENTER || keyCode == GLFW.GLFW_KEY_DOWN) {
+                // Drop from the search field into the grid without waiting for the debounce
+                setSearchFocused(false);
+                if (filterUpdatePending) {
+                    filterUpdatePending = false;
+                    updateFilteredItems();
+                }
+                if (!FILTERED_ITEMS.isEmpty()) {
+                    selectedIndex = currentPage * itemsPerPage();
                 }
-            } else if (keyCode == 261) { // GLFW_KEY_DELETE
-                // Delete key - for now just clear selection or do nothing
                 return true;
             }
 
-            // For printable characters, we need to handle them as text input
-            if (keyCode >= 32 && keyCode <= 126) {
-                char character = (char) keyCode;
-                // Handle shift modifier for uppercase
-                if ((modifiers & 1) != 0) { // SHIFT modifier
-                    if (character >= 'a' && character <= 'z') {
-                        character = Character.toUpperCase(character);
-                    }
-                    // Handle shifted number row symbols
-                    else if (character >= '0' && character <= '9') {
-                        String shiftedSymbols = ")!@#$%^&*(";
-                        character = shiftedSymbols.charAt(character - '0');
-                    }
-                }
-                // Handle lowercase when shift is not pressed
-                else if (character >= 'A' && character <= 'Z') {
-                    character = Character.toLowerCase(character);
+            // Editing keys (backspace, delete, cursor movement) - printable text arrives through handleCharTyped
+            searchField.keyPressed(keyCode, scanCode, modifiers);
+            return true; // Consume all input when search field is focused
+        }
+
+        // Arrow keys belong to whatever text field the screen itself is typing into
+        if (FILTERED_ITEMS.isEmpty() || otherTextFieldFocused()) {
+            return false;
+        }
+
+        int itemsPerRow = RecipeViewerConfig.getInstance().itemsPerRow;
+        int itemsPerPage = itemsPerPage();
+        int last = FILTERED_ITEMS.size() - 1;
+        // Start from the top of the visible page if nothing is selected yet
+        int from = selectedIndex >= 0 ? selectedIndex : currentPage * itemsPerPage;
+        int target;
+
+        switch (keyCode) {
+            case GLFW.GLFW_KEY_LEFT:
+                target = selectedIndex >= 0 ? from - 1 : from;
+                break;
+            case GLFW.GLFW_KEY_RIGHT:
+                target = selectedIndex >= 0 ? from + 1 : from;
+                break;
+            case GLFW.GLFW_KEY_UP:
+                target = selectedIndex >= 0 ? from - itemsPerRow : from;
+                break;
+            case GLFW.GLFW_KEY_DOWN:
+                target = selectedIndex >= 0 ? from + itemsPerRow : from;
+                break;
+            case GLFW.GLFW_KEY_PAGE_UP:
+                target = from - itemsPerPage;
+                break;
+            case GLFW.GLFW_KEY_PAGE_DOWN:
+                target = from + itemsPerPage;
+                break;
+            case GLFW.GLFW_KEY_ENTER:
+            case GLFW.GLFW_KEY_KP_ENTER:
+                if (selectedIndex < 0) {
+                    return false;
                 }
+                openSelected();
+                return true;
+            default:
+                return false;
+        }
+
+        selectedIndex = Math.max(0, Math.min(last, target));
+        currentPage = selectedIndex / itemsPerPage;
+        return true;
+    }
 
-                // Manually add character to search field
-                String currentText = searchField.getText();
-                String newText = currentText + character;
-                searchField.setText(newText);
+    // A text field of the screen's own has the cursor - the creative search box, an anvil's name field, ...
+    private static boolean otherTextFieldFocused() {
+        Screen screen = MinecraftClient.getInstance().currentScreen;
+        if (screen == null) {
+            return false;
+        }
+        if (screen.getFocused() instanceof TextFieldWidget field && field != searchField) {
+            return true;
+        }
+        // The creative search box takes focus without becoming the screen's focused element
+        for (Element child : screen.children()) {
+            if (child instanceof TextFieldWidget field && field != searchField && field.isFocused()) {
                 return true;
             }
+        }
+        return false;
+    }
 
-            return true; // Consume all input when search field is focused
+    // Printable characters come from the char callback, so layouts, shift and IME input all work
+    public static boolean handleCharTyped(char chr, int modifiers) {
+        if (searchField == null || !searchField.isFocused()) {
+            return false;
+        }
+        searchField.charTyped(chr, modifiers);
+        return true;
+    }
+
+    public static boolean isSearchFocused() {
+        return searchField != null && searchField.isFocused();
+    }
+
+    private static void setSearchFocused(boolean focused) {
+        if (searchField != null) {
+            searchField.setFocused(focused);
         }
-        return false; // Don't consume input when search field is not focused
+        searchFieldFocused = focused;
     }
 
     public static boolean handleScroll(double amount) {
@@ -494,6 +711,8 @@ public class ItemListOverlay {
 
         // Run in background thread to avoid blocking
         new Thread(() -> {
+            LteiEvents.CraftablePreload event = new LteiEvents.CraftablePreload();
+            event.begin();
             try {
                 CRAFTABLE_ITEMS_CACHE.clear();
                 CRAFTABLE_ITEM_IDS.clear();
@@ -512,6 +731,8 @@ public class ItemListOverlay {
                 }
 
                 isCraftableCacheLoaded = true;
+                event.craftable = CRAFTABLE_ITEMS_CACHE.size();
+                event.commit();
                 System.out.println("Craftable items cache loaded: " + CRAFTABLE_ITEMS_CACHE.size() + " items");
 
                 // Update filtered items on main thread if craftable filter is active
@@ -1,12 +1,20 @@
 package net.jackson;
 
 import net.fabricmc.api.ClientModInitializer;
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientLifecycleEvents;
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientTickEvents;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayConnectionEvents;
+import net.fabricmc.fabric.api.client.rendering.v1.HudRenderCallback;
 
 public class LessThanEnoughItemsClient implements ClientModInitializer {
 	@Override
 	public void onInitializeClient() {
 		// Load config first
 		RecipeViewerConfig.getInstance();
+		// Saves are written in the background, so make sure the last one lands before the game exits
+		ClientLifecycleEvents.CLIENT_STOPPING.register(client -> RecipeViewerConfig.flush());
+		// ...and pick up edits made to the file by hand
+		ConfigWatcher.start();
 
 		// Initialize items with config applied
 		ItemListOverlay.reloadItems();
@@ -14,6 +22,34 @@ public class LessThanEnoughItemsClient implements ClientModInitializer {
 		// Start preloading craftable items cache in background for better performance
 		ItemListOverlay.preloadCraftableItems();
 
+		// Servers with the mod send their recipes; drop them again when leaving
+		ServerRecipes.register();
+		ClientPlayConnectionEvents.DISCONNECT.register((handler, client) -> ServerRecipes.clear());
+
+		// Tags are re-synced per server, so drop any expanded tag alternatives and views from the last world
+		ClientPlayConnectionEvents.JOIN.register((handler, sender, client) -> {
+			IngredientResolver.clearTagCache();
+			RecipeView.clearCache();
+			RecipeIndex.rebuild();
+			// The pin's tag alternatives and BOM depend on this world's tags and graph
+			PinnedPlan.onPinChanged();
+		});
+
+		// Keep the inventory count index in step with the player's inventory
+		ClientTickEvents.END_CLIENT_TICK.register(InventoryIndex::tick);
+		// ...and fold whatever changed this tick into the craftable-now set
+		ClientTickEvents.END_CLIENT_TICK.register(Craftability::tick);
+		// Batch crafts trickle their clicks out a few per tick
+		ClientTickEvents.END_CLIENT_TICK.register(CraftingPipeline::tick);
+		CraftingPipeline.register();
+		// The pinned plan only re-lays out its HUD text when a watched item's count changed
+		ClientTickEvents.END_CLIENT_TICK.register(PinnedPlan::tick);
+		HudRenderCallback.EVENT.register(PinnedPlan::render);
+		// Rolls the stats windows over and, when enabled, refreshes the stats HUD; /lteistats dumps them
+		ClientTickEvents.END_CLIENT_TICK.register(LteiStats::tick);
+		HudRenderCallback.EVENT.register(LteiStats::render);
+		LteiStats.register();
+
 		System.out.println("LessThanEnoughItems Initialized - Config loaded and items filtered");
 	}
 }
\ No newline at end of file
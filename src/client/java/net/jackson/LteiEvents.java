@@ -0,0 +1,131 @@
+package net.jackson;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Flight Recorder events for the work that can show up as a hitch. All under "LTEI" in JMC. Each event is begun
+// and committed around the work; while recording is off, begin/commit do nothing and the JIT drops the object,
+// and fields that cost anything to compute are only filled in when shouldCommit() says the event is wanted
+public class LteiEvents {
+    private static final String CATEGORY = "LTEI";
+
+    @Name("ltei.CatalogBuild")
+    @Label("Catalog Build")
+    @Description("Rebuilding the overlay's list of all items")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static class CatalogBuild extends Event {
+        @Label("Items")
+        public int items;
+    }
+
+    @Name("ltei.CraftablePreload")
+    @Label("Craftable Preload")
+    @Description("Background pass working out which items have a recipe")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static class CraftablePreload extends Event {
+        @Label("Craftable Items")
+        public int craftable;
+    }
+
+    @Name("ltei.Search")
+    @Label("Search")
+    @Description("One run of the overlay's filter and search")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static class Search extends Event {
+        @Label("Query")
+        public String query;
+
+        @Label("Filter")
+        public String filter;
+
+        @Label("Candidates")
+        @Description("Items left after the craftable filter, before the query")
+        public int candidates;
+
+        @Label("Results")
+        public int results;
+    }
+
+    @Name("ltei.RecipeViewLoad")
+    @Label("Recipe View Load")
+    @Description("Finding every recipe for an item")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static class RecipeViewLoad extends Event {
+        @Label("Item")
+        public String item;
+
+        @Label("Recipes")
+        public int recipes;
+    }
+
+    @Name("ltei.RecipeCompile")
+    @Label("Recipe Compile")
+    @Description("Resolving one recipe's ingredient slots for display")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static class RecipeCompile extends Event {
+        @Label("Item")
+        public String item;
+
+        @Label("Recipe Type")
+        public String type;
+
+        @Label("Index")
+        public int index;
+    }
+
+    @Name("ltei.OverlayRender")
+    @Label("Overlay Render")
+    @Description("One frame of the item list overlay")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static class OverlayRender extends Event {
+        @Label("Items Drawn")
+        public int itemsDrawn;
+
+        @Label("Page")
+        public int page;
+    }
+
+    @Name("ltei.CraftBurst")
+    @Label("Auto-Craft Burst")
+    @Description("Click packets sent for a batch craft in one tick")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static class CraftBurst extends Event {
+        @Label("Packets")
+        public int packets;
+
+        @Label("Sent So Far")
+        public int sent;
+
+        @Label("Total")
+        public int total;
+    }
+
+    @Name("ltei.ServerRecipeApply")
+    @Label("Server Recipe Apply")
+    @Description("Decoding and indexing a recipe snapshot from the server")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static class ServerRecipeApply extends Event {
+        @Label("Bytes")
+        @DataAmount
+        public int bytes;
+
+        @Label("Changed")
+        public int changed;
+
+        @Label("Removed")
+        public int removed;
+    }
+}
@@ -0,0 +1,255 @@
+package net.jackson;
+
+import net.fabricmc.fabric.api.client.command.v2.ClientCommandManager;
+import net.fabricmc.fabric.api.client.command.v2.ClientCommandRegistrationCallback;
+import net.fabricmc.fabric.api.client.command.v2.FabricClientCommandSource;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.gui.DrawContext;
+import net.minecraft.client.render.RenderTickCounter;
+import net.minecraft.text.Text;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+// Always-on counters behind /lteistats and the optional stats HUD. Recording is a bucket index computed with
+// shifts plus one LongAdder increment - no locks and no allocation, so it's safe on the render thread and from
+// the worker at the same time. Percentiles come from log-linear buckets (8 per power of two, so within 12.5%),
+// over a rolling window made of the current and previous WINDOW_TICKS
+public class LteiStats {
+    private static final int WINDOW_TICKS = 200; // 10 seconds
+    private static final int HUD_REFRESH_TICKS = 20;
+    private static final int LINE_HEIGHT = 10;
+    private static final int HUD_COLOR = 0xAAAAAA;
+    private static final String DIRECTORY = "ltei-stats";
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH.mm.ss");
+
+    public static final Histogram OVERLAY_RENDER = new Histogram();
+    public static final Histogram SEARCH = new Histogram();
+    public static final Histogram RECIPE_OPEN = new Histogram();
+    public static final Histogram QUEUE_DEPTH = new Histogram(); // Sampled once per tick, not a latency
+
+    public static final HitRate RECIPE_VIEWS = new HitRate();
+    public static final HitRate TAGS = new HitRate();
+    public static final HitRate MEMBERSHIPS = new HitRate();
+
+    private static int ticks = 0;
+    private static final List<String> hudLines = new ArrayList<>();
+
+    // /lteistats writes a snapshot to ltei-stats/ and shows the summary; /lteistats hud toggles the HUD.
+    // A root of its own: a client command sharing the server's /ltei root would swallow /ltei recipe and the rest
+    public static void register() {
+        ClientCommandRegistrationCallback.EVENT.register((dispatcher, registryAccess) -> dispatcher.register(
+            ClientCommandManager.literal("lteistats")
+                .executes(context -> dump(context.getSource()))
+                .then(ClientCommandManager.literal("hud")
+                    .executes(context -> toggleHud(context.getSource())))));
+    }
+
+    private static int dump(FabricClientCommandSource source) {
+        List<String> lines = snapshot(true);
+        String name = "stats-" + LocalDateTime.now().format(FILE_TIME) + ".txt";
+        try {
+            Path directory = source.getClient().runDirectory.toPath().resolve(DIRECTORY);
+            Files.createDirectories(directory);
+            Files.write(directory.resolve(name), lines, StandardCharsets.UTF_8);
+        } catch (Exception e) {
+            source.sendError(Text.literal("Couldn't write stats: " + e.getMessage()));
+            return 0;
+        }
+        for (String line : snapshot(false)) {
+            source.sendFeedback(Text.literal(line));
+        }
+        source.sendFeedback(Text.literal("Written to " + DIRECTORY + "/" + name));
+        return 1;
+    }
+
+    private static int toggleHud(FabricClientCommandSource source) {
+        RecipeViewerConfig config = RecipeViewerConfig.getInstance();
+        config.showStatsHud = !config.showStatsHud;
+        config.save();
+        source.sendFeedback(Text.literal("Stats HUD " + (config.showStatsHud ? "on" : "off")));
+        return 1;
+    }
+
+    public static void tick(MinecraftClient client) {
+        QUEUE_DEPTH.record(RecipeWorker.queueDepth());
+        ticks++;
+        if (ticks % WINDOW_TICKS == 0) {
+            OVERLAY_RENDER.rotate();
+            SEARCH.rotate();
+            RECIPE_OPEN.rotate();
+            QUEUE_DEPTH.rotate();
+        }
+        if (!RecipeViewerConfig.getInstance().showStatsHud) {
+            hudLines.clear();
+        } else if (hudLines.isEmpty() || ticks % HUD_REFRESH_TICKS == 0) {
+            // Laid out once a second; rendering only draws the strings
+            hudLines.clear();
+            hudLines.addAll(snapshot(false));
+        }
+    }
+
+    public static void render(DrawContext context, RenderTickCounter tickCounter) {
+        MinecraftClient client = MinecraftClient.getInstance();
+        if (hudLines.isEmpty() || client.options.hudHidden) {
+            return;
+        }
+        // Right-hand side, clear of the pinned plan on the left
+        for (int i = 0; i < hudLines.size(); i++) {
+            String line = hudLines.get(i);
+            int x = context.getScaledWindowWidth() - client.textRenderer.getWidth(line) - 4;
+            context.drawTextWithShadow(client.textRenderer, line, x, 4 + i * LINE_HEIGHT, HUD_COLOR);
+        }
+    }
+
+    // The readout as lines; the detailed form adds counts and the memory breakdown for the dump file
+    public static List<String> snapshot(boolean detailed) {
+        List<String> lines = new ArrayList<>();
+        lines.add("LTEI stats (last " + WINDOW_TICKS / 20 + "-" + WINDOW_TICKS / 10 + "s)");
+        lines.add(latency("Overlay render", OVERLAY_RENDER, detailed));
+        lines.add(latency("Search", SEARCH, detailed));
+        lines.add(latency("Recipe open", RECIPE_OPEN, detailed));
+        lines.add("Worker queue: p50 " + QUEUE_DEPTH.percentile(0.50) + " p99 " + QUEUE_DEPTH.percentile(0.99)
+            + " now " + RecipeWorker.queueDepth());
+        lines.add(hitRate("Recipe views", RECIPE_VIEWS, detailed));
+        lines.add(hitRate("Tags", TAGS, detailed));
+        lines.add(hitRate("Ingredient sets", MEMBERSHIPS, detailed));
+
+        RecipeGraph graph = RecipeIndex.getGraph();
+        GridRecipeIndex gridIndex = RecipeIndex.getGridIndex();
+        long graphBytes = graph == null ? 0 : graph.estimatedBytes();
+        long gridBytes = gridIndex == null ? 0 : gridIndex.estimatedBytes();
+        long inventoryBytes = InventoryIndex.estimatedBytes();
+        long resolverBytes = IngredientResolver.estimatedBytes();
+        if (detailed) {
+            lines.add("Memory (estimated):");
+            lines.add("  Recipe graph: " + kib(graphBytes) + (graph == null ? " (not built)" : " for " + graph.recipeCount() + " recipes"));
+            lines.add("  Grid index: " + kib(gridBytes) + (gridIndex == null ? " (not built)" : " for " + gridIndex.size() + " recipes"));
+            lines.add("  Inventory index: " + kib(inventoryBytes));
+            lines.add("  Tag and ingredient caches: " + kib(resolverBytes));
+        } else {
+            lines.add("Memory: " + kib(graphBytes + gridBytes + inventoryBytes + resolverBytes) + " est.");
+        }
+        return lines;
+    }
+
+    private static String latency(String name, Histogram histogram, boolean detailed) {
+        String line = name + ": p50 " + millis(histogram.percentile(0.50)) + " p99 " + millis(histogram.percentile(0.99));
+        return detailed ? line + " (" + histogram.count() + " samples)" : line;
+    }
+
+    private static String hitRate(String name, HitRate rate, boolean detailed) {
+        long hits = rate.hits.sum();
+        long total = hits + rate.misses.sum();
+        String line = name + ": " + (total == 0 ? "-" : hits * 100 / total + "%") + " hit";
+        return detailed ? line + " (" + hits + "/" + total + ")" : line;
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.2fms", nanos / 1_000_000.0);
+    }
+
+    private static String kib(long bytes) {
+        return (bytes + 1023) / 1024 + " KiB";
+    }
+
+    public static class HitRate {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+
+        public void hit() {
+            hits.increment();
+        }
+
+        public void miss() {
+            misses.increment();
+        }
+    }
+
+    // Two generations of buckets: recording goes to the current one, and every window the older one is
+    // cleared and becomes current. Values are non-negative longs - nanoseconds or plain counts
+    public static class Histogram {
+        private static final int SUB_BUCKET_BITS = 3;
+        private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+        private static final int MAX_EXPONENT = 40; // Anything past ~18 minutes of nanoseconds lands in the last bucket
+        private static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+        private final LongAdder[][] generations = new LongAdder[2][BUCKETS];
+        private volatile int current = 0;
+
+        public Histogram() {
+            for (LongAdder[] buckets : generations) {
+                for (int i = 0; i < BUCKETS; i++) {
+                    buckets[i] = new LongAdder();
+                }
+            }
+        }
+
+        public void record(long value) {
+            generations[current][bucket(value)].increment();
+        }
+
+        // Called from the client tick only. A record racing the swap lands in either window, which is fine
+        private void rotate() {
+            int next = 1 - current;
+            for (LongAdder bucket : generations[next]) {
+                bucket.reset();
+            }
+            current = next;
+        }
+
+        public long count() {
+            long count = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                count += generations[0][i].sum() + generations[1][i].sum();
+            }
+            return count;
+        }
+
+        // Upper edge of the bucket holding the given fraction of samples, or 0 with no samples
+        public long percentile(double fraction) {
+            long total = count();
+            if (total == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(total * fraction));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += generations[0][i].sum() + generations[1][i].sum();
+                if (seen >= rank) {
+                    return upperBound(i);
+                }
+            }
+            return upperBound(BUCKETS - 1);
+        }
+
+        // Values below SUB_BUCKETS get a bucket each; above that, the top SUB_BUCKET_BITS bits after the
+        // leading one pick one of SUB_BUCKETS buckets within the power of two
+        private static int bucket(long value) {
+            if (value < SUB_BUCKETS) {
+                return (int) Math.max(0, value);
+            }
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            if (exponent > MAX_EXPONENT) {
+                return BUCKETS - 1;
+            }
+            int sub = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+            return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+        }
+
+        private static long upperBound(int bucket) {
+            if (bucket < SUB_BUCKETS) {
+                return bucket;
+            }
+            int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+            int sub = bucket % SUB_BUCKETS;
+            return ((long) (SUB_BUCKETS + sub + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package net.jackson;
+
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.gui.DrawContext;
+import net.minecraft.client.render.RenderTickCounter;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.Items;
+import net.minecraft.registry.Registries;
+import net.minecraft.util.Identifier;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// The plan pinned to the HUD: what the pinned recipe or bill of materials needs against what we hold.
+// Requirements are worked out once per pin, counts are re-read only when the inventory index reports a
+// change to one of the watched items, and the lines are laid out then - rendering just draws the cache
+public class PinnedPlan {
+    private static final int LINE_HEIGHT = 10;
+    private static final int HAVE_COLOR = 0x55FF55;
+    private static final int NEED_COLOR = 0xFFFFFF;
+
+    // Requirements of the current pin - one bitset of accepted items per requirement
+    private static final List<long[]> memberships = new ArrayList<>();
+    private static final List<Long> needed = new ArrayList<>();
+    private static final List<String> names = new ArrayList<>();
+    private static boolean resolved = false;
+    private static String header = "";
+
+    // Cached layout
+    private static final List<String> lines = new ArrayList<>();
+    private static final List<Integer> colors = new ArrayList<>();
+    private static int seenClock = -1;
+    private static boolean dirty = true;
+
+    // Re-read the pin from the config - call after pinning or unpinning
+    public static void onPinChanged() {
+        resolved = false;
+        memberships.clear();
+        needed.clear();
+        names.clear();
+        lines.clear();
+        colors.clear();
+        dirty = true;
+    }
+
+    public static void tick(MinecraftClient client) {
+        RecipeViewerConfig config = RecipeViewerConfig.getInstance();
+        if (config.pinnedItem.isEmpty() || client.player == null) {
+            return;
+        }
+        if (!resolved) {
+            // The recipe view loads on the worker and the graph needs a world, so keep trying until both are there
+            resolved = resolve(config);
+            if (!resolved) {
+                return;
+            }
+        }
+
+        int clock = InventoryIndex.getChangeClock();
+        if (!dirty && clock == seenClock) {
+            return; // Nothing in the inventory moved at all
+        }
+        if (!dirty && !watchedChanged()) {
+            seenClock = clock;
+            return;
+        }
+        seenClock = clock;
+        dirty = false;
+        layout();
+    }
+
+    public static void render(DrawContext context, RenderTickCounter tickCounter) {
+        if (lines.isEmpty()) {
+            return;
+        }
+        MinecraftClient client = MinecraftClient.getInstance();
+        if (client.options.hudHidden) {
+            return;
+        }
+        for (int i = 0; i < lines.size(); i++) {
+            context.drawTextWithShadow(client.textRenderer, lines.get(i), 4, 4 + i * LINE_HEIGHT, colors.get(i));
+        }
+    }
+
+    private static boolean watchedChanged() {
+        for (long[] membership : memberships) {
+            for (int word = 0; word < membership.length; word++) {
+                long bits = membership[word];
+                while (bits != 0) {
+                    if (InventoryIndex.changedSince((word << 6) + Long.numberOfTrailingZeros(bits), seenClock)) {
+                        return true;
+                    }
+                    bits &= bits - 1;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static void layout() {
+        lines.clear();
+        colors.clear();
+        lines.add(header);
+        colors.add(NEED_COLOR);
+        boolean done = true;
+        for (int i = 0; i < memberships.size(); i++) {
+            long have = InventoryIndex.count(memberships.get(i));
+            long need = needed.get(i);
+            done &= have >= need;
+            lines.add(Math.min(have, need) + "/" + need + " " + names.get(i));
+            colors.add(have >= need ? HAVE_COLOR : NEED_COLOR);
+        }
+        if (done) {
+            colors.set(0, HAVE_COLOR);
+        }
+    }
+
+    private static boolean resolve(RecipeViewerConfig config) {
+        Identifier id = Identifier.tryParse(config.pinnedItem);
+        Item item = id == null ? Items.AIR : Registries.ITEM.get(id);
+        if (item == Items.AIR) {
+            config.unpin();
+            return false;
+        }
+        long quantity = Math.max(1, config.pinnedQuantity);
+        header = "Pinned: " + quantity + "x " + item.getName().getString() + (config.pinnedBom ? " (BOM)" : "");
+        return config.pinnedBom ? resolveBom(item, quantity) : resolveRecipe(item, config.pinnedRecipeIndex, quantity);
+    }
+
+    // Same recipe data the viewer shows: slots sharing an ingredient are pooled, scaled by how many crafts it takes
+    private static boolean resolveRecipe(Item item, int recipeIndex, long quantity) {
+        RecipeView view = RecipeView.of(item);
+        if (view.isLoading() && view.size() <= recipeIndex) {
+            return false;
+        }
+        if (recipeIndex >= view.size()) {
+            header = header + " - recipe gone";
+            return true;
+        }
+        CompiledRecipe recipe = view.get(recipeIndex);
+        long crafts = (quantity + recipe.result.getCount() - 1) / recipe.result.getCount();
+
+        Map<String, Integer> perCraft = new LinkedHashMap<>();
+        Map<String, ItemStack[]> alternatives = new LinkedHashMap<>();
+        for (ItemStack[] slot : recipe.slots) {
+            if (slot == null || slot.length == 0) {
+                continue;
+            }
+            StringBuilder key = new StringBuilder();
+            for (ItemStack stack : slot) {
+                key.append(Registries.ITEM.getRawId(stack.getItem())).append(',');
+            }
+            perCraft.merge(key.toString(), 1, Integer::sum);
+            alternatives.putIfAbsent(key.toString(), slot);
+        }
+        for (Map.Entry<String, Integer> entry : perCraft.entrySet()) {
+            ItemStack[] slot = alternatives.get(entry.getKey());
+            long[] membership = new long[(Registries.ITEM.size() + 63) >>> 6];
+            for (ItemStack stack : slot) {
+                int rawId = Registries.ITEM.getRawId(stack.getItem());
+                membership[rawId >>> 6] |= 1L << rawId;
+            }
+            add(membership, crafts * entry.getValue(), slot[0].getName().getString() + (slot.length > 1 ? " (any)" : ""));
+        }
+        return true;
+    }
+
+    private static boolean resolveBom(Item item, long quantity) {
+        RecipeGraph graph = RecipeIndex.getGraph();
+        if (graph == null) {
+            return false;
+        }
+        BillOfMaterials.Result result;
+        try {
+            result = BomReport.expand(graph, item, quantity);
+        } catch (ArithmeticException e) {
+            header = header + " - too many to count";
+            return true;
+        }
+        for (int i = 0; i < result.rawItems.length; i++) {
+            Item raw = Registries.ITEM.get(result.rawItems[i]);
+            add(IngredientResolver.membership(raw), result.rawCounts[i], raw.getName().getString());
+        }
+        return true;
+    }
+
+    private static void add(long[] membership, long need, String name) {
+        memberships.add(membership);
+        needed.add(need);
+        names.add(name);
+    }
+}
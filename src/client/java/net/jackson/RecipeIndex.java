@@ -0,0 +1,107 @@
+package net.jackson;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import net.fabricmc.loader.api.FabricLoader;
+import net.minecraft.client.MinecraftClient;
+
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+// Builds the RecipeGraph from the server's recipes (or the bundled recipe JSON when the server doesn't send any)
+// and holds on to it until the next rebuild
+public class RecipeIndex {
+    private static final String MOD_ID = "lessthanenoughitems";
+    private static final String RECIPE_DIR = "assets/jackson/recipes";
+
+    private static volatile RecipeGraph graph = null;
+    private static volatile GridRecipeIndex gridIndex = null; // crafting grid -> graph recipe id
+    private static volatile JsonObject[] recipeJson = new JsonObject[0]; // graph recipe id -> its source JSON
+    private static int generation = 0;
+
+    public static RecipeGraph getGraph() {
+        return graph;
+    }
+
+    public static GridRecipeIndex getGridIndex() {
+        return gridIndex;
+    }
+
+    public static JsonObject getRecipeJson(int recipe) {
+        JsonObject[] json = recipeJson;
+        return recipe >= 0 && recipe < json.length ? json[recipe] : null;
+    }
+
+    // Tags are bound per world, so the graph is rebuilt on the worker every time we join one
+    public static void rebuild() {
+        int requested = ++generation;
+        RecipeWorker.submit(() -> {
+            long start = System.currentTimeMillis();
+            List<JsonObject> sources = new ArrayList<>();
+            RecipeCompiler compiler = build(sources);
+            RecipeGraph built = compiler.buildGraph();
+            GridRecipeIndex builtGrids = compiler.buildGrids();
+            JsonObject[] builtJson = sources.toArray(new JsonObject[0]);
+            MinecraftClient.getInstance().execute(() -> {
+                // A newer rebuild was requested while this one ran - let that one win
+                if (requested == generation) {
+                    recipeJson = builtJson;
+                    graph = built;
+                    gridIndex = builtGrids;
+                    Craftability.onGraphChanged(built);
+                }
+            });
+            LessThanEnoughItems.LOGGER.debug("Recipe graph built: {} recipes ({} grid patterns) in {}ms",
+                built.recipeCount(), builtGrids.size(), System.currentTimeMillis() - start);
+        });
+    }
+
+    private static RecipeCompiler build(List<JsonObject> sources) {
+        RecipeCompiler compiler = new RecipeCompiler(new GameItemIds());
+        for (JsonObject json : loadRecipeJson()) {
+            try {
+                if (compiler.add(json) >= 0) {
+                    sources.add(json);
+                }
+            } catch (Exception e) {
+                System.err.println("Skipping malformed recipe: " + e.getMessage());
+            }
+        }
+        return compiler;
+    }
+
+    private static List<JsonObject> loadRecipeJson() {
+        if (ServerRecipes.isSynced()) {
+            // The server's own recipes, datapacks included - no need to look at the bundled files
+            return new ArrayList<>(ServerRecipes.all());
+        }
+        List<JsonObject> recipes = new ArrayList<>();
+        Optional<Path> dir = FabricLoader.getInstance().getModContainer(MOD_ID)
+            .flatMap(container -> container.findPath(RECIPE_DIR));
+        if (dir.isEmpty()) {
+            System.err.println("Recipe directory not found: " + RECIPE_DIR);
+            return recipes;
+        }
+
+        try (Stream<Path> files = Files.list(dir.get())) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                if (!file.getFileName().toString().endsWith(".json")) {
+                    continue;
+                }
+                try (Reader reader = Files.newBufferedReader(file)) {
+                    recipes.add(JsonParser.parseReader(reader).getAsJsonObject());
+                } catch (Exception e) {
+                    System.err.println("Failed to read recipe " + file.getFileName() + ": " + e.getMessage());
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Failed to list recipes: " + e.getMessage());
+        }
+        return recipes;
+    }
+}
@@ -14,36 +14,51 @@ import net.minecraft.registry.Registries;
 import net.minecraft.text.Text;
 import net.minecraft.util.Identifier;
 import net.minecraft.util.math.MathHelper;
-import net.minecraft.screen.slot.SlotActionType;
-import net.minecraft.client.gui.screen.ingame.CraftingScreen;
-import net.minecraft.screen.CraftingScreenHandler;
+import net.minecraft.client.gui.screen.ingame.HandledScreen;
+import net.minecraft.screen.ScreenHandler;
+import org.lwjgl.glfw.GLFW;
 
 import java.io.InputStreamReader;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.stream.Collectors;
 
 public class RecipeScreen extends Screen {
-    private final Item targetItem;
-    private JsonObject recipe;
-    private List<JsonObject> allRecipes = new ArrayList<>();
+    // One long-lived viewer: navigating between items only swaps the displayed view
+    private static RecipeScreen instance;
+
+    private Item targetItem;
+    private RecipeView view;
+    private CompiledRecipe recipe;
     private int currentRecipeIndex = 0;
+    private int shownRecipeCount = 0;
+    private boolean shownLoading = false;
+    private long openStarted = 0; // When the shown item was asked for, until its first recipe (or "none") is up
     private TextFieldWidget searchField;
+    private String searchText = "";
     private ButtonWidget craftableToggleButton;
     private ButtonWidget recipeTypeButton;
     private ButtonWidget craftButton;
+    private TextFieldWidget craftCountField;
+    private ButtonWidget craftCountButton;
+    private ButtonWidget craftMaxButton;
+    private String craftCountText = "64";
+    private ButtonWidget backButton;
+    private ButtonWidget forwardButton;
     private List<Item> allItems;
     private List<Item> filteredItems;
+    private boolean filteredCraftableOnly;
+    private boolean filteredCraftableNow;
+    private int filteredCraftabilityRevision;
     private int scrollOffset = 0;
     private int maxScroll = 0;
+    private int selectedIndex = -1; // Keyboard selection in filteredItems
+    private ItemStack[] listStacks; // Display stack per raw item id, so the list doesn't allocate per frame
 
-    // Static variables to preserve search and scroll state
-    private static String preservedSearchText = "";
-    private static int preservedScrollOffset = 0;
-    private static boolean preservedCraftableFilter = false;
-
-    private int ingredientCycleIndex = 0;
-    private long lastCycleTime = 0;
-    private static final long CYCLE_INTERVAL_MS = 1000; // 1 second per ingredient
+    // Navigation history (most recent on top)
+    private static final int MAX_HISTORY = 50;
+    private final Deque<Item> backHistory = new ArrayDeque<>();
+    private final Deque<Item> forwardHistory = new ArrayDeque<>();
 
     // UI Constants
     private static final int SLOT_SIZE = 18;
@@ -56,19 +71,173 @@ public class RecipeScreen extends Screen {
     private long missingItemsHighlightStart = 0;
     private static final long MISSING_ITEMS_HIGHLIGHT_DURATION = 2000; // 2 seconds
 
-    public RecipeScreen(Item item) {
+    private static final ItemStack FUEL_STACK = new ItemStack(Items.COAL);
+
+    // Crafting plan for the current item, only recomputed when the item, inventory or recipe graph changes
+    private static final long PLAN_BUDGET_NANOS = 2_000_000; // 2ms, so a hard search can't hitch the frame
+    private CraftingPlanner.Plan plan;
+    private Item planItem;
+    private int planInventoryRevision = -1;
+    private RecipeGraph planGraph;
+    private final List<String> planLines = new ArrayList<>();
+
+    // Bill of materials panel - shown in place of the plan, rebuilt only when its inputs change
+    private boolean showBom = false;
+    private String bomQuantityText = "64";
+    private ButtonWidget bomButton;
+    private TextFieldWidget bomQuantityField;
+    private ButtonWidget exportButton;
+    private ButtonWidget pinButton;
+    private List<String> bomLines = new ArrayList<>();
+    private Item bomItem;
+    private long bomQuantity;
+    private RecipeGraph bomGraph;
+    private int bomPreference = -1;
+
+    private RecipeScreen() {
         super(Text.literal("Recipe Viewer"));
-        this.targetItem = item;
-        loadAllRecipes();
         initializeItemList();
     }
 
+    // Open the viewer on an item, reusing the existing screen (item list, filters and widgets) if there is one
+    public static void open(Item item) {
+        if (instance == null) {
+            instance = new RecipeScreen();
+        }
+        instance.navigateTo(item);
+        MinecraftClient.getInstance().setScreen(instance);
+    }
+
+    public void navigateTo(Item item) {
+        if (item == targetItem) {
+            return;
+        }
+        if (targetItem != null) {
+            pushHistory(backHistory, targetItem);
+        }
+        forwardHistory.clear();
+        showItem(item);
+    }
+
+    private void navigateBack() {
+        if (backHistory.isEmpty()) {
+            return;
+        }
+        pushHistory(forwardHistory, targetItem);
+        showItem(backHistory.pop());
+    }
+
+    private void navigateForward() {
+        if (forwardHistory.isEmpty()) {
+            return;
+        }
+        pushHistory(backHistory, targetItem);
+        showItem(forwardHistory.pop());
+    }
+
+    private static void pushHistory(Deque<Item> history, Item item) {
+        history.push(item);
+        if (history.size() > MAX_HISTORY) {
+            history.removeLast();
+        }
+    }
+
+    private void showItem(Item item) {
+        // Views are cached per item, so revisiting an item skips loading and compiling entirely.
+        // A new view comes back empty and fills in from the worker while the screen is already showing.
+        targetItem = item;
+        openStarted = System.nanoTime();
+        view = RecipeView.of(item);
+        currentRecipeIndex = 0;
+        recipe = null;
+        shownRecipeCount = -1;
+        missingItems.clear();
+        syncWithView();
+    }
+
+    // Pick up recipes the worker has published since the last frame
+    private void syncWithView() {
+        int count = view.size();
+        boolean loading = view.isLoading();
+        if (count == shownRecipeCount && loading == shownLoading) {
+            return;
+        }
+        shownRecipeCount = count;
+        shownLoading = loading;
+
+        if (recipe == null && count > 0) {
+            recipe = view.get(0);
+        }
+        if (openStarted != 0 && (recipe != null || !loading)) {
+            LteiStats.RECIPE_OPEN.record(System.nanoTime() - openStarted);
+            openStarted = 0;
+        }
+        refreshRecipeWidgets();
+    }
+
+    // Update the recipe-dependent widgets in place instead of rebuilding the screen
+    private void refreshRecipeWidgets() {
+        if (recipeTypeButton != null) {
+            recipeTypeButton.visible = view.size() > 1;
+            if (recipe != null) {
+                // "+" marks a count that is still growing
+                recipeTypeButton.setMessage(Text.literal(recipe.displayType() + " (" + (currentRecipeIndex + 1) + "/" + view.size()
+                    + (view.isLoading() ? "+" : "") + ")"));
+            }
+        }
+        if (craftButton != null) {
+            craftButton.visible = recipe != null && isCraftingRecipe(recipe.json);
+            boolean batch = recipe != null && isBatchCraftable(recipe.json);
+            craftCountField.visible = batch;
+            craftCountButton.visible = batch;
+            craftMaxButton.visible = batch;
+        }
+        if (backButton != null) {
+            backButton.active = !backHistory.isEmpty();
+        }
+        if (bomQuantityField != null) {
+            bomQuantityField.visible = showBom;
+            exportButton.visible = showBom;
+        }
+        if (forwardButton != null) {
+            forwardButton.active = !forwardHistory.isEmpty();
+        }
+        if (pinButton != null) {
+            pinButton.setMessage(Text.literal(isPinned() ? "Unpin" : "Pin"));
+            pinButton.active = isPinned() || showBom || recipe != null;
+        }
+    }
+
+    private boolean isPinned() {
+        RecipeViewerConfig config = RecipeViewerConfig.getInstance();
+        return targetItem != null && config.pinnedItem.equals(Registries.ITEM.getId(targetItem).toString()) &&
+            config.pinnedBom == showBom && (showBom || config.pinnedRecipeIndex == currentRecipeIndex);
+    }
+
+    private void togglePin() {
+        RecipeViewerConfig config = RecipeViewerConfig.getInstance();
+        if (isPinned()) {
+            config.unpin();
+        } else if (targetItem != null) {
+            long quantity = showBom ? parseBomQuantity() : parseCraftCount();
+            config.pin(Registries.ITEM.getId(targetItem).toString(), currentRecipeIndex, showBom, Math.max(1, quantity));
+        }
+        PinnedPlan.onPinChanged();
+        refreshRecipeWidgets();
+    }
+
+    private long parseCraftCount() {
+        return craftCountText.isEmpty() ? 1 : Long.parseLong(craftCountText);
+    }
+
     private void initializeItemList() {
-        // Use cached items from ItemListOverlay to prevent lag
+        // Built once for the lifetime of the viewer
         allItems = new ArrayList<>();
+        listStacks = new ItemStack[Registries.ITEM.size()];
         for (Item item : Registries.ITEM) {
             if (item != Items.AIR) {
                 allItems.add(item);
+                listStacks[Registries.ITEM.getRawId(item)] = new ItemStack(item);
             }
         }
         updateFilteredItems();
@@ -76,16 +245,23 @@ public class RecipeScreen extends Screen {
 
     private void updateFilteredItems() {
         List<Item> baseList = allItems;
+        filteredCraftableOnly = RecipeViewerConfig.getInstance().showOnlyCraftable;
+        filteredCraftableNow = RecipeViewerConfig.getInstance().isCraftableNowMode();
+        filteredCraftabilityRevision = Craftability.getRevision();
 
         // Apply craftable filter if enabled
-        if (RecipeViewerConfig.getInstance().showOnlyCraftable) {
+        if (filteredCraftableNow) {
+            baseList = allItems.stream()
+                .filter(Craftability::isCraftableNow)
+                .collect(Collectors.toList());
+        } else if (filteredCraftableOnly) {
             baseList = allItems.stream()
                 .filter(this::hasRecipe)
                 .collect(Collectors.toList());
         }
 
         // Apply search filter
-        String searchText = searchField != null ? searchField.getText().toLowerCase() : "";
+        String searchText = this.searchText.toLowerCase();
         if (searchText.isEmpty()) {
             filteredItems = new ArrayList<>(baseList);
         } else {
@@ -99,6 +275,7 @@ public class RecipeScreen extends Screen {
         }
 
         scrollOffset = 0;
+        selectedIndex = -1;
         updateMaxScroll();
     }
 
@@ -134,213 +311,6 @@ public class RecipeScreen extends Screen {
         return false;
     }
 
-    private void loadAllRecipes() {
-        allRecipes.clear();
-        String itemName = Registries.ITEM.getId(targetItem).getPath();
-
-        // Try to load different recipe types and variants
-        String[] recipeTypes = {"recipes", "smelting", "blasting", "smoking", "campfire_cooking", "smithing"};
-        String[] recipeTypeNames = {"Crafting", "Smelting", "Blasting", "Smoking", "Campfire", "Smithing"};
-
-        for (int i = 0; i < recipeTypes.length; i++) {
-            String type = recipeTypes[i];
-            String typeName = recipeTypeNames[i];
-
-            // Load standard recipe
-            loadRecipeVariant(type, itemName, typeName);
-
-            // Load recipe variants (like iron_ingot_from_blasting_deepslate_iron_ore)
-            loadRecipeVariants(type, itemName, typeName);
-        }
-
-        // Load crafting transmute recipes for shulkers and bundles
-        loadTransmuteRecipes(itemName);
-
-        // Load smithing upgrade recipes
-        loadSmithingRecipes(itemName);
-
-        if (!allRecipes.isEmpty()) {
-            recipe = allRecipes.get(0);
-            currentRecipeIndex = 0;
-        } else {
-            recipe = null;
-        }
-    }
-
-    private void loadTransmuteRecipes(String itemName) {
-        // Check if this is a colored shulker box or bundle
-        if (itemName.endsWith("_shulker_box") || itemName.endsWith("_bundle")) {
-            // Try to load the crafting transmute recipe
-            Identifier file = Identifier.of("jackson", "recipes/" + itemName + ".json");
-            try (InputStreamReader reader = new InputStreamReader(
-                    Objects.requireNonNull(
-                            getClass().getClassLoader().getResourceAsStream("assets/" + file.getNamespace() + "/" + file.getPath()))
-            )) {
-                JsonObject recipeJson = JsonParser.parseReader(reader).getAsJsonObject();
-                String recipeType = recipeJson.get("type").getAsString();
-
-                if ("minecraft:crafting_transmute".equals(recipeType)) {
-                    recipeJson.addProperty("recipe_type_display", "Transmute");
-                    recipeJson.addProperty("recipe_variant", "Color Change");
-                    allRecipes.add(recipeJson);
-                }
-            } catch (Exception e) {
-                // No transmute recipe found, continue
-            }
-        }
-
-        // Also check for all color variants of this item type
-        if (itemName.contains("_shulker_box") || itemName.contains("_bundle")) {
-            String baseType = itemName.contains("_shulker_box") ? "_shulker_box" : "_bundle";
-            String[] colors = {
-                "white", "orange", "magenta", "light_blue", "yellow", "lime", "pink", "gray",
-                "light_gray", "cyan", "purple", "blue", "brown", "green", "red", "black"
-            };
-
-            for (String color : colors) {
-                String coloredVariant = color + baseType;
-                if (!coloredVariant.equals(itemName)) {
-                    Identifier file = Identifier.of("jackson", "recipes/" + coloredVariant + ".json");
-                    try (InputStreamReader reader = new InputStreamReader(
-                            Objects.requireNonNull(
-                                    getClass().getClassLoader().getResourceAsStream("assets/" + file.getNamespace() + "/" + file.getPath()))
-                    )) {
-                        JsonObject recipeJson = JsonParser.parseReader(reader).getAsJsonObject();
-                        String recipeType = recipeJson.get("type").getAsString();
-
-                        if ("minecraft:crafting_transmute".equals(recipeType)) {
-                            recipeJson.addProperty("recipe_type_display", "Transmute");
-                            recipeJson.addProperty("recipe_variant", "From " + color.replace("_", " "));
-                            allRecipes.add(recipeJson);
-                        }
-                    } catch (Exception e) {
-                        // No transmute recipe found for this color, continue
-                    }
-                }
-            }
-        }
-    }
-
-    private void loadRecipeVariant(String recipeType, String itemName, String typeName) {
-        Identifier file = Identifier.of("jackson", recipeType + "/" + itemName + ".json");
-        try (InputStreamReader reader = new InputStreamReader(
-                Objects.requireNonNull(
-                        getClass().getClassLoader().getResourceAsStream("assets/" + file.getNamespace() + "/" + file.getPath()))
-        )) {
-            JsonObject recipeJson = JsonParser.parseReader(reader).getAsJsonObject();
-            recipeJson.addProperty("recipe_type_display", typeName);
-            recipeJson.addProperty("recipe_variant", "Standard");
-            allRecipes.add(recipeJson);
-        } catch (Exception e) {
-            // Recipe doesn't exist for this type, continue
-        }
-    }
-
-    private void loadRecipeVariants(String recipeType, String itemName, String typeName) {
-        // Common recipe variant patterns
-        String[] variantPrefixes = {
-            itemName + "_from_",
-            itemName + "_from_blasting_",
-            itemName + "_from_smelting_",
-            itemName + "_from_smoking_",
-            itemName + "_from_campfire_cooking_"
-        };
-
-        String[] variantSuffixes = {
-            "_ore", "_raw_ore", "_deepslate_ore", "_nether_ore", "_block", "_ingot", "_nugget",
-            "_raw", "_scrap", "_dust", "_gem", "_crystal", "_shard", "_fragment"
-        };
-
-        // Try different combinations
-        for (String prefix : variantPrefixes) {
-            for (String suffix : variantSuffixes) {
-                String variantName = prefix + itemName.replace("_ingot", "").replace("_block", "") + suffix;
-                loadRecipeVariantByName(recipeType, variantName, typeName, extractVariantDisplayName(variantName));
-
-                // Also try without the base item name in the suffix
-                if (!suffix.equals("_ore")) {
-                    String alternateVariant = prefix + suffix.substring(1); // Remove the underscore
-                    loadRecipeVariantByName(recipeType, alternateVariant, typeName, extractVariantDisplayName(alternateVariant));
-                }
-            }
-        }
-
-        // Try specific known patterns for common items
-        loadKnownVariants(recipeType, itemName, typeName);
-    }
-
-    private void loadRecipeVariantByName(String recipeType, String variantName, String typeName, String variantDisplayName) {
-        Identifier file = Identifier.of("jackson", recipeType + "/" + variantName + ".json");
-        try (InputStreamReader reader = new InputStreamReader(
-                Objects.requireNonNull(
-                        getClass().getClassLoader().getResourceAsStream("assets/" + file.getNamespace() + "/" + file.getPath()))
-        )) {
-            JsonObject recipeJson = JsonParser.parseReader(reader).getAsJsonObject();
-            recipeJson.addProperty("recipe_type_display", typeName);
-            recipeJson.addProperty("recipe_variant", variantDisplayName);
-            allRecipes.add(recipeJson);
-        } catch (Exception e) {
-            // Variant doesn't exist, continue
-        }
-    }
-
-    private void loadKnownVariants(String recipeType, String itemName, String typeName) {
-        // Specific known variants for common items
-        Map<String, String[]> knownVariants = new HashMap<>();
-        knownVariants.put("iron_ingot", new String[]{
-            "iron_ingot_from_blasting_deepslate_iron_ore",
-            "iron_ingot_from_blasting_iron_ore",
-            "iron_ingot_from_blasting_raw_iron",
-            "iron_ingot_from_smelting_deepslate_iron_ore",
-            "iron_ingot_from_smelting_iron_ore",
-            "iron_ingot_from_smelting_raw_iron"
-        });
-        knownVariants.put("gold_ingot", new String[]{
-            "gold_ingot_from_blasting_deepslate_gold_ore",
-            "gold_ingot_from_blasting_gold_ore",
-            "gold_ingot_from_blasting_nether_gold_ore",
-            "gold_ingot_from_blasting_raw_gold",
-            "gold_ingot_from_smelting_deepslate_gold_ore",
-            "gold_ingot_from_smelting_gold_ore",
-            "gold_ingot_from_smelting_nether_gold_ore",
-            "gold_ingot_from_smelting_raw_gold"
-        });
-        knownVariants.put("copper_ingot", new String[]{
-            "copper_ingot_from_blasting_copper_ore",
-            "copper_ingot_from_blasting_deepslate_copper_ore",
-            "copper_ingot_from_blasting_raw_copper",
-            "copper_ingot_from_smelting_copper_ore",
-            "copper_ingot_from_smelting_deepslate_copper_ore",
-            "copper_ingot_from_smelting_raw_copper"
-        });
-
-        String[] variants = knownVariants.get(itemName);
-        if (variants != null) {
-            for (String variant : variants) {
-                String displayName = extractVariantDisplayName(variant);
-                loadRecipeVariantByName(recipeType, variant, typeName, displayName);
-            }
-        }
-    }
-
-    private String extractVariantDisplayName(String variantName) {
-        // Extract a readable display name from the variant
-        String display = variantName;
-
-        // Remove common prefixes
-        display = display.replaceFirst(".*_from_", "From ");
-
-        // Capitalize words and replace underscores
-        String[] words = display.split("_");
-        StringBuilder result = new StringBuilder();
-        for (String word : words) {
-            if (result.length() > 0) result.append(" ");
-            result.append(Character.toUpperCase(word.charAt(0))).append(word.substring(1));
-        }
-
-        return result.toString();
-    }
-
     @Override
     protected void init() {
         super.init();
@@ -348,59 +318,129 @@ public class RecipeScreen extends Screen {
         // Search field - make it properly focusable and clickable
         searchField = new TextFieldWidget(this.textRenderer, MARGIN, MARGIN, ITEM_LIST_WIDTH - 20, 20, Text.literal("Search..."));
         searchField.setPlaceholder(Text.literal("Search items..."));
+        // Restore the text before listening so re-opening the viewer doesn't refilter
+        searchField.setText(searchText);
         searchField.setChangedListener(this::onSearchChanged);
         searchField.setFocusUnlocked(true); // Allow focus
         this.addSelectableChild(searchField);
 
         // Craftable filter toggle button
         craftableToggleButton = ButtonWidget.builder(
-            Text.literal(RecipeViewerConfig.getInstance().showOnlyCraftable ? "All Items" : "Craftable Only"),
+            Text.literal(RecipeViewerConfig.getInstance().nextFilterLabel()),
             button -> {
                 RecipeViewerConfig.getInstance().toggleShowOnlyCraftable();
-                button.setMessage(Text.literal(RecipeViewerConfig.getInstance().showOnlyCraftable ? "All Items" : "Craftable Only"));
+                button.setMessage(Text.literal(RecipeViewerConfig.getInstance().nextFilterLabel()));
                 updateFilteredItems();
             }
         ).dimensions(MARGIN, 35, ITEM_LIST_WIDTH - 20, 20).build();
         this.addDrawableChild(craftableToggleButton);
 
-        // Recipe type switching button (only show if multiple recipes exist)
-        if (allRecipes.size() > 1) {
-            String currentTypeName = recipe != null && recipe.has("recipe_type_display")
-                ? recipe.get("recipe_type_display").getAsString()
-                : "Recipe";
-            recipeTypeButton = ButtonWidget.builder(
-                Text.literal(currentTypeName + " (" + (currentRecipeIndex + 1) + "/" + allRecipes.size() + ")"),
-                button -> {
-                    currentRecipeIndex = (currentRecipeIndex + 1) % allRecipes.size();
-                    recipe = allRecipes.get(currentRecipeIndex);
-                    String typeName = recipe.has("recipe_type_display")
-                        ? recipe.get("recipe_type_display").getAsString()
-                        : "Recipe";
-                    button.setMessage(Text.literal(typeName + " (" + (currentRecipeIndex + 1) + "/" + allRecipes.size() + ")"));
-                }
-            ).dimensions(ITEM_LIST_WIDTH + MARGIN, MARGIN, RECIPE_AREA_WIDTH - 20, 20).build();
-            this.addDrawableChild(recipeTypeButton);
-        }
+        // Recipe type switching button (only visible if multiple recipes exist)
+        recipeTypeButton = ButtonWidget.builder(
+            Text.literal("Recipe"),
+            button -> cycleRecipe(1)
+        ).dimensions(ITEM_LIST_WIDTH + MARGIN, MARGIN, RECIPE_AREA_WIDTH - 20, 20).build();
+        this.addDrawableChild(recipeTypeButton);
+
+        // History navigation
+        backButton = ButtonWidget.builder(Text.literal("<"), button -> navigateBack())
+            .dimensions(ITEM_LIST_WIDTH + RECIPE_AREA_WIDTH, MARGIN, 20, 20).build();
+        this.addDrawableChild(backButton);
+        forwardButton = ButtonWidget.builder(Text.literal(">"), button -> navigateForward())
+            .dimensions(ITEM_LIST_WIDTH + RECIPE_AREA_WIDTH + 22, MARGIN, 20, 20).build();
+        this.addDrawableChild(forwardButton);
+
+        // Bill of materials: toggle, quantity and text export
+        int bomX = ITEM_LIST_WIDTH + RECIPE_AREA_WIDTH + 46;
+        bomButton = ButtonWidget.builder(Text.literal(showBom ? "Plan" : "BOM"), button -> {
+            showBom = !showBom;
+            button.setMessage(Text.literal(showBom ? "Plan" : "BOM"));
+            refreshRecipeWidgets();
+        }).dimensions(bomX, MARGIN, 30, 20).build();
+        this.addDrawableChild(bomButton);
+        bomQuantityField = new TextFieldWidget(this.textRenderer, bomX + 34, MARGIN, 44, 20, Text.literal("Quantity"));
+        bomQuantityField.setMaxLength(9);
+        bomQuantityField.setTextPredicate(text -> text.chars().allMatch(Character::isDigit));
+        bomQuantityField.setText(bomQuantityText);
+        bomQuantityField.setChangedListener(text -> bomQuantityText = text);
+        this.addDrawableChild(bomQuantityField);
+        exportButton = ButtonWidget.builder(Text.literal("Export"), button -> exportBom())
+            .dimensions(bomX + 82, MARGIN, 44, 20).build();
+        this.addDrawableChild(exportButton);
+
+        // Pin the shown recipe (or the bill of materials, when that's what's open) to the HUD
+        pinButton = ButtonWidget.builder(Text.literal("Pin"), button -> togglePin())
+            .dimensions(bomX + 130, MARGIN, 34, 20).build();
+        this.addDrawableChild(pinButton);
+
+        // Craft button - only visible for crafting recipes
+        craftButton = ButtonWidget.builder(
+            Text.literal("Craft"),
+            button -> handleCraftButtonClick()
+        ).dimensions(ITEM_LIST_WIDTH + MARGIN, height - 40, 80, 20).build();
+        this.addDrawableChild(craftButton);
+
+        // Batch crafting: make a number of items, or as many as the inventory allows
+        craftCountField = new TextFieldWidget(this.textRenderer, ITEM_LIST_WIDTH + MARGIN + 84, height - 40, 30, 20, Text.literal("Count"));
+        craftCountField.setMaxLength(4);
+        craftCountField.setTextPredicate(text -> text.chars().allMatch(Character::isDigit));
+        craftCountField.setText(craftCountText);
+        craftCountField.setChangedListener(text -> craftCountText = text);
+        this.addDrawableChild(craftCountField);
+        craftCountButton = ButtonWidget.builder(Text.literal("\u00d7N"), button -> handleBatchCraftClick(false))
+            .dimensions(ITEM_LIST_WIDTH + MARGIN + 118, height - 40, 30, 20).build();
+        this.addDrawableChild(craftCountButton);
+        craftMaxButton = ButtonWidget.builder(Text.literal("Max"), button -> handleBatchCraftClick(true))
+            .dimensions(ITEM_LIST_WIDTH + MARGIN + 152, height - 40, 34, 20).build();
+        this.addDrawableChild(craftMaxButton);
+
+        // The filter may have been toggled from the overlay while the viewer was closed
+        if (filteredCraftableOnly != RecipeViewerConfig.getInstance().showOnlyCraftable ||
+            filteredCraftableNow != RecipeViewerConfig.getInstance().isCraftableNowMode()) {
+            updateFilteredItems();
+        }
+
+        refreshRecipeWidgets();
+        updateMaxScroll();
+        scrollOffset = MathHelper.clamp(scrollOffset, 0, maxScroll);
+    }
 
-        // Craft button - only show for crafting recipes
-        if (recipe != null && isCraftingRecipe(recipe)) {
-            craftButton = ButtonWidget.builder(
-                Text.literal("Craft"),
-                button -> handleCraftButtonClick()
-            ).dimensions(ITEM_LIST_WIDTH + MARGIN, height - 40, 80, 20).build();
-            this.addDrawableChild(craftButton);
+    private void onSearchChanged(String search) {
+        // Cursor moves and no-op edits still fire the listener
+        if (search.equals(searchText)) {
+            return;
         }
+        searchText = search;
+        updateFilteredItems();
+    }
 
-        // Restore preserved state
-        searchField.setText(preservedSearchText);
-        scrollOffset = preservedScrollOffset;
-        RecipeViewerConfig.getInstance().showOnlyCraftable = preservedCraftableFilter;
+    private void cycleRecipe(int delta) {
+        if (view == null || view.size() <= 1) {
+            return;
+        }
+        currentRecipeIndex = Math.floorMod(currentRecipeIndex + delta, view.size());
+        recipe = view.get(currentRecipeIndex);
+        refreshRecipeWidgets();
+    }
 
-        updateMaxScroll();
+    private int visibleListRows() {
+        return Math.max(1, (height - 65) / SLOT_SIZE);
     }
 
-    private void onSearchChanged(String search) {
-        updateFilteredItems();
+    // Move the keyboard selection and scroll just enough to keep it on screen
+    private void selectListIndex(int index) {
+        if (filteredItems.isEmpty()) {
+            return;
+        }
+        int itemsPerRow = ITEM_LIST_WIDTH / SLOT_SIZE;
+        selectedIndex = MathHelper.clamp(index, 0, filteredItems.size() - 1);
+        int row = selectedIndex / itemsPerRow;
+        if (row < scrollOffset) {
+            scrollOffset = row;
+        } else if (row >= scrollOffset + visibleListRows()) {
+            scrollOffset = row - visibleListRows() + 1;
+        }
+        scrollOffset = MathHelper.clamp(scrollOffset, 0, maxScroll);
     }
 
     private void updateMaxScroll() {
@@ -412,6 +452,15 @@ public class RecipeScreen extends Screen {
 
     @Override
     public void render(DrawContext context, int mouseX, int mouseY, float delta) {
+        syncWithView();
+
+        // The inventory changed what can be crafted right now - refilter, keeping the list where it was
+        if (filteredCraftableNow && filteredCraftabilityRevision != Craftability.getRevision()) {
+            int keptScroll = scrollOffset;
+            updateFilteredItems();
+            scrollOffset = MathHelper.clamp(keptScroll, 0, maxScroll);
+        }
+
         this.renderBackground(context, mouseX, mouseY, delta);
 
         // Draw item list background
@@ -430,6 +479,112 @@ public class RecipeScreen extends Screen {
 
         // Render recipe area
         renderRecipeArea(context, mouseX, mouseY);
+
+        // Render the crafting plan or bill of materials next to it
+        if (showBom) {
+            updateBom();
+            renderLines(context, bomLines);
+        } else {
+            updatePlan();
+            renderPlan(context);
+        }
+    }
+
+    private long parseBomQuantity() {
+        try {
+            return Math.max(1, Long.parseLong(bomQuantityText));
+        } catch (NumberFormatException e) {
+            return 1;
+        }
+    }
+
+    private void updateBom() {
+        RecipeGraph graph = RecipeIndex.getGraph();
+        long quantity = parseBomQuantity();
+        int preference = RecipeViewerConfig.getInstance().getBomPreference();
+        if (graph == bomGraph && targetItem == bomItem && quantity == bomQuantity && preference == bomPreference) {
+            return;
+        }
+        bomGraph = graph;
+        bomItem = targetItem;
+        bomQuantity = quantity;
+        bomPreference = preference;
+        bomLines = BomReport.build(targetItem, quantity);
+    }
+
+    private void exportBom() {
+        try {
+            Path file = BomReport.export(targetItem, parseBomQuantity());
+            if (client != null && client.player != null) {
+                client.player.sendMessage(Text.literal("Bill of materials saved to " + file.getFileName()), true);
+            }
+        } catch (Exception e) {
+            System.err.println("Failed to export bill of materials: " + e.getMessage());
+        }
+    }
+
+    private void renderLines(DrawContext context, List<String> lines) {
+        int x = ITEM_LIST_WIDTH + RECIPE_AREA_WIDTH + MARGIN;
+        int y = 40;
+        for (String line : lines) {
+            if (y > height - 10) {
+                break; // The export has the rest
+            }
+            context.drawTextWithShadow(this.textRenderer, Text.literal(line), x, y, 0xFFFFFF);
+            y += 10;
+        }
+    }
+
+    private void updatePlan() {
+        RecipeGraph graph = RecipeIndex.getGraph();
+        int revision = InventoryIndex.getRevision();
+        if (graph == planGraph && targetItem == planItem && revision == planInventoryRevision) {
+            return;
+        }
+        planGraph = graph;
+        planItem = targetItem;
+        planInventoryRevision = revision;
+        plan = null;
+        planLines.clear();
+        if (graph == null) {
+            return;
+        }
+
+        int target = Registries.ITEM.getRawId(targetItem);
+        plan = CraftingPlanner.plan(graph, InventoryIndex.getCounts(), target, 1, PLAN_BUDGET_NANOS, RecipeGraph.KIND_CRAFTING);
+        switch (plan.status) {
+            case CraftingPlanner.FOUND:
+                for (int i = 0; i < plan.size(); i++) {
+                    int step = plan.recipes[i];
+                    Item output = Registries.ITEM.get(graph.result(step));
+                    planLines.add((i + 1) + ". " + plan.batches[i] * graph.resultCount(step) + "x " + output.getName().getString());
+                }
+                break;
+            case CraftingPlanner.TIMED_OUT:
+                planLines.add("Plan search ran out of time");
+                break;
+            default:
+                for (int recipe : graph.producers(target)) {
+                    if (graph.kind(recipe) == RecipeGraph.KIND_CRAFTING) {
+                        planLines.add("Can't be crafted from your inventory");
+                        break;
+                    }
+                }
+                break;
+        }
+    }
+
+    private void renderPlan(DrawContext context) {
+        if (planLines.isEmpty()) {
+            return;
+        }
+        int x = ITEM_LIST_WIDTH + RECIPE_AREA_WIDTH + MARGIN;
+        int y = 40;
+        context.drawTextWithShadow(this.textRenderer, Text.literal("Crafting plan:"), x, y, 0xFFFF55);
+        for (String line : planLines) {
+            y += 10;
+            context.drawTextWithShadow(this.textRenderer, Text.literal(line), x, y, 0xFFFFFF);
+        }
     }
 
     private void renderItemList(DrawContext context, int mouseX, int mouseY) {
@@ -447,9 +602,13 @@ public class RecipeScreen extends Screen {
 
             // Draw slot background
             drawSlot(context, x + col * SLOT_SIZE, y + row * SLOT_SIZE, item == targetItem);
+            if (i == selectedIndex) {
+                context.fill(x + col * SLOT_SIZE, y + row * SLOT_SIZE,
+                           x + (col + 1) * SLOT_SIZE, y + (row + 1) * SLOT_SIZE, 0x60FFFF55);
+            }
 
             // Draw item
-            context.drawItem(new ItemStack(item), x + col * SLOT_SIZE + 1, y + row * SLOT_SIZE + 1);
+            context.drawItem(listStacks[Registries.ITEM.getRawId(item)], x + col * SLOT_SIZE + 1, y + row * SLOT_SIZE + 1);
 
             // Check for hover and click
             if (mouseX >= x + col * SLOT_SIZE && mouseX < x + (col + 1) * SLOT_SIZE &&
@@ -467,11 +626,14 @@ public class RecipeScreen extends Screen {
             }
         }
 
+        // Start compiling the hovered item's recipes in the background once the cursor settles
+        HoverPrefetcher.onHover(hoveredItem);
+
         // Render tooltip for hovered item at the end (highest z-level)
         if (hoveredItem != null) {
             context.getMatrices().push();
             context.getMatrices().translate(0, 0, 400); // Highest z-level for tooltips
-            ItemStack stack = new ItemStack(hoveredItem);
+            ItemStack stack = listStacks[Registries.ITEM.getRawId(hoveredItem)];
             context.drawTooltip(this.textRenderer, List.of(stack.getName()), mouseX, mouseY);
             context.getMatrices().pop();
         }
@@ -479,7 +641,7 @@ public class RecipeScreen extends Screen {
 
     private void renderRecipeArea(DrawContext context, int mouseX, int mouseY) {
         int recipeX = ITEM_LIST_WIDTH + MARGIN;
-        int recipeY = allRecipes.size() > 1 ? 60 : 40; // Leave space for recipe type button if needed
+        int recipeY = view.size() > 1 ? 60 : 40; // Leave space for recipe type button if needed
 
         // Format the item name properly instead of showing raw ID
         String formattedItemName = formatItemName(Registries.ITEM.getId(targetItem).getPath());
@@ -489,31 +651,32 @@ public class RecipeScreen extends Screen {
 
         if (recipe == null) {
             context.drawCenteredTextWithShadow(this.textRenderer,
-                Text.literal("No recipe found"),
+                Text.literal(view.isLoading() ? "Loading recipes..." : "No recipe found"),
                 ITEM_LIST_WIDTH + RECIPE_AREA_WIDTH / 2, recipeY + 50, 0xFF0000);
             return;
         }
 
-        String type = recipe.get("type").getAsString();
+        String type = recipe.type;
+        long cycle = CompiledRecipe.cycle();
 
         switch (type) {
             case "minecraft:crafting_shaped":
-                renderShapedCrafting(context, recipe, recipeX, recipeY, mouseX, mouseY);
+                renderShapedCrafting(context, recipe, cycle, recipeX, recipeY, mouseX, mouseY);
                 break;
             case "minecraft:crafting_shapeless":
-                renderShapelessCrafting(context, recipe, recipeX, recipeY, mouseX, mouseY);
+                renderShapelessCrafting(context, recipe, cycle, recipeX, recipeY, mouseX, mouseY);
                 break;
             case "minecraft:crafting_transmute":
-                renderTransmuteCrafting(context, recipe, recipeX, recipeY, mouseX, mouseY);
+                renderTransmuteCrafting(context, recipe, cycle, recipeX, recipeY, mouseX, mouseY);
                 break;
             case "minecraft:blasting":
             case "minecraft:smelting":
             case "minecraft:smoking":
             case "minecraft:campfire_cooking":
-                renderCooking(context, recipe, type, recipeX, recipeY, mouseX, mouseY);
+                renderCooking(context, recipe, cycle, recipeX, recipeY, mouseX, mouseY);
                 break;
             case "minecraft:smithing_transform":
-                renderSmithing(context, recipe, recipeX, recipeY, mouseX, mouseY);
+                renderSmithing(context, recipe, cycle, recipeX, recipeY, mouseX, mouseY);
                 break;
             default:
                 context.drawCenteredTextWithShadow(this.textRenderer,
@@ -545,34 +708,7 @@ public class RecipeScreen extends Screen {
         return result.toString();
     }
 
-    private void renderShapedCrafting(DrawContext context, JsonObject json, int startX, int startY, int mouseX, int mouseY) {
-        JsonArray pattern = json.getAsJsonArray("pattern");
-        JsonObject key = json.getAsJsonObject("key");
-        JsonObject result = json.getAsJsonObject("result");
-
-        Map<Character, ItemStack> keyMap = new HashMap<>();
-        for (Map.Entry<String, JsonElement> entry : key.entrySet()) {
-            char symbol = entry.getKey().charAt(0);
-            JsonElement ingredientElement = entry.getValue();
-
-            // Handle both single items and ingredient arrays
-            String id;
-            if (ingredientElement.isJsonArray()) {
-                // Multiple options for this ingredient slot - use the first one for display
-                JsonArray options = ingredientElement.getAsJsonArray();
-                if (options.size() > 0) {
-                    id = options.get(0).getAsString();
-                } else {
-                    id = "minecraft:barrier"; // Fallback
-                }
-            } else {
-                id = ingredientElement.getAsString();
-            }
-
-            Item item = resolveItemFromIdOrTag(id);
-            keyMap.put(symbol, new ItemStack(item));
-        }
-
+    private void renderShapedCrafting(DrawContext context, CompiledRecipe compiled, long cycle, int startX, int startY, int mouseX, int mouseY) {
         // Draw crafting grid background
         int gridSize = 3;
         for (int row = 0; row < gridSize; row++) {
@@ -582,29 +718,20 @@ public class RecipeScreen extends Screen {
         }
 
         // Track hovered items for tooltips
-        Item hoveredRecipeItem = null;
-        int hoveredSlotX = -1, hoveredSlotY = -1;
-
-        // Draw pattern items
-        for (int row = 0; row < pattern.size() && row < gridSize; row++) {
-            String line = pattern.get(row).getAsString();
-            for (int col = 0; col < line.length() && col < gridSize; col++) {
-                char symbol = line.charAt(col);
-                if (symbol != ' ') {
-                    ItemStack stack = keyMap.getOrDefault(symbol, ItemStack.EMPTY);
-                    if (!stack.isEmpty()) {
-                        int itemX = startX + col * 20 + 1;
-                        int itemY = startY + row * 20 + 1;
-                        context.drawItem(stack, itemX, itemY);
-
-                        // Check for hover on this ingredient
-                        if (mouseX >= itemX && mouseX <= itemX + 16 &&
-                            mouseY >= itemY && mouseY <= itemY + 16) {
-                            hoveredRecipeItem = stack.getItem();
-                            hoveredSlotX = itemX;
-                            hoveredSlotY = itemY;
-                        }
-                    }
+        ItemStack hoveredRecipeStack = ItemStack.EMPTY;
+
+        // Draw pattern items - every slot cycles through its alternatives on the shared clock
+        for (int slot = 0; slot < CompiledRecipe.GRID_SLOTS; slot++) {
+            ItemStack stack = compiled.slot(slot, cycle);
+            if (!stack.isEmpty()) {
+                int itemX = startX + (slot % 3) * 20 + 1;
+                int itemY = startY + (slot / 3) * 20 + 1;
+                context.drawItem(stack, itemX, itemY);
+
+                // Check for hover on this ingredient
+                if (mouseX >= itemX && mouseX <= itemX + 16 &&
+                    mouseY >= itemY && mouseY <= itemY + 16) {
+                    hoveredRecipeStack = stack;
                 }
             }
         }
@@ -616,8 +743,7 @@ public class RecipeScreen extends Screen {
 
         // Draw result slot and item
         drawSlot(context, startX + 100, startY + 20, false);
-        int count = result.has("count") ? result.get("count").getAsInt() : 1;
-        ItemStack resultStack = new ItemStack(resolveItemFromIdOrTag(result.get("id").getAsString()), count);
+        ItemStack resultStack = compiled.result;
         int resultX = startX + 101;
         int resultY = startY + 21;
         context.drawItem(resultStack, resultX, resultY);
@@ -625,14 +751,12 @@ public class RecipeScreen extends Screen {
         // Check for hover on result item
         if (mouseX >= resultX && mouseX <= resultX + 16 &&
             mouseY >= resultY && mouseY <= resultY + 16) {
-            hoveredRecipeItem = resultStack.getItem();
-            hoveredSlotX = resultX;
-            hoveredSlotY = resultY;
+            hoveredRecipeStack = resultStack;
         }
 
         // Draw count text manually if more than 1
-        if (count > 1) {
-            String countText = String.valueOf(count);
+        if (resultStack.getCount() > 1) {
+            String countText = String.valueOf(resultStack.getCount());
             int textX = startX + 101 + 16 - this.textRenderer.getWidth(countText);
             int textY = startY + 21 + 6;
             context.getMatrices().push();
@@ -641,45 +765,10 @@ public class RecipeScreen extends Screen {
             context.getMatrices().pop();
         }
 
-        // Render tooltip for hovered recipe item at highest z-level
-        if (hoveredRecipeItem != null) {
-            context.getMatrices().push();
-            context.getMatrices().translate(0, 0, 500); // Even higher than item list tooltips
-            ItemStack stack = new ItemStack(hoveredRecipeItem);
-            context.drawTooltip(this.textRenderer, List.of(stack.getName()), mouseX, mouseY);
-            context.getMatrices().pop();
-        }
+        renderRecipeTooltip(context, hoveredRecipeStack, mouseX, mouseY);
     }
 
-    private void renderShapelessCrafting(DrawContext context, JsonObject json, int startX, int startY, int mouseX, int mouseY) {
-        List<String> ingredientIds = new ArrayList<>();
-        if (json.has("ingredients")) {
-            JsonArray ingredients = json.getAsJsonArray("ingredients");
-            for (JsonElement el : ingredients) {
-                if (el.isJsonArray()) {
-                    // Handle ingredient arrays (multiple options for one ingredient slot)
-                    JsonArray options = el.getAsJsonArray();
-                    if (options.size() > 0) {
-                        // Use the first option for display
-                        ingredientIds.add(options.get(0).getAsString());
-                    }
-                } else {
-                    ingredientIds.add(el.getAsString());
-                }
-            }
-        } else if (json.has("ingredient")) {
-            JsonElement ing = json.get("ingredient");
-            if (ing.isJsonArray()) {
-                JsonArray options = ing.getAsJsonArray();
-                if (options.size() > 0) {
-                    // Use the first option for display
-                    ingredientIds.add(options.get(0).getAsString());
-                }
-            } else if (ing.isJsonPrimitive()) {
-                ingredientIds.add(ing.getAsString());
-            }
-        }
-
+    private void renderShapelessCrafting(DrawContext context, CompiledRecipe compiled, long cycle, int startX, int startY, int mouseX, int mouseY) {
         // Draw crafting grid background
         for (int row = 0; row < 3; row++) {
             for (int col = 0; col < 3; col++) {
@@ -688,22 +777,22 @@ public class RecipeScreen extends Screen {
         }
 
         // Track hovered items for tooltips
-        Item hoveredRecipeItem = null;
+        ItemStack hoveredRecipeStack = ItemStack.EMPTY;
 
         // Draw ingredients
-        for (int i = 0; i < ingredientIds.size() && i < 9; i++) {
-            int row = i / 3;
-            int col = i % 3;
-            String id = ingredientIds.get(i);
-            Item item = resolveItemFromIdOrTag(id);
-            int itemX = startX + col * 20 + 1;
-            int itemY = startY + row * 20 + 1;
-            context.drawItem(new ItemStack(item), itemX, itemY);
+        for (int i = 0; i < CompiledRecipe.GRID_SLOTS; i++) {
+            ItemStack stack = compiled.slot(i, cycle);
+            if (stack.isEmpty()) {
+                continue;
+            }
+            int itemX = startX + (i % 3) * 20 + 1;
+            int itemY = startY + (i / 3) * 20 + 1;
+            context.drawItem(stack, itemX, itemY);
 
             // Check for hover on this ingredient
             if (mouseX >= itemX && mouseX <= itemX + 16 &&
                 mouseY >= itemY && mouseY <= itemY + 16) {
-                hoveredRecipeItem = item;
+                hoveredRecipeStack = stack;
             }
         }
 
@@ -713,10 +802,8 @@ public class RecipeScreen extends Screen {
                           startX + 70, startY + 20, 89.0f, 15.0f, 22, 15, 256, 256);
 
         // Draw result
-        JsonObject result = json.getAsJsonObject("result");
         drawSlot(context, startX + 100, startY + 20, false);
-        int count = result.has("count") ? result.get("count").getAsInt() : 1;
-        ItemStack resultStack = new ItemStack(resolveItemFromIdOrTag(result.get("id").getAsString()), count);
+        ItemStack resultStack = compiled.result;
         int resultX = startX + 101;
         int resultY = startY + 21;
         context.drawItem(resultStack, resultX, resultY);
@@ -724,12 +811,12 @@ public class RecipeScreen extends Screen {
         // Check for hover on result item
         if (mouseX >= resultX && mouseX <= resultX + 16 &&
             mouseY >= resultY && mouseY <= resultY + 16) {
-            hoveredRecipeItem = resultStack.getItem();
+            hoveredRecipeStack = resultStack;
         }
 
         // Draw count text manually if more than 1 (render in front)
-        if (count > 1) {
-            String countText = String.valueOf(count);
+        if (resultStack.getCount() > 1) {
+            String countText = String.valueOf(resultStack.getCount());
             int textX = startX + 101 + 16 - this.textRenderer.getWidth(countText);
             int textY = startX + 21 + 16 - this.textRenderer.fontHeight;
             // Draw with shadow and higher z-level to ensure it's in front
@@ -739,37 +826,12 @@ public class RecipeScreen extends Screen {
             context.getMatrices().pop();
         }
 
-        // Render tooltip for hovered recipe item at highest z-level
-        if (hoveredRecipeItem != null) {
-            context.getMatrices().push();
-            context.getMatrices().translate(0, 0, 500); // Even higher than item list tooltips
-            ItemStack stack = new ItemStack(hoveredRecipeItem);
-            context.drawTooltip(this.textRenderer, List.of(stack.getName()), mouseX, mouseY);
-            context.getMatrices().pop();
-        }
+        renderRecipeTooltip(context, hoveredRecipeStack, mouseX, mouseY);
     }
 
-    private void renderTransmuteCrafting(DrawContext context, JsonObject json, int startX, int startY, int mouseX, int mouseY) {
+    private void renderTransmuteCrafting(DrawContext context, CompiledRecipe compiled, long cycle, int startX, int startY, int mouseX, int mouseY) {
         // For transmute recipes, show it as a proper crafting recipe with base item + dye
-        JsonElement resultElement = json.get("result");
-        JsonObject result;
-
-        // Handle both JsonObject and JsonPrimitive for result
-        if (resultElement.isJsonObject()) {
-            result = resultElement.getAsJsonObject();
-        } else if (resultElement.isJsonPrimitive()) {
-            result = new JsonObject();
-            result.addProperty("id", resultElement.getAsString());
-            result.addProperty("count", 1);
-        } else {
-            result = new JsonObject();
-            result.addProperty("id", "minecraft:barrier");
-            result.addProperty("count", 1);
-        }
-
-        int count = result.has("count") ? result.get("count").getAsInt() : 1;
-        String resultId = result.has("id") ? result.get("id").getAsString() : "minecraft:barrier";
-        ItemStack resultStack = new ItemStack(resolveItemFromIdOrTag(resultId), count);
+        ItemStack resultStack = compiled.result;
 
         // Draw crafting grid background (3x3)
         for (int row = 0; row < 3; row++) {
@@ -779,31 +841,31 @@ public class RecipeScreen extends Screen {
         }
 
         // Track hovered items for tooltips
-        Item hoveredRecipeItem = null;
+        ItemStack hoveredRecipeStack = ItemStack.EMPTY;
 
-        // Place the base item in center (1,1)
+        // Place the base item in center (1,1), cycling through every accepted input
+        ItemStack base = compiled.slot(CompiledRecipe.TRANSMUTE_INPUT, cycle);
         int baseX = startX + 20 + 1;
         int baseY = startY + 20 + 1;
-        context.drawItem(new ItemStack(targetItem), baseX, baseY);
+        context.drawItem(base, baseX, baseY);
 
         // Check for hover on base item
         if (mouseX >= baseX && mouseX <= baseX + 16 &&
             mouseY >= baseY && mouseY <= baseY + 16) {
-            hoveredRecipeItem = targetItem;
+            hoveredRecipeStack = base;
         }
 
-        // Determine and place the dye based on the result color
-        Item dye = getDyeForItem(resultId);
-        if (dye != null) {
-            // Place dye in top-left corner (0,0)
+        // Place the dye in top-left corner (0,0)
+        ItemStack dye = compiled.slot(CompiledRecipe.TRANSMUTE_MATERIAL, cycle);
+        if (!dye.isEmpty()) {
             int dyeX = startX + 1;
             int dyeY = startY + 1;
-            context.drawItem(new ItemStack(dye), dyeX, dyeY);
+            context.drawItem(dye, dyeX, dyeY);
 
             // Check for hover on dye item
             if (mouseX >= dyeX && mouseX <= dyeX + 16 &&
                 mouseY >= dyeY && mouseY <= dyeY + 16) {
-                hoveredRecipeItem = dye;
+                hoveredRecipeStack = dye;
             }
         }
 
@@ -821,12 +883,12 @@ public class RecipeScreen extends Screen {
         // Check for hover on result item
         if (mouseX >= resultX && mouseX <= resultX + 16 &&
             mouseY >= resultY && mouseY <= resultY + 16) {
-            hoveredRecipeItem = resultStack.getItem();
+            hoveredRecipeStack = resultStack;
         }
 
         // Draw count text manually if more than 1
-        if (count > 1) {
-            String countText = String.valueOf(count);
+        if (resultStack.getCount() > 1) {
+            String countText = String.valueOf(resultStack.getCount());
             int textX = startX + 101 + 16 - this.textRenderer.getWidth(countText);
             int textY = startX + 21 + 6;
             context.getMatrices().push();
@@ -840,38 +902,10 @@ public class RecipeScreen extends Screen {
         context.drawTextWithShadow(this.textRenderer, Text.literal("Base"), startX + 20, startY + 65, 0xAAAAAA);
         context.drawTextWithShadow(this.textRenderer, Text.literal("Result"), startX + 100, startY + 45, 0xAAAAAA);
 
-        // Render tooltip for hovered recipe item at highest z-level
-        if (hoveredRecipeItem != null) {
-            context.getMatrices().push();
-            context.getMatrices().translate(0, 0, 500); // Even higher than item list tooltips
-            ItemStack stack = new ItemStack(hoveredRecipeItem);
-            context.drawTooltip(this.textRenderer, List.of(stack.getName()), mouseX, mouseY);
-            context.getMatrices().pop();
-        }
-    }
-
-    // Helper method to determine the dye needed for a colored item
-    private Item getDyeForItem(String itemId) {
-        if (itemId.contains("white_")) return Items.WHITE_DYE;
-        if (itemId.contains("orange_")) return Items.ORANGE_DYE;
-        if (itemId.contains("magenta_")) return Items.MAGENTA_DYE;
-        if (itemId.contains("light_blue_")) return Items.LIGHT_BLUE_DYE;
-        if (itemId.contains("yellow_")) return Items.YELLOW_DYE;
-        if (itemId.contains("lime_")) return Items.LIME_DYE;
-        if (itemId.contains("pink_")) return Items.PINK_DYE;
-        if (itemId.contains("gray_")) return Items.GRAY_DYE;
-        if (itemId.contains("light_gray_")) return Items.LIGHT_GRAY_DYE;
-        if (itemId.contains("cyan_")) return Items.CYAN_DYE;
-        if (itemId.contains("purple_")) return Items.PURPLE_DYE;
-        if (itemId.contains("blue_")) return Items.BLUE_DYE;
-        if (itemId.contains("brown_")) return Items.BROWN_DYE;
-        if (itemId.contains("green_")) return Items.GREEN_DYE;
-        if (itemId.contains("red_")) return Items.RED_DYE;
-        if (itemId.contains("black_")) return Items.BLACK_DYE;
-        return null; // No dye needed
+        renderRecipeTooltip(context, hoveredRecipeStack, mouseX, mouseY);
     }
 
-    private void renderSmithing(DrawContext context, JsonObject json, int startX, int startY, int mouseX, int mouseY) {
+    private void renderSmithing(DrawContext context, CompiledRecipe compiled, long cycle, int startX, int startY, int mouseX, int mouseY) {
         // Draw smithing table slots
         drawSlot(context, startX, startY, false); // Template
         drawSlot(context, startX + 25, startY, false); // Base
@@ -879,47 +913,23 @@ public class RecipeScreen extends Screen {
         drawSlot(context, startX + 100, startY, false); // Result
 
         // Track hovered items for tooltips
-        Item hoveredRecipeItem = null;
-
-        // Draw template
-        if (json.has("template")) {
-            Item template = resolveItemFromIdOrTag(json.get("template").getAsString());
-            int templateX = startX + 1;
-            int templateY = startY + 1;
-            context.drawItem(new ItemStack(template), templateX, templateY);
-
-            // Check for hover on template
-            if (mouseX >= templateX && mouseX <= templateX + 16 &&
-                mouseY >= templateY && mouseY <= templateY + 16) {
-                hoveredRecipeItem = template;
-            }
-        }
+        ItemStack hoveredRecipeStack = ItemStack.EMPTY;
 
-        // Draw base item
-        if (json.has("base")) {
-            Item base = resolveItemFromIdOrTag(json.get("base").getAsString());
-            int baseX = startX + 26;
-            int baseY = startY + 1;
-            context.drawItem(new ItemStack(base), baseX, baseY);
-
-            // Check for hover on base
-            if (mouseX >= baseX && mouseX <= baseX + 16 &&
-                mouseY >= baseY && mouseY <= baseY + 16) {
-                hoveredRecipeItem = base;
+        // Draw template, base and addition
+        int[] slotOffsets = {0, 25, 50};
+        for (int slot = CompiledRecipe.SMITHING_TEMPLATE; slot <= CompiledRecipe.SMITHING_ADDITION; slot++) {
+            ItemStack stack = compiled.slot(slot, cycle);
+            if (stack.isEmpty()) {
+                continue;
             }
-        }
-
-        // Draw addition item
-        if (json.has("addition")) {
-            Item addition = resolveItemFromIdOrTag(json.get("addition").getAsString());
-            int additionX = startX + 51;
-            int additionY = startY + 1;
-            context.drawItem(new ItemStack(addition), additionX, additionY);
+            int itemX = startX + slotOffsets[slot] + 1;
+            int itemY = startY + 1;
+            context.drawItem(stack, itemX, itemY);
 
-            // Check for hover on addition
-            if (mouseX >= additionX && mouseX <= additionX + 16 &&
-                mouseY >= additionY && mouseY <= additionY + 16) {
-                hoveredRecipeItem = addition;
+            // Check for hover on this input
+            if (mouseX >= itemX && mouseX <= itemX + 16 &&
+                mouseY >= itemY && mouseY <= itemY + 16) {
+                hoveredRecipeStack = stack;
             }
         }
 
@@ -929,9 +939,7 @@ public class RecipeScreen extends Screen {
                 startX + 75, startY, 44.0f, 15.0f, 20, 15, 256, 256);
 
         // Draw result
-        JsonObject result = json.getAsJsonObject("result");
-        int count = result.has("count") ? result.get("count").getAsInt() : 1;
-        ItemStack resultStack = new ItemStack(resolveItemFromIdOrTag(result.get("id").getAsString()), count);
+        ItemStack resultStack = compiled.result;
         int resultX = startX + 101;
         int resultY = startY + 1;
         context.drawItem(resultStack, resultX, resultY);
@@ -939,12 +947,12 @@ public class RecipeScreen extends Screen {
         // Check for hover on result
         if (mouseX >= resultX && mouseX <= resultX + 16 &&
             mouseY >= resultY && mouseY <= resultY + 16) {
-            hoveredRecipeItem = resultStack.getItem();
+            hoveredRecipeStack = resultStack;
         }
 
         // Draw count text manually if more than 1
-        if (count > 1) {
-            String countText = String.valueOf(count);
+        if (resultStack.getCount() > 1) {
+            String countText = String.valueOf(resultStack.getCount());
             int textX = startX + 101 + 16 - this.textRenderer.getWidth(countText);
             int textY = startY + 1 + 16 - this.textRenderer.fontHeight;
             context.drawText(this.textRenderer, countText, textX, textY, 0xFFFFFF, true);
@@ -956,69 +964,41 @@ public class RecipeScreen extends Screen {
         context.drawTextWithShadow(this.textRenderer, Text.literal("Addition"), startX + 50, startY + 25, 0xAAAAA);
         context.drawTextWithShadow(this.textRenderer, Text.literal("Result"), startX + 100, startY + 25, 0xAAAAA);
 
-        // Render tooltip for hovered recipe item at highest z-level
-        if (hoveredRecipeItem != null) {
-            context.getMatrices().push();
-            context.getMatrices().translate(0, 0, 500); // Even higher than item list tooltips
-            ItemStack stack = new ItemStack(hoveredRecipeItem);
-            context.drawTooltip(this.textRenderer, List.of(stack.getName()), mouseX, mouseY);
-            context.getMatrices().pop();
-        }
+        renderRecipeTooltip(context, hoveredRecipeStack, mouseX, mouseY);
     }
 
-    private void renderCooking(DrawContext context, JsonObject json, String type, int startX, int startY, int mouseX, int mouseY) {
-        // Handle single or multiple ingredients
-        List<String> ingredientIds = new ArrayList<>();
-        if (json.get("ingredient").isJsonArray()) {
-            JsonArray arr = json.getAsJsonArray("ingredient");
-            for (JsonElement el : arr) ingredientIds.add(el.getAsString());
-        } else if (json.get("ingredient").isJsonPrimitive()) {
-            ingredientIds.add(json.get("ingredient").getAsString());
-        }
-
-        // Cycle through ingredients if multiple
-        if (ingredientIds.size() > 1) {
-            long now = System.currentTimeMillis();
-            if (now - lastCycleTime > CYCLE_INTERVAL_MS) {
-                ingredientCycleIndex = (ingredientCycleIndex + 1) % ingredientIds.size();
-                lastCycleTime = now;
-            }
-        } else {
-            ingredientCycleIndex = 0;
-        }
-
+    private void renderCooking(DrawContext context, CompiledRecipe compiled, long cycle, int startX, int startY, int mouseX, int mouseY) {
         // Draw furnace interface
         drawSlot(context, startX, startY, false); // Input slot
         drawSlot(context, startX, startY + 40, false); // Fuel slot (placeholder)
         drawSlot(context, startX + 80, startY + 20, false); // Result slot
 
         // Track hovered items for tooltips
-        Item hoveredRecipeItem = null;
+        ItemStack hoveredRecipeStack = ItemStack.EMPTY;
 
-        // Draw ingredient
-        if (!ingredientIds.isEmpty()) {
-            String id = ingredientIds.get(ingredientCycleIndex);
-            Item item = resolveItemFromIdOrTag(id);
+        // Draw ingredient, cycling through alternatives on the shared clock
+        ItemStack ingredient = compiled.slot(CompiledRecipe.COOKING_INPUT, cycle);
+        if (!ingredient.isEmpty()) {
             int ingredientX = startX + 1;
             int ingredientY = startY + 1;
-            context.drawItem(new ItemStack(item), ingredientX, ingredientY);
+            context.drawItem(ingredient, ingredientX, ingredientY);
 
             // Check for hover on ingredient
             if (mouseX >= ingredientX && mouseX <= ingredientX + 16 &&
                 mouseY >= ingredientY && mouseY <= ingredientY + 16) {
-                hoveredRecipeItem = item;
+                hoveredRecipeStack = ingredient;
             }
         }
 
         // Draw fuel (coal as example)
         int fuelX = startX + 1;
         int fuelY = startY + 41;
-        context.drawItem(new ItemStack(Items.COAL), fuelX, fuelY);
+        context.drawItem(FUEL_STACK, fuelX, fuelY);
 
         // Check for hover on fuel
         if (mouseX >= fuelX && mouseX <= fuelX + 16 &&
             mouseY >= fuelY && mouseY <= fuelY + 16) {
-            hoveredRecipeItem = Items.COAL;
+            hoveredRecipeStack = FUEL_STACK;
         }
 
         // Draw furnace progress arrow
@@ -1027,20 +1007,15 @@ public class RecipeScreen extends Screen {
                 startX + 30, startY + 20, 79.0f, 34.0f, 24, 17, 256, 256);
 
         // Draw cooking time
-        int cookingTime = json.has("cookingtime") ? json.get("cookingtime").getAsInt() : 200;
-        float experience = json.has("experience") ? json.get("experience").getAsFloat() : 0.0f;
-
         context.drawTextWithShadow(this.textRenderer,
-                Text.literal("Time: " + (cookingTime / 20.0f) + "s"),
+                Text.literal("Time: " + (compiled.cookingTime / 20.0f) + "s"),
                 startX, startY + 70, 0xAAAAA);
         context.drawTextWithShadow(this.textRenderer,
-                Text.literal("XP: " + experience),
+                Text.literal("XP: " + compiled.experience),
                 startX, startY + 85, 0xAAAAA);
 
         // Draw result
-        JsonObject result = json.getAsJsonObject("result");
-        int count = result.has("count") ? result.get("count").getAsInt() : 1;
-        ItemStack resultStack = new ItemStack(resolveItemFromIdOrTag(result.get("id").getAsString()), count);
+        ItemStack resultStack = compiled.result;
         int resultX = startX + 81;
         int resultY = startY + 21;
         context.drawItem(resultStack, resultX, resultY);
@@ -1048,28 +1023,31 @@ public class RecipeScreen extends Screen {
         // Check for hover on result item
         if (mouseX >= resultX && mouseX <= resultX + 16 &&
             mouseY >= resultY && mouseY <= resultY + 16) {
-            hoveredRecipeItem = resultStack.getItem();
+            hoveredRecipeStack = resultStack;
         }
 
         // Draw count text manually if more than 1
-        if (count > 1) {
-            String countText = String.valueOf(count);
+        if (resultStack.getCount() > 1) {
+            String countText = String.valueOf(resultStack.getCount());
             int textX = startX + 81 + 16 - this.textRenderer.getWidth(countText);
             int textY = startY + 21 + 16 - this.textRenderer.fontHeight;
             // Draw with shadow and higher z-level to ensure it's in front
             context.drawText(this.textRenderer, countText, textX, textY, 0xFFFFFF, true);
         }
 
-        // Render tooltip for hovered recipe item at highest z-level
-        if (hoveredRecipeItem != null) {
-            context.getMatrices().push();
-            context.getMatrices().translate(0, 0, 500); // Even higher than item list tooltips
-            ItemStack stack = new ItemStack(hoveredRecipeItem);
-            context.drawTooltip(this.textRenderer, List.of(stack.getName()), mouseX, mouseY);
-            context.getMatrices().pop();
-        }
+        renderRecipeTooltip(context, hoveredRecipeStack, mouseX, mouseY);
     }
 
+    // Render tooltip for hovered recipe item at highest z-level
+    private void renderRecipeTooltip(DrawContext context, ItemStack hoveredRecipeStack, int mouseX, int mouseY) {
+        if (hoveredRecipeStack.isEmpty()) {
+            return;
+        }
+        context.getMatrices().push();
+        context.getMatrices().translate(0, 0, 500); // Even higher than item list tooltips
+        context.drawTooltip(this.textRenderer, List.of(hoveredRecipeStack.getName()), mouseX, mouseY);
+        context.getMatrices().pop();
+    }
 
     private void drawSlot(DrawContext context, int x, int y, boolean selected) {
         int color = selected ? 0xFFFFFFFF : 0xFF8B8B8B;
@@ -1078,129 +1056,17 @@ public class RecipeScreen extends Screen {
         context.fill(x, y, x + SLOT_SIZE, y + SLOT_SIZE, 0xFF373737);
     }
 
-    // Helper method to resolve tags to actual items
-    private Item resolveItemFromIdOrTag(String idOrTag) {
-        if (idOrTag.startsWith("#")) {
-            // This is a tag, map it to a representative item
-            return getRepresentativeItemFromTag(idOrTag);
-        } else {
-            // Regular item ID - remove any leading hashtag if present
-            String cleanId = idOrTag.startsWith("#") ? idOrTag.substring(1) : idOrTag;
-            try {
-                return Registries.ITEM.get(Identifier.of(cleanId));
-            } catch (Exception e) {
-                System.err.println("Failed to parse item ID: " + cleanId);
-                return Items.BARRIER; // Fallback item
-            }
-        }
-    }
-
-    private Item getRepresentativeItemFromTag(String tag) {
-        // Map common tags to representative items
-        switch (tag) {
-            case "#minecraft:planks":
-                return Items.OAK_PLANKS;
-            case "#minecraft:logs":
-            case "#minecraft:logs_that_burn":
-                return Items.OAK_LOG;
-            case "#minecraft:acacia_logs":
-                return Items.ACACIA_LOG;
-            case "#minecraft:birch_logs":
-                return Items.BIRCH_LOG;
-            case "#minecraft:cherry_logs":
-                return Items.CHERRY_LOG;
-            case "#minecraft:dark_oak_logs":
-                return Items.DARK_OAK_LOG;
-            case "#minecraft:jungle_logs":
-                return Items.JUNGLE_LOG;
-            case "#minecraft:mangrove_logs":
-                return Items.MANGROVE_LOG;
-            case "#minecraft:oak_logs":
-                return Items.OAK_LOG;
-            case "#minecraft:spruce_logs":
-                return Items.SPRUCE_LOG;
-            case "#minecraft:stone_crafting_materials":
-                return Items.COBBLESTONE;
-            case "#minecraft:coals":
-                return Items.COAL;
-            case "#minecraft:wooden_slabs":
-                return Items.OAK_SLAB;
-            case "#minecraft:bundles":
-                return Items.BUNDLE;
-            case "#minecraft:shulker_boxes":
-                return Items.SHULKER_BOX;
-            case "#minecraft:trim_materials":
-                return Items.IRON_INGOT;
-            case "#minecraft:trimmable_armor":
-                return Items.IRON_CHESTPLATE;
-            case "#minecraft:netherite_tool_materials":
-                return Items.NETHERITE_INGOT;
-            case "#minecraft:crimson_stems":
-                return Items.CRIMSON_STEM;
-
-            // Tool material tags
-            case "#minecraft:wooden_tool_materials":
-            case "#minecraft:wood_tool_materials":
-                return Items.OAK_PLANKS;
-            case "#minecraft:stone_tool_materials":
-                return Items.COBBLESTONE;
-            case "#minecraft:iron_tool_materials":
-                return Items.IRON_INGOT;
-            case "#minecraft:golden_tool_materials":
-            case "#minecraft:gold_tool_materials":
-                return Items.GOLD_INGOT;
-            case "#minecraft:diamond_tool_materials":
-                return Items.DIAMOND;
-            case "#minecraft:netherite_upgrade_materials":
-                return Items.NETHERITE_INGOT;
-
-            // Stick for tool handles
-            case "#minecraft:tool_handles":
-            case "#minecraft:sticks":
-                return Items.STICK;
-
-            // Stone variants
-            case "#minecraft:stone_variants":
-                return Items.STONE;
-            case "#minecraft:cobblestone_variants":
-                return Items.COBBLESTONE;
-
-            // Wool and dyes
-            case "#minecraft:wool":
-                return Items.WHITE_WOOL;
-            case "#minecraft:dyes":
-                return Items.RED_DYE;
-
-            // Ingots
-            case "#minecraft:iron_ores":
-                return Items.IRON_ORE;
-            case "#minecraft:gold_ores":
-                return Items.GOLD_ORE;
-            case "#minecraft:copper_ores":
-                return Items.COPPER_ORE;
-            case "#minecraft:diamond_ores":
-                return Items.DIAMOND_ORE;
-
-            default:
-                // If unknown tag, try to extract the item name and use that
-                String cleanTag = tag.replace("#minecraft:", "");
-                if (cleanTag.endsWith("_logs")) {
-                    // Try to find a log item matching the pattern
-                    String logType = cleanTag.replace("_logs", "_log");
-                    try {
-                        return Registries.ITEM.get(Identifier.of("minecraft", logType));
-                    } catch (Exception e) {
-                        System.err.println("Unknown tag: " + tag + ", could not resolve to " + logType + ", using oak log as fallback");
-                        return Items.OAK_LOG;
-                    }
-                }
-                System.err.println("Unknown tag: " + tag + ", using barrier as fallback");
-                return Items.BARRIER;
-        }
-    }
-
     @Override
     public boolean mouseClicked(double mouseX, double mouseY, int button) {
+        // Mouse side buttons walk the history
+        if (button == 3) { // GLFW_MOUSE_BUTTON_4
+            navigateBack();
+            return true;
+        } else if (button == 4) { // GLFW_MOUSE_BUTTON_5
+            navigateForward();
+            return true;
+        }
+
         // Prioritize search field clicks
         if (searchField.mouseClicked(mouseX, mouseY, button)) {
             this.setFocused(searchField);
@@ -1217,15 +1083,9 @@ public class RecipeScreen extends Screen {
             if (col >= 0 && col < itemsPerRow) {
                 int index = row * itemsPerRow + col;
                 if (index >= 0 && index < filteredItems.size()) {
-                    Item clickedItem = filteredItems.get(index);
-                    if (client != null) {
-                        // Preserve current state before switching to new item
-                        preservedSearchText = searchField.getText();
-                        preservedScrollOffset = scrollOffset;
-                        preservedCraftableFilter = RecipeViewerConfig.getInstance().showOnlyCraftable;
-
-                        client.setScreen(new RecipeScreen(clickedItem));
-                    }
+                    selectedIndex = index;
+                    // Just swap the displayed item - list, filter and scroll position stay as they are
+                    navigateTo(filteredItems.get(index));
                     return true;
                 }
             }
@@ -1243,14 +1103,6 @@ public class RecipeScreen extends Screen {
         return super.mouseScrolled(mouseX, mouseY, horizontalAmount, verticalAmount);
     }
 
-    @Override
-    public void resize(MinecraftClient client, int width, int height) {
-        String searchText = searchField.getText();
-        super.resize(client, width, height);
-        this.init();
-        searchField.setText(searchText);
-    }
-
     @Override
     public boolean shouldPause() {
         return false;
@@ -1260,7 +1112,8 @@ public class RecipeScreen extends Screen {
     public boolean keyPressed(int keyCode, int scanCode, int modifiers) {
         // Handle Escape key (256) and E key (69) to return to previous GUI
         // But only if search field is not focused
-        if ((keyCode == 256 || keyCode == 69) && !searchField.isFocused()) { // GLFW_KEY_ESCAPE or GLFW_KEY_E
+        if ((keyCode == 256 || keyCode == 69) && !searchField.isFocused() && !bomQuantityField.isFocused() &&
+            !craftCountField.isFocused()) { // GLFW_KEY_ESCAPE or GLFW_KEY_E
             if (client != null) {
                 // Return to the previous screen if available, otherwise default to inventory
                 Screen previousScreen = ItemListOverlay.getPreviousScreen();
@@ -1274,137 +1127,61 @@ public class RecipeScreen extends Screen {
             }
         }
 
-        return super.keyPressed(keyCode, scanCode, modifiers);
-    }
-
-    private void loadSmithingRecipes(String itemName) {
-        // Load smithing transform recipes for netherite items and other upgrades
-
-        // Check for netherite upgrade recipes (diamond -> netherite)
-        if (itemName.startsWith("netherite_")) {
-            String baseItem = itemName.replace("netherite_", "diamond_");
-            String recipeName = itemName + "_smithing";
-
-            Identifier file = Identifier.of("jackson", "smithing/" + recipeName + ".json");
-            try (InputStreamReader reader = new InputStreamReader(
-                    Objects.requireNonNull(
-                            getClass().getClassLoader().getResourceAsStream("assets/" + file.getNamespace() + "/" + file.getPath()))
-            )) {
-                JsonObject recipeJson = JsonParser.parseReader(reader).getAsJsonObject();
-                recipeJson.addProperty("recipe_type_display", "Smithing");
-                recipeJson.addProperty("recipe_variant", "Netherite Upgrade");
-                allRecipes.add(recipeJson);
-            } catch (Exception e) {
-                // Create a synthetic smithing recipe for netherite items
-                createSyntheticNetheriteSmithingRecipe(itemName, baseItem);
+        if (bomQuantityField.isFocused() || craftCountField.isFocused()) {
+            if (keyCode == GLFW.GLFW_KEY_ESCAPE || keyCode == GLFW.GLFW_KEY_ENTER || keyCode == GLFW.GLFW_KEY_KP_ENTER) {
+                bomQuantityField.setFocused(false);
+                craftCountField.setFocused(false);
+                this.setFocused(null);
+                return true;
             }
+            return super.keyPressed(keyCode, scanCode, modifiers);
         }
 
-        // Check for armor trimming recipes
-        if (isTrimmableArmor(itemName)) {
-            loadArmorTrimmingRecipes(itemName);
+        if (searchField.isFocused()) {
+            if (keyCode == GLFW.GLFW_KEY_ENTER || keyCode == GLFW.GLFW_KEY_KP_ENTER || keyCode == GLFW.GLFW_KEY_DOWN) {
+                // Leave the search field and start walking the results
+                searchField.setFocused(false);
+                this.setFocused(null);
+                selectListIndex(scrollOffset * (ITEM_LIST_WIDTH / SLOT_SIZE));
+                return true;
+            }
+            return super.keyPressed(keyCode, scanCode, modifiers);
         }
 
-        // Load any other smithing recipes that might exist
-        String[] smithingVariants = {
-            itemName + "_smithing",
-            itemName + "_from_smithing",
-            "smithing_" + itemName
-        };
-
-        for (String variant : smithingVariants) {
-            Identifier file = Identifier.of("jackson", "smithing/" + variant + ".json");
-            try (InputStreamReader reader = new InputStreamReader(
-                    Objects.requireNonNull(
-                            getClass().getClassLoader().getResourceAsStream("assets/" + file.getNamespace() + "/" + file.getPath()))
-            )) {
-                JsonObject recipeJson = JsonParser.parseReader(reader).getAsJsonObject();
-                if (!recipeJson.has("recipe_type_display")) {
-                    recipeJson.addProperty("recipe_type_display", "Smithing");
-                    recipeJson.addProperty("recipe_variant", "Standard");
+        int itemsPerRow = ITEM_LIST_WIDTH / SLOT_SIZE;
+        int from = selectedIndex >= 0 ? selectedIndex : scrollOffset * itemsPerRow;
+        int step = selectedIndex >= 0 ? 1 : 0;
+        switch (keyCode) {
+            case GLFW.GLFW_KEY_LEFT:
+                selectListIndex(from - step);
+                return true;
+            case GLFW.GLFW_KEY_RIGHT:
+                selectListIndex(from + step);
+                return true;
+            case GLFW.GLFW_KEY_UP:
+                selectListIndex(from - step * itemsPerRow);
+                return true;
+            case GLFW.GLFW_KEY_DOWN:
+                selectListIndex(from + step * itemsPerRow);
+                return true;
+            case GLFW.GLFW_KEY_ENTER:
+            case GLFW.GLFW_KEY_KP_ENTER:
+                if (selectedIndex >= 0 && selectedIndex < filteredItems.size()) {
+                    navigateTo(filteredItems.get(selectedIndex));
+                    return true;
                 }
-                allRecipes.add(recipeJson);
-            } catch (Exception e) {
-                // Recipe doesn't exist, continue
-            }
+                break;
+            case GLFW.GLFW_KEY_PAGE_UP:
+                cycleRecipe(-1);
+                return true;
+            case GLFW.GLFW_KEY_PAGE_DOWN:
+                cycleRecipe(1);
+                return true;
+            default:
+                break;
         }
-    }
-
-    private void createSyntheticNetheriteSmithingRecipe(String netheriteItem, String diamondItem) {
-        // Create a synthetic smithing recipe for netherite upgrades when recipe file doesn't exist
-        JsonObject syntheticRecipe = new JsonObject();
-        syntheticRecipe.addProperty("type", "minecraft:smithing_transform");
-        syntheticRecipe.addProperty("template", "minecraft:netherite_upgrade_smithing_template");
-        syntheticRecipe.addProperty("base", "minecraft:" + diamondItem);
-        syntheticRecipe.addProperty("addition", "minecraft:netherite_ingot");
-
-        JsonObject result = new JsonObject();
-        result.addProperty("id", "minecraft:" + netheriteItem);
-        result.addProperty("count", 1);
-        syntheticRecipe.add("result", result);
-
-        syntheticRecipe.addProperty("recipe_type_display", "Smithing");
-        syntheticRecipe.addProperty("recipe_variant", "Netherite Upgrade (Synthetic)");
 
-        allRecipes.add(syntheticRecipe);
-    }
-
-    private boolean isTrimmableArmor(String itemName) {
-        return itemName.endsWith("_helmet") || itemName.endsWith("_chestplate") ||
-               itemName.endsWith("_leggings") || itemName.endsWith("_boots");
-    }
-
-    private void loadArmorTrimmingRecipes(String armorItem) {
-        // Common smithing templates for armor trimming
-        String[] trimmingTemplates = {
-            "coast_armor_trim_smithing_template",
-            "dune_armor_trim_smithing_template",
-            "eye_armor_trim_smithing_template",
-            "host_armor_trim_smithing_template",
-            "raiser_armor_trim_smithing_template",
-            "rib_armor_trim_smithing_template",
-            "sentry_armor_trim_smithing_template",
-            "shaper_armor_trim_smithing_template",
-            "silence_armor_trim_smithing_template",
-            "snout_armor_trim_smithing_template",
-            "spire_armor_trim_smithing_template",
-            "tide_armor_trim_smithing_template",
-            "vex_armor_trim_smithing_template",
-            "ward_armor_trim_smithing_template",
-            "wayfinder_armor_trim_smithing_template",
-            "wild_armor_trim_smithing_template"
-        };
-
-        // Common trim materials
-        String[] trimMaterials = {
-            "iron_ingot", "gold_ingot", "diamond", "emerald", "netherite_ingot",
-            "redstone", "lapis_lazuli", "amethyst_shard", "quartz", "copper_ingot"
-        };
-
-        // Create synthetic armor trimming recipes
-        for (String template : trimmingTemplates) {
-            for (String material : trimMaterials) {
-                JsonObject trimRecipe = new JsonObject();
-                trimRecipe.addProperty("type", "minecraft:smithing_transform");
-                trimRecipe.addProperty("template", "minecraft:" + template);
-                trimRecipe.addProperty("base", "minecraft:" + armorItem);
-                trimRecipe.addProperty("addition", "minecraft:" + material);
-
-                JsonObject result = new JsonObject();
-                result.addProperty("id", "minecraft:" + armorItem);
-                result.addProperty("count", 1);
-                trimRecipe.add("result", result);
-
-                trimRecipe.addProperty("recipe_type_display", "Smithing");
-                String trimName = template.replace("_armor_trim_smithing_template", "");
-                String materialName = material.replace("_", " ");
-                trimRecipe.addProperty("recipe_variant", "Trim: " +
-                    Character.toUpperCase(trimName.charAt(0)) + trimName.substring(1) +
-                    " (" + Character.toUpperCase(materialName.charAt(0)) + materialName.substring(1) + ")");
-
-                allRecipes.add(trimRecipe);
-            }
-        }
+        return super.keyPressed(keyCode, scanCode, modifiers);
     }
 
     private boolean isCraftingRecipe(JsonObject recipe) {
@@ -1416,50 +1193,71 @@ public class RecipeScreen extends Screen {
     }
 
     private void handleCraftButtonClick() {
-        if (recipe == null || !isCraftingRecipe(recipe)) {
+        if (recipe == null || !isCraftingRecipe(recipe.json)) {
             return;
         }
 
-        // Get the ingredients needed for the recipe
-        List<ItemStack> requiredItems = getRequiredIngredients(recipe);
+        // Get the ingredients needed for the recipe, one per grid slot
+        List<JsonElement> requiredIngredients = getRequiredIngredients(recipe.json);
         
         // Check if player has all required items
         if (client.player == null) {
             return;
         }
 
-        Map<Item, Integer> playerInventory = getPlayerInventory();
         missingItems.clear();
         
         boolean hasAllItems = true;
-        Map<Item, Integer> requiredCounts = new HashMap<>();
+        Map<String, Integer> requiredCounts = new LinkedHashMap<>();
+        Map<String, JsonElement> ingredientsByKey = new HashMap<>();
         
-        // Count required items
-        for (ItemStack required : requiredItems) {
-            Item item = required.getItem();
-            int count = required.getCount();
-            requiredCounts.merge(item, count, Integer::sum);
+        // Count required items - slots sharing an ingredient (every "#minecraft:planks") draw from one pool
+        for (JsonElement ingredient : requiredIngredients) {
+            String key = ingredient.toString();
+            requiredCounts.merge(key, 1, Integer::sum);
+            ingredientsByKey.put(key, ingredient);
         }
         
-        // Check if player has enough of each item
-        for (Map.Entry<Item, Integer> entry : requiredCounts.entrySet()) {
-            Item item = entry.getKey();
+        // Check if player has enough of each, counting every held item the ingredient accepts. Only the
+        // player's own slots count - placement can't reach into an open chest
+        boolean inContainer = false;
+        for (Map.Entry<String, Integer> entry : requiredCounts.entrySet()) {
+            JsonElement ingredient = ingredientsByKey.get(entry.getKey());
             int required = entry.getValue();
-            int available = playerInventory.getOrDefault(item, 0);
+            long[] membership = IngredientResolver.membership(ingredient);
+            int available = InventoryIndex.playerCount(membership);
             
             if (available < required) {
-                missingItems.add(item);
+                missingItems.add(representative(ingredient));
                 hasAllItems = false;
+                inContainer |= InventoryIndex.count(membership) >= required;
             }
         }
         
-        if (hasAllItems) {
-            // Check if we're in a crafting table GUI
+        // Not everything is on hand, but the planner found a way through intermediate crafts - set up its first step
+        if (!hasAllItems && plan != null && plan.status == CraftingPlanner.FOUND && plan.size() > 1) {
+            JsonObject firstStep = RecipeIndex.getRecipeJson(plan.recipes[0]);
             Screen previousScreen = ItemListOverlay.getPreviousScreen();
-            if (previousScreen instanceof net.minecraft.client.gui.screen.ingame.CraftingScreen) {
-                // Put items into crafting table and return to crafting GUI
-                placeCraftingItems(recipe, previousScreen);
+            if (firstStep != null && fitsGrid(firstStep, craftingLayout(previousScreen))) {
+                missingItems.clear();
+                if (!placeCraftingItems(firstStep, previousScreen)) {
+                    return;
+                }
                 client.setScreen(previousScreen);
+                Item stepOutput = Registries.ITEM.get(planGraph.result(plan.recipes[0]));
+                client.player.sendMessage(Text.literal("Step 1 of " + plan.size() + ": " + stepOutput.getName().getString()), true);
+                return;
+            }
+        }
+
+        if (hasAllItems) {
+            // Check if we came from a screen with a crafting grid big enough for the recipe
+            Screen previousScreen = ItemListOverlay.getPreviousScreen();
+            if (fitsGrid(recipe.json, craftingLayout(previousScreen))) {
+                // Put items into the grid and return to the crafting GUI
+                if (placeCraftingItems(recipe.json, previousScreen)) {
+                    client.setScreen(previousScreen);
+                }
             } else {
                 // Show message that crafting table is needed
                 if (client.player != null) {
@@ -1469,11 +1267,156 @@ public class RecipeScreen extends Screen {
         } else {
             // Highlight missing items in red for 2 seconds
             missingItemsHighlightStart = System.currentTimeMillis();
+            if (inContainer) {
+                client.player.sendMessage(Text.literal("Take the ingredients out of the container first"), true);
+            }
+        }
+    }
+
+    // Transmute recipes keep their components on the input, so only plain grid recipes are batched
+    private boolean isBatchCraftable(JsonObject recipe) {
+        String type = recipe.get("type").getAsString();
+        return "minecraft:crafting_shaped".equals(type) || "minecraft:crafting_shapeless".equals(type);
+    }
+
+    private void handleBatchCraftClick(boolean max) {
+        if (recipe == null || !isBatchCraftable(recipe.json) || client.player == null) {
+            return;
+        }
+        Screen previousScreen = ItemListOverlay.getPreviousScreen();
+        SlotLayout layout = craftingLayout(previousScreen);
+        if (!fitsGrid(recipe.json, layout)) {
+            client.player.sendMessage(Text.literal("Open a crafting table to auto-craft this recipe"), true);
+            return;
+        }
+        if (CraftingPipeline.isBusy()) {
+            client.player.sendMessage(Text.literal("Still crafting the last batch"), true);
+            return;
+        }
+
+        int[] pattern = gridPattern(recipe.json, layout.gridWidth());
+        int resultCount = resultCount(recipe.json);
+        int crafts = BatchCraftPlanner.MAX;
+        if (!max) {
+            int wanted = craftCountText.isEmpty() ? 0 : Integer.parseInt(craftCountText);
+            if (wanted == 0) {
+                return;
+            }
+            crafts = (wanted + resultCount - 1) / resultCount;
+        }
+        ScreenHandler handler = ((HandledScreen<?>) previousScreen).getScreenHandler();
+        if (CraftingPipeline.canCraftOnServer(recipe.json)) {
+            // The server places and crafts the whole batch itself, remainders included
+            CraftingPipeline.startOnServer(handler, recipe.json, crafts, targetItem);
+            client.setScreen(previousScreen);
+            return;
+        }
+        // Buckets and bottles stay behind in the grid, which the planner doesn't model - one craft at a time
+        for (int item : pattern) {
+            if (item >= 0 && !Registries.ITEM.get(item).getRecipeRemainder().isEmpty()) {
+                crafts = Math.min(crafts, 1);
+            }
+        }
+
+        // Snapshot the inventory and grid for the planner to simulate against
+        int[] invItem = new int[BatchCraftPlanner.INVENTORY_SIZE];
+        int[] invCount = new int[BatchCraftPlanner.INVENTORY_SIZE];
+        int[] gridItem = new int[BatchCraftPlanner.GRID_SIZE];
+        int[] gridCount = new int[BatchCraftPlanner.GRID_SIZE];
+        snapshot(handler, layout, invItem, invCount, gridItem, gridCount);
+
+        BatchCraftPlanner.Sequence sequence = BatchCraftPlanner.plan(layout, pattern, Registries.ITEM.getRawId(targetItem),
+            resultCount, id -> Registries.ITEM.get(id).getMaxCount(), invItem, invCount, gridItem, gridCount, crafts);
+        if (sequence.crafts == 0) {
+            client.player.sendMessage(Text.literal(sequence.status == BatchCraftPlanner.INVENTORY_FULL ?
+                "No room in the inventory to craft" : "Not enough ingredients to craft"), true);
+            return;
+        }
+
+        if (layout.countPackets(sequence) < 0) {
+            System.err.println("Batch craft planned a click outside " + handler.getClass().getSimpleName());
+            return;
+        }
+        CraftingPipeline.start(handler, sequence, layout::toHandler, targetItem, resultCount);
+        client.setScreen(previousScreen);
+    }
+
+    // The crafting grid layout behind a screen, or null if it has none (creative inventory, furnaces, ...)
+    private SlotLayout craftingLayout(Screen screen) {
+        if (screen instanceof HandledScreen<?> handledScreen) {
+            return SlotMapping.forHandler(handledScreen.getScreenHandler());
+        }
+        return null;
+    }
+
+    // Whether the recipe can be laid out in the grid - 2x2 recipes work from the inventory screen
+    private boolean fitsGrid(JsonObject recipe, SlotLayout layout) {
+        if (layout == null) {
+            return false;
         }
+        if ("minecraft:crafting_transmute".equals(recipe.get("type").getAsString())) {
+            return true;
+        }
+        return layout.fits(gridPattern(recipe, layout.gridWidth()));
+    }
+
+    // Raw item id wanted at each 3x3 grid position. Tag ingredients use whichever matching item the player
+    // holds the most of, not counting an open container; shapeless ingredients fill a grid of the given
+    // width row by row
+    private int[] gridPattern(JsonObject recipe, int width) {
+        int[] pattern = new int[BatchCraftPlanner.GRID_SIZE];
+        Arrays.fill(pattern, -1);
+        if ("minecraft:crafting_shaped".equals(recipe.get("type").getAsString())) {
+            JsonArray rows = recipe.getAsJsonArray("pattern");
+            JsonObject key = recipe.getAsJsonObject("key");
+            for (int row = 0; row < rows.size() && row < 3; row++) {
+                String line = rows.get(row).getAsString();
+                for (int col = 0; col < line.length() && col < 3; col++) {
+                    char symbol = line.charAt(col);
+                    if (symbol != ' ' && key.has(String.valueOf(symbol))) {
+                        pattern[row * 3 + col] = bestAlternative(key.get(String.valueOf(symbol)));
+                    }
+                }
+            }
+        } else {
+            JsonArray ingredients = recipe.getAsJsonArray("ingredients");
+            for (int i = 0; i < ingredients.size() && i < pattern.length; i++) {
+                // Ingredients that spill past a 2x2 land outside it, so fits() rejects the recipe
+                int position = (i / width) * 3 + i % width;
+                if (position < pattern.length) {
+                    pattern[position] = bestAlternative(ingredients.get(i));
+                }
+            }
+        }
+        return pattern;
+    }
+
+    private int bestAlternative(JsonElement ingredient) {
+        long[] membership = IngredientResolver.membership(ingredient);
+        int best = -1;
+        for (int word = 0; word < membership.length; word++) {
+            long bits = membership[word];
+            while (bits != 0) {
+                int rawId = (word << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                if (best < 0 || InventoryIndex.playerCount(rawId) > InventoryIndex.playerCount(best)) {
+                    best = rawId;
+                }
+            }
+        }
+        return best;
     }
 
-    private List<ItemStack> getRequiredIngredients(JsonObject recipe) {
-        List<ItemStack> ingredients = new ArrayList<>();
+    private int resultCount(JsonObject recipe) {
+        JsonElement result = recipe.get("result");
+        if (result.isJsonObject() && result.getAsJsonObject().has("count")) {
+            return result.getAsJsonObject().get("count").getAsInt();
+        }
+        return 1;
+    }
+
+    private List<JsonElement> getRequiredIngredients(JsonObject recipe) {
+        List<JsonElement> ingredients = new ArrayList<>();
         String type = recipe.get("type").getAsString();
         
         switch (type) {
@@ -1485,9 +1428,7 @@ public class RecipeScreen extends Screen {
                     String row = patternRow.getAsString();
                     for (char symbol : row.toCharArray()) {
                         if (symbol != ' ' && key.has(String.valueOf(symbol))) {
-                            String itemId = key.get(String.valueOf(symbol)).getAsString();
-                            Item item = resolveItemFromIdOrTag(itemId);
-                            ingredients.add(new ItemStack(item, 1));
+                            ingredients.add(key.get(String.valueOf(symbol)));
                         }
                     }
                 }
@@ -1495,34 +1436,18 @@ public class RecipeScreen extends Screen {
                 
             case "minecraft:crafting_shapeless":
                 if (recipe.has("ingredients")) {
-                    JsonArray ingredientsArray = recipe.getAsJsonArray("ingredients");
-                    for (JsonElement ingredient : ingredientsArray) {
-                        String itemId;
-                        if (ingredient.isJsonArray()) {
-                            // Take first option for ingredient arrays
-                            itemId = ingredient.getAsJsonArray().get(0).getAsString();
-                        } else {
-                            itemId = ingredient.getAsString();
-                        }
-                        Item item = resolveItemFromIdOrTag(itemId);
-                        ingredients.add(new ItemStack(item, 1));
+                    for (JsonElement ingredient : recipe.getAsJsonArray("ingredients")) {
+                        ingredients.add(ingredient);
                     }
                 }
                 break;
                 
             case "minecraft:crafting_transmute":
                 // Base item + dye
-                ingredients.add(new ItemStack(targetItem, 1));
-                JsonElement resultElement = recipe.get("result");
-                String resultId;
-                if (resultElement.isJsonObject()) {
-                    resultId = resultElement.getAsJsonObject().get("id").getAsString();
-                } else {
-                    resultId = resultElement.getAsString();
-                }
-                Item dye = getDyeForItem(resultId);
+                ingredients.add(new JsonPrimitive(Registries.ITEM.getId(targetItem).toString()));
+                Item dye = transmuteDye(recipe);
                 if (dye != null) {
-                    ingredients.add(new ItemStack(dye, 1));
+                    ingredients.add(new JsonPrimitive(Registries.ITEM.getId(dye).toString()));
                 }
                 break;
         }
@@ -1530,131 +1455,16 @@ public class RecipeScreen extends Screen {
         return ingredients;
     }
 
-    private Map<Item, Integer> getPlayerInventory() {
-        Map<Item, Integer> inventory = new HashMap<>();
-        if (client.player == null) {
-            return inventory;
-        }
-        
-        // Count items in player inventory
-        for (int i = 0; i < client.player.getInventory().size(); i++) {
-            ItemStack stack = client.player.getInventory().getStack(i);
-            if (!stack.isEmpty()) {
-                inventory.merge(stack.getItem(), stack.getCount(), Integer::sum);
-            }
+    // The item shown as missing for an ingredient - the representative for tags, the first option for lists
+    private Item representative(JsonElement ingredient) {
+        if (ingredient.isJsonArray()) {
+            JsonArray options = ingredient.getAsJsonArray();
+            return options.size() > 0 ? IngredientResolver.resolveItem(options.get(0).getAsString()) : Items.BARRIER;
         }
-        
-        return inventory;
+        return IngredientResolver.resolveItem(ingredient.getAsString());
     }
 
-    private void placeCraftingItems(JsonObject recipe, Screen craftingScreen) {
-        if (!(craftingScreen instanceof CraftingScreen)) {
-            return;
-        }
-        
-        CraftingScreen craftingScreenInstance = (CraftingScreen) craftingScreen;
-        CraftingScreenHandler handler = craftingScreenInstance.getScreenHandler();
-        
-        if (client.player == null || client.interactionManager == null) {
-            return;
-        }
-        
-        // Clear existing items from crafting grid (slots 1-9)
-        for (int slot = 1; slot <= 9; slot++) {
-            if (!handler.getSlot(slot).getStack().isEmpty()) {
-                // Move item back to inventory
-                client.interactionManager.clickSlot(handler.syncId, slot, 0, SlotActionType.QUICK_MOVE, client.player);
-            }
-        }
-        
-        String type = recipe.get("type").getAsString();
-        
-        switch (type) {
-            case "minecraft:crafting_shaped":
-                placeCraftingItemsShaped(recipe, handler);
-                break;
-            case "minecraft:crafting_shapeless":
-                placeCraftingItemsShapeless(recipe, handler);
-                break;
-            case "minecraft:crafting_transmute":
-                placeCraftingItemsTransmute(recipe, handler);
-                break;
-        }
-        
-        if (client.player != null) {
-            client.player.sendMessage(Text.literal("Items placed in crafting table!"), true);
-        }
-    }
-    
-    private void placeCraftingItemsShaped(JsonObject recipe, CraftingScreenHandler handler) {
-        JsonArray pattern = recipe.getAsJsonArray("pattern");
-        JsonObject key = recipe.getAsJsonObject("key");
-        
-        Map<Character, String> keyMap = new HashMap<>();
-        for (Map.Entry<String, JsonElement> entry : key.entrySet()) {
-            char symbol = entry.getKey().charAt(0);
-            JsonElement ingredientElement = entry.getValue();
-            
-            String id;
-            if (ingredientElement.isJsonArray()) {
-                JsonArray options = ingredientElement.getAsJsonArray();
-                if (options.size() > 0) {
-                    id = options.get(0).getAsString();
-                } else {
-                    continue;
-                }
-            } else {
-                id = ingredientElement.getAsString();
-            }
-            keyMap.put(symbol, id);
-        }
-        
-        // Place items according to pattern
-        for (int row = 0; row < pattern.size() && row < 3; row++) {
-            String line = pattern.get(row).getAsString();
-            for (int col = 0; col < line.length() && col < 3; col++) {
-                char symbol = line.charAt(col);
-                if (symbol != ' ' && keyMap.containsKey(symbol)) {
-                    String itemId = keyMap.get(symbol);
-                    Item item = resolveItemFromIdOrTag(itemId);
-                    int slot = 1 + row * 3 + col; // Convert to slot index (1-9)
-                    moveItemToSlot(handler, item, slot);
-                }
-            }
-        }
-    }
-    
-    private void placeCraftingItemsShapeless(JsonObject recipe, CraftingScreenHandler handler) {
-        List<String> ingredientIds = new ArrayList<>();
-        
-        if (recipe.has("ingredients")) {
-            JsonArray ingredients = recipe.getAsJsonArray("ingredients");
-            for (JsonElement el : ingredients) {
-                if (el.isJsonArray()) {
-                    JsonArray options = el.getAsJsonArray();
-                    if (options.size() > 0) {
-                        ingredientIds.add(options.get(0).getAsString());
-                    }
-                } else {
-                    ingredientIds.add(el.getAsString());
-                }
-            }
-        }
-        
-        // Place items in order starting from slot 1
-        for (int i = 0; i < ingredientIds.size() && i < 9; i++) {
-            String itemId = ingredientIds.get(i);
-            Item item = resolveItemFromIdOrTag(itemId);
-            int slot = 1 + i; // Slots 1-9
-            moveItemToSlot(handler, item, slot);
-        }
-    }
-    
-    private void placeCraftingItemsTransmute(JsonObject recipe, CraftingScreenHandler handler) {
-        // Place base item in center (slot 5)
-        moveItemToSlot(handler, targetItem, 5);
-        
-        // Place dye in top-left (slot 1)
+    private Item transmuteDye(JsonObject recipe) {
         JsonElement resultElement = recipe.get("result");
         String resultId;
         if (resultElement.isJsonObject()) {
@@ -1662,52 +1472,96 @@ public class RecipeScreen extends Screen {
         } else {
             resultId = resultElement.getAsString();
         }
-        
-        Item dye = getDyeForItem(resultId);
-        if (dye != null) {
-            moveItemToSlot(handler, dye, 1);
+        return IngredientResolver.getDyeForItem(resultId);
+    }
+
+    // Raw ids (-1 for empty) and counts of the player's 36 slots and of each 3x3 grid position
+    private void snapshot(ScreenHandler handler, SlotLayout layout, int[] invItem, int[] invCount, int[] gridItem,
+                          int[] gridCount) {
+        for (int i = 0; i < invItem.length; i++) {
+            ItemStack stack = client.player.getInventory().getStack(i);
+            invItem[i] = stack.isEmpty() ? -1 : Registries.ITEM.getRawId(stack.getItem());
+            invCount[i] = stack.getCount();
+        }
+        for (int i = 0; i < gridItem.length; i++) {
+            int slot = layout.gridSlot(i);
+            ItemStack stack = slot == SlotLayout.NONE ? ItemStack.EMPTY : handler.getSlot(slot).getStack();
+            gridItem[i] = stack.isEmpty() ? -1 : Registries.ITEM.getRawId(stack.getItem());
+            gridCount[i] = stack.getCount();
         }
     }
-    
-    private void moveItemToSlot(CraftingScreenHandler handler, Item targetItem, int targetSlot) {
-        if (client.player == null || client.interactionManager == null) {
-            return;
+
+    // Lay one craft's worth of the recipe into the grid. The clicks are planned against a snapshot and checked
+    // against the layout before any is sent; false, with nothing sent, if they can't all be made
+    private boolean placeCraftingItems(JsonObject recipe, Screen craftingScreen) {
+        SlotLayout layout = craftingLayout(craftingScreen);
+        if (layout == null || client.player == null || client.interactionManager == null) {
+            return false;
         }
-        
-        // Find the item in player inventory
-        for (int i = 0; i < client.player.getInventory().size(); i++) {
-            ItemStack stack = client.player.getInventory().getStack(i);
-            if (!stack.isEmpty() && stack.getItem() == targetItem) {
-                // Find the corresponding slot in the screen handler
-                int screenSlot = -1;
-                
-                // Player inventory slots in crafting screen are typically after crafting slots
-                // Slots 0-9 are crafting area, 10+ are player inventory
-                if (i < 9) {
-                    // Hotbar
-                    screenSlot = 37 + i; // Adjust based on actual screen handler layout
-                } else if (i < 36) {
-                    // Main inventory
-                    screenSlot = 10 + (i - 9);
-                } else {
-                    // Hotbar (alternative indexing)
-                    screenSlot = 28 + (i - 27);
+        ScreenHandler handler = ((HandledScreen<?>) craftingScreen).getScreenHandler();
+
+        int[] invItem = new int[BatchCraftPlanner.INVENTORY_SIZE];
+        int[] invCount = new int[BatchCraftPlanner.INVENTORY_SIZE];
+        int[] gridItem = new int[BatchCraftPlanner.GRID_SIZE];
+        int[] gridCount = new int[BatchCraftPlanner.GRID_SIZE];
+        snapshot(handler, layout, invItem, invCount, gridItem, gridCount);
+
+        BatchCraftPlanner.Sequence sequence = BatchCraftPlanner.placeOnce(layout, acceptedByPosition(recipe, layout),
+            id -> Registries.ITEM.get(id).getMaxCount(), invItem, invCount, gridItem, gridCount);
+        if (sequence.status != BatchCraftPlanner.DONE) {
+            client.player.sendMessage(Text.literal(sequence.status == BatchCraftPlanner.INVENTORY_FULL ?
+                "No room in the inventory to clear the grid" : "Not enough ingredients in your inventory"), true);
+            return false;
+        }
+        if (layout.countPackets(sequence) < 0) {
+            System.err.println("Placement planned a click outside " + handler.getClass().getSimpleName());
+            return false;
+        }
+
+        CraftingPipeline.sendNow(client, handler, sequence, layout::toHandler);
+        client.player.sendMessage(Text.literal("Items placed in crafting table!"), true);
+        return true;
+    }
+
+    // What each 3x3 grid position accepts, as an item membership bitset; null where the recipe leaves it empty.
+    // Any held item an ingredient accepts will do, not just a tag's representative
+    private long[][] acceptedByPosition(JsonObject recipe, SlotLayout layout) {
+        long[][] accepted = new long[BatchCraftPlanner.GRID_SIZE][];
+        switch (recipe.get("type").getAsString()) {
+            case "minecraft:crafting_shaped":
+                JsonArray pattern = recipe.getAsJsonArray("pattern");
+                JsonObject key = recipe.getAsJsonObject("key");
+                for (int row = 0; row < pattern.size() && row < 3; row++) {
+                    String line = pattern.get(row).getAsString();
+                    for (int col = 0; col < line.length() && col < 3; col++) {
+                        String symbol = String.valueOf(line.charAt(col));
+                        if (!" ".equals(symbol) && key.has(symbol)) {
+                            accepted[row * 3 + col] = IngredientResolver.membership(key.get(symbol));
+                        }
+                    }
                 }
-                
-                if (screenSlot != -1 && screenSlot < handler.slots.size()) {
-                    // Pick up one item from inventory
-                    client.interactionManager.clickSlot(handler.syncId, screenSlot, 1, SlotActionType.PICKUP, client.player);
-                    
-                    // Place it in the crafting slot
-                    client.interactionManager.clickSlot(handler.syncId, targetSlot, 1, SlotActionType.PICKUP, client.player);
-                    
-                    // If we picked up more than we needed, put the rest back
-                    if (!client.player.currentScreenHandler.getCursorStack().isEmpty()) {
-                        client.interactionManager.clickSlot(handler.syncId, screenSlot, 0, SlotActionType.PICKUP, client.player);
+                break;
+
+            case "minecraft:crafting_shapeless":
+                if (recipe.has("ingredients")) {
+                    // Filled row by row across the grid's own width
+                    JsonArray ingredients = recipe.getAsJsonArray("ingredients");
+                    int width = layout.gridWidth();
+                    for (int i = 0; i < ingredients.size() && i < width * layout.gridHeight(); i++) {
+                        accepted[(i / width) * 3 + i % width] = IngredientResolver.membership(ingredients.get(i));
                     }
-                    break;
                 }
-            }
+                break;
+
+            case "minecraft:crafting_transmute":
+                // Base item in the middle of the grid (bottom right of a 2x2), dye in the top left
+                accepted[4] = IngredientResolver.membership(targetItem);
+                Item dye = transmuteDye(recipe);
+                if (dye != null) {
+                    accepted[0] = IngredientResolver.membership(dye);
+                }
+                break;
         }
+        return accepted;
     }
 }
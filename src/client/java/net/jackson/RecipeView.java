@@ -0,0 +1,505 @@
+package net.jackson;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import net.minecraft.item.Item;
+import net.minecraft.registry.Registries;
+import net.minecraft.util.Identifier;
+
+import java.io.InputStreamReader;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Every recipe that produces one item, compiled once and cached so navigating back to it is instant
+public class RecipeView {
+    private static final int MAX_CACHED_VIEWS = 64;
+    private static final int MAX_PREFETCHED_VIEWS = 16;
+
+    // Access-ordered so the least recently viewed item gets evicted first
+    private static final Map<Item, RecipeView> VIEW_CACHE = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Item, RecipeView> eldest) {
+            return size() > MAX_CACHED_VIEWS;
+        }
+    };
+
+    // Speculative views live apart so hovering around can't evict the navigation history
+    private static final Map<Item, RecipeView> PREFETCH_CACHE = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Item, RecipeView> eldest) {
+            return size() > MAX_PREFETCHED_VIEWS;
+        }
+    };
+
+    private final Item targetItem;
+
+    // Recipe JSON is published here as it's discovered; each entry is only compiled once it's displayed
+    private final List<JsonObject> allRecipes = Collections.synchronizedList(new ArrayList<>());
+    private final Map<Integer, CompiledRecipe> compiledRecipes = new ConcurrentHashMap<>();
+    private volatile boolean loading = true;
+
+    private RecipeView(Item item) {
+        this.targetItem = item;
+    }
+
+    private void load() {
+        LteiEvents.RecipeViewLoad event = new LteiEvents.RecipeViewLoad();
+        event.begin();
+        try {
+            loadAllRecipes();
+            // Have the first page ready by the time the screen looks for it
+            if (!allRecipes.isEmpty()) {
+                get(0);
+            }
+        } finally {
+            loading = false;
+            event.end();
+            if (event.shouldCommit()) {
+                event.item = Registries.ITEM.getId(targetItem).toString();
+                event.recipes = allRecipes.size();
+                event.commit();
+            }
+        }
+    }
+
+    public static RecipeView of(Item item) {
+        RecipeView view = getCached(item);
+        if (view != null) {
+            return view;
+        }
+
+        // Hand back an empty view right away and let the worker fill it in
+        view = new RecipeView(item);
+        synchronized (RecipeView.class) {
+            RecipeView existing = VIEW_CACHE.get(item);
+            if (existing != null) {
+                return existing;
+            }
+            VIEW_CACHE.put(item, view);
+        }
+        RecipeWorker.submit(view::load);
+        return view;
+    }
+
+    private static synchronized RecipeView getCached(Item item) {
+        RecipeView view = VIEW_CACHE.get(item);
+        if (view == null) {
+            // A prefetched view becomes a real one once it's actually opened
+            view = PREFETCH_CACHE.remove(item);
+            if (view != null) {
+                VIEW_CACHE.put(item, view);
+            }
+        }
+        if (view != null) {
+            LteiStats.RECIPE_VIEWS.hit();
+        } else {
+            LteiStats.RECIPE_VIEWS.miss();
+        }
+        return view;
+    }
+
+    // Compile an item's view on the background worker ahead of a likely click
+    public static void prefetch(Item item) {
+        synchronized (RecipeView.class) {
+            if (VIEW_CACHE.containsKey(item) || PREFETCH_CACHE.containsKey(item)) {
+                return;
+            }
+        }
+
+        RecipeWorker.submitSpeculative(() -> {
+            synchronized (RecipeView.class) {
+                if (VIEW_CACHE.containsKey(item) || PREFETCH_CACHE.containsKey(item)) {
+                    return;
+                }
+            }
+            RecipeView view = new RecipeView(item);
+            view.load();
+            synchronized (RecipeView.class) {
+                if (!VIEW_CACHE.containsKey(item)) {
+                    PREFETCH_CACHE.put(item, view);
+                }
+            }
+        });
+    }
+
+    public static synchronized void clearCache() {
+        VIEW_CACHE.clear();
+        PREFETCH_CACHE.clear();
+    }
+
+    public Item getItem() {
+        return targetItem;
+    }
+
+    public boolean isLoading() {
+        return loading;
+    }
+
+    public int size() {
+        return allRecipes.size();
+    }
+
+    public boolean isEmpty() {
+        return allRecipes.isEmpty();
+    }
+
+    // Lazily compile a single recipe - paging through a big view only pays for what gets shown
+    public CompiledRecipe get(int index) {
+        return compiledRecipes.computeIfAbsent(index, this::compile);
+    }
+
+    private CompiledRecipe compile(int index) {
+        LteiEvents.RecipeCompile event = new LteiEvents.RecipeCompile();
+        event.begin();
+        CompiledRecipe recipe = CompiledRecipe.compile(allRecipes.get(index), targetItem);
+        event.end();
+        if (event.shouldCommit()) {
+            event.item = Registries.ITEM.getId(targetItem).toString();
+            event.type = recipe.type;
+            event.index = index;
+            event.commit();
+        }
+        return recipe;
+    }
+
+    private void loadAllRecipes() {
+        if (ServerRecipes.isSynced()) {
+            // Already indexed by output when the server's recipes arrived
+            for (JsonObject json : ServerRecipes.forOutput(targetItem)) {
+                addRecipe(json);
+            }
+            return;
+        }
+        String itemName = Registries.ITEM.getId(targetItem).getPath();
+
+        // Try to load different recipe types and variants
+        String[] recipeTypes = {"recipes", "smelting", "blasting", "smoking", "campfire_cooking", "smithing"};
+        String[] recipeTypeNames = {"Crafting", "Smelting", "Blasting", "Smoking", "Campfire", "Smithing"};
+
+        for (int i = 0; i < recipeTypes.length; i++) {
+            String type = recipeTypes[i];
+            String typeName = recipeTypeNames[i];
+
+            // Load standard recipe
+            loadRecipeVariant(type, itemName, typeName);
+
+            // Load recipe variants (like iron_ingot_from_blasting_deepslate_iron_ore)
+            loadRecipeVariants(type, itemName, typeName);
+        }
+
+        // Load crafting transmute recipes for shulkers and bundles
+        loadTransmuteRecipes(itemName);
+
+        // Load smithing upgrade recipes
+        loadSmithingRecipes(itemName);
+    }
+
+    private void addRecipe(JsonObject recipeJson) {
+        // Published immediately so the screen can show recipes while the rest are still being found
+        allRecipes.add(recipeJson);
+    }
+
+    private void loadTransmuteRecipes(String itemName) {
+        // Check if this is a colored shulker box or bundle
+        if (itemName.endsWith("_shulker_box") || itemName.endsWith("_bundle")) {
+            // Try to load the crafting transmute recipe
+            Identifier file = Identifier.of("jackson", "recipes/" + itemName + ".json");
+            try (InputStreamReader reader = new InputStreamReader(
+                    Objects.requireNonNull(
+                            getClass().getClassLoader().getResourceAsStream("assets/" + file.getNamespace() + "/" + file.getPath()))
+            )) {
+                JsonObject recipeJson = JsonParser.parseReader(reader).getAsJsonObject();
+                String recipeType = recipeJson.get("type").getAsString();
+
+                if ("minecraft:crafting_transmute".equals(recipeType)) {
+                    recipeJson.addProperty("recipe_type_display", "Transmute");
+                    recipeJson.addProperty("recipe_variant", "Color Change");
+                    addRecipe(recipeJson);
+                }
+            } catch (Exception e) {
+                // No transmute recipe found, continue
+            }
+        }
+
+        // Also check for all color variants of this item type
+        if (itemName.contains("_shulker_box") || itemName.contains("_bundle")) {
+            String baseType = itemName.contains("_shulker_box") ? "_shulker_box" : "_bundle";
+            String[] colors = {
+                "white", "orange", "magenta", "light_blue", "yellow", "lime", "pink", "gray",
+                "light_gray", "cyan", "purple", "blue", "brown", "green", "red", "black"
+            };
+
+            for (String color : colors) {
+                String coloredVariant = color + baseType;
+                if (!coloredVariant.equals(itemName)) {
+                    Identifier file = Identifier.of("jackson", "recipes/" + coloredVariant + ".json");
+                    try (InputStreamReader reader = new InputStreamReader(
+                            Objects.requireNonNull(
+                                    getClass().getClassLoader().getResourceAsStream("assets/" + file.getNamespace() + "/" + file.getPath()))
+                    )) {
+                        JsonObject recipeJson = JsonParser.parseReader(reader).getAsJsonObject();
+                        String recipeType = recipeJson.get("type").getAsString();
+
+                        if ("minecraft:crafting_transmute".equals(recipeType)) {
+                            recipeJson.addProperty("recipe_type_display", "Transmute");
+                            recipeJson.addProperty("recipe_variant", "From " + color.replace("_", " "));
+                            addRecipe(recipeJson);
+                        }
+                    } catch (Exception e) {
+                        // No transmute recipe found for this color, continue
+                    }
+                }
+            }
+        }
+    }
+
+    private void loadRecipeVariant(String recipeType, String itemName, String typeName) {
+        Identifier file = Identifier.of("jackson", recipeType + "/" + itemName + ".json");
+        try (InputStreamReader reader = new InputStreamReader(
+                Objects.requireNonNull(
+                        getClass().getClassLoader().getResourceAsStream("assets/" + file.getNamespace() + "/" + file.getPath()))
+        )) {
+            JsonObject recipeJson = JsonParser.parseReader(reader).getAsJsonObject();
+            recipeJson.addProperty("recipe_type_display", typeName);
+            recipeJson.addProperty("recipe_variant", "Standard");
+            addRecipe(recipeJson);
+        } catch (Exception e) {
+            // Recipe doesn't exist for this type, continue
+        }
+    }
+
+    private void loadRecipeVariants(String recipeType, String itemName, String typeName) {
+        // Common recipe variant patterns
+        String[] variantPrefixes = {
+            itemName + "_from_",
+            itemName + "_from_blasting_",
+            itemName + "_from_smelting_",
+            itemName + "_from_smoking_",
+            itemName + "_from_campfire_cooking_"
+        };
+
+        String[] variantSuffixes = {
+            "_ore", "_raw_ore", "_deepslate_ore", "_nether_ore", "_block", "_ingot", "_nugget",
+            "_raw", "_scrap", "_dust", "_gem", "_crystal", "_shard", "_fragment"
+        };
+
+        // Try different combinations
+        for (String prefix : variantPrefixes) {
+            for (String suffix : variantSuffixes) {
+                String variantName = prefix + itemName.replace("_ingot", "").replace("_block", "") + suffix;
+                loadRecipeVariantByName(recipeType, variantName, typeName, extractVariantDisplayName(variantName));
+
+                // Also try without the base item name in the suffix
+                if (!suffix.equals("_ore")) {
+                    String alternateVariant = prefix + suffix.substring(1); // Remove the underscore
+                    loadRecipeVariantByName(recipeType, alternateVariant, typeName, extractVariantDisplayName(alternateVariant));
+                }
+            }
+        }
+
+        // Try specific known patterns for common items
+        loadKnownVariants(recipeType, itemName, typeName);
+    }
+
+    private void loadRecipeVariantByName(String recipeType, String variantName, String typeName, String variantDisplayName) {
+        Identifier file = Identifier.of("jackson", recipeType + "/" + variantName + ".json");
+        try (InputStreamReader reader = new InputStreamReader(
+                Objects.requireNonNull(
+                        getClass().getClassLoader().getResourceAsStream("assets/" + file.getNamespace() + "/" + file.getPath()))
+        )) {
+            JsonObject recipeJson = JsonParser.parseReader(reader).getAsJsonObject();
+            recipeJson.addProperty("recipe_type_display", typeName);
+            recipeJson.addProperty("recipe_variant", variantDisplayName);
+            addRecipe(recipeJson);
+        } catch (Exception e) {
+            // Variant doesn't exist, continue
+        }
+    }
+
+    private void loadKnownVariants(String recipeType, String itemName, String typeName) {
+        // Specific known variants for common items
+        Map<String, String[]> knownVariants = new HashMap<>();
+        knownVariants.put("iron_ingot", new String[]{
+            "iron_ingot_from_blasting_deepslate_iron_ore",
+            "iron_ingot_from_blasting_iron_ore",
+            "iron_ingot_from_blasting_raw_iron",
+            "iron_ingot_from_smelting_deepslate_iron_ore",
+            "iron_ingot_from_smelting_iron_ore",
+            "iron_ingot_from_smelting_raw_iron"
+        });
+        knownVariants.put("gold_ingot", new String[]{
+            "gold_ingot_from_blasting_deepslate_gold_ore",
+            "gold_ingot_from_blasting_gold_ore",
+            "gold_ingot_from_blasting_nether_gold_ore",
+            "gold_ingot_from_blasting_raw_gold",
+            "gold_ingot_from_smelting_deepslate_gold_ore",
+            "gold_ingot_from_smelting_gold_ore",
+            "gold_ingot_from_smelting_nether_gold_ore",
+            "gold_ingot_from_smelting_raw_gold"
+        });
+        knownVariants.put("copper_ingot", new String[]{
+            "copper_ingot_from_blasting_copper_ore",
+            "copper_ingot_from_blasting_deepslate_copper_ore",
+            "copper_ingot_from_blasting_raw_copper",
+            "copper_ingot_from_smelting_copper_ore",
+            "copper_ingot_from_smelting_deepslate_copper_ore",
+            "copper_ingot_from_smelting_raw_copper"
+        });
+
+        String[] variants = knownVariants.get(itemName);
+        if (variants != null) {
+            for (String variant : variants) {
+                String displayName = extractVariantDisplayName(variant);
+                loadRecipeVariantByName(recipeType, variant, typeName, displayName);
+            }
+        }
+    }
+
+    private String extractVariantDisplayName(String variantName) {
+        // Extract a readable display name from the variant
+        String display = variantName;
+
+        // Remove common prefixes
+        display = display.replaceFirst(".*_from_", "From ");
+
+        // Capitalize words and replace underscores
+        String[] words = display.split("_");
+        StringBuilder result = new StringBuilder();
+        for (String word : words) {
+            if (result.length() > 0) result.append(" ");
+            result.append(Character.toUpperCase(word.charAt(0))).append(word.substring(1));
+        }
+
+        return result.toString();
+    }
+
+    private void loadSmithingRecipes(String itemName) {
+        // Load smithing transform recipes for netherite items and other upgrades
+
+        // Check for netherite upgrade recipes (diamond -> netherite)
+        if (itemName.startsWith("netherite_")) {
+            String baseItem = itemName.replace("netherite_", "diamond_");
+            String recipeName = itemName + "_smithing";
+
+            Identifier file = Identifier.of("jackson", "smithing/" + recipeName + ".json");
+            try (InputStreamReader reader = new InputStreamReader(
+                    Objects.requireNonNull(
+                            getClass().getClassLoader().getResourceAsStream("assets/" + file.getNamespace() + "/" + file.getPath()))
+            )) {
+                JsonObject recipeJson = JsonParser.parseReader(reader).getAsJsonObject();
+                recipeJson.addProperty("recipe_type_display", "Smithing");
+                recipeJson.addProperty("recipe_variant", "Netherite Upgrade");
+                addRecipe(recipeJson);
+            } catch (Exception e) {
+                // Create a synthetic smithing recipe for netherite items
+                createSyntheticNetheriteSmithingRecipe(itemName, baseItem);
+            }
+        }
+
+        // Check for armor trimming recipes
+        if (isTrimmableArmor(itemName)) {
+            loadArmorTrimmingRecipes(itemName);
+        }
+
+        // Load any other smithing recipes that might exist
+        String[] smithingVariants = {
+            itemName + "_smithing",
+            itemName + "_from_smithing",
+            "smithing_" + itemName
+        };
+
+        for (String variant : smithingVariants) {
+            Identifier file = Identifier.of("jackson", "smithing/" + variant + ".json");
+            try (InputStreamReader reader = new InputStreamReader(
+                    Objects.requireNonNull(
+                            getClass().getClassLoader().getResourceAsStream("assets/" + file.getNamespace() + "/" + file.getPath()))
+            )) {
+                JsonObject recipeJson = JsonParser.parseReader(reader).getAsJsonObject();
+                if (!recipeJson.has("recipe_type_display")) {
+                    recipeJson.addProperty("recipe_type_display", "Smithing");
+                    recipeJson.addProperty("recipe_variant", "Standard");
+                }
+                addRecipe(recipeJson);
+            } catch (Exception e) {
+                // Recipe doesn't exist, continue
+            }
+        }
+    }
+
+    private void createSyntheticNetheriteSmithingRecipe(String netheriteItem, String diamondItem) {
+        // Create a synthetic smithing recipe for netherite upgrades when recipe file doesn't exist
+        JsonObject syntheticRecipe = new JsonObject();
+        syntheticRecipe.addProperty("type", "minecraft:smithing_transform");
+        syntheticRecipe.addProperty("template", "minecraft:netherite_upgrade_smithing_template");
+        syntheticRecipe.addProperty("base", "minecraft:" + diamondItem);
+        syntheticRecipe.addProperty("addition", "minecraft:netherite_ingot");
+
+        JsonObject result = new JsonObject();
+        result.addProperty("id", "minecraft:" + netheriteItem);
+        result.addProperty("count", 1);
+        syntheticRecipe.add("result", result);
+
+        syntheticRecipe.addProperty("recipe_type_display", "Smithing");
+        syntheticRecipe.addProperty("recipe_variant", "Netherite Upgrade (Synthetic)");
+
+        addRecipe(syntheticRecipe);
+    }
+
+    private boolean isTrimmableArmor(String itemName) {
+        return itemName.endsWith("_helmet") || itemName.endsWith("_chestplate") ||
+               itemName.endsWith("_leggings") || itemName.endsWith("_boots");
+    }
+
+    private void loadArmorTrimmingRecipes(String armorItem) {
+        // Common smithing templates for armor trimming
+        String[] trimmingTemplates = {
+            "coast_armor_trim_smithing_template",
+            "dune_armor_trim_smithing_template",
+            "eye_armor_trim_smithing_template",
+            "host_armor_trim_smithing_template",
+            "raiser_armor_trim_smithing_template",
+            "rib_armor_trim_smithing_template",
+            "sentry_armor_trim_smithing_template",
+            "shaper_armor_trim_smithing_template",
+            "silence_armor_trim_smithing_template",
+            "snout_armor_trim_smithing_template",
+            "spire_armor_trim_smithing_template",
+            "tide_armor_trim_smithing_template",
+            "vex_armor_trim_smithing_template",
+            "ward_armor_trim_smithing_template",
+            "wayfinder_armor_trim_smithing_template",
+            "wild_armor_trim_smithing_template"
+        };
+
+        // Common trim materials
+        String[] trimMaterials = {
+            "iron_ingot", "gold_ingot", "diamond", "emerald", "netherite_ingot",
+            "redstone", "lapis_lazuli", "amethyst_shard", "quartz", "copper_ingot"
+        };
+
+        // Create synthetic armor trimming recipes
+        for (String template : trimmingTemplates) {
+            for (String material : trimMaterials) {
+                JsonObject trimRecipe = new JsonObject();
+                trimRecipe.addProperty("type", "minecraft:smithing_transform");
+                trimRecipe.addProperty("template", "minecraft:" + template);
+                trimRecipe.addProperty("base", "minecraft:" + armorItem);
+                trimRecipe.addProperty("addition", "minecraft:" + material);
+
+                JsonObject result = new JsonObject();
+                result.addProperty("id", "minecraft:" + armorItem);
+                result.addProperty("count", 1);
+                trimRecipe.add("result", result);
+
+                trimRecipe.addProperty("recipe_type_display", "Smithing");
+                String trimName = template.replace("_armor_trim_smithing_template", "");
+                String materialName = material.replace("_", " ");
+                trimRecipe.addProperty("recipe_variant", "Trim: " +
+                    Character.toUpperCase(trimName.charAt(0)) + trimName.substring(1) +
+                    " (" + Character.toUpperCase(materialName.charAt(0)) + materialName.substring(1) + ")");
+
+                addRecipe(trimRecipe);
+            }
+        }
+    }
+}
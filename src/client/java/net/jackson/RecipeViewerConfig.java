@@ -2,20 +2,55 @@ package net.jackson;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import net.fabricmc.loader.api.FabricLoader;
 
 import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
+// The one config file. Changes are saved off the render thread: save() only takes a snapshot, and a writer
+// thread puts the latest snapshot on disk a moment later, so a burst of clicks costs a single write. Writes go
+// to a temp file that is then moved over the config, so a crash mid-write never leaves half a file behind
 public class RecipeViewerConfig {
     private static final Path CONFIG_PATH = FabricLoader.getInstance().getConfigDir().resolve("lessthanenoughitems.json");
     private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    private static final int CURRENT_VERSION = 1;
+    private static final long SAVE_DELAY_MS = 250;
 
+    private static final ScheduledExecutorService WRITER = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "LTEI Config Writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Newest unsaved snapshot; null once it's on disk
+    private static final AtomicReference<String> PENDING = new AtomicReference<>();
+    // What the writer last put on disk, so the file watcher can skip our own writes
+    private static volatile String lastWritten = null;
+
+    public int configVersion = CURRENT_VERSION;
     public boolean showOnlyCraftable = true; // Set to true as default
+    public boolean showOnlyCraftableNow = false; // Narrower still: only what the inventory can craft right now
     public boolean useNewUI = true; // Enable the new UI by default
     public int itemsPerRow = 15;
     public int rowsPerPage = 20;
+    public String bomRecipePreference = "crafting"; // "crafting", "cooking" or "fewest_inputs"
+
+    // Plan pinned to the HUD: an item id ("" for none), which of its recipes (or its bill of materials) and
+    // how many items we're gathering for
+    public String pinnedItem = "";
+    public int pinnedRecipeIndex = 0;
+    public boolean pinnedBom = false;
+    public long pinnedQuantity = 1;
+
+    public boolean showStatsHud = false; // Latency and cache readout in the corner, toggled with /lteistats hud
 
     private static RecipeViewerConfig instance;
 
@@ -29,8 +64,12 @@ public class RecipeViewerConfig {
     private static RecipeViewerConfig load() {
         if (Files.exists(CONFIG_PATH)) {
             try {
-                String json = Files.readString(CONFIG_PATH);
-                return GSON.fromJson(json, RecipeViewerConfig.class);
+                RecipeViewerConfig config = parse(Files.readString(CONFIG_PATH));
+                if (config.configVersion != CURRENT_VERSION) {
+                    config.configVersion = CURRENT_VERSION;
+                    config.save();
+                }
+                return config;
             } catch (Exception e) {
                 System.err.println("Failed to load config, using defaults: " + e.getMessage());
             }
@@ -38,18 +77,128 @@ public class RecipeViewerConfig {
         return new RecipeViewerConfig();
     }
 
+    public static Path getPath() {
+        return CONFIG_PATH;
+    }
+
+    // The config as it is on disk right now, or null if the file is what we last wrote ourselves.
+    // Throws if the file is unreadable or isn't valid config JSON (an edit that's only half saved)
+    public static RecipeViewerConfig readExternalChange() throws IOException {
+        String contents = Files.readString(CONFIG_PATH);
+        if (contents.equals(lastWritten)) {
+            return null;
+        }
+        RecipeViewerConfig config = parse(contents);
+        config.configVersion = CURRENT_VERSION; // Already migrated; the next save writes it back current
+        return config;
+    }
+
+    // Swaps in a config read by readExternalChange - client thread only
+    public static void replace(RecipeViewerConfig config) {
+        instance = config;
+    }
+
+    // Leaves configVersion as the file had it, so load() can tell the file needs rewriting
+    private static RecipeViewerConfig parse(String contents) {
+        JsonObject json = JsonParser.parseString(contents).getAsJsonObject();
+        int version = json.has("configVersion") ? json.get("configVersion").getAsInt() : 0;
+        RecipeViewerConfig config = GSON.fromJson(migrate(json, version), RecipeViewerConfig.class);
+        config.configVersion = version;
+        return config;
+    }
+
+    // Brings an older file up to the current schema, one version at a time
+    private static JsonObject migrate(JsonObject json, int version) {
+        if (version < 1) {
+            // Unversioned files may have been written by the old duplicate Config class, which called the
+            // craftable filter hideNonCraftables
+            if (json.has("hideNonCraftables") && !json.has("showOnlyCraftable")) {
+                json.add("showOnlyCraftable", json.get("hideNonCraftables"));
+            }
+            json.remove("hideNonCraftables");
+        }
+        return json;
+    }
+
+    // Cheap enough for a click handler: serializes a dozen fields and hands them to the writer
     public void save() {
+        if (PENDING.getAndSet(GSON.toJson(this)) == null) {
+            WRITER.schedule(RecipeViewerConfig::writePending, SAVE_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // Writes whatever is still pending right away - for shutdown, when the writer thread may not get to it
+    public static void flush() {
+        writePending();
+    }
+
+    private static synchronized void writePending() {
+        String json = PENDING.getAndSet(null);
+        if (json == null) {
+            return;
+        }
         try {
             Files.createDirectories(CONFIG_PATH.getParent());
-            String json = GSON.toJson(this);
-            Files.writeString(CONFIG_PATH, json);
+            Path temp = CONFIG_PATH.resolveSibling(CONFIG_PATH.getFileName() + ".tmp");
+            Files.writeString(temp, json);
+            lastWritten = json;
+            try {
+                Files.move(temp, CONFIG_PATH, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, CONFIG_PATH, StandardCopyOption.REPLACE_EXISTING);
+            }
         } catch (IOException e) {
             System.err.println("Failed to save config: " + e.getMessage());
         }
     }
 
+    // Cycles All -> Craftable -> Craftable Now -> All
     public void toggleShowOnlyCraftable() {
-        showOnlyCraftable = !showOnlyCraftable;
+        if (!showOnlyCraftable) {
+            showOnlyCraftable = true;
+            showOnlyCraftableNow = false;
+        } else if (!showOnlyCraftableNow) {
+            showOnlyCraftableNow = true;
+        } else {
+            showOnlyCraftable = false;
+            showOnlyCraftableNow = false;
+        }
+        save();
+    }
+
+    public boolean isCraftableNowMode() {
+        return showOnlyCraftable && showOnlyCraftableNow;
+    }
+
+    // Label for the filter button - names the mode a click switches to
+    public String nextFilterLabel() {
+        if (!showOnlyCraftable) {
+            return "Craftables Only";
+        }
+        return showOnlyCraftableNow ? "Show All" : "Craftable Now";
+    }
+
+    // Which recipe the bill of materials picks when an item has several
+    public int getBomPreference() {
+        if ("cooking".equals(bomRecipePreference)) {
+            return BillOfMaterials.PREFER_COOKING;
+        }
+        if ("fewest_inputs".equals(bomRecipePreference)) {
+            return BillOfMaterials.PREFER_FEWEST_INPUTS;
+        }
+        return BillOfMaterials.PREFER_CRAFTING;
+    }
+
+    public void pin(String itemId, int recipeIndex, boolean bom, long quantity) {
+        pinnedItem = itemId;
+        pinnedRecipeIndex = recipeIndex;
+        pinnedBom = bom;
+        pinnedQuantity = quantity;
+        save();
+    }
+
+    public void unpin() {
+        pinnedItem = "";
         save();
     }
 
@@ -0,0 +1,62 @@
+package net.jackson;
+
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+
+// Single background thread for recipe work that shouldn't run on the render thread
+public class RecipeWorker {
+    private static final int MAX_SPECULATIVE_TASKS = 4;
+
+    // Required work always runs; speculative work (prefetching) is bounded and may be dropped
+    private static final BlockingQueue<Runnable> TASKS = new LinkedBlockingQueue<>();
+    private static final BlockingDeque<Runnable> SPECULATIVE_TASKS = new LinkedBlockingDeque<>(MAX_SPECULATIVE_TASKS);
+    private static final Semaphore PENDING = new Semaphore(0);
+
+    static {
+        Thread thread = new Thread(RecipeWorker::run, "LTEI Recipe Worker");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.NORM_PRIORITY - 1);
+        thread.start();
+    }
+
+    public static void submit(Runnable task) {
+        TASKS.add(task);
+        PENDING.release();
+    }
+
+    public static void submitSpeculative(Runnable task) {
+        // The newest request is the most likely to matter, so drop the oldest one when full
+        while (!SPECULATIVE_TASKS.offerLast(task)) {
+            SPECULATIVE_TASKS.pollFirst();
+        }
+        PENDING.release();
+    }
+
+    // Tasks waiting to run, for the stats readout
+    public static int queueDepth() {
+        return TASKS.size() + SPECULATIVE_TASKS.size();
+    }
+
+    private static void run() {
+        while (true) {
+            try {
+                PENDING.acquire();
+                Runnable task = TASKS.poll();
+                if (task == null) {
+                    task = SPECULATIVE_TASKS.pollLast();
+                }
+                if (task != null) {
+                    task.run();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                System.err.println("Recipe worker task failed: " + e.getMessage());
+            }
+        }
+    }
+}
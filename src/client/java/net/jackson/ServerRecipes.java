@@ -0,0 +1,217 @@
+package net.jackson;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayNetworking;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.item.Item;
+import net.minecraft.item.Items;
+import net.minecraft.util.Identifier;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Client half of the recipe sync: the recipes the connected server sent, if it has the mod. While present they
+// replace the bundled recipe files for both the graph and the recipe views; without them nothing changes
+public class ServerRecipes {
+    // Display names for the recipe types a view can show, in the order a view lists them
+    private static final String[][] DISPLAY_TYPES = {
+        {"minecraft:crafting_shaped", "Crafting"},
+        {"minecraft:crafting_shapeless", "Crafting"},
+        {"minecraft:crafting_transmute", "Transmute"},
+        {"minecraft:smelting", "Smelting"},
+        {"minecraft:blasting", "Blasting"},
+        {"minecraft:smoking", "Smoking"},
+        {"minecraft:campfire_cooking", "Campfire"},
+        {"minecraft:smithing_transform", "Smithing"}
+    };
+
+    private static volatile Map<String, JsonObject> recipes = null; // recipe id -> JSON, null when not synced
+    private static volatile Map<Item, List<JsonObject>> byOutput = Map.of();
+    private static int generation = 0; // Only touched on the worker
+
+    // Parts of the transfer being received (client thread)
+    private static int transfer = -1;
+    private static byte[][] parts;
+    private static int received;
+    private static long transferStart;
+
+    public static void register() {
+        ClientPlayNetworking.registerGlobalReceiver(RecipeSyncPayload.ID, (payload, context) -> receive(payload));
+    }
+
+    public static boolean isSynced() {
+        return recipes != null;
+    }
+
+    public static Collection<JsonObject> all() {
+        Map<String, JsonObject> synced = recipes;
+        return synced == null ? List.of() : synced.values();
+    }
+
+    public static List<JsonObject> forOutput(Item item) {
+        return byOutput.getOrDefault(item, List.of());
+    }
+
+    // Leaving a server drops its recipes so the next world starts from the bundled ones again
+    public static void clear() {
+        transfer = -1;
+        parts = null;
+        RecipeWorker.submit(() -> {
+            generation = 0;
+            recipes = null;
+            byOutput = Map.of();
+        });
+    }
+
+    private static void receive(RecipeSyncPayload payload) {
+        if (payload.transfer() != transfer) {
+            // Parts of one transfer arrive back to back, so a new transfer means the last one is complete or dead
+            transfer = payload.transfer();
+            received = 0;
+            transferStart = System.nanoTime();
+            // The part count comes off the wire - a bad one drops the whole transfer rather than allocating for it
+            boolean sane = payload.parts() > 0 && payload.parts() <= RecipeSnapshot.MAX_PARTS;
+            parts = sane ? new byte[payload.parts()][] : null;
+            if (parts == null) {
+                System.err.println("Ignoring server recipes sent in " + payload.parts() + " parts");
+            }
+        }
+        if (parts == null || payload.part() < 0 || payload.part() >= parts.length || parts[payload.part()] != null) {
+            return;
+        }
+        parts[payload.part()] = payload.data();
+        if (++received < parts.length) {
+            return;
+        }
+
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            data.writeBytes(part);
+        }
+        long receivedNanos = System.nanoTime() - transferStart;
+        int partCount = parts.length;
+        transfer = -1;
+        parts = null;
+        // Decoding and indexing a couple of thousand recipes stays off the render thread
+        RecipeWorker.submit(() -> apply(data.toByteArray(), partCount, receivedNanos));
+    }
+
+    private static void apply(byte[] data, int partCount, long receivedNanos) {
+        LteiEvents.ServerRecipeApply event = new LteiEvents.ServerRecipeApply();
+        event.begin();
+        long start = System.nanoTime();
+        RecipeSnapshot snapshot;
+        try {
+            snapshot = RecipeSnapshot.decode(data);
+        } catch (Exception e) {
+            System.err.println("Failed to decode server recipes: " + e.getMessage());
+            return;
+        }
+
+        Map<String, JsonObject> next;
+        if (snapshot.kind == RecipeSnapshot.FULL) {
+            next = new LinkedHashMap<>(snapshot.upserts.size() * 2);
+        } else if (recipes != null && snapshot.baseGeneration == generation) {
+            next = new LinkedHashMap<>(recipes);
+            snapshot.removals.forEach(next::remove);
+        } else {
+            // Missed a generation somehow - the bundled recipes are better than a half-patched set
+            System.err.println("Server recipe delta for generation " + snapshot.baseGeneration + " doesn't apply to " +
+                generation + ", falling back to bundled recipes");
+            publish(0, null);
+            return;
+        }
+        for (Map.Entry<String, String> entry : snapshot.upserts.entrySet()) {
+            try {
+                next.put(entry.getKey(), withDisplayInfo(entry.getKey(), JsonParser.parseString(entry.getValue()).getAsJsonObject()));
+            } catch (Exception e) {
+                System.err.println("Skipping server recipe " + entry.getKey() + ": " + e.getMessage());
+            }
+        }
+        publish(snapshot.generation, next);
+        event.bytes = data.length;
+        event.changed = snapshot.upserts.size();
+        event.removed = snapshot.removals.size();
+        event.commit();
+
+        LessThanEnoughItems.LOGGER.debug("Applied server recipes ({}): {} changed, {} removed, {} bytes in {} parts, " +
+            "received in {}ms, applied in {}ms", snapshot.kind == RecipeSnapshot.FULL ? "full" : "delta",
+            snapshot.upserts.size(), snapshot.removals.size(), data.length, partCount, receivedNanos / 1_000_000,
+            (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static void publish(int newGeneration, Map<String, JsonObject> next) {
+        Map<Item, List<JsonObject>> outputs = new HashMap<>();
+        if (next != null) {
+            for (JsonObject json : next.values()) {
+                Item output = displayRank(json) < 0 ? Items.AIR : IngredientResolver.resolveItem(resultId(json));
+                if (output != Items.AIR) {
+                    outputs.computeIfAbsent(output, item -> new ArrayList<>()).add(json);
+                }
+            }
+            for (List<JsonObject> list : outputs.values()) {
+                list.sort(Comparator.comparingInt(ServerRecipes::displayRank));
+            }
+        }
+        generation = newGeneration;
+        recipes = next;
+        byOutput = outputs;
+
+        // Everything built from the old set is stale now
+        MinecraftClient.getInstance().execute(() -> {
+            RecipeView.clearCache();
+            RecipeIndex.rebuild();
+            PinnedPlan.onPinChanged();
+        });
+    }
+
+    // Views show the same type and variant labels the bundled files get, plus the server's id for the recipe
+    private static JsonObject withDisplayInfo(String id, JsonObject json) {
+        json.addProperty("recipe_id", id); // What a bulk craft request names the recipe by
+        int rank = displayRank(json);
+        if (rank >= 0) {
+            json.addProperty("recipe_type_display", DISPLAY_TYPES[rank][1]);
+        }
+        String path = Identifier.of(id).getPath();
+        int from = path.indexOf("_from_");
+        json.addProperty("recipe_variant", from < 0 ? "Standard" : variantName(path.substring(from + 6)));
+        return json;
+    }
+
+    // Position in DISPLAY_TYPES, or -1 for types a view can't show (special crafting, trims, stonecutting)
+    private static int displayRank(JsonObject json) {
+        String type = json.has("type") ? json.get("type").getAsString() : "";
+        for (int i = 0; i < DISPLAY_TYPES.length; i++) {
+            if (DISPLAY_TYPES[i][0].equals(type)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String variantName(String source) {
+        StringBuilder name = new StringBuilder("From");
+        for (String word : source.split("_")) {
+            if (!word.isEmpty()) {
+                name.append(' ').append(Character.toUpperCase(word.charAt(0))).append(word.substring(1));
+            }
+        }
+        return name.toString();
+    }
+
+    private static String resultId(JsonObject json) {
+        JsonElement result = json.get("result");
+        if (result == null) {
+            return "minecraft:air";
+        }
+        return result.isJsonObject() ? result.getAsJsonObject().get("id").getAsString() : result.getAsString();
+    }
+}
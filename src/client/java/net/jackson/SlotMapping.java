@@ -0,0 +1,62 @@
+package net.jackson;
+
+import net.minecraft.entity.player.PlayerInventory;
+import net.minecraft.inventory.RecipeInputInventory;
+import net.minecraft.screen.ScreenHandler;
+import net.minecraft.screen.slot.CraftingResultSlot;
+import net.minecraft.screen.slot.Slot;
+
+import java.util.Arrays;
+
+// Reads a SlotLayout off a handler's slot list instead of assuming vanilla's slot numbering. Built once per
+// opened handler and kept until another one is asked for
+public class SlotMapping {
+    private static ScreenHandler cachedHandler = null;
+    private static SlotLayout cachedLayout = null;
+
+    // The handler's layout, or null if it has no crafting grid we can drive
+    public static SlotLayout forHandler(ScreenHandler handler) {
+        if (handler != cachedHandler) {
+            cachedHandler = handler;
+            cachedLayout = build(handler);
+        }
+        return cachedLayout;
+    }
+
+    private static SlotLayout build(ScreenHandler handler) {
+        int resultSlot = SlotLayout.NONE;
+        RecipeInputInventory grid = null;
+        int[] gridSlots = new int[0];
+        int[] inventorySlots = new int[SlotLayout.INVENTORY_SIZE];
+        Arrays.fill(inventorySlots, SlotLayout.NONE);
+
+        for (Slot slot : handler.slots) {
+            if (slot instanceof CraftingResultSlot) {
+                resultSlot = slot.id;
+            } else if (slot.inventory instanceof RecipeInputInventory input) {
+                if (grid == null) {
+                    grid = input;
+                    gridSlots = new int[input.getWidth() * input.getHeight()];
+                    Arrays.fill(gridSlots, SlotLayout.NONE);
+                }
+                if (input == grid && slot.getIndex() < gridSlots.length) {
+                    gridSlots[slot.getIndex()] = slot.id;
+                }
+            } else if (slot.inventory instanceof PlayerInventory && slot.getIndex() < SlotLayout.INVENTORY_SIZE) {
+                // Armor and offhand sit above the main inventory and can't feed a grid
+                inventorySlots[slot.getIndex()] = slot.id;
+            }
+        }
+        if (grid == null) {
+            return null;
+        }
+
+        SlotLayout layout = new SlotLayout(resultSlot, grid.getWidth(), grid.getHeight(), gridSlots, inventorySlots);
+        String problem = layout.validate();
+        if (problem != null) {
+            System.err.println("Can't auto-craft in " + handler.getClass().getSimpleName() + ": " + problem);
+            return null;
+        }
+        return layout;
+    }
+}
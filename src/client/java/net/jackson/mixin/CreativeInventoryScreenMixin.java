@@ -4,7 +4,9 @@ import net.jackson.ItemListOverlay;
 import net.jackson.RecipeViewerConfig;
 import net.minecraft.client.gui.DrawContext;
 import net.minecraft.client.gui.screen.ingame.CreativeInventoryScreen;
+import net.minecraft.client.gui.widget.TextFieldWidget;
 import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
@@ -12,6 +14,9 @@ import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
 
 @Mixin(CreativeInventoryScreen.class)
 public class CreativeInventoryScreenMixin {
+    @Shadow
+    private TextFieldWidget searchBox;
+
     @Inject(method = "render", at = @At("TAIL"))
     private void onRender(DrawContext context, int mouseX, int mouseY, float delta, CallbackInfo ci) {
         if (RecipeViewerConfig.getInstance().useNewUI) {
@@ -37,7 +42,9 @@ public class CreativeInventoryScreenMixin {
 
     @Inject(method = "keyPressed", at = @At("HEAD"), cancellable = true)
     private void onKeyPressed(int keyCode, int scanCode, int modifiers, CallbackInfoReturnable<Boolean> cir) {
-        if (RecipeViewerConfig.getInstance().useNewUI &&
+        // While the search tab's own box is typing, keys go to it unless our search field has taken over
+        boolean creativeSearch = searchBox != null && searchBox.isFocused() && !ItemListOverlay.isSearchFocused();
+        if (RecipeViewerConfig.getInstance().useNewUI && !creativeSearch &&
             ItemListOverlay.handleKeyPress(keyCode, scanCode, modifiers)) {
             cir.setReturnValue(true);
         }
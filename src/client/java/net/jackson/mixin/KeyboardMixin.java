@@ -0,0 +1,32 @@
+package net.jackson.mixin;
+
+import net.jackson.ItemListOverlay;
+import net.jackson.RecipeViewerConfig;
+import net.minecraft.client.Keyboard;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.gui.screen.ingame.HandledScreen;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(Keyboard.class)
+public class KeyboardMixin {
+
+    @Inject(method = "onChar", at = @At("HEAD"), cancellable = true)
+    private void onChar(long window, int codePoint, int modifiers, CallbackInfo ci) {
+        // Route typed characters to the overlay search before the screen sees them
+        MinecraftClient client = MinecraftClient.getInstance();
+        if (window != client.getWindow().getHandle() ||
+            !(client.currentScreen instanceof HandledScreen) ||
+            !RecipeViewerConfig.getInstance().useNewUI ||
+            !ItemListOverlay.isSearchFocused()) {
+            return;
+        }
+
+        for (char chr : Character.toChars(codePoint)) {
+            ItemListOverlay.handleCharTyped(chr, modifiers);
+        }
+        ci.cancel();
+    }
+}
@@ -0,0 +1,501 @@
+package net.jackson;
+
+import java.util.Arrays;
+import java.util.function.IntUnaryOperator;
+
+// Plans every click needed to craft a recipe many times over, against a simulated copy of the inventory, so
+// the whole sequence is known before the first packet is sent. Each round:
+// - fills every grid slot up to the round size, using one pickup per source stack and a drag to spread it
+// - takes the result with one shift-click, or with single clicks when the last round has to stop short
+// placeOnce plans the single-craft case the craft button uses: lay out one of each ingredient and stop there.
+// Slots are abstract here (RESULT, GRID_START + i, INVENTORY_START + i). SlotLayout maps them to the open handler
+public class BatchCraftPlanner {
+    public static final int PICKUP = 0;
+    public static final int QUICK_MOVE = 1;
+    public static final int QUICK_CRAFT = 2;
+
+    public static final int RESULT = 0;
+    public static final int GRID_START = 1;
+    public static final int INVENTORY_START = 10;
+    public static final int OUTSIDE = -999;
+
+    public static final int GRID_SIZE = 9;
+    public static final int INVENTORY_SIZE = 36;
+    public static final int MAX = Integer.MAX_VALUE;
+
+    public static final int DONE = 0;
+    public static final int MISSING = 1;
+    public static final int INVENTORY_FULL = 2;
+
+    private static final int EMPTY = -1;
+
+    // Drag clicks carry their stage in the button's low bits and the mode above them; mode 0 splits evenly
+    private static final int DRAG_START = 0;
+    private static final int DRAG_ADD = 1;
+    private static final int DRAG_END = 2;
+
+    public static class Sequence {
+        public final int[] slots;
+        public final int[] buttons;
+        public final int[] actions;
+        public final int crafts; // how many times the recipe runs, not how many items come out
+        public final int status;
+
+        Sequence(int[] slots, int[] buttons, int[] actions, int crafts, int status) {
+            this.slots = slots;
+            this.buttons = buttons;
+            this.actions = actions;
+            this.crafts = crafts;
+            this.status = status;
+        }
+
+        public int size() {
+            return slots.length;
+        }
+    }
+
+    private final int[] pattern;
+    private final int result;
+    private final int resultCount;
+    private final IntUnaryOperator maxStack;
+
+    // Where shift-clicked stacks land, in vanilla's insertItem order: grid slots fill the inventory in handler
+    // order, and the result walks the same slots backwards
+    private final int[] fromGrid;
+    private final int[] fromResult;
+
+    private final int[] invItem;
+    private final int[] invCount;
+    private final int[] gridItem;
+    private final int[] gridCount;
+    private int cursorItem = EMPTY;
+    private int cursorCount = 0;
+
+    private int[] clickSlots = new int[64];
+    private int[] clickButtons = new int[64];
+    private int[] clickActions = new int[64];
+    private int clickCount = 0;
+
+    private BatchCraftPlanner(SlotLayout layout, int[] pattern, int result, int resultCount, IntUnaryOperator maxStack,
+                              int[] invItem, int[] invCount, int[] gridItem, int[] gridCount) {
+        this.pattern = pattern;
+        this.result = result;
+        this.resultCount = resultCount;
+        this.maxStack = maxStack;
+        this.fromGrid = layout.insertOrder();
+        this.fromResult = new int[INVENTORY_SIZE];
+        for (int i = 0; i < INVENTORY_SIZE; i++) {
+            fromResult[INVENTORY_SIZE - 1 - i] = fromGrid[i];
+        }
+        this.invItem = invItem.clone();
+        this.invCount = invCount.clone();
+        this.gridItem = gridItem.clone();
+        this.gridCount = gridCount.clone();
+    }
+
+    // pattern is the raw id wanted at each 3x3 grid position (-1 for none) and must fit the layout's grid, crafts
+    // is a count or MAX. Item arrays use -1 for empty slots and aren't modified
+    public static Sequence plan(SlotLayout layout, int[] pattern, int result, int resultCount, IntUnaryOperator maxStack,
+                                int[] invItem, int[] invCount, int[] gridItem, int[] gridCount, int crafts) {
+        BatchCraftPlanner planner = new BatchCraftPlanner(layout, pattern, result, resultCount, maxStack,
+            invItem, invCount, gridItem, gridCount);
+        int[] outcome = planner.run(crafts);
+        return planner.sequence(outcome[0], outcome[1]);
+    }
+
+    // Lay one craft's worth of items into the grid without taking the result. accepted holds a membership bitset
+    // over raw ids for each 3x3 position, null where the recipe leaves it empty. Nothing is crafted, so crafts is
+    // always 0; a status other than DONE comes with no clicks, and the grid is never left half laid out
+    public static Sequence placeOnce(SlotLayout layout, long[][] accepted, IntUnaryOperator maxStack,
+                                     int[] invItem, int[] invCount, int[] gridItem, int[] gridCount) {
+        int[] nothing = new int[GRID_SIZE];
+        Arrays.fill(nothing, EMPTY);
+        BatchCraftPlanner planner = new BatchCraftPlanner(layout, nothing, EMPTY, 1, maxStack,
+            invItem, invCount, gridItem, gridCount);
+        int status = planner.placeOne(accepted);
+        if (status != DONE) {
+            return new Sequence(new int[0], new int[0], new int[0], 0, status);
+        }
+        return planner.sequence(0, DONE);
+    }
+
+    private Sequence sequence(int crafts, int status) {
+        return new Sequence(Arrays.copyOf(clickSlots, clickCount), Arrays.copyOf(clickButtons, clickCount),
+            Arrays.copyOf(clickActions, clickCount), crafts, status);
+    }
+
+    private int[] run(int crafts) {
+        // Anything in the grid that the recipe doesn't want there goes back first; matching leftovers stay
+        for (int slot = 0; slot < GRID_SIZE; slot++) {
+            if (gridItem[slot] != EMPTY && gridItem[slot] != pattern[slot]) {
+                click(GRID_START + slot, 0, QUICK_MOVE);
+                if (!insert(gridItem[slot], gridCount[slot], fromGrid)) {
+                    return new int[] {0, INVENTORY_FULL};
+                }
+                gridItem[slot] = EMPTY;
+                gridCount[slot] = 0;
+            }
+        }
+
+        int target = Math.min(crafts, possibleCrafts());
+        int roundSize = Integer.MAX_VALUE;
+        for (int item : pattern) {
+            if (item != EMPTY) {
+                roundSize = Math.min(roundSize, maxStack.applyAsInt(item));
+            }
+        }
+        if (target <= 0 || roundSize == Integer.MAX_VALUE) {
+            return new int[] {0, MISSING};
+        }
+
+        int done = 0;
+        int status = DONE;
+        while (done < target) {
+            int round = Math.min(roundSize, target - done);
+            if (!fill(round) || craftable() < round) {
+                status = MISSING;
+                break;
+            }
+
+            int room = room(result) / resultCount;
+            if (craftable() == round && room >= round) {
+                // Shift-click crafts until the grid runs dry, which is exactly this round
+                click(RESULT, 0, QUICK_MOVE);
+                for (int i = 0; i < round; i++) {
+                    insert(result, resultCount, fromResult);
+                }
+                consume(round);
+                done += round;
+            } else {
+                // The grid holds more than we were asked for, or the results won't all fit - craft one at a time
+                int count = Math.min(round, room);
+                craftSingly(count);
+                done += count;
+                if (count < round) {
+                    status = INVENTORY_FULL;
+                    break;
+                }
+            }
+        }
+
+        // Put back whatever the last round didn't use
+        for (int slot = 0; slot < GRID_SIZE; slot++) {
+            if (gridCount[slot] > 0) {
+                click(GRID_START + slot, 0, QUICK_MOVE);
+                insert(gridItem[slot], gridCount[slot], fromGrid);
+                gridItem[slot] = EMPTY;
+                gridCount[slot] = 0;
+            }
+        }
+        return new int[] {done, status};
+    }
+
+    // Everything in the grid goes back, then each position takes one item from the largest stack it accepts: half
+    // the stack is picked up, one item right-clicked into the grid and the rest put back where it came from
+    private int placeOne(long[][] accepted) {
+        for (int slot = 0; slot < GRID_SIZE; slot++) {
+            if (gridItem[slot] != EMPTY) {
+                click(GRID_START + slot, 0, QUICK_MOVE);
+                if (!insert(gridItem[slot], gridCount[slot], fromGrid)) {
+                    return INVENTORY_FULL;
+                }
+                gridItem[slot] = EMPTY;
+                gridCount[slot] = 0;
+            }
+        }
+
+        for (int slot = 0; slot < GRID_SIZE && slot < accepted.length; slot++) {
+            if (accepted[slot] == null) {
+                continue;
+            }
+            int source = largestAccepted(accepted[slot]);
+            if (source == EMPTY) {
+                return MISSING;
+            }
+            int taken = (invCount[source] + 1) / 2;
+            click(INVENTORY_START + source, 1, PICKUP);
+            click(GRID_START + slot, 1, PICKUP);
+            gridItem[slot] = invItem[source];
+            gridCount[slot] = 1;
+            invCount[source] -= 1;
+            if (taken > 1) {
+                click(INVENTORY_START + source, 0, PICKUP);
+            }
+            if (invCount[source] == 0) {
+                invItem[source] = EMPTY;
+            }
+        }
+        return DONE;
+    }
+
+    // The fullest inventory slot holding an accepted item, the first one on ties
+    private int largestAccepted(long[] membership) {
+        int largest = EMPTY;
+        for (int i = 0; i < INVENTORY_SIZE; i++) {
+            int item = invItem[i];
+            if (item == EMPTY || (item >> 6) >= membership.length || (membership[item >> 6] & 1L << item) == 0) {
+                continue;
+            }
+            if (largest == EMPTY || invCount[i] > invCount[largest]) {
+                largest = i;
+            }
+        }
+        return largest;
+    }
+
+    private int possibleCrafts() {
+        int possible = Integer.MAX_VALUE;
+        for (int slot = 0; slot < GRID_SIZE; slot++) {
+            int item = pattern[slot];
+            if (item == EMPTY) {
+                continue;
+            }
+            int slots = 0;
+            long available = 0;
+            for (int other = 0; other < GRID_SIZE; other++) {
+                if (pattern[other] == item) {
+                    slots++;
+                    available += gridCount[other];
+                }
+            }
+            for (int i = 0; i < INVENTORY_SIZE; i++) {
+                if (invItem[i] == item) {
+                    available += invCount[i];
+                }
+            }
+            possible = (int) Math.min(possible, available / slots);
+        }
+        return possible;
+    }
+
+    // Bring every grid slot up to at least amount. Each source stack is picked up once and dragged across all
+    // the slots that still need its item; a lone slot just takes a plain click
+    private boolean fill(int amount) {
+        int[] needing = new int[GRID_SIZE];
+        for (int slot = 0; slot < GRID_SIZE; slot++) {
+            int item = pattern[slot];
+            if (item == EMPTY || firstSlotOf(item) != slot) {
+                continue; // Each item is filled once, from the first slot that wants it
+            }
+
+            while (true) {
+                int needed = 0;
+                for (int other = slot; other < GRID_SIZE; other++) {
+                    if (pattern[other] == item && gridCount[other] < amount) {
+                        needing[needed++] = other;
+                    }
+                }
+                if (needed == 0) {
+                    break;
+                }
+                int max = maxStack.applyAsInt(item);
+                int pickup = choosePickup(item, needing, needed, amount, max);
+                if (pickup == EMPTY) {
+                    return false;
+                }
+
+                // Button 1 picks up half the stack (rounded up), which often lands the drag on the exact amount
+                int source = pickup >> 1;
+                int button = pickup & 1;
+                int taken = button == 0 ? invCount[source] : (invCount[source] + 1) / 2;
+                click(INVENTORY_START + source, button, PICKUP);
+                cursorItem = item;
+                cursorCount = taken;
+                invCount[source] -= taken;
+                if (invCount[source] == 0) {
+                    invItem[source] = EMPTY;
+                }
+
+                // A drag can only cover as many slots as there are items on the cursor
+                int spread = Math.min(needed, cursorCount);
+                if (spread == 1) {
+                    click(GRID_START + needing[0], 0, PICKUP);
+                    place(needing[0], Math.min(cursorCount, max - gridCount[needing[0]]));
+                } else {
+                    int share = cursorCount / spread;
+                    click(OUTSIDE, dragButton(DRAG_START), QUICK_CRAFT);
+                    for (int i = 0; i < spread; i++) {
+                        click(GRID_START + needing[i], dragButton(DRAG_ADD), QUICK_CRAFT);
+                    }
+                    click(OUTSIDE, dragButton(DRAG_END), QUICK_CRAFT);
+                    for (int i = 0; i < spread; i++) {
+                        place(needing[i], Math.min(share, max - gridCount[needing[i]]));
+                    }
+                }
+
+                if (cursorCount > 0) {
+                    click(INVENTORY_START + source, 0, PICKUP);
+                    invItem[source] = item;
+                    invCount[source] += cursorCount;
+                    cursorItem = EMPTY;
+                    cursorCount = 0;
+                }
+            }
+        }
+        return true;
+    }
+
+    private void place(int slot, int count) {
+        gridItem[slot] = cursorItem;
+        gridCount[slot] += count;
+        cursorCount -= count;
+        if (cursorCount == 0) {
+            cursorItem = EMPTY;
+        }
+    }
+
+    // Click the result slot count times, emptying the cursor into the inventory whenever it can't take another
+    private void craftSingly(int count) {
+        for (int i = 0; i < count; i++) {
+            if (cursorItem != EMPTY && cursorCount + resultCount > maxStack.applyAsInt(result)) {
+                depositCursor();
+            }
+            click(RESULT, 0, PICKUP);
+            cursorItem = result;
+            cursorCount += resultCount;
+            consume(1);
+        }
+        depositCursor();
+    }
+
+    private void depositCursor() {
+        if (cursorCount == 0) {
+            return;
+        }
+        int max = maxStack.applyAsInt(cursorItem);
+        while (cursorCount > 0) {
+            int target = EMPTY;
+            for (int i = 0; i < INVENTORY_SIZE && target == EMPTY; i++) {
+                if (invItem[i] == cursorItem && invCount[i] < max) {
+                    target = i;
+                }
+            }
+            for (int i = 0; i < INVENTORY_SIZE && target == EMPTY; i++) {
+                if (invItem[i] == EMPTY) {
+                    target = i;
+                }
+            }
+            if (target == EMPTY) {
+                return; // room() was checked before crafting, so this can't happen
+            }
+            click(INVENTORY_START + target, 0, PICKUP);
+            int moved = Math.min(cursorCount, max - invCount[target]);
+            invItem[target] = cursorItem;
+            invCount[target] += moved;
+            cursorCount -= moved;
+        }
+        cursorItem = EMPTY;
+    }
+
+    private void consume(int crafts) {
+        for (int slot = 0; slot < GRID_SIZE; slot++) {
+            if (pattern[slot] != EMPTY) {
+                gridCount[slot] -= crafts;
+                if (gridCount[slot] == 0) {
+                    gridItem[slot] = EMPTY;
+                }
+            }
+        }
+    }
+
+    private int craftable() {
+        int craftable = Integer.MAX_VALUE;
+        for (int slot = 0; slot < GRID_SIZE; slot++) {
+            if (pattern[slot] != EMPTY) {
+                craftable = Math.min(craftable, gridCount[slot]);
+            }
+        }
+        return craftable;
+    }
+
+    // Mirrors vanilla insertItem: top up matching stacks first, then take the first empty slot
+    private boolean insert(int item, int count, int[] order) {
+        int max = maxStack.applyAsInt(item);
+        for (int i : order) {
+            if (count > 0 && invItem[i] == item && invCount[i] < max) {
+                int moved = Math.min(count, max - invCount[i]);
+                invCount[i] += moved;
+                count -= moved;
+            }
+        }
+        for (int i : order) {
+            if (count > 0 && invItem[i] == EMPTY) {
+                invItem[i] = item;
+                invCount[i] = count;
+                count = 0;
+            }
+        }
+        return count == 0;
+    }
+
+    private int room(int item) {
+        int max = maxStack.applyAsInt(item);
+        int room = 0;
+        for (int i = 0; i < INVENTORY_SIZE; i++) {
+            if (invItem[i] == EMPTY) {
+                room += max;
+            } else if (invItem[i] == item) {
+                room += max - invCount[i];
+            }
+        }
+        return room;
+    }
+
+    // Pick the stack and button (whole or half) to pick up next, encoded as slot << 1 | button. A pickup that
+    // brings every needing slot to the amount with the least overshoot wins; failing that, the largest stack
+    private int choosePickup(int item, int[] needing, int needed, int amount, int max) {
+        int best = EMPTY;
+        long bestOvershoot = Long.MAX_VALUE;
+        int largest = EMPTY;
+        for (int i = 0; i < INVENTORY_SIZE; i++) {
+            if (invItem[i] != item) {
+                continue;
+            }
+            if (largest == EMPTY || invCount[i] > invCount[largest]) {
+                largest = i;
+            }
+            for (int button = 0; button <= 1; button++) {
+                int taken = button == 0 ? invCount[i] : (invCount[i] + 1) / 2;
+                int spread = Math.min(needed, taken);
+                if (spread < needed) {
+                    continue;
+                }
+                long overshoot = 0;
+                for (int j = 0; j < spread && overshoot >= 0; j++) {
+                    int filled = gridCount[needing[j]] + Math.min(taken / spread, max - gridCount[needing[j]]);
+                    overshoot = filled < amount ? -1 : overshoot + filled - amount;
+                }
+                if (overshoot >= 0 && overshoot < bestOvershoot) {
+                    best = i << 1 | button;
+                    bestOvershoot = overshoot;
+                }
+            }
+        }
+        return best != EMPTY ? best : (largest == EMPTY ? EMPTY : largest << 1);
+    }
+
+    private int firstSlotOf(int item) {
+        for (int slot = 0; slot < GRID_SIZE; slot++) {
+            if (pattern[slot] == item) {
+                return slot;
+            }
+        }
+        return EMPTY;
+    }
+
+    private static int dragButton(int stage) {
+        return stage; // mode 0 << 2 | stage
+    }
+
+    private void click(int slot, int button, int action) {
+        if (clickCount == clickSlots.length) {
+            clickSlots = Arrays.copyOf(clickSlots, clickCount * 2);
+            clickButtons = Arrays.copyOf(clickButtons, clickCount * 2);
+            clickActions = Arrays.copyOf(clickActions, clickCount * 2);
+        }
+        clickSlots[clickCount] = slot;
+        clickButtons[clickCount] = button;
+        clickActions[clickCount] = action;
+        clickCount++;
+    }
+}
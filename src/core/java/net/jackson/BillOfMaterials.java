@@ -0,0 +1,244 @@
+package net.jackson;
+
+import java.util.Arrays;
+
+// Expands a target quantity down to raw materials. Every item gets one chosen recipe (memoized per graph and
+// preference), the chosen recipes form a DAG, and demand is pushed through it in topological order so
+// shared intermediates are summed before their batches are rounded up. All amounts are exact longs
+public class BillOfMaterials {
+    public static final int PREFER_CRAFTING = 0;
+    public static final int PREFER_COOKING = 1;
+    public static final int PREFER_FEWEST_INPUTS = 2;
+
+    private static final int UNVISITED = 0;
+    private static final int VISITING = 1;
+    private static final int DONE = 2;
+    private static final int RAW = -1;
+
+    public static class Result {
+        public final int[] rawItems;
+        public final long[] rawCounts;
+        public final int[] steps;       // chosen recipes, inputs before the things made from them
+        public final long[] stepBatches;
+
+        Result(int[] rawItems, long[] rawCounts, int[] steps, long[] stepBatches) {
+            this.rawItems = rawItems;
+            this.rawCounts = rawCounts;
+            this.steps = steps;
+            this.stepBatches = stepBatches;
+        }
+    }
+
+    private final RecipeGraph graph;
+    private final int preference;
+
+    // Memoized choices - item -> recipe used to make it, or RAW
+    private final int[] chosen;
+    private final int[] state;
+
+    public BillOfMaterials(RecipeGraph graph, int preference) {
+        this.graph = graph;
+        this.preference = preference;
+        this.chosen = new int[graph.itemCapacity()];
+        this.state = new int[graph.itemCapacity()];
+    }
+
+    public RecipeGraph getGraph() {
+        return graph;
+    }
+
+    public int getPreference() {
+        return preference;
+    }
+
+    public Result expand(int target, long quantity) {
+        if (target < 0 || target >= graph.itemCapacity() || quantity <= 0) {
+            return new Result(new int[0], new long[0], new int[0], new long[0]);
+        }
+        choose(target);
+
+        // Post-order over the chosen DAG - reversed, every item comes before all of its inputs
+        int[] order = new int[graph.itemCapacity()];
+        boolean[] seen = new boolean[graph.itemCapacity()];
+        int size = postOrder(target, seen, order, 0);
+
+        long[] demand = new long[graph.itemCapacity()];
+        demand[target] = quantity;
+        int[] steps = new int[size];
+        long[] batches = new long[size];
+        int stepCount = 0;
+        int[] raw = new int[size];
+        long[] rawCounts = new long[size];
+        int rawCount = 0;
+
+        for (int i = size - 1; i >= 0; i--) {
+            int item = order[i];
+            int recipe = chosen[item];
+            if (recipe == RAW) {
+                raw[rawCount] = item;
+                rawCounts[rawCount++] = demand[item];
+                continue;
+            }
+
+            // Everything that consumes this item has already added its demand, so round once here
+            long made = graph.resultCount(recipe);
+            long count = (demand[item] + made - 1) / made;
+            steps[stepCount] = recipe;
+            batches[stepCount++] = count;
+            for (int requirement = graph.firstRequirement(recipe); requirement < graph.endRequirement(recipe); requirement++) {
+                int input = pickAlternative(requirement);
+                demand[input] = Math.addExact(demand[input], Math.multiplyExact(count, graph.requiredCount(requirement)));
+            }
+        }
+
+        // Steps were collected top-down; crafting happens bottom-up
+        reverse(steps, batches, stepCount);
+        return new Result(Arrays.copyOf(raw, rawCount), Arrays.copyOf(rawCounts, rawCount),
+            Arrays.copyOf(steps, stepCount), Arrays.copyOf(batches, stepCount));
+    }
+
+    private int postOrder(int item, boolean[] seen, int[] order, int size) {
+        seen[item] = true;
+        int recipe = chosen[item];
+        if (recipe != RAW) {
+            for (int requirement = graph.firstRequirement(recipe); requirement < graph.endRequirement(recipe); requirement++) {
+                int input = pickAlternative(requirement);
+                if (!seen[input]) {
+                    size = postOrder(input, seen, order, size);
+                }
+            }
+        }
+        order[size] = item;
+        return size + 1;
+    }
+
+    // Pick a recipe for the item and, recursively, for everything it needs. Skipped candidates:
+    // - ones that would loop back into an item still being decided
+    // - smelting crafted gear back down (iron tools -> nuggets)
+    // - unpacking a storage form that is only ever made from this item (raw iron block -> raw iron),
+    //   while ingot -> nuggets stays since ingots have a real recipe of their own
+    private void choose(int item) {
+        if (state[item] != UNVISITED) {
+            return;
+        }
+        state[item] = VISITING;
+        chosen[item] = RAW;
+
+        for (int recipe : rankedProducers(item)) {
+            if (isRecycling(recipe) || loopsBack(recipe) ||
+                (isReversible(recipe, item) && !hasRealRecipe(pickAlternative(graph.firstRequirement(recipe))))) {
+                continue;
+            }
+            chosen[item] = recipe;
+            for (int requirement = graph.firstRequirement(recipe); requirement < graph.endRequirement(recipe); requirement++) {
+                choose(pickAlternative(requirement));
+            }
+            break;
+        }
+        state[item] = DONE;
+    }
+
+    private boolean loopsBack(int recipe) {
+        for (int requirement = graph.firstRequirement(recipe); requirement < graph.endRequirement(recipe); requirement++) {
+            if (state[pickAlternative(requirement)] == VISITING) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // block -> 9 ingots while ingots -> block: a storage form, only used when there's nothing better
+    private boolean isReversible(int recipe, int item) {
+        if (graph.endRequirement(recipe) - graph.firstRequirement(recipe) != 1) {
+            return false;
+        }
+        int input = pickAlternative(graph.firstRequirement(recipe));
+        for (int back : graph.producers(input)) {
+            for (int requirement = graph.firstRequirement(back); requirement < graph.endRequirement(back); requirement++) {
+                if (Arrays.binarySearch(graph.alternatives(requirement), item) >= 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean hasRealRecipe(int item) {
+        for (int producer : graph.producers(item)) {
+            if (!isReversible(producer, item)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Cooking something that is itself crafted (iron tools -> nuggets) turns a BOM inside out
+    private boolean isRecycling(int recipe) {
+        if (graph.kind(recipe) != RecipeGraph.KIND_COOKING) {
+            return false;
+        }
+        for (int input : graph.alternatives(graph.firstRequirement(recipe))) {
+            if (!hasRealRecipe(input)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Alternatives are sorted by id, which follows registration order - the first is the vanilla default (oak)
+    private int pickAlternative(int requirement) {
+        return graph.alternatives(requirement)[0];
+    }
+
+    private int[] rankedProducers(int item) {
+        int[] producers = graph.producers(item).clone();
+        long[] keys = new long[producers.length];
+        for (int i = 0; i < producers.length; i++) {
+            // Storage forms sort after every real recipe
+            keys[i] = (isReversible(producers[i], item) ? Long.MAX_VALUE / 2 : 0) + rank(producers[i]);
+        }
+
+        // Insertion sort - items rarely have more than a handful of recipes
+        for (int i = 1; i < producers.length; i++) {
+            int recipe = producers[i];
+            long key = keys[i];
+            int j = i - 1;
+            while (j >= 0 && keys[j] > key) {
+                producers[j + 1] = producers[j];
+                keys[j + 1] = keys[j];
+                j--;
+            }
+            producers[j + 1] = recipe;
+            keys[j + 1] = key;
+        }
+        return producers;
+    }
+
+    private long rank(int recipe) {
+        int kind = graph.kind(recipe);
+        switch (preference) {
+            case PREFER_COOKING:
+                return kind == RecipeGraph.KIND_COOKING ? 0 : 1 + kind;
+            case PREFER_FEWEST_INPUTS:
+                long inputs = 0;
+                for (int requirement = graph.firstRequirement(recipe); requirement < graph.endRequirement(recipe); requirement++) {
+                    inputs += graph.requiredCount(requirement);
+                }
+                // Inputs per item made, compared without floating point
+                return inputs * 64 / graph.resultCount(recipe);
+            default:
+                return kind == RecipeGraph.KIND_CRAFTING ? 0 : 1 + kind;
+        }
+    }
+
+    private static void reverse(int[] steps, long[] batches, int count) {
+        for (int i = 0, j = count - 1; i < j; i++, j--) {
+            int step = steps[i];
+            steps[i] = steps[j];
+            steps[j] = step;
+            long batch = batches[i];
+            batches[i] = batches[j];
+            batches[j] = batch;
+        }
+    }
+}
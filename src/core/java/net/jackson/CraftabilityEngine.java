@@ -0,0 +1,152 @@
+package net.jackson;
+
+import java.util.Arrays;
+import java.util.function.IntUnaryOperator;
+
+// Tracks which items can be crafted right now from a set of item counts. Each recipe keeps a count of
+// requirements it still can't meet; a changed item only re-checks the requirements that accept it
+// (via the graph's uses index), and changes are batched until recompute() so a burst of inventory
+// updates costs one pass. Requirements are checked independently, so two requirements competing for
+// the same item can both look satisfied - good enough for a highlight, the planner does the exact math
+public class CraftabilityEngine {
+    private final RecipeGraph graph;
+    private final boolean[] trackedKind;
+
+    private final int[] unmet;          // per recipe
+    private final boolean[] met;        // per requirement
+    private final int[] readyRecipes;   // per item - how many of its tracked recipes have nothing unmet
+
+    // Items changed since the last recompute, as a bitset plus a list so draining doesn't scan every id
+    private final long[] dirtyBits;
+    private final int[] dirtyList;
+    private int dirtyCount = 0;
+    private boolean fullRecompute = true;
+
+    private int revision = 0;
+
+    public CraftabilityEngine(RecipeGraph graph, int... kinds) {
+        this.graph = graph;
+        this.trackedKind = new boolean[4];
+        for (int kind : kinds) {
+            trackedKind[kind] = true;
+        }
+        this.unmet = new int[graph.recipeCount()];
+        this.met = new boolean[graph.requirementCount()];
+        this.readyRecipes = new int[graph.itemCapacity()];
+        this.dirtyBits = new long[(graph.itemCapacity() + 63) >>> 6];
+        this.dirtyList = new int[graph.itemCapacity()];
+    }
+
+    public void markDirty(int item) {
+        if (item < 0 || item >= graph.itemCapacity()) {
+            return;
+        }
+        long bit = 1L << item;
+        if ((dirtyBits[item >>> 6] & bit) == 0) {
+            dirtyBits[item >>> 6] |= bit;
+            dirtyList[dirtyCount++] = item;
+        }
+    }
+
+    public void markAllDirty() {
+        fullRecompute = true;
+    }
+
+    // Apply every pending change against the given counts. Returns true if any item's craftability flipped
+    public boolean recompute(IntUnaryOperator counts) {
+        if (fullRecompute) {
+            rebuild(counts);
+            return true;
+        }
+        if (dirtyCount == 0) {
+            return false;
+        }
+
+        boolean changed = false;
+        for (int i = 0; i < dirtyCount; i++) {
+            int item = dirtyList[i];
+            dirtyBits[item >>> 6] &= ~(1L << item);
+            for (int requirement : graph.uses(item)) {
+                changed |= update(requirement, counts);
+            }
+        }
+        dirtyCount = 0;
+        if (changed) {
+            revision++;
+        }
+        return changed;
+    }
+
+    private void rebuild(IntUnaryOperator counts) {
+        fullRecompute = false;
+        Arrays.fill(dirtyBits, 0);
+        dirtyCount = 0;
+        Arrays.fill(readyRecipes, 0);
+
+        for (int recipe = 0; recipe < graph.recipeCount(); recipe++) {
+            int missing = 0;
+            for (int requirement = graph.firstRequirement(recipe); requirement < graph.endRequirement(recipe); requirement++) {
+                met[requirement] = isMet(requirement, counts);
+                if (!met[requirement]) {
+                    missing++;
+                }
+            }
+            unmet[recipe] = missing;
+            if (missing == 0 && isTracked(recipe)) {
+                readyRecipes[graph.result(recipe)]++;
+            }
+        }
+        revision++;
+    }
+
+    private boolean update(int requirement, IntUnaryOperator counts) {
+        boolean nowMet = isMet(requirement, counts);
+        if (nowMet == met[requirement]) {
+            return false;
+        }
+        met[requirement] = nowMet;
+
+        int recipe = graph.recipeOf(requirement);
+        boolean wasReady = unmet[recipe] == 0;
+        unmet[recipe] += nowMet ? -1 : 1;
+        boolean ready = unmet[recipe] == 0;
+        if (wasReady == ready || !isTracked(recipe)) {
+            return false;
+        }
+
+        int item = graph.result(recipe);
+        boolean wasCraftable = readyRecipes[item] > 0;
+        readyRecipes[item] += ready ? 1 : -1;
+        return wasCraftable != readyRecipes[item] > 0;
+    }
+
+    private boolean isMet(int requirement, IntUnaryOperator counts) {
+        int needed = graph.requiredCount(requirement);
+        int available = 0;
+        for (int item : graph.alternatives(requirement)) {
+            available += counts.applyAsInt(item);
+            if (available >= needed) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isTracked(int recipe) {
+        int kind = graph.kind(recipe);
+        return kind >= 0 && kind < trackedKind.length && trackedKind[kind];
+    }
+
+    public boolean isCraftable(int item) {
+        return item >= 0 && item < readyRecipes.length && readyRecipes[item] > 0;
+    }
+
+    public boolean isRecipeReady(int recipe) {
+        return unmet[recipe] == 0;
+    }
+
+    // Bumped whenever the set of craftable items changes
+    public int getRevision() {
+        return revision;
+    }
+}
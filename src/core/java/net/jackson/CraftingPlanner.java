@@ -0,0 +1,259 @@
+package net.jackson;
+
+import java.util.Arrays;
+
+// Searches the recipe graph for a way to make an item from a set of item counts, crafting intermediates
+// (logs -> planks -> sticks) along the way. Depth-first over producer recipes with a simulated stock:
+// - items that can't be reached from the stock at all are found once up front and never expanded
+// - failures are memoized per item for as long as the stock only shrinks, which is when they stay valid -
+//   unless the depth limit or the loop check below played a part, since those depend on the path taken
+// - a failed attempt is undone from a log of the stock writes it made, not from a copy of the whole stock
+// - items already being expanded higher up are skipped, so block <-> ingot loops terminate
+// - the search gives up once its time budget is spent rather than stall the caller
+public class CraftingPlanner {
+    public static final int FOUND = 0;
+    public static final int MISSING = 1;
+    public static final int TIMED_OUT = 2;
+
+    private static final int MAX_DEPTH = 12;
+
+    public static class Plan {
+        public final int status;
+        public final int[] recipes; // steps in the order they have to be crafted
+        public final int[] batches; // how many times each step's recipe is crafted
+        public final int expansions;
+
+        Plan(int status, int[] recipes, int[] batches, int expansions) {
+            this.status = status;
+            this.recipes = recipes;
+            this.batches = batches;
+            this.expansions = expansions;
+        }
+
+        public int size() {
+            return recipes.length;
+        }
+    }
+
+    private final RecipeGraph graph;
+    private final boolean[] usableKind;
+    private final int[] stock;
+    private final long deadline;
+
+    private final boolean[] reachable;
+    private final boolean[] onPath;
+    private final int[] failedQuantity;
+    private final int[] failedEpoch;
+    private int epoch = 1; // Bumped whenever some count goes up; failures from an older epoch are stale
+    private boolean cutoff = false; // Set when a failure below came from the depth limit or the loop check
+
+    private int[] undo = new int[64]; // Stock writes as (item, previous count) pairs, oldest first
+    private int undoSize = 0;
+
+    private int[] stepRecipes = new int[16];
+    private int[] stepBatches = new int[16];
+    private int stepCount = 0;
+    private int expansions = 0;
+    private boolean timedOut = false;
+
+    private CraftingPlanner(RecipeGraph graph, int[] counts, int target, long budgetNanos, int[] kinds) {
+        this.graph = graph;
+        this.usableKind = new boolean[4];
+        for (int kind : kinds) {
+            usableKind[kind] = true;
+        }
+        this.stock = Arrays.copyOf(counts, graph.itemCapacity());
+        this.stock[target] = 0; // We're asked how to make more, so copies already held don't count
+        this.deadline = System.nanoTime() + budgetNanos;
+        this.reachable = computeReachable();
+        this.onPath = new boolean[graph.itemCapacity()];
+        this.failedQuantity = new int[graph.itemCapacity()];
+        this.failedEpoch = new int[graph.itemCapacity()];
+    }
+
+    // counts is indexed by item id and isn't modified
+    public static Plan plan(RecipeGraph graph, int[] counts, int target, int quantity, long budgetNanos, int... kinds) {
+        if (target < 0 || target >= graph.itemCapacity()) {
+            return new Plan(MISSING, new int[0], new int[0], 0);
+        }
+        CraftingPlanner planner = new CraftingPlanner(graph, counts, target, budgetNanos, kinds);
+        boolean found = planner.produce(target, quantity, 0);
+        int status = found ? FOUND : (planner.timedOut ? TIMED_OUT : MISSING);
+        return new Plan(status,
+            found ? Arrays.copyOf(planner.stepRecipes, planner.stepCount) : new int[0],
+            found ? Arrays.copyOf(planner.stepBatches, planner.stepCount) : new int[0],
+            planner.expansions);
+    }
+
+    // Fixpoint over the graph: an item is reachable if we hold some, or some usable recipe for it
+    // has a reachable alternative for every requirement. Quantities are ignored, so this only prunes
+    private boolean[] computeReachable() {
+        boolean[] result = new boolean[graph.itemCapacity()];
+        for (int item = 0; item < result.length; item++) {
+            result[item] = stock[item] > 0;
+        }
+
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int recipe = 0; recipe < graph.recipeCount(); recipe++) {
+                int output = graph.result(recipe);
+                if (result[output] || !usableKind[graph.kind(recipe)]) {
+                    continue;
+                }
+                boolean possible = true;
+                for (int requirement = graph.firstRequirement(recipe); possible && requirement < graph.endRequirement(recipe); requirement++) {
+                    boolean any = false;
+                    for (int item : graph.alternatives(requirement)) {
+                        if (result[item]) {
+                            any = true;
+                            break;
+                        }
+                    }
+                    possible = any;
+                }
+                if (possible) {
+                    result[output] = true;
+                    changed = true;
+                }
+            }
+        }
+        return result;
+    }
+
+    // Craft enough of the item to cover quantity, leaving it in the stock. On failure the stock and
+    // step list are left exactly as they were
+    private boolean produce(int item, int quantity, int depth) {
+        if (stock[item] >= quantity) {
+            return true;
+        }
+        if (!reachable[item] || graph.producers(item).length == 0) {
+            return false; // Short of it whichever way we got here
+        }
+        if (onPath[item] || depth > MAX_DEPTH) {
+            // From a shallower depth or another path this might work, so nothing above may memoize the failure
+            cutoff = true;
+            return false;
+        }
+        if (failedEpoch[item] == epoch && quantity >= failedQuantity[item]) {
+            return false;
+        }
+        if (System.nanoTime() > deadline) {
+            timedOut = true;
+            return false;
+        }
+        expansions++;
+
+        boolean outerCutoff = cutoff;
+        cutoff = false;
+        onPath[item] = true;
+        try {
+            int missing = quantity - stock[item];
+            for (int recipe : graph.producers(item)) {
+                if (!usableKind[graph.kind(recipe)]) {
+                    continue;
+                }
+                int batches = (missing + graph.resultCount(recipe) - 1) / graph.resultCount(recipe);
+
+                int mark = undoSize;
+                int savedSteps = stepCount;
+                if (consumeRequirements(recipe, batches, depth)) {
+                    setStock(item, stock[item] + batches * graph.resultCount(recipe));
+                    addStep(recipe, batches);
+                    epoch++; // Stock grew, so earlier failures may no longer hold
+                    return true;
+                }
+
+                // Failures recorded during the attempt saw less stock than we're back to only if it had used
+                // something up; an attempt that failed before taking anything leaves them all valid
+                if (rollback(mark)) {
+                    epoch++;
+                }
+                stepCount = savedSteps;
+                if (timedOut) {
+                    return false;
+                }
+            }
+
+            // Nothing worked with the current stock - any larger amount won't either until the stock grows
+            if (!cutoff && (failedEpoch[item] != epoch || quantity < failedQuantity[item])) {
+                failedEpoch[item] = epoch;
+                failedQuantity[item] = quantity;
+            }
+            return false;
+        } finally {
+            onPath[item] = false;
+            cutoff |= outerCutoff;
+        }
+    }
+
+    private boolean consumeRequirements(int recipe, int batches, int depth) {
+        for (int requirement = graph.firstRequirement(recipe); requirement < graph.endRequirement(recipe); requirement++) {
+            int needed = graph.requiredCount(requirement) * batches;
+            int[] alternatives = graph.alternatives(requirement);
+
+            // Use up what we already hold across all alternatives first
+            for (int item : alternatives) {
+                int taken = Math.min(needed, stock[item]);
+                if (taken > 0) {
+                    setStock(item, stock[item] - taken);
+                    needed -= taken;
+                }
+                if (needed == 0) {
+                    break;
+                }
+            }
+            if (needed == 0) {
+                continue;
+            }
+
+            // Craft the rest from whichever alternative works out first
+            boolean covered = false;
+            for (int item : alternatives) {
+                if (produce(item, needed, depth + 1)) {
+                    setStock(item, stock[item] - needed);
+                    covered = true;
+                    break;
+                }
+                if (timedOut) {
+                    return false;
+                }
+            }
+            if (!covered) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void setStock(int item, int count) {
+        if (undoSize == undo.length) {
+            undo = Arrays.copyOf(undo, undoSize * 2);
+        }
+        undo[undoSize++] = item;
+        undo[undoSize++] = stock[item];
+        stock[item] = count;
+    }
+
+    // Undo every stock write since mark, newest first. Returns whether any count went back up
+    private boolean rollback(int mark) {
+        boolean grew = false;
+        while (undoSize > mark) {
+            int previous = undo[--undoSize];
+            int item = undo[--undoSize];
+            grew |= previous > stock[item];
+            stock[item] = previous;
+        }
+        return grew;
+    }
+
+    private void addStep(int recipe, int batches) {
+        if (stepCount == stepRecipes.length) {
+            stepRecipes = Arrays.copyOf(stepRecipes, stepCount * 2);
+            stepBatches = Arrays.copyOf(stepBatches, stepCount * 2);
+        }
+        stepRecipes[stepCount] = recipe;
+        stepBatches[stepCount] = batches;
+        stepCount++;
+    }
+}
@@ -0,0 +1,399 @@
+package net.jackson;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Reverse lookup from a crafting grid to the recipe it makes. Grids are normalized by trimming empty rows and
+// columns, then looked up in two tiers:
+// - exact: recipes whose every slot takes a single item, keyed by shape plus item ids (shapeless sorted)
+// - by shape: recipes with tag or list slots, keyed by shape alone and verified slot by slot
+// Shaped recipes are indexed both as written and mirrored, since vanilla accepts either. Slots are interned
+// into classes (sorted alternative sets), so every "#minecraft:planks" slot shares one array
+public class GridRecipeIndex {
+    public static final int NONE = -1;
+    private static final int EMPTY = -1;
+
+    private static final long SHAPED = 1;
+    private static final long SHAPELESS = 2;
+
+    // Per indexed recipe: the graph recipe id, its shape and a class per cell (EMPTY for a blank cell)
+    private final int[] recipeIds;
+    private final int[] widths;
+    private final int[] heights;
+    private final boolean[] shapeless;
+    private final int[][] cells;
+    private final int[][] classes;
+
+    // Candidate lists per key; entries are indexed recipe << 1 | mirrored
+    private final Map<Long, int[]> exact;
+    private final Map<Long, int[]> byShape;
+
+    private GridRecipeIndex(Builder builder) {
+        this.recipeIds = toArray(builder.recipeIds);
+        this.widths = toArray(builder.widths);
+        this.heights = toArray(builder.heights);
+        this.shapeless = new boolean[builder.shapeless.size()];
+        for (int i = 0; i < shapeless.length; i++) {
+            shapeless[i] = builder.shapeless.get(i);
+        }
+        this.cells = builder.cells.toArray(new int[0][]);
+        this.classes = builder.classes.toArray(new int[0][]);
+        this.exact = freeze(builder.exact);
+        this.byShape = freeze(builder.byShape);
+    }
+
+    public int size() {
+        return recipeIds.length;
+    }
+
+    // Graph recipe id of the indexed recipe, for indexed in [0, size())
+    public int recipeId(int indexed) {
+        return recipeIds[indexed];
+    }
+
+    // A grid the indexed recipe accepts, as lookup takes it: the first member of every slot, top left aligned,
+    // shapeless ingredients in rows of three
+    public int[] exampleGrid(int indexed) {
+        int[] grid = new int[9];
+        Arrays.fill(grid, EMPTY);
+        int[] recipeCells = cells[indexed];
+        int stride = shapeless[indexed] ? 3 : widths[indexed];
+        for (int i = 0; i < recipeCells.length; i++) {
+            int row = i / stride;
+            int col = i % stride;
+            if (row < 3 && col < 3 && recipeCells[i] != EMPTY) {
+                grid[row * 3 + col] = classes[recipeCells[i]][0];
+            }
+        }
+        return grid;
+    }
+
+    // Rough heap footprint for the stats readout; map entries are counted at a boxed key plus a node each
+    public long estimatedBytes() {
+        long bytes = arrayBytes(recipeIds.length, 4) + arrayBytes(widths.length, 4) + arrayBytes(heights.length, 4)
+            + arrayBytes(shapeless.length, 1) + nestedBytes(cells) + nestedBytes(classes);
+        for (Map<Long, int[]> candidates : List.of(exact, byShape)) {
+            for (int[] entries : candidates.values()) {
+                bytes += 24 + 32 + arrayBytes(entries.length, 4);
+            }
+        }
+        return bytes;
+    }
+
+    private static long nestedBytes(int[][] arrays) {
+        long bytes = arrayBytes(arrays.length, 4);
+        for (int[] array : arrays) {
+            bytes += arrayBytes(array.length, 4);
+        }
+        return bytes;
+    }
+
+    private static long arrayBytes(int length, int elementBytes) {
+        return 16 + (long) length * elementBytes;
+    }
+
+    // grid is nine raw ids in rows of three (-1 for empty); returns the graph recipe id or NONE
+    public int lookup(int[] grid) {
+        int top = 3, bottom = -1, left = 3, right = -1;
+        int occupied = 0;
+        for (int i = 0; i < 9; i++) {
+            if (grid[i] != EMPTY) {
+                top = Math.min(top, i / 3);
+                bottom = Math.max(bottom, i / 3);
+                left = Math.min(left, i % 3);
+                right = Math.max(right, i % 3);
+                occupied++;
+            }
+        }
+        if (occupied == 0) {
+            return NONE;
+        }
+        int width = right - left + 1;
+        int height = bottom - top + 1;
+        int[] trimmed = new int[width * height];
+        for (int row = 0; row < height; row++) {
+            for (int col = 0; col < width; col++) {
+                trimmed[row * width + col] = grid[(top + row) * 3 + left + col];
+            }
+        }
+        int[] sorted = packed(trimmed);
+        Arrays.sort(sorted);
+
+        int found = probe(exact.get(shapedKey(width, height, trimmed)), width, height, trimmed, sorted);
+        if (found == NONE) {
+            found = probe(exact.get(shapelessKey(sorted)), width, height, trimmed, sorted);
+        }
+        if (found == NONE) {
+            found = probe(byShape.get(shapeKey(width, height, trimmed)), width, height, trimmed, sorted);
+        }
+        if (found == NONE) {
+            found = probe(byShape.get(countKey(sorted.length)), width, height, trimmed, sorted);
+        }
+        return found;
+    }
+
+    private int probe(int[] candidates, int width, int height, int[] trimmed, int[] sorted) {
+        if (candidates == null) {
+            return NONE;
+        }
+        for (int candidate : candidates) {
+            int recipe = candidate >> 1;
+            boolean matched = shapeless[recipe] ? matchesShapeless(recipe, sorted)
+                : matchesShaped(recipe, (candidate & 1) != 0, width, height, trimmed);
+            if (matched) {
+                return recipeIds[recipe];
+            }
+        }
+        return NONE;
+    }
+
+    private boolean matchesShaped(int recipe, boolean mirrored, int width, int height, int[] trimmed) {
+        if (widths[recipe] != width || heights[recipe] != height) {
+            return false;
+        }
+        int[] recipeCells = cells[recipe];
+        for (int row = 0; row < height; row++) {
+            for (int col = 0; col < width; col++) {
+                int cell = recipeCells[row * width + (mirrored ? width - 1 - col : col)];
+                int item = trimmed[row * width + col];
+                if (cell == EMPTY ? item != EMPTY : item == EMPTY || Arrays.binarySearch(classes[cell], item) < 0) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    // Each grid item has to be given to a different ingredient - a small backtracking matching, at most nine deep
+    private boolean matchesShapeless(int recipe, int[] sorted) {
+        int[] ingredients = cells[recipe];
+        return ingredients.length == sorted.length && assign(ingredients, sorted, 0, new boolean[ingredients.length]);
+    }
+
+    private boolean assign(int[] ingredients, int[] items, int index, boolean[] used) {
+        if (index == items.length) {
+            return true;
+        }
+        for (int i = 0; i < ingredients.length; i++) {
+            if (!used[i] && Arrays.binarySearch(classes[ingredients[i]], items[index]) >= 0) {
+                used[i] = true;
+                if (assign(ingredients, items, index + 1, used)) {
+                    return true;
+                }
+                used[i] = false;
+            }
+        }
+        return false;
+    }
+
+    // Keys mix the kind, the dimensions or count, and then either the ids or the occupancy mask
+
+    private static long shapedKey(int width, int height, int[] ids) {
+        long hash = mix(SHAPED * 31 + width * 4 + height);
+        for (int id : ids) {
+            hash = mix(hash + id + 1);
+        }
+        return hash;
+    }
+
+    private static long shapelessKey(int[] sortedIds) {
+        long hash = mix(SHAPELESS * 31 + sortedIds.length);
+        for (int id : sortedIds) {
+            hash = mix(hash + id + 1);
+        }
+        return hash;
+    }
+
+    private static long shapeKey(int width, int height, int[] cells) {
+        int mask = 0;
+        for (int i = 0; i < cells.length; i++) {
+            if (cells[i] != EMPTY) {
+                mask |= 1 << i;
+            }
+        }
+        return mix(SHAPED * 31 + width * 4 + height) ^ mask;
+    }
+
+    private static long countKey(int count) {
+        return mix(SHAPELESS * 31 + count);
+    }
+
+    private static long mix(long value) {
+        value *= 0x9E3779B97F4A7C15L;
+        return value ^ (value >>> 29);
+    }
+
+    private static int[] packed(int[] cells) {
+        int count = 0;
+        for (int cell : cells) {
+            if (cell != EMPTY) {
+                count++;
+            }
+        }
+        int[] items = new int[count];
+        count = 0;
+        for (int cell : cells) {
+            if (cell != EMPTY) {
+                items[count++] = cell;
+            }
+        }
+        return items;
+    }
+
+    private static int[] toArray(List<Integer> list) {
+        int[] array = new int[list.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = list.get(i);
+        }
+        return array;
+    }
+
+    private static Map<Long, int[]> freeze(Map<Long, List<Integer>> lists) {
+        Map<Long, int[]> frozen = new HashMap<>(lists.size() * 2);
+        for (Map.Entry<Long, List<Integer>> entry : lists.entrySet()) {
+            frozen.put(entry.getKey(), toArray(entry.getValue()));
+        }
+        return frozen;
+    }
+
+    public static class Builder {
+        private final List<Integer> recipeIds = new ArrayList<>();
+        private final List<Integer> widths = new ArrayList<>();
+        private final List<Integer> heights = new ArrayList<>();
+        private final List<Boolean> shapeless = new ArrayList<>();
+        private final List<int[]> cells = new ArrayList<>();
+        private final List<int[]> classes = new ArrayList<>();
+        private final Map<String, Integer> classIds = new HashMap<>();
+        private final Map<Long, List<Integer>> exact = new HashMap<>();
+        private final Map<Long, List<Integer>> byShape = new HashMap<>();
+
+        // slots holds width * height cells row by row; an empty array is a blank cell. Alternatives may contain
+        // -1 for items that didn't resolve. Returns false if some slot can't be filled by anything
+        public boolean addShaped(int recipe, int width, int height, int[][] slots) {
+            // Patterns like " # " keep their padding in JSON, but grids are looked up trimmed - trim these the same way
+            int top = height, bottom = -1, left = width, right = -1;
+            for (int i = 0; i < width * height; i++) {
+                if (slots[i].length > 0) {
+                    top = Math.min(top, i / width);
+                    bottom = Math.max(bottom, i / width);
+                    left = Math.min(left, i % width);
+                    right = Math.max(right, i % width);
+                }
+            }
+            if (bottom < 0) {
+                return false;
+            }
+            if (right - left + 1 != width || bottom - top + 1 != height) {
+                int[][] trimmed = new int[(right - left + 1) * (bottom - top + 1)][];
+                for (int row = top; row <= bottom; row++) {
+                    for (int col = left; col <= right; col++) {
+                        trimmed[(row - top) * (right - left + 1) + col - left] = slots[row * width + col];
+                    }
+                }
+                return addShaped(recipe, right - left + 1, bottom - top + 1, trimmed);
+            }
+
+            int[] recipeCells = new int[width * height];
+            boolean single = true;
+            for (int i = 0; i < recipeCells.length; i++) {
+                if (slots[i].length == 0) {
+                    recipeCells[i] = EMPTY;
+                    continue;
+                }
+                recipeCells[i] = intern(slots[i]);
+                if (recipeCells[i] == EMPTY) {
+                    return false;
+                }
+                single &= classes.get(recipeCells[i]).length == 1;
+            }
+            int index = add(recipe, width, height, false, recipeCells);
+
+            int[] mirror = new int[recipeCells.length];
+            for (int row = 0; row < height; row++) {
+                for (int col = 0; col < width; col++) {
+                    mirror[row * width + col] = recipeCells[row * width + width - 1 - col];
+                }
+            }
+            boolean symmetric = Arrays.equals(mirror, recipeCells);
+            if (single) {
+                put(exact, shapedKey(width, height, firstItems(recipeCells)), index << 1);
+                if (!symmetric) {
+                    put(exact, shapedKey(width, height, firstItems(mirror)), index << 1 | 1);
+                }
+            } else {
+                put(byShape, shapeKey(width, height, recipeCells), index << 1);
+                if (!symmetric) {
+                    put(byShape, shapeKey(width, height, mirror), index << 1 | 1);
+                }
+            }
+            return true;
+        }
+
+        public boolean addShapeless(int recipe, int[][] ingredients) {
+            if (ingredients.length == 0 || ingredients.length > 9) {
+                return false;
+            }
+            int[] recipeCells = new int[ingredients.length];
+            boolean single = true;
+            for (int i = 0; i < recipeCells.length; i++) {
+                recipeCells[i] = intern(ingredients[i]);
+                if (recipeCells[i] == EMPTY) {
+                    return false;
+                }
+                single &= classes.get(recipeCells[i]).length == 1;
+            }
+            int index = add(recipe, 0, 0, true, recipeCells);
+            if (single) {
+                int[] sorted = firstItems(recipeCells);
+                Arrays.sort(sorted);
+                put(exact, shapelessKey(sorted), index << 1);
+            } else {
+                put(byShape, countKey(recipeCells.length), index << 1);
+            }
+            return true;
+        }
+
+        public GridRecipeIndex build() {
+            return new GridRecipeIndex(this);
+        }
+
+        private int add(int recipe, int width, int height, boolean isShapeless, int[] recipeCells) {
+            recipeIds.add(recipe);
+            widths.add(width);
+            heights.add(height);
+            shapeless.add(isShapeless);
+            cells.add(recipeCells);
+            return recipeIds.size() - 1;
+        }
+
+        private int intern(int[] alternatives) {
+            int[] members = Arrays.stream(alternatives).filter(item -> item >= 0).sorted().distinct().toArray();
+            if (members.length == 0) {
+                return EMPTY;
+            }
+            String key = Arrays.toString(members);
+            Integer id = classIds.get(key);
+            if (id == null) {
+                id = classes.size();
+                classes.add(members);
+                classIds.put(key, id);
+            }
+            return id;
+        }
+
+        private int[] firstItems(int[] recipeCells) {
+            int[] items = new int[recipeCells.length];
+            for (int i = 0; i < items.length; i++) {
+                items[i] = recipeCells[i] == EMPTY ? EMPTY : classes.get(recipeCells[i])[0];
+            }
+            return items;
+        }
+
+        private static void put(Map<Long, List<Integer>> map, long key, int entry) {
+            map.computeIfAbsent(key, k -> new ArrayList<>()).add(entry);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package net.jackson;
+
+// How the engines see items: raw ids in [0, size()). The game binding answers from the item registry and the
+// world's tags; benchmarks answer from plain tables
+public interface ItemIds {
+    int size();
+
+    // Raw id for an item id like "minecraft:stick", or -1 if there's no such item
+    int rawId(String id);
+
+    // Raw ids of everything in a tag, named without the '#'. Empty if the tag is unknown
+    int[] tag(String tag);
+}
@@ -0,0 +1,36 @@
+package net.jackson;
+
+import java.util.function.IntFunction;
+
+// The overlay's search: an item matches when its name or the path of its id contains the query. Names and paths
+// are lowercased once when the index is built rather than for every item on every keystroke. Read-only once
+// built, so a parallel filter can share it
+public class ItemSearch {
+    private final String[] names;
+    private final String[] paths;
+
+    // name and id are asked once per raw id in [0, size); either may return null for an id with no item
+    public ItemSearch(int size, IntFunction<String> name, IntFunction<String> id) {
+        names = new String[size];
+        paths = new String[size];
+        for (int item = 0; item < size; item++) {
+            String itemName = name.apply(item);
+            String itemId = id.apply(item);
+            names[item] = itemName == null ? "" : itemName.toLowerCase();
+            paths[item] = itemId == null ? "" : itemId.substring(itemId.indexOf(':') + 1).toLowerCase();
+        }
+    }
+
+    // What the query has to be before it's passed to matches
+    public static String normalize(String query) {
+        return query.toLowerCase().trim();
+    }
+
+    public boolean matches(int item, String query) {
+        return item >= 0 && item < names.length && (names[item].contains(query) || paths[item].contains(query));
+    }
+
+    public int size() {
+        return names.length;
+    }
+}
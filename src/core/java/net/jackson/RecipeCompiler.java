@@ -0,0 +1,117 @@
+package net.jackson;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Turns codec recipe JSON into the engines' int records: every recipe goes into the graph, and crafting recipes
+// into the grid lookup under the same id. Items and tags are resolved through ItemIds, so the same code builds
+// the game's indexes and the benchmarks'
+public class RecipeCompiler {
+    private final ItemIds items;
+    private final RecipeGraph.Builder graph;
+    private final GridRecipeIndex.Builder grids = new GridRecipeIndex.Builder();
+
+    public RecipeCompiler(ItemIds items) {
+        this.items = items;
+        this.graph = new RecipeGraph.Builder(items.size());
+    }
+
+    // Returns the recipe's id in the graph, or -1 if it was left out (special and trim recipes have no fixed output).
+    // Everything is resolved before anything is added, so a malformed recipe throws without leaving half of itself behind
+    public int add(JsonObject json) {
+        List<JsonElement> ingredients = RecipeJson.ingredients(json);
+        if (ingredients == null) {
+            return -1;
+        }
+        int[][] slots = new int[ingredients.size()][];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = resolve(ingredients.get(i));
+        }
+        String type = json.get("type").getAsString();
+        int result = items.rawId(RecipeJson.resultId(json));
+        int count = RecipeJson.resultCount(json);
+        int[][] cells = "minecraft:crafting_shaped".equals(type) ? shapedCells(json) : null;
+
+        int recipe = graph.addRecipe(kind(type), result, count, slots);
+        if (recipe < 0) {
+            return recipe;
+        }
+        if (cells != null) {
+            int height = json.getAsJsonArray("pattern").size();
+            grids.addShaped(recipe, cells.length / height, height, cells);
+        } else if ("minecraft:crafting_shapeless".equals(type) || "minecraft:crafting_transmute".equals(type)) {
+            grids.addShapeless(recipe, slots);
+        }
+        return recipe;
+    }
+
+    public RecipeGraph buildGraph() {
+        return graph.build();
+    }
+
+    public GridRecipeIndex buildGrids() {
+        return grids.build();
+    }
+
+    // Every item that fills the slot: a single id, a tag, or a list of either. Unknown items come out as -1,
+    // which the builders drop
+    public int[] resolve(JsonElement ingredient) {
+        if (ingredient.isJsonArray()) {
+            List<int[]> options = new ArrayList<>();
+            int total = 0;
+            for (JsonElement option : ingredient.getAsJsonArray()) {
+                int[] resolved = resolve(option);
+                options.add(resolved);
+                total += resolved.length;
+            }
+            int[] ids = new int[total];
+            int next = 0;
+            for (int[] option : options) {
+                System.arraycopy(option, 0, ids, next, option.length);
+                next += option.length;
+            }
+            return ids;
+        }
+        String id = ingredient.getAsString();
+        return id.startsWith("#") ? items.tag(id.substring(1)) : new int[]{items.rawId(id)};
+    }
+
+    // The graph only needs what's consumed; the grid lookup needs the blank cells too, row by row
+    private int[][] shapedCells(JsonObject json) {
+        JsonArray pattern = json.getAsJsonArray("pattern");
+        JsonObject key = json.getAsJsonObject("key");
+        int width = 0;
+        for (JsonElement row : pattern) {
+            width = Math.max(width, row.getAsString().length());
+        }
+        int[][] cells = new int[width * pattern.size()][];
+        for (int row = 0; row < pattern.size(); row++) {
+            String line = pattern.get(row).getAsString();
+            for (int col = 0; col < width; col++) {
+                char symbol = col < line.length() ? line.charAt(col) : ' ';
+                cells[row * width + col] = symbol == ' ' ? new int[0] : resolve(key.get(String.valueOf(symbol)));
+            }
+        }
+        return cells;
+    }
+
+    private static int kind(String type) {
+        switch (type) {
+            case "minecraft:smelting":
+            case "minecraft:blasting":
+            case "minecraft:smoking":
+            case "minecraft:campfire_cooking":
+                return RecipeGraph.KIND_COOKING;
+            case "minecraft:stonecutting":
+                return RecipeGraph.KIND_STONECUTTING;
+            case "minecraft:smithing_transform":
+                return RecipeGraph.KIND_SMITHING;
+            default:
+                return RecipeGraph.KIND_CRAFTING;
+        }
+    }
+}
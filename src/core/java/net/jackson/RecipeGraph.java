@@ -0,0 +1,251 @@
+package net.jackson;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Every known recipe flattened into int arrays over item raw ids, with a reverse "uses" index
+// (item -> requirements that accept it) and a producer index (item -> recipes that make it).
+// Plain Java on purpose - nothing in here touches the game, so it can be built once and shared between threads
+public class RecipeGraph {
+    public static final int KIND_CRAFTING = 0;
+    public static final int KIND_COOKING = 1;
+    public static final int KIND_SMITHING = 2;
+    public static final int KIND_STONECUTTING = 3;
+
+    private static final int[] NONE = new int[0];
+
+    private final int itemCapacity;
+
+    // Per recipe
+    private final int[] kind;
+    private final int[] result;
+    private final int[] resultCount;
+    private final int[] requirementStart; // requirements of recipe r are [requirementStart[r], requirementStart[r + 1])
+
+    // Per requirement - a set of interchangeable items and how many of them the recipe consumes
+    private final int[][] alternatives;
+    private final int[] requiredCount;
+    private final int[] requirementRecipe;
+
+    // Per item
+    private final int[][] uses;
+    private final int[][] producers;
+
+    private RecipeGraph(int itemCapacity, int[] kind, int[] result, int[] resultCount, int[] requirementStart,
+                        int[][] alternatives, int[] requiredCount, int[] requirementRecipe) {
+        this.itemCapacity = itemCapacity;
+        this.kind = kind;
+        this.result = result;
+        this.resultCount = resultCount;
+        this.requirementStart = requirementStart;
+        this.alternatives = alternatives;
+        this.requiredCount = requiredCount;
+        this.requirementRecipe = requirementRecipe;
+        this.uses = invertUses();
+        this.producers = invertProducers();
+    }
+
+    private int[][] invertUses() {
+        int[] sizes = new int[itemCapacity];
+        for (int[] items : alternatives) {
+            for (int item : items) {
+                sizes[item]++;
+            }
+        }
+        int[][] byItem = allocate(sizes);
+        int[] fill = new int[itemCapacity];
+        for (int requirement = 0; requirement < alternatives.length; requirement++) {
+            for (int item : alternatives[requirement]) {
+                byItem[item][fill[item]++] = requirement;
+            }
+        }
+        return byItem;
+    }
+
+    private int[][] invertProducers() {
+        int[] sizes = new int[itemCapacity];
+        for (int item : result) {
+            sizes[item]++;
+        }
+        int[][] byItem = allocate(sizes);
+        int[] fill = new int[itemCapacity];
+        for (int recipe = 0; recipe < result.length; recipe++) {
+            byItem[result[recipe]][fill[result[recipe]]++] = recipe;
+        }
+        return byItem;
+    }
+
+    private static int[][] allocate(int[] sizes) {
+        int[][] arrays = new int[sizes.length][];
+        for (int i = 0; i < sizes.length; i++) {
+            arrays[i] = sizes[i] == 0 ? NONE : new int[sizes[i]];
+        }
+        return arrays;
+    }
+
+    public int itemCapacity() {
+        return itemCapacity;
+    }
+
+    public int recipeCount() {
+        return result.length;
+    }
+
+    public int requirementCount() {
+        return alternatives.length;
+    }
+
+    public int kind(int recipe) {
+        return kind[recipe];
+    }
+
+    public int result(int recipe) {
+        return result[recipe];
+    }
+
+    public int resultCount(int recipe) {
+        return resultCount[recipe];
+    }
+
+    public int firstRequirement(int recipe) {
+        return requirementStart[recipe];
+    }
+
+    public int endRequirement(int recipe) {
+        return requirementStart[recipe + 1];
+    }
+
+    public int[] alternatives(int requirement) {
+        return alternatives[requirement];
+    }
+
+    public int requiredCount(int requirement) {
+        return requiredCount[requirement];
+    }
+
+    public int recipeOf(int requirement) {
+        return requirementRecipe[requirement];
+    }
+
+    // Requirements (across all recipes) that the item can satisfy
+    public int[] uses(int item) {
+        return item >= 0 && item < itemCapacity ? uses[item] : NONE;
+    }
+
+    // Recipes whose output is the item
+    public int[] producers(int item) {
+        return item >= 0 && item < itemCapacity ? producers[item] : NONE;
+    }
+
+    // Rough heap footprint for the stats readout: 16 bytes of header per array plus its contents
+    public long estimatedBytes() {
+        long bytes = arrayBytes(kind.length, 4) + arrayBytes(result.length, 4) + arrayBytes(resultCount.length, 4)
+            + arrayBytes(requirementStart.length, 4) + arrayBytes(requiredCount.length, 4) + arrayBytes(requirementRecipe.length, 4);
+        return bytes + nestedBytes(alternatives) + nestedBytes(uses) + nestedBytes(producers);
+    }
+
+    private static long nestedBytes(int[][] arrays) {
+        long bytes = arrayBytes(arrays.length, 4);
+        for (int[] array : arrays) {
+            bytes += array == NONE ? 0 : arrayBytes(array.length, 4);
+        }
+        return bytes;
+    }
+
+    private static long arrayBytes(int length, int elementBytes) {
+        return 16 + (long) length * elementBytes;
+    }
+
+    public static class Builder {
+        private final int itemCapacity;
+        private final List<int[]> recipes = new ArrayList<>(); // {kind, result, resultCount}
+        private final List<Integer> starts = new ArrayList<>();
+        private final List<int[]> alternatives = new ArrayList<>();
+        private final List<Integer> counts = new ArrayList<>();
+        private final List<Integer> owners = new ArrayList<>();
+
+        public Builder(int itemCapacity) {
+            this.itemCapacity = itemCapacity;
+        }
+
+        // slots holds one array of acceptable item ids per consumed input (empty grid cells left out). Identical
+        // slots are merged into a single requirement with a higher count, so a 3x3 of planks is one requirement of 9.
+        // Returns the recipe's id in the built graph, or -1 if it was left out
+        public int addRecipe(int kind, int result, int resultCount, int[][] slots) {
+            if (result < 0 || result >= itemCapacity) {
+                return -1;
+            }
+
+            int recipe = recipes.size();
+            int start = alternatives.size();
+            for (int[] slot : slots) {
+                int[] items = normalize(slot);
+                if (items.length == 0) {
+                    // An input nothing can fill - drop the whole recipe rather than treat it as free
+                    while (alternatives.size() > start) {
+                        int last = alternatives.size() - 1;
+                        alternatives.remove(last);
+                        counts.remove(last);
+                        owners.remove(last);
+                    }
+                    return -1;
+                }
+
+                boolean merged = false;
+                for (int requirement = start; requirement < alternatives.size(); requirement++) {
+                    if (Arrays.equals(alternatives.get(requirement), items)) {
+                        counts.set(requirement, counts.get(requirement) + 1);
+                        merged = true;
+                        break;
+                    }
+                }
+                if (!merged) {
+                    alternatives.add(items);
+                    counts.add(1);
+                    owners.add(recipe);
+                }
+            }
+
+            if (alternatives.size() == start) {
+                return -1; // Nothing consumed (special recipes) - not something we can reason about
+            }
+
+            recipes.add(new int[]{kind, result, Math.max(1, resultCount)});
+            starts.add(start);
+            return recipe;
+        }
+
+        // Sorted, de-duplicated and restricted to known ids, so equal slots compare equal
+        private int[] normalize(int[] slot) {
+            return Arrays.stream(slot).filter(id -> id >= 0 && id < itemCapacity).sorted().distinct().toArray();
+        }
+
+        public RecipeGraph build() {
+            int recipeCount = recipes.size();
+            int[] kind = new int[recipeCount];
+            int[] result = new int[recipeCount];
+            int[] resultCount = new int[recipeCount];
+            int[] requirementStart = new int[recipeCount + 1];
+            for (int r = 0; r < recipeCount; r++) {
+                int[] recipe = recipes.get(r);
+                kind[r] = recipe[0];
+                result[r] = recipe[1];
+                resultCount[r] = recipe[2];
+                requirementStart[r] = starts.get(r);
+            }
+            requirementStart[recipeCount] = alternatives.size();
+
+            int requirementCount = alternatives.size();
+            int[] requiredCount = new int[requirementCount];
+            int[] requirementRecipe = new int[requirementCount];
+            for (int q = 0; q < requirementCount; q++) {
+                requiredCount[q] = counts.get(q);
+                requirementRecipe[q] = owners.get(q);
+            }
+
+            return new RecipeGraph(itemCapacity, kind, result, resultCount, requirementStart,
+                alternatives.toArray(new int[0][]), requiredCount, requirementRecipe);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package net.jackson;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Reading the parts of codec recipe JSON the indexes care about: which ingredients one craft takes and what
+// comes out. Shared by the client's recipe graph, the chat lookups and the export so all agree on what a recipe is
+public class RecipeJson {
+    // One entry per ingredient a single craft consumes (shaped recipes repeat a key once per use), or null for
+    // recipe types without a fixed output (special crafting, armor trims)
+    public static List<JsonElement> ingredients(JsonObject json) {
+        String type = json.has("type") ? json.get("type").getAsString() : "";
+        List<JsonElement> ingredients = new ArrayList<>();
+        switch (type) {
+            case "minecraft:crafting_shaped":
+                JsonObject key = json.getAsJsonObject("key");
+                for (JsonElement row : json.getAsJsonArray("pattern")) {
+                    for (char symbol : row.getAsString().toCharArray()) {
+                        if (symbol != ' ') {
+                            ingredients.add(key.get(String.valueOf(symbol)));
+                        }
+                    }
+                }
+                return ingredients;
+            case "minecraft:crafting_shapeless":
+                json.getAsJsonArray("ingredients").forEach(ingredients::add);
+                return ingredients;
+            case "minecraft:crafting_transmute":
+                ingredients.add(json.get("input"));
+                ingredients.add(json.get("material"));
+                return ingredients;
+            case "minecraft:smelting":
+            case "minecraft:blasting":
+            case "minecraft:smoking":
+            case "minecraft:campfire_cooking":
+            case "minecraft:stonecutting":
+                ingredients.add(json.get("ingredient"));
+                return ingredients;
+            case "minecraft:smithing_transform":
+                ingredients.add(json.get("template"));
+                ingredients.add(json.get("base"));
+                ingredients.add(json.get("addition"));
+                return ingredients;
+            default:
+                return null;
+        }
+    }
+
+    // Result is either {"id": ..., "count": ...} or a bare id (transmute recipes)
+    public static String resultId(JsonObject json) {
+        JsonElement result = json.get("result");
+        return result.isJsonObject() ? result.getAsJsonObject().get("id").getAsString() : result.getAsString();
+    }
+
+    public static int resultCount(JsonObject json) {
+        JsonElement result = json.get("result");
+        if (result.isJsonObject() && result.getAsJsonObject().has("count")) {
+            return result.getAsJsonObject().get("count").getAsInt();
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,187 @@
+package net.jackson;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+// The server's recipes as sent to clients: recipe id -> recipe JSON, either the whole set or the changes
+// since an earlier generation. Encoded as length-prefixed UTF-8 strings behind a small header, deflated,
+// and split into parts small enough for one custom payload each
+public class RecipeSnapshot {
+    public static final int FULL = 0;
+    public static final int DELTA = 1;
+
+    // Limits on what a client accepts, since the sizes all come off the wire. A full vanilla snapshot is a
+    // couple of hundred KB deflated and a few MB inflated
+    public static final int MAX_PARTS = 64;
+    public static final int MAX_DECODED_BYTES = 64 << 20;
+
+    private static final int FORMAT = 1;
+
+    public final int kind;
+    public final int generation;
+    public final int baseGeneration; // what a delta applies on top of; same as generation for a full snapshot
+    public final Map<String, String> upserts;
+    public final List<String> removals;
+
+    private RecipeSnapshot(int kind, int generation, int baseGeneration, Map<String, String> upserts, List<String> removals) {
+        this.kind = kind;
+        this.generation = generation;
+        this.baseGeneration = baseGeneration;
+        this.upserts = upserts;
+        this.removals = removals;
+    }
+
+    public static RecipeSnapshot full(int generation, Map<String, String> recipes) {
+        return new RecipeSnapshot(FULL, generation, generation, recipes, List.of());
+    }
+
+    // Only recipes that were added or whose JSON changed travel, plus the ids of the ones that went away
+    public static RecipeSnapshot delta(int baseGeneration, int generation, Map<String, String> previous,
+                                       Map<String, String> current) {
+        Map<String, String> upserts = new LinkedHashMap<>();
+        for (Map.Entry<String, String> entry : current.entrySet()) {
+            if (!entry.getValue().equals(previous.get(entry.getKey()))) {
+                upserts.put(entry.getKey(), entry.getValue());
+            }
+        }
+        List<String> removals = new ArrayList<>();
+        for (String id : previous.keySet()) {
+            if (!current.containsKey(id)) {
+                removals.add(id);
+            }
+        }
+        return new RecipeSnapshot(DELTA, generation, baseGeneration, upserts, removals);
+    }
+
+    public boolean isEmpty() {
+        return upserts.isEmpty() && removals.isEmpty();
+    }
+
+    public byte[] encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(
+                new DeflaterOutputStream(bytes, new Deflater(Deflater.BEST_COMPRESSION)))) {
+            out.writeByte(FORMAT);
+            out.writeByte(kind);
+            writeVarInt(out, generation);
+            writeVarInt(out, baseGeneration);
+            writeVarInt(out, upserts.size());
+            for (Map.Entry<String, String> entry : upserts.entrySet()) {
+                writeString(out, entry.getKey());
+                writeString(out, entry.getValue());
+            }
+            writeVarInt(out, removals.size());
+            for (String id : removals) {
+                writeString(out, id);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // Writing to memory doesn't fail
+        }
+        return bytes.toByteArray();
+    }
+
+    // Counts and string lengths are checked against the bytes left, so a bad snapshot fails with an
+    // IOException instead of allocating whatever it claims
+    public static RecipeSnapshot decode(byte[] data) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(inflate(data)))) {
+            int format = in.readUnsignedByte();
+            if (format != FORMAT) {
+                throw new IOException("Unknown recipe snapshot format " + format);
+            }
+            int kind = in.readUnsignedByte();
+            int generation = readVarInt(in);
+            int baseGeneration = readVarInt(in);
+            int upsertCount = readLength(in);
+            Map<String, String> upserts = new LinkedHashMap<>(upsertCount * 2);
+            for (int i = 0; i < upsertCount; i++) {
+                upserts.put(readString(in), readString(in));
+            }
+            int removalCount = readLength(in);
+            List<String> removals = new ArrayList<>(removalCount);
+            for (int i = 0; i < removalCount; i++) {
+                removals.add(readString(in));
+            }
+            return new RecipeSnapshot(kind, generation, baseGeneration, upserts, removals);
+        }
+    }
+
+    private static byte[] inflate(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length * 4);
+        byte[] buffer = new byte[8192];
+        try (InflaterInputStream in = new InflaterInputStream(new ByteArrayInputStream(data))) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                if (out.size() + read > MAX_DECODED_BYTES) {
+                    throw new IOException("Recipe snapshot inflates past " + MAX_DECODED_BYTES + " bytes");
+                }
+                out.write(buffer, 0, read);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    public static List<byte[]> split(byte[] data, int partSize) {
+        List<byte[]> parts = new ArrayList<>();
+        for (int start = 0; start < data.length; start += partSize) {
+            parts.add(Arrays.copyOfRange(data, start, Math.min(data.length, start + partSize)));
+        }
+        if (parts.isEmpty()) {
+            parts.add(new byte[0]);
+        }
+        return parts;
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("VarInt too long");
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, utf8.length);
+        out.write(utf8);
+    }
+
+    // A count or byte length: every entry takes at least one byte, so none can exceed what's left
+    private static int readLength(DataInputStream in) throws IOException {
+        int length = readVarInt(in);
+        if (length < 0 || length > in.available()) {
+            throw new IOException("Bad length " + length + " with " + in.available() + " bytes left");
+        }
+        return length;
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] utf8 = new byte[readLength(in)];
+        in.readFully(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,151 @@
+package net.jackson;
+
+import java.util.Arrays;
+
+// Where a crafting handler keeps its result, grid and player inventory slots, as handler slot ids. Built
+// by SlotMapping from the handler's own slot list, so the 2x2 inventory grid, crafting tables and modded
+// handlers all come out the same. Grid positions use the 3x3 numbering (row * 3 + col) throughout
+public class SlotLayout {
+    public static final int NONE = -1;
+    public static final int GRID_SIZE = 9;
+    public static final int INVENTORY_SIZE = 36;
+
+    private final int resultSlot;
+    private final int gridWidth;
+    private final int gridHeight;
+    private final int[] gridSlots = new int[GRID_SIZE];      // 3x3 position -> handler slot, or NONE
+    private final int[] inventorySlots;                      // player inventory index -> handler slot, or NONE
+    private final int[] insertOrder;                         // inventory indices by ascending handler slot
+
+    // grid lists handler slots row by row for a width x height grid
+    public SlotLayout(int resultSlot, int gridWidth, int gridHeight, int[] grid, int[] inventorySlots) {
+        this.resultSlot = resultSlot;
+        this.gridWidth = gridWidth;
+        this.gridHeight = gridHeight;
+        Arrays.fill(gridSlots, NONE);
+        for (int i = 0; i < grid.length && gridWidth > 0; i++) {
+            int row = i / gridWidth;
+            int col = i % gridWidth;
+            if (row < 3 && col < 3) {
+                gridSlots[row * 3 + col] = grid[i];
+            }
+        }
+        this.inventorySlots = Arrays.copyOf(inventorySlots, INVENTORY_SIZE);
+
+        // Shift-clicks fill inventory slots in handler order, so the planner needs that order too
+        Integer[] order = new Integer[INVENTORY_SIZE];
+        for (int i = 0; i < INVENTORY_SIZE; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(this.inventorySlots[a], this.inventorySlots[b]));
+        this.insertOrder = new int[INVENTORY_SIZE];
+        for (int i = 0; i < INVENTORY_SIZE; i++) {
+            insertOrder[i] = order[i];
+        }
+    }
+
+    // null when the layout is usable, otherwise what's wrong with it
+    public String validate() {
+        if (resultSlot == NONE) {
+            return "no crafting result slot";
+        }
+        if (gridWidth <= 0 || gridHeight <= 0 || gridWidth > 3 || gridHeight > 3) {
+            return "unsupported grid size " + gridWidth + "x" + gridHeight;
+        }
+        boolean[] used = new boolean[maxSlot() + 1];
+        used[resultSlot] = true;
+        for (int position = 0; position < GRID_SIZE; position++) {
+            boolean inside = position / 3 < gridHeight && position % 3 < gridWidth;
+            int slot = gridSlots[position];
+            if (inside != (slot != NONE)) {
+                return "grid position " + position + (inside ? " has no slot" : " is outside the grid");
+            }
+            if (slot != NONE) {
+                if (used[slot]) {
+                    return "slot " + slot + " mapped twice";
+                }
+                used[slot] = true;
+            }
+        }
+        for (int i = 0; i < INVENTORY_SIZE; i++) {
+            int slot = inventorySlots[i];
+            if (slot == NONE) {
+                return "inventory slot " + i + " not in the handler";
+            }
+            if (used[slot]) {
+                return "slot " + slot + " mapped twice";
+            }
+            used[slot] = true;
+        }
+        return null;
+    }
+
+    // Whether every position the pattern uses exists in this grid
+    public boolean fits(int[] pattern) {
+        for (int position = 0; position < pattern.length; position++) {
+            if (pattern[position] != NONE && gridSlots[position] == NONE) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Translate a planner slot (RESULT, GRID_START + position, INVENTORY_START + index, OUTSIDE) to a handler slot
+    public int toHandler(int slot) {
+        if (slot == BatchCraftPlanner.OUTSIDE) {
+            return slot;
+        }
+        if (slot == BatchCraftPlanner.RESULT) {
+            return resultSlot;
+        }
+        if (slot < BatchCraftPlanner.INVENTORY_START) {
+            return gridSlots[slot - BatchCraftPlanner.GRID_START];
+        }
+        return inventorySlots[slot - BatchCraftPlanner.INVENTORY_START];
+    }
+
+    // Packets the sequence sends through this layout, or -1 if any click lands on a slot the handler lacks
+    public int countPackets(BatchCraftPlanner.Sequence sequence) {
+        for (int i = 0; i < sequence.size(); i++) {
+            if (toHandler(sequence.slots[i]) == NONE) {
+                return -1;
+            }
+        }
+        return sequence.size();
+    }
+
+    public int resultSlot() {
+        return resultSlot;
+    }
+
+    public int gridSlot(int position) {
+        return position >= 0 && position < GRID_SIZE ? gridSlots[position] : NONE;
+    }
+
+    public int inventorySlot(int index) {
+        return index >= 0 && index < INVENTORY_SIZE ? inventorySlots[index] : NONE;
+    }
+
+    public int gridWidth() {
+        return gridWidth;
+    }
+
+    public int gridHeight() {
+        return gridHeight;
+    }
+
+    public int[] insertOrder() {
+        return insertOrder;
+    }
+
+    private int maxSlot() {
+        int max = resultSlot;
+        for (int slot : gridSlots) {
+            max = Math.max(max, slot);
+        }
+        for (int slot : inventorySlots) {
+            max = Math.max(max, slot);
+        }
+        return max;
+    }
+}
@@ -0,0 +1,220 @@
+package net.jackson;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchCraftPlannerTest {
+    private static final int E = -1;
+    private static final int LOG = 1;
+    private static final int PLANKS = 2;
+    private static final int STICK = 3;
+    private static final int STONE = 4;
+    private static final int DIRT = 5;
+
+    private static final SlotLayout TABLE = Fixtures.craftingTable();
+
+    // Player inventory and grid contents to plan against; everything stacks to 64
+    private static class Scene {
+        private final int[] invItem = new int[BatchCraftPlanner.INVENTORY_SIZE];
+        private final int[] invCount = new int[BatchCraftPlanner.INVENTORY_SIZE];
+        private final int[] gridItem = new int[BatchCraftPlanner.GRID_SIZE];
+        private final int[] gridCount = new int[BatchCraftPlanner.GRID_SIZE];
+
+        private Scene() {
+            Arrays.fill(invItem, E);
+            Arrays.fill(gridItem, E);
+        }
+
+        private Scene hold(int slot, int item, int count) {
+            invItem[slot] = item;
+            invCount[slot] = count;
+            return this;
+        }
+
+        private Scene fillWith(int item) {
+            for (int slot = 0; slot < invItem.length; slot++) {
+                if (invItem[slot] == E) {
+                    hold(slot, item, 64);
+                }
+            }
+            return this;
+        }
+
+        private Scene inGrid(int position, int item, int count) {
+            gridItem[position] = item;
+            gridCount[position] = count;
+            return this;
+        }
+
+        private BatchCraftPlanner.Sequence place(long[][] accepted) {
+            return BatchCraftPlanner.placeOnce(TABLE, accepted, item -> 64, invItem, invCount, gridItem, gridCount);
+        }
+
+        private BatchCraftPlanner.Sequence plan(int[] pattern, int result, int resultCount, int crafts) {
+            return BatchCraftPlanner.plan(TABLE, pattern, result, resultCount, item -> 64,
+                invItem, invCount, gridItem, gridCount, crafts);
+        }
+    }
+
+    private static int[] pattern(int... positionsAndItems) {
+        int[] pattern = new int[BatchCraftPlanner.GRID_SIZE];
+        Arrays.fill(pattern, E);
+        for (int i = 0; i < positionsAndItems.length; i += 2) {
+            pattern[positionsAndItems[i]] = positionsAndItems[i + 1];
+        }
+        return pattern;
+    }
+
+    // Membership bitsets per grid position, from position/item pairs
+    private static long[][] accepting(int... positionsAndItems) {
+        long[][] accepted = new long[BatchCraftPlanner.GRID_SIZE][];
+        for (int i = 0; i < positionsAndItems.length; i += 2) {
+            int position = positionsAndItems[i];
+            if (accepted[position] == null) {
+                accepted[position] = new long[1];
+            }
+            accepted[position][0] |= 1L << positionsAndItems[i + 1];
+        }
+        return accepted;
+    }
+
+    private static int count(BatchCraftPlanner.Sequence sequence, int slot, int action) {
+        int count = 0;
+        for (int i = 0; i < sequence.size(); i++) {
+            if (sequence.slots[i] == slot && sequence.actions[i] == action) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Test
+    void craftsEverythingInStackSizedRounds() {
+        BatchCraftPlanner.Sequence sequence = new Scene().hold(0, LOG, 64).hold(1, LOG, 36)
+            .plan(pattern(0, LOG), PLANKS, 4, BatchCraftPlanner.MAX);
+
+        assertEquals(100, sequence.crafts);
+        assertEquals(BatchCraftPlanner.DONE, sequence.status);
+        // One shift-click on the result per round, and only a handful of clicks to fill each
+        assertEquals(2, count(sequence, BatchCraftPlanner.RESULT, BatchCraftPlanner.QUICK_MOVE));
+        assertTrue(sequence.size() <= 6, "took " + sequence.size() + " clicks");
+        assertEquals(sequence.size(), TABLE.countPackets(sequence));
+    }
+
+    @Test
+    void stopsAtTheRequestedCount() {
+        BatchCraftPlanner.Sequence sequence = new Scene().hold(0, PLANKS, 64)
+            .plan(pattern(0, PLANKS, 3, PLANKS), STICK, 4, 3);
+
+        assertEquals(3, sequence.crafts);
+        assertEquals(BatchCraftPlanner.DONE, sequence.status);
+        // The grid holds more than three crafts' worth, so the result is taken one click at a time
+        assertEquals(3, count(sequence, BatchCraftPlanner.RESULT, BatchCraftPlanner.PICKUP));
+        // ...and what's left over goes back
+        assertEquals(BatchCraftPlanner.QUICK_MOVE, sequence.actions[sequence.size() - 1]);
+    }
+
+    @Test
+    void spreadsOneStackAcrossSeveralSlotsWithADrag() {
+        BatchCraftPlanner.Sequence sequence = new Scene().hold(0, PLANKS, 64)
+            .plan(pattern(0, PLANKS, 3, PLANKS), STICK, 4, BatchCraftPlanner.MAX);
+
+        assertEquals(32, sequence.crafts);
+        assertEquals(2, count(sequence, BatchCraftPlanner.GRID_START, BatchCraftPlanner.QUICK_CRAFT)
+            + count(sequence, BatchCraftPlanner.GRID_START + 3, BatchCraftPlanner.QUICK_CRAFT));
+    }
+
+    @Test
+    void craftsWhatTheIngredientsAllow() {
+        BatchCraftPlanner.Sequence sequence = new Scene().hold(4, PLANKS, 5)
+            .plan(pattern(0, PLANKS, 3, PLANKS), STICK, 4, BatchCraftPlanner.MAX);
+
+        assertEquals(2, sequence.crafts);
+        assertEquals(BatchCraftPlanner.DONE, sequence.status);
+    }
+
+    @Test
+    void usesMatchingItemsAlreadyInTheGrid() {
+        BatchCraftPlanner.Sequence sequence = new Scene().inGrid(4, LOG, 10)
+            .plan(pattern(4, LOG), PLANKS, 4, BatchCraftPlanner.MAX);
+
+        assertEquals(10, sequence.crafts);
+        assertEquals(1, sequence.size());
+    }
+
+    @Test
+    void nothingHeldMeansNoClicks() {
+        BatchCraftPlanner.Sequence sequence = new Scene().hold(0, STONE, 64)
+            .plan(pattern(0, LOG), PLANKS, 4, BatchCraftPlanner.MAX);
+
+        assertEquals(0, sequence.crafts);
+        assertEquals(BatchCraftPlanner.MISSING, sequence.status);
+        assertEquals(0, sequence.size());
+    }
+
+    @Test
+    void gridJunkWithNowhereToGo() {
+        BatchCraftPlanner.Sequence sequence = new Scene().inGrid(0, DIRT, 1).fillWith(STONE)
+            .plan(pattern(0, LOG), PLANKS, 4, BatchCraftPlanner.MAX);
+
+        assertEquals(0, sequence.crafts);
+        assertEquals(BatchCraftPlanner.INVENTORY_FULL, sequence.status);
+    }
+
+    @Test
+    void stopsWhenTheResultsNoLongerFit() {
+        // Picking the logs up frees their slot - room for 64 planks, 16 crafts
+        BatchCraftPlanner.Sequence sequence = new Scene().hold(0, LOG, 64).fillWith(STONE)
+            .plan(pattern(0, LOG), PLANKS, 4, BatchCraftPlanner.MAX);
+
+        assertEquals(16, sequence.crafts);
+        assertEquals(BatchCraftPlanner.INVENTORY_FULL, sequence.status);
+    }
+
+    @Test
+    void placesOneOfEachFromTheLargestStack() {
+        BatchCraftPlanner.Sequence sequence = new Scene().hold(0, PLANKS, 1).hold(5, PLANKS, 20).hold(6, STICK, 1)
+            .place(accepting(1, PLANKS, 4, STICK));
+
+        assertEquals(BatchCraftPlanner.DONE, sequence.status);
+        assertEquals(0, sequence.crafts);
+        // Planks: half of the 20 up, one in, the rest back. The lone stick needs no put-back
+        assertArrayEquals(new int[]{BatchCraftPlanner.INVENTORY_START + 5, BatchCraftPlanner.GRID_START + 1,
+            BatchCraftPlanner.INVENTORY_START + 5, BatchCraftPlanner.INVENTORY_START + 6,
+            BatchCraftPlanner.GRID_START + 4}, sequence.slots);
+        assertEquals(sequence.size(), TABLE.countPackets(sequence));
+    }
+
+    @Test
+    void placementTakesAnyAcceptedItem() {
+        BatchCraftPlanner.Sequence sequence = new Scene().hold(3, STONE, 2).hold(7, DIRT, 9)
+            .place(accepting(0, STONE, 0, DIRT, 1, STONE, 1, DIRT, 2, STONE, 2, DIRT));
+
+        assertEquals(BatchCraftPlanner.DONE, sequence.status);
+        assertEquals(BatchCraftPlanner.INVENTORY_START + 7, sequence.slots[0]);
+    }
+
+    @Test
+    void placementEmptiesTheGridFirst() {
+        BatchCraftPlanner.Sequence sequence = new Scene().inGrid(0, LOG, 1).place(accepting(4, LOG));
+
+        assertEquals(BatchCraftPlanner.DONE, sequence.status);
+        // The log comes back out of the grid and is the one laid into the middle
+        assertEquals(BatchCraftPlanner.QUICK_MOVE, sequence.actions[0]);
+        assertEquals(BatchCraftPlanner.GRID_START + 4, sequence.slots[sequence.size() - 1]);
+    }
+
+    @Test
+    void placementIsAllOrNothing() {
+        // Two positions want planks and only one is held
+        BatchCraftPlanner.Sequence sequence = new Scene().hold(0, PLANKS, 1).place(accepting(0, PLANKS, 3, PLANKS));
+
+        assertEquals(BatchCraftPlanner.MISSING, sequence.status);
+        assertEquals(0, sequence.size());
+    }
+}
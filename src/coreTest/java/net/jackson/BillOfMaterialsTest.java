@@ -0,0 +1,137 @@
+package net.jackson;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BillOfMaterialsTest {
+    private static Map<String, Long> raw(Fixtures.Items items, BillOfMaterials.Result result) {
+        Map<String, Long> raw = new HashMap<>();
+        for (int i = 0; i < result.rawItems.length; i++) {
+            raw.put(items.name(result.rawItems[i]), result.rawCounts[i]);
+        }
+        return raw;
+    }
+
+    private static Map<String, Long> batches(Fixtures.Items items, RecipeGraph graph, BillOfMaterials.Result result) {
+        Map<String, Long> batches = new HashMap<>();
+        for (int i = 0; i < result.steps.length; i++) {
+            batches.merge(items.name(graph.result(result.steps[i])), result.stepBatches[i], Long::sum);
+        }
+        return batches;
+    }
+
+    // Iron the vanilla way: ingots smelted from raw iron, plus storage blocks and nuggets both ways round
+    private static Fixtures.Graph iron() {
+        return new Fixtures.Graph()
+            .cooking("iron_ingot", "raw_iron")
+            .crafting("iron_block", 1, "iron_ingot", "iron_ingot", "iron_ingot", "iron_ingot", "iron_ingot",
+                "iron_ingot", "iron_ingot", "iron_ingot", "iron_ingot")
+            .crafting("iron_ingot", 9, "iron_block")
+            .crafting("iron_nugget", 9, "iron_ingot")
+            .crafting("iron_ingot", 1, "iron_nugget", "iron_nugget", "iron_nugget", "iron_nugget", "iron_nugget",
+                "iron_nugget", "iron_nugget", "iron_nugget", "iron_nugget")
+            .crafting("iron_pickaxe", 1, "iron_ingot", "iron_ingot", "iron_ingot", "stick", "stick")
+            .cooking("iron_nugget", "iron_pickaxe");
+    }
+
+    @Test
+    void sharedIntermediatesAreRoundedOnce() {
+        Fixtures.Graph fixture = new Fixtures.Graph()
+            .crafting("planks", 4, "log")
+            .crafting("button", 1, "planks")
+            .crafting("pressure_plate", 1, "planks")
+            .crafting("contraption", 1, "button", "pressure_plate");
+        RecipeGraph graph = fixture.build();
+        BillOfMaterials.Result result = new BillOfMaterials(graph, BillOfMaterials.PREFER_CRAFTING)
+            .expand(fixture.items.id("contraption"), 2);
+
+        // Two buttons and two plates share four planks - one log, not two
+        assertEquals(Map.of("log", 1L), raw(fixture.items, result));
+        assertEquals(1L, batches(fixture.items, graph, result).get("planks"));
+        assertEquals("planks", fixture.items.name(graph.result(result.steps[0])));
+        assertEquals("contraption", fixture.items.name(graph.result(result.steps[result.steps.length - 1])));
+    }
+
+    @Test
+    void storageFormsAreNotUnpacked() {
+        Fixtures.Graph fixture = iron();
+        RecipeGraph graph = fixture.build();
+        BillOfMaterials.Result result = new BillOfMaterials(graph, BillOfMaterials.PREFER_CRAFTING)
+            .expand(fixture.items.id("iron_ingot"), 9);
+
+        assertEquals(Map.of("raw_iron", 9L), raw(fixture.items, result));
+    }
+
+    @Test
+    void gearIsNotSmeltedBackDown() {
+        Fixtures.Graph fixture = iron();
+        RecipeGraph graph = fixture.build();
+        BillOfMaterials.Result result = new BillOfMaterials(graph, BillOfMaterials.PREFER_COOKING)
+            .expand(fixture.items.id("iron_nugget"), 9);
+
+        assertEquals(Map.of("raw_iron", 1L), raw(fixture.items, result));
+        assertEquals(Map.of("iron_ingot", 1L, "iron_nugget", 1L), batches(fixture.items, graph, result));
+    }
+
+    @Test
+    void preferenceDecidesBetweenRecipes() {
+        Fixtures.Graph fixture = new Fixtures.Graph()
+            .crafting("dye", 1, "flower")
+            .cooking("dye", "cactus")
+            .crafting("dye", 2, "petals", "petals", "petals");
+        RecipeGraph graph = fixture.build();
+        int dye = fixture.items.id("dye");
+
+        assertEquals(Map.of("flower", 4L), raw(fixture.items,
+            new BillOfMaterials(graph, BillOfMaterials.PREFER_CRAFTING).expand(dye, 4)));
+        assertEquals(Map.of("cactus", 4L), raw(fixture.items,
+            new BillOfMaterials(graph, BillOfMaterials.PREFER_COOKING).expand(dye, 4)));
+        // One input per dye against one and a half
+        assertEquals(Map.of("flower", 4L), raw(fixture.items,
+            new BillOfMaterials(graph, BillOfMaterials.PREFER_FEWEST_INPUTS).expand(dye, 4)));
+    }
+
+    @Test
+    void amountsBeyondAnIntStayExact() {
+        Fixtures.Graph fixture = new Fixtures.Graph()
+            .crafting("planks", 4, "log")
+            .crafting("stick", 4, "planks", "planks");
+        RecipeGraph graph = fixture.build();
+        long sticks = 4L * Integer.MAX_VALUE;
+        BillOfMaterials.Result result = new BillOfMaterials(graph, BillOfMaterials.PREFER_CRAFTING)
+            .expand(fixture.items.id("stick"), sticks);
+
+        // sticks / 4 batches of two planks each, four planks to a log, rounded up
+        assertEquals(Map.of("log", (sticks / 4 * 2 + 3) / 4), raw(fixture.items, result));
+    }
+
+    @Test
+    void nothingToExpand() {
+        Fixtures.Graph fixture = new Fixtures.Graph().crafting("planks", 4, "log");
+        RecipeGraph graph = fixture.build();
+        BillOfMaterials bom = new BillOfMaterials(graph, BillOfMaterials.PREFER_CRAFTING);
+
+        assertEquals(0, bom.expand(fixture.items.id("planks"), 0).steps.length);
+        assertEquals(0, bom.expand(-1, 1).rawItems.length);
+        assertEquals(Map.of("log", 1L), raw(fixture.items, bom.expand(fixture.items.id("log"), 1)));
+    }
+
+    @Test
+    void vanillaBeacon() {
+        Fixtures.Vanilla vanilla = Fixtures.vanilla();
+        BillOfMaterials.Result result = new BillOfMaterials(vanilla.graph, BillOfMaterials.PREFER_CRAFTING)
+            .expand(vanilla.items.id("minecraft:beacon"), 2);
+        Map<String, Long> raw = raw(vanilla.items, result);
+
+        assertEquals(2L, raw.get("minecraft:nether_star"));
+        assertEquals(6L, raw.get("minecraft:obsidian"));
+        assertEquals(10L, raw.get(vanilla.items.name(vanilla.items.tag("minecraft:smelts_to_glass")[0])));
+        assertEquals(3, raw.size());
+        assertTrue(result.steps.length >= 2);
+    }
+}
@@ -0,0 +1,207 @@
+package net.jackson;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CraftingPlannerTest {
+    private static final long BUDGET = TimeUnit.SECONDS.toNanos(5);
+
+    private static Fixtures.Graph woodworking() {
+        return new Fixtures.Graph()
+            .crafting("planks", 4, "log")
+            .crafting("stick", 4, "planks", "planks")
+            .crafting("crafting_table", 1, "planks", "planks", "planks", "planks")
+            .crafting("pickaxe", 1, "planks", "planks", "planks", "stick", "stick");
+    }
+
+    private static CraftingPlanner.Plan plan(Fixtures.Graph fixture, RecipeGraph graph, int[] counts, String target, int quantity) {
+        return CraftingPlanner.plan(graph, counts, fixture.items.id(target), quantity, BUDGET,
+            RecipeGraph.KIND_CRAFTING, RecipeGraph.KIND_COOKING);
+    }
+
+    private static String[] results(Fixtures.Graph fixture, RecipeGraph graph, CraftingPlanner.Plan plan) {
+        String[] results = new String[plan.size()];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = fixture.items.name(graph.result(plan.recipes[i]));
+        }
+        return results;
+    }
+
+    @Test
+    void craftsIntermediatesInOrder() {
+        Fixtures.Graph fixture = woodworking();
+        RecipeGraph graph = fixture.build();
+        CraftingPlanner.Plan plan = plan(fixture, graph, fixture.counts("log", 2), "pickaxe", 1);
+
+        assertEquals(CraftingPlanner.FOUND, plan.status);
+        // 3 of the first log's planks go into the head; the sticks need a second log
+        assertArrayEquals(new String[]{"planks", "planks", "stick", "pickaxe"}, results(fixture, graph, plan));
+        assertArrayEquals(new int[]{1, 1, 1, 1}, plan.batches);
+    }
+
+    @Test
+    void usesHeldIntermediatesFirst() {
+        Fixtures.Graph fixture = woodworking();
+        RecipeGraph graph = fixture.build();
+        CraftingPlanner.Plan plan = plan(fixture, graph, fixture.counts("planks", 3, "stick", 2), "pickaxe", 1);
+
+        assertEquals(CraftingPlanner.FOUND, plan.status);
+        assertArrayEquals(new String[]{"pickaxe"}, results(fixture, graph, plan));
+    }
+
+    @Test
+    void reportsMissingWithoutSteps() {
+        Fixtures.Graph fixture = woodworking();
+        RecipeGraph graph = fixture.build();
+        CraftingPlanner.Plan plan = plan(fixture, graph, fixture.counts("log", 1), "pickaxe", 1);
+
+        assertEquals(CraftingPlanner.MISSING, plan.status);
+        assertEquals(0, plan.size());
+        assertEquals(0, plan.batches.length);
+    }
+
+    @Test
+    void heldCopiesOfTheTargetDontCount() {
+        Fixtures.Graph fixture = woodworking();
+        RecipeGraph graph = fixture.build();
+        CraftingPlanner.Plan plan = plan(fixture, graph, fixture.counts("crafting_table", 5, "log", 1), "crafting_table", 1);
+
+        assertEquals(CraftingPlanner.FOUND, plan.status);
+        assertArrayEquals(new String[]{"planks", "crafting_table"}, results(fixture, graph, plan));
+    }
+
+    @Test
+    void leavesTheCountsAlone() {
+        Fixtures.Graph fixture = woodworking();
+        RecipeGraph graph = fixture.build();
+        int[] counts = fixture.counts("log", 2);
+        int[] before = counts.clone();
+        plan(fixture, graph, counts, "pickaxe", 1);
+
+        assertArrayEquals(before, counts);
+    }
+
+    @Test
+    void triesEveryAlternative() {
+        Fixtures.Graph fixture = new Fixtures.Graph()
+            .recipe(RecipeGraph.KIND_CRAFTING, "torch", 4, new String[]{"coal", "charcoal"}, new String[]{"stick"})
+            .cooking("charcoal", "log");
+        RecipeGraph graph = fixture.build();
+        CraftingPlanner.Plan plan = plan(fixture, graph, fixture.counts("log", 1, "stick", 1), "torch", 4);
+
+        assertEquals(CraftingPlanner.FOUND, plan.status);
+        assertArrayEquals(new String[]{"charcoal", "torch"}, results(fixture, graph, plan));
+    }
+
+    @Test
+    void onlyUsesTheGivenKinds() {
+        Fixtures.Graph fixture = new Fixtures.Graph().cooking("glass", "sand");
+        RecipeGraph graph = fixture.build();
+        int[] counts = fixture.counts("sand", 1);
+
+        CraftingPlanner.Plan crafting = CraftingPlanner.plan(graph, counts, fixture.items.id("glass"), 1, BUDGET, RecipeGraph.KIND_CRAFTING);
+        assertEquals(CraftingPlanner.MISSING, crafting.status);
+        CraftingPlanner.Plan cooking = CraftingPlanner.plan(graph, counts, fixture.items.id("glass"), 1, BUDGET, RecipeGraph.KIND_COOKING);
+        assertEquals(CraftingPlanner.FOUND, cooking.status);
+    }
+
+    @Test
+    void storageLoopsTerminate() {
+        Fixtures.Graph fixture = new Fixtures.Graph()
+            .crafting("iron_block", 1, "iron_ingot", "iron_ingot", "iron_ingot", "iron_ingot", "iron_ingot",
+                "iron_ingot", "iron_ingot", "iron_ingot", "iron_ingot")
+            .crafting("iron_ingot", 9, "iron_block")
+            .crafting("iron_ingot", 1, "iron_nugget", "iron_nugget", "iron_nugget", "iron_nugget", "iron_nugget",
+                "iron_nugget", "iron_nugget", "iron_nugget", "iron_nugget")
+            .crafting("iron_nugget", 9, "iron_ingot");
+        RecipeGraph graph = fixture.build();
+
+        assertEquals(CraftingPlanner.MISSING, plan(fixture, graph, fixture.counts("iron_nugget", 8), "iron_block", 1).status);
+        CraftingPlanner.Plan plan = plan(fixture, graph, fixture.counts("iron_nugget", 81), "iron_block", 1);
+        assertEquals(CraftingPlanner.FOUND, plan.status);
+        assertArrayEquals(new String[]{"iron_ingot", "iron_block"}, results(fixture, graph, plan));
+        assertArrayEquals(new int[]{9, 1}, plan.batches);
+    }
+
+    @Test
+    void plansAVanillaBeacon() {
+        Fixtures.Vanilla vanilla = Fixtures.vanilla();
+        int[] counts = new int[vanilla.items.size()];
+        counts[vanilla.items.id("minecraft:nether_star")] = 1;
+        counts[vanilla.items.id("minecraft:obsidian")] = 3;
+        counts[vanilla.items.tag("minecraft:smelts_to_glass")[0]] = 5;
+        int beacon = vanilla.items.id("minecraft:beacon");
+
+        CraftingPlanner.Plan plan = CraftingPlanner.plan(vanilla.graph, counts, beacon, 1, BUDGET,
+            RecipeGraph.KIND_CRAFTING, RecipeGraph.KIND_COOKING);
+        assertEquals(CraftingPlanner.FOUND, plan.status);
+        assertEquals(beacon, vanilla.graph.result(plan.recipes[plan.size() - 1]));
+
+        counts[vanilla.items.id("minecraft:obsidian")] = 2;
+        assertEquals(CraftingPlanner.MISSING, CraftingPlanner.plan(vanilla.graph, counts, beacon, 1, BUDGET,
+            RecipeGraph.KIND_CRAFTING, RecipeGraph.KIND_COOKING).status);
+    }
+
+    // Every level can be made two ways, both through the level below, and the bottom is one ore short. Each
+    // level is worth expanding once - without the failure memo the two ways double the work at every level.
+    // Deep enough to need it, shallow enough to stay inside the planner's depth limit
+    @Test
+    void repeatedFailuresAreNotReexpanded() {
+        assertLinear(levels -> {
+            Fixtures.Graph fixture = new Fixtures.Graph();
+            for (int level = 0; level < levels; level++) {
+                fixture.crafting("level_" + level, 1, "level_" + (level + 1)).crafting("level_" + level, 1, "level_" + (level + 1));
+            }
+            return fixture.crafting("level_" + levels, 1, "ore", "ore");
+        }, 12, 13);
+        assertLinear(levels -> {
+            Fixtures.Graph fixture = new Fixtures.Graph();
+            for (int level = 0; level < levels; level++) {
+                String next = "level_" + (level + 1);
+                fixture.recipe(RecipeGraph.KIND_CRAFTING, "level_" + level, 1, new String[]{"left_" + level, "right_" + level})
+                    .crafting("left_" + level, 1, next)
+                    .crafting("right_" + level, 1, next);
+            }
+            return fixture.crafting("level_" + levels, 1, "ore", "ore");
+        }, 6, 13);
+    }
+
+    // The gem is either a lens or a shard, and a lens is cut from a shard. The shard sits at the end of an
+    // 11-step chain: through the lens it's one step past the depth limit, asked for directly it just fits.
+    // Running out of depth under the lens must not be remembered as the shard being impossible
+    @Test
+    void depthCutoffsAreNotMemoized() {
+        Fixtures.Graph fixture = new Fixtures.Graph()
+            .recipe(RecipeGraph.KIND_CRAFTING, "gem", 1, new String[]{"lens", "shard"})
+            .crafting("lens", 1, "shard")
+            .crafting("shard", 1, "step_1");
+        for (int step = 1; step < 11; step++) {
+            fixture.crafting("step_" + step, 1, "step_" + (step + 1));
+        }
+        fixture.crafting("step_11", 1, "ore");
+        RecipeGraph graph = fixture.build();
+        CraftingPlanner.Plan plan = plan(fixture, graph, fixture.counts("ore", 1), "gem", 1);
+
+        assertEquals(CraftingPlanner.FOUND, plan.status);
+        assertEquals(13, plan.size());
+        assertEquals("gem", results(fixture, graph, plan)[12]);
+    }
+
+    private static void assertLinear(IntFunction<Fixtures.Graph> chain, int levels, int steps) {
+        Fixtures.Graph fixture = chain.apply(levels);
+        RecipeGraph graph = fixture.build();
+        CraftingPlanner.Plan plan = plan(fixture, graph, fixture.counts("ore", 1), "level_0", 1);
+        assertEquals(CraftingPlanner.MISSING, plan.status);
+        assertTrue(plan.expansions <= 4 * levels, plan.expansions + " expansions for " + levels + " levels");
+
+        plan = plan(fixture, graph, fixture.counts("ore", 2), "level_0", 1);
+        assertEquals(CraftingPlanner.FOUND, plan.status);
+        assertEquals(steps, plan.size());
+    }
+}
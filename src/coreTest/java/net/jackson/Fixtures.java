@@ -0,0 +1,220 @@
+package net.jackson;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+// Shared by the core tests: an item table to write small graphs by name, and the bundled vanilla recipes
+// compiled the way the client compiles them. Tags only resolve in a world, so each vanilla tag stands for
+// TAG_SIZE made-up members ("minecraft:planks_member_0", ...)
+class Fixtures {
+    static final String RECIPE_DIR = System.getProperty("ltei.recipes", "src/main/resources/assets/jackson/recipes");
+    static final int TAG_SIZE = 4;
+
+    // Items are numbered in the order they're first asked for; tags are whatever was defined
+    static class Items implements ItemIds {
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final List<String> names = new ArrayList<>();
+        private final Map<String, int[]> tags = new HashMap<>();
+
+        int id(String name) {
+            Integer raw = ids.get(name);
+            if (raw == null) {
+                raw = names.size();
+                ids.put(name, raw);
+                names.add(name);
+            }
+            return raw;
+        }
+
+        String name(int raw) {
+            return names.get(raw);
+        }
+
+        void defineTag(String tag, String... members) {
+            int[] raw = new int[members.length];
+            for (int i = 0; i < members.length; i++) {
+                raw[i] = id(members[i]);
+            }
+            tags.put(tag, raw);
+        }
+
+        @Override
+        public int size() {
+            return names.size();
+        }
+
+        @Override
+        public int rawId(String id) {
+            return ids.getOrDefault(id, -1);
+        }
+
+        @Override
+        public int[] tag(String tag) {
+            return tags.getOrDefault(tag, new int[0]);
+        }
+    }
+
+    static class Vanilla {
+        final Items items = new Items();
+        final Map<String, String> json = new LinkedHashMap<>(); // recipe id -> JSON text, every bundled file
+        final RecipeGraph graph;
+        final GridRecipeIndex grids;
+
+        private Vanilla() {
+            List<JsonObject> recipes = new ArrayList<>();
+            try (Stream<Path> files = Files.list(Path.of(RECIPE_DIR))) {
+                for (Path file : (Iterable<Path>) files.sorted()::iterator) {
+                    String name = file.getFileName().toString();
+                    if (name.endsWith(".json")) {
+                        json.put("minecraft:" + name.substring(0, name.length() - 5), Files.readString(file, StandardCharsets.UTF_8));
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Can't read recipes from " + RECIPE_DIR + " (set -Dltei.recipes)", e);
+            }
+
+            // The compiler sizes its indexes up front, so everything is numbered before the first recipe goes in
+            for (String text : json.values()) {
+                JsonObject recipe = JsonParser.parseString(text).getAsJsonObject();
+                List<JsonElement> ingredients = RecipeJson.ingredients(recipe);
+                if (ingredients != null) {
+                    items.id(RecipeJson.resultId(recipe));
+                    ingredients.forEach(this::number);
+                    recipes.add(recipe);
+                }
+            }
+            RecipeCompiler compiler = new RecipeCompiler(items);
+            recipes.forEach(compiler::add);
+            graph = compiler.buildGraph();
+            grids = compiler.buildGrids();
+        }
+
+        private void number(JsonElement ingredient) {
+            if (ingredient.isJsonArray()) {
+                ingredient.getAsJsonArray().forEach(this::number);
+                return;
+            }
+            String id = ingredient.getAsString();
+            if (!id.startsWith("#")) {
+                items.id(id);
+            } else if (items.tag(id.substring(1)).length == 0) {
+                String[] members = new String[TAG_SIZE];
+                for (int i = 0; i < TAG_SIZE; i++) {
+                    members[i] = id.substring(1) + "_member_" + i;
+                }
+                items.defineTag(id.substring(1), members);
+            }
+        }
+    }
+
+    private static Vanilla vanilla;
+
+    // A crafting table's handler: result 0, grid 1-9, main inventory 10-36, hotbar 37-45
+    static SlotLayout craftingTable() {
+        int[] inventory = new int[SlotLayout.INVENTORY_SIZE];
+        for (int i = 0; i < inventory.length; i++) {
+            inventory[i] = i < 9 ? 37 + i : i + 1;
+        }
+        return new SlotLayout(0, 3, 3, new int[]{1, 2, 3, 4, 5, 6, 7, 8, 9}, inventory);
+    }
+
+    // The player's own screen: result 0, 2x2 grid 1-4, armor 5-8, main inventory 9-35, hotbar 36-44
+    static SlotLayout playerInventory() {
+        int[] inventory = new int[SlotLayout.INVENTORY_SIZE];
+        for (int i = 0; i < inventory.length; i++) {
+            inventory[i] = i < 9 ? 36 + i : i;
+        }
+        return new SlotLayout(0, 2, 2, new int[]{1, 2, 3, 4}, inventory);
+    }
+
+    static synchronized Vanilla vanilla() {
+        if (vanilla == null) {
+            vanilla = new Vanilla();
+        }
+        return vanilla;
+    }
+
+    // One recipe per call, slots given as item names; a slot with several names takes any of them
+    static class Graph {
+        final Items items = new Items();
+        private final List<Spec> recipes = new ArrayList<>();
+
+        private static class Spec {
+            private final int kind;
+            private final String result;
+            private final int count;
+            private final String[][] slots;
+
+            private Spec(int kind, String result, int count, String[][] slots) {
+                this.kind = kind;
+                this.result = result;
+                this.count = count;
+                this.slots = slots;
+            }
+        }
+
+        Graph recipe(int kind, String result, int count, String[]... slots) {
+            items.id(result);
+            for (String[] slot : slots) {
+                for (String name : slot) {
+                    items.id(name);
+                }
+            }
+            recipes.add(new Spec(kind, result, count, slots));
+            return this;
+        }
+
+        Graph crafting(String result, int count, String... slots) {
+            return recipe(RecipeGraph.KIND_CRAFTING, result, count, single(slots));
+        }
+
+        Graph cooking(String result, String input) {
+            return recipe(RecipeGraph.KIND_COOKING, result, 1, single(input));
+        }
+
+        RecipeGraph build() {
+            RecipeGraph.Builder builder = new RecipeGraph.Builder(items.size());
+            for (Spec recipe : recipes) {
+                int[][] ids = new int[recipe.slots.length][];
+                for (int i = 0; i < ids.length; i++) {
+                    ids[i] = new int[recipe.slots[i].length];
+                    for (int j = 0; j < ids[i].length; j++) {
+                        ids[i][j] = items.id(recipe.slots[i][j]);
+                    }
+                }
+                builder.addRecipe(recipe.kind, items.id(recipe.result), recipe.count, ids);
+            }
+            return builder.build();
+        }
+
+        // Counts indexed by raw id, from name/count pairs
+        int[] counts(Object... pairs) {
+            int[] counts = new int[items.size()];
+            for (int i = 0; i < pairs.length; i += 2) {
+                counts[items.id((String) pairs[i])] = (Integer) pairs[i + 1];
+            }
+            return counts;
+        }
+
+        private static String[][] single(String... names) {
+            String[][] slots = new String[names.length][];
+            for (int i = 0; i < names.length; i++) {
+                slots[i] = new String[]{names[i]};
+            }
+            return slots;
+        }
+    }
+}
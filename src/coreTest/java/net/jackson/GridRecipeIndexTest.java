@@ -0,0 +1,142 @@
+package net.jackson;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class GridRecipeIndexTest {
+    private static final int E = -1; // an empty grid cell
+    private static final int LOG = 0;
+    private static final int PLANK = 1;
+    private static final int BIRCH_PLANK = 2;
+    private static final int STICK = 3;
+    private static final int IRON = 4;
+    private static final int DYE = 5;
+    private static final int WOOL = 6;
+
+    private static final int[] BLANK = new int[0];
+    private static final int[] PLANKS = {PLANK, BIRCH_PLANK};
+
+    // 0: axe (asymmetric, single items), 1: sign-like stick on planks (tag slots), 2: shapeless dyed wool,
+    // 3: shapeless with a tag slot, 4: a padded " # " column
+    private static GridRecipeIndex index() {
+        GridRecipeIndex.Builder builder = new GridRecipeIndex.Builder();
+        builder.addShaped(0, 2, 3, new int[][]{
+            {IRON}, {IRON},
+            {IRON}, {STICK},
+            BLANK, {STICK}});
+        builder.addShaped(1, 1, 2, new int[][]{PLANKS, {STICK}});
+        builder.addShapeless(2, new int[][]{{DYE}, {WOOL}});
+        builder.addShapeless(3, new int[][]{PLANKS, {LOG}, {LOG}});
+        builder.addShaped(4, 3, 2, new int[][]{
+            BLANK, {IRON}, BLANK,
+            BLANK, {LOG}, BLANK});
+        return builder.build();
+    }
+
+    @Test
+    void shapedMatchesAnywhereInTheGrid() {
+        GridRecipeIndex index = index();
+        assertEquals(0, index.lookup(new int[]{
+            IRON, IRON, E,
+            IRON, STICK, E,
+            E, STICK, E}));
+        assertEquals(0, index.lookup(new int[]{
+            E, IRON, IRON,
+            E, IRON, STICK,
+            E, E, STICK}));
+    }
+
+    @Test
+    void shapedMatchesMirrored() {
+        assertEquals(0, index().lookup(new int[]{
+            IRON, IRON, E,
+            STICK, IRON, E,
+            STICK, E, E}));
+    }
+
+    @Test
+    void shapedRejectsWrongItemsAndShapes() {
+        GridRecipeIndex index = index();
+        assertEquals(GridRecipeIndex.NONE, index.lookup(new int[]{
+            IRON, IRON, E,
+            IRON, LOG, E,
+            E, STICK, E}));
+        assertEquals(GridRecipeIndex.NONE, index.lookup(new int[]{
+            IRON, IRON, E,
+            IRON, STICK, E,
+            STICK, E, E}));
+    }
+
+    @Test
+    void tagSlotsTakeAnyMember() {
+        GridRecipeIndex index = index();
+        assertEquals(1, index.lookup(new int[]{
+            E, E, E,
+            E, E, PLANK,
+            E, E, STICK}));
+        assertEquals(1, index.lookup(new int[]{
+            BIRCH_PLANK, E, E,
+            STICK, E, E,
+            E, E, E}));
+    }
+
+    @Test
+    void shapelessMatchesInAnyOrder() {
+        GridRecipeIndex index = index();
+        assertEquals(2, index.lookup(new int[]{
+            E, E, E,
+            E, WOOL, E,
+            E, E, DYE}));
+        assertEquals(3, index.lookup(new int[]{
+            LOG, E, E,
+            E, BIRCH_PLANK, E,
+            E, E, LOG}));
+        assertEquals(GridRecipeIndex.NONE, index.lookup(new int[]{
+            LOG, E, E,
+            E, BIRCH_PLANK, E,
+            E, E, PLANK}));
+        assertEquals(GridRecipeIndex.NONE, index.lookup(new int[]{
+            DYE, WOOL, WOOL,
+            E, E, E,
+            E, E, E}));
+    }
+
+    @Test
+    void paddedPatternsAreTrimmed() {
+        GridRecipeIndex index = index();
+        assertEquals(4, index.lookup(new int[]{
+            IRON, E, E,
+            LOG, E, E,
+            E, E, E}));
+        assertEquals(4, index.lookup(new int[]{
+            E, E, E,
+            E, E, IRON,
+            E, E, LOG}));
+    }
+
+    @Test
+    void emptyGridMatchesNothing() {
+        assertEquals(GridRecipeIndex.NONE, index().lookup(new int[]{E, E, E, E, E, E, E, E, E}));
+    }
+
+    @Test
+    void unfillableSlotsAreRefused() {
+        GridRecipeIndex.Builder builder = new GridRecipeIndex.Builder();
+        assertFalse(builder.addShaped(0, 1, 2, new int[][]{{-1}, {STICK}}));
+        assertFalse(builder.addShapeless(1, new int[][]{{STICK}, {-1, -1}}));
+        assertEquals(0, builder.build().size());
+    }
+
+    @Test
+    void everyVanillaRecipeIsFoundFromItsOwnGrid() {
+        Fixtures.Vanilla vanilla = Fixtures.vanilla();
+        GridRecipeIndex grids = vanilla.grids;
+        for (int indexed = 0; indexed < grids.size(); indexed++) {
+            int expected = vanilla.graph.result(grids.recipeId(indexed));
+            int found = grids.lookup(grids.exampleGrid(indexed));
+            assertEquals(vanilla.items.name(expected), found < 0 ? "nothing" : vanilla.items.name(vanilla.graph.result(found)));
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package net.jackson;
+
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DeflaterOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RecipeSnapshotTest {
+    private static Map<String, String> recipes(String... idsAndJson) {
+        Map<String, String> recipes = new LinkedHashMap<>();
+        for (int i = 0; i < idsAndJson.length; i += 2) {
+            recipes.put(idsAndJson[i], idsAndJson[i + 1]);
+        }
+        return recipes;
+    }
+
+    @Test
+    void fullSnapshotRoundTrips() throws IOException {
+        Map<String, String> recipes = recipes("minecraft:stick", "{\"type\":\"minecraft:crafting_shaped\"}",
+            "minecraft:torch", "{\"note\":\"caf\u00e9 \u2603\"}");
+        RecipeSnapshot decoded = RecipeSnapshot.decode(RecipeSnapshot.full(300, recipes).encode());
+
+        assertEquals(RecipeSnapshot.FULL, decoded.kind);
+        assertEquals(300, decoded.generation);
+        assertEquals(300, decoded.baseGeneration);
+        assertEquals(recipes, decoded.upserts);
+        assertTrue(decoded.removals.isEmpty());
+    }
+
+    @Test
+    void deltaCarriesOnlyTheChanges() throws IOException {
+        Map<String, String> previous = recipes("a", "1", "b", "2", "c", "3");
+        Map<String, String> current = recipes("a", "1", "b", "changed", "d", "4");
+        RecipeSnapshot delta = RecipeSnapshot.delta(7, 8, previous, current);
+
+        assertEquals(recipes("b", "changed", "d", "4"), delta.upserts);
+        assertEquals(List.of("c"), delta.removals);
+
+        RecipeSnapshot decoded = RecipeSnapshot.decode(delta.encode());
+        assertEquals(RecipeSnapshot.DELTA, decoded.kind);
+        assertEquals(7, decoded.baseGeneration);
+        assertEquals(8, decoded.generation);
+        assertEquals(delta.upserts, decoded.upserts);
+        assertEquals(delta.removals, decoded.removals);
+    }
+
+    @Test
+    void unchangedRecipesMakeAnEmptyDelta() {
+        Map<String, String> recipes = recipes("a", "1");
+
+        assertTrue(RecipeSnapshot.delta(1, 2, recipes, recipes).isEmpty());
+    }
+
+    @Test
+    void splitPartsJoinBackUp() throws IOException {
+        byte[] data = new byte[1000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+        List<byte[]> parts = RecipeSnapshot.split(data, 256);
+
+        assertEquals(4, parts.size());
+        assertEquals(232, parts.get(3).length);
+        ByteArrayOutputStream joined = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            joined.write(part);
+        }
+        assertArrayEquals(data, joined.toByteArray());
+        // Even nothing goes out as one (empty) part
+        assertEquals(1, RecipeSnapshot.split(new byte[0], 256).size());
+    }
+
+    @Test
+    void garbageIsRejected() {
+        assertThrows(IOException.class, () -> RecipeSnapshot.decode(new byte[]{1, 2, 3}));
+    }
+
+    @Test
+    void sizesAreCheckedAgainstTheInput() {
+        // format, kind, generations, then an upsert count of two billion with nothing behind it
+        byte[] hugeCount = deflate(1, 0, 1, 1, 0xFF, 0xFF, 0xFF, 0xFF, 0x07);
+        assertThrows(IOException.class, () -> RecipeSnapshot.decode(hugeCount));
+        // A negative count, and a string claiming more bytes than remain
+        assertThrows(IOException.class, () -> RecipeSnapshot.decode(deflate(1, 0, 1, 1, 0xFF, 0xFF, 0xFF, 0xFF, 0x0F)));
+        assertThrows(IOException.class, () -> RecipeSnapshot.decode(deflate(1, 0, 1, 1, 1, 100, 'a')));
+    }
+
+    @Test
+    void inflatedSizeIsCapped() {
+        // A format byte followed by more zeros than a snapshot may inflate to; deflated it's tiny
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DeflaterOutputStream out = new DeflaterOutputStream(bytes)) {
+            out.write(1);
+            byte[] zeros = new byte[1 << 20];
+            for (int written = 0; written <= RecipeSnapshot.MAX_DECODED_BYTES; written += zeros.length) {
+                out.write(zeros);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        assertThrows(IOException.class, () -> RecipeSnapshot.decode(bytes.toByteArray()));
+    }
+
+    @Test
+    void bundledRecipesCompressWell() throws IOException {
+        Map<String, String> json = Fixtures.vanilla().json;
+        long raw = 0;
+        for (Map.Entry<String, String> entry : json.entrySet()) {
+            raw += entry.getKey().getBytes(StandardCharsets.UTF_8).length;
+            raw += entry.getValue().getBytes(StandardCharsets.UTF_8).length;
+        }
+        byte[] encoded = RecipeSnapshot.full(1, json).encode();
+
+        // Recipe JSON is very repetitive; it should shrink to well under a tenth and fit in a few parts
+        assertTrue(encoded.length * 10 < raw, encoded.length + " bytes from " + raw);
+        assertTrue(RecipeSnapshot.split(encoded, 256 * 1024).size() <= 2);
+        assertEquals(json, RecipeSnapshot.decode(encoded).upserts);
+    }
+
+    @Test
+    void applyingTheBundledSetStaysQuick() throws IOException {
+        // What a client does with a full sync: decode, parse each recipe and compile the graph and grid index
+        Fixtures.Vanilla vanilla = Fixtures.vanilla();
+        byte[] encoded = RecipeSnapshot.full(1, vanilla.json).encode();
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run < 5; run++) {
+            long start = System.nanoTime();
+            RecipeCompiler compiler = new RecipeCompiler(vanilla.items);
+            for (String text : RecipeSnapshot.decode(encoded).upserts.values()) {
+                compiler.add(JsonParser.parseString(text).getAsJsonObject());
+            }
+            RecipeGraph graph = compiler.buildGraph();
+            compiler.buildGrids();
+            best = Math.min(best, System.nanoTime() - start);
+            assertEquals(vanilla.graph.recipeCount(), graph.recipeCount());
+        }
+
+        // It runs on the recipe worker, so this is a regression guard rather than a frame budget - the bound
+        // leaves room for slow CI machines
+        assertTrue(best < 500_000_000L, "apply took " + best / 1_000_000 + "ms");
+    }
+
+    private static byte[] deflate(int... values) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DeflaterOutputStream out = new DeflaterOutputStream(bytes)) {
+            for (int value : values) {
+                out.write(value);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,118 @@
+package net.jackson;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SlotLayoutTest {
+    private static final int E = -1;
+    private static final int STONE = 4;
+    private static final long[] ANY_STONE = {1L << STONE};
+
+    private static int[] pattern(int... positions) {
+        int[] pattern = new int[SlotLayout.GRID_SIZE];
+        Arrays.fill(pattern, E);
+        for (int position : positions) {
+            pattern[position] = STONE;
+        }
+        return pattern;
+    }
+
+    private static int[] tableInventory() {
+        int[] inventory = new int[SlotLayout.INVENTORY_SIZE];
+        for (int i = 0; i < inventory.length; i++) {
+            inventory[i] = i < 9 ? 37 + i : i + 1;
+        }
+        return inventory;
+    }
+
+    // One stone laid into the given position, with a stack of 10 in the first hotbar slot
+    private static BatchCraftPlanner.Sequence placeStone(SlotLayout layout, int position) {
+        long[][] accepted = new long[SlotLayout.GRID_SIZE][];
+        accepted[position] = ANY_STONE;
+        int[] invItem = new int[SlotLayout.INVENTORY_SIZE];
+        int[] invCount = new int[SlotLayout.INVENTORY_SIZE];
+        Arrays.fill(invItem, E);
+        invItem[0] = STONE;
+        invCount[0] = 10;
+        int[] gridItem = new int[SlotLayout.GRID_SIZE];
+        Arrays.fill(gridItem, E);
+        return BatchCraftPlanner.placeOnce(layout, accepted, item -> 64, invItem, invCount, gridItem,
+            new int[SlotLayout.GRID_SIZE]);
+    }
+
+    @Test
+    void vanillaInventoryGrid() {
+        SlotLayout layout = Fixtures.playerInventory();
+
+        assertNull(layout.validate());
+        assertTrue(layout.fits(pattern(0, 1, 3, 4)));
+        assertFalse(layout.fits(pattern(2)));
+        assertFalse(layout.fits(pattern(6)));
+        // The 2x2 keeps 3x3 numbering: its bottom right is position 4
+        assertEquals(4, layout.toHandler(BatchCraftPlanner.GRID_START + 4));
+        assertEquals(SlotLayout.NONE, layout.toHandler(BatchCraftPlanner.GRID_START + 8));
+        assertEquals(0, layout.toHandler(BatchCraftPlanner.RESULT));
+        assertEquals(36, layout.toHandler(BatchCraftPlanner.INVENTORY_START));
+        assertEquals(9, layout.toHandler(BatchCraftPlanner.INVENTORY_START + 9));
+        // Shift-clicks fill the main inventory before the hotbar
+        assertEquals(9, layout.insertOrder()[0]);
+        assertEquals(8, layout.insertOrder()[SlotLayout.INVENTORY_SIZE - 1]);
+    }
+
+    @Test
+    void craftingTableGrid() {
+        SlotLayout layout = Fixtures.craftingTable();
+
+        assertNull(layout.validate());
+        assertTrue(layout.fits(pattern(0, 4, 8)));
+        assertEquals(9, layout.toHandler(BatchCraftPlanner.GRID_START + 8));
+        assertEquals(37, layout.toHandler(BatchCraftPlanner.INVENTORY_START));
+        assertEquals(BatchCraftPlanner.OUTSIDE, layout.toHandler(BatchCraftPlanner.OUTSIDE));
+    }
+
+    @Test
+    void badLayoutsAreRejected() {
+        assertNotNull(new SlotLayout(SlotLayout.NONE, 3, 3, new int[]{1, 2, 3, 4, 5, 6, 7, 8, 9}, tableInventory())
+            .validate());
+        assertNotNull(new SlotLayout(0, 4, 1, new int[]{1, 2, 3, 4}, tableInventory()).validate());
+        assertNotNull(new SlotLayout(0, 3, 3, new int[]{1, 2, 3, 4, 5, 6, 7, 8, SlotLayout.NONE}, tableInventory())
+            .validate());
+        assertNotNull(new SlotLayout(0, 3, 3, new int[]{1, 2, 3, 4, 5, 6, 7, 8, 8}, tableInventory()).validate());
+
+        int[] missingHotbar = tableInventory();
+        missingHotbar[0] = SlotLayout.NONE;
+        assertNotNull(new SlotLayout(0, 3, 3, new int[]{1, 2, 3, 4, 5, 6, 7, 8, 9}, missingHotbar).validate());
+    }
+
+    @Test
+    void countsThePacketsOfASinglePlacement() {
+        SlotLayout layout = Fixtures.playerInventory();
+        BatchCraftPlanner.Sequence sequence = placeStone(layout, 4);
+
+        assertEquals(BatchCraftPlanner.DONE, sequence.status);
+        // Half the stack up, one into the grid, the rest back
+        assertEquals(3, layout.countPackets(sequence));
+        int[] handlerSlots = new int[sequence.size()];
+        for (int i = 0; i < handlerSlots.length; i++) {
+            handlerSlots[i] = layout.toHandler(sequence.slots[i]);
+        }
+        assertArrayEquals(new int[]{36, 4, 36}, handlerSlots);
+    }
+
+    @Test
+    void clicksOutsideTheLayoutAreCaught() {
+        // Planned for a table's bottom right corner, which the 2x2 doesn't have
+        BatchCraftPlanner.Sequence sequence = placeStone(Fixtures.craftingTable(), 8);
+
+        assertEquals(3, Fixtures.craftingTable().countPackets(sequence));
+        assertEquals(-1, Fixtures.playerInventory().countPackets(sequence));
+    }
+}
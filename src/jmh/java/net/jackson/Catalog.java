@@ -0,0 +1,309 @@
+package net.jackson;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+
+// Item catalogs and recipes for the benchmarks, put together without the game:
+// - vanilla: the bundled recipe JSON, items numbered in order of first appearance. Tags only resolve in a world,
+//   so each tag stands for TAG_SIZE made-up members of its own
+// - synthetic: any number of items in TIERS tiers, each item's recipes taking items from the tiers below, so the
+//   graph is as big and tangled as a large modpack without depending on one. Seeded, so every run sees the same
+//   catalog
+// Both keep their recipes as parsed codec JSON and build the indexes through RecipeCompiler, the same path the
+// client takes on join
+public class Catalog {
+    public static final String VANILLA = "vanilla";
+    public static final String SYNTHETIC = "synthetic";
+    public static final int SYNTHETIC_ITEMS = 50_000;
+
+    private static final String RECIPE_DIR = System.getProperty("ltei.recipes", "src/main/resources/assets/jackson/recipes");
+    private static final int TAG_SIZE = 8;
+    private static final int TIERS = 10; // Deep enough for long chains, shallow enough that demand fits in a long
+    private static final long SEED = 0x17E1L;
+    private static final String KEY_SYMBOLS = "ABCDEFGHI";
+
+    public final String[] ids;   // raw id -> item id
+    public final ItemIds itemIds; // the same numbering, tags included, for code that resolves through ItemIds
+    public final String[] names; // raw id -> name as the overlay shows it
+    public final Map<String, String> recipeJson; // recipe id -> JSON text; empty for synthetic catalogs
+    private final List<JsonObject> recipes;
+    public final RecipeGraph graph;
+    public final GridRecipeIndex grids;
+    public final List<int[]> craftingGrids = new ArrayList<>(); // a filled grid per indexed recipe, nine raw ids each
+
+    private Catalog(Ids ids, Map<String, String> recipeJson, List<JsonObject> recipes) {
+        this.ids = ids.names();
+        this.itemIds = ids;
+        this.names = new String[this.ids.length];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = displayName(this.ids[i]);
+        }
+        this.recipeJson = recipeJson;
+        this.recipes = recipes;
+        RecipeCompiler compiler = compile();
+        this.graph = compiler.buildGraph();
+        this.grids = compiler.buildGrids();
+        for (int indexed = 0; indexed < grids.size(); indexed++) {
+            craftingGrids.add(grids.exampleGrid(indexed));
+        }
+    }
+
+    public static Catalog load(String catalog) {
+        return VANILLA.equals(catalog) ? vanilla() : synthetic(SYNTHETIC_ITEMS);
+    }
+
+    // Every recipe fed to a fresh compiler; the graph and grid lookup are then one build() each
+    public RecipeCompiler compile() {
+        RecipeCompiler compiler = new RecipeCompiler(itemIds);
+        for (JsonObject recipe : recipes) {
+            compiler.add(recipe);
+        }
+        return compiler;
+    }
+
+    public static Map<String, String> readRecipeJson() {
+        Map<String, String> recipes = new LinkedHashMap<>();
+        try (Stream<Path> files = Files.list(Path.of(RECIPE_DIR))) {
+            for (Path file : (Iterable<Path>) files.sorted()::iterator) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(".json")) {
+                    recipes.put("minecraft:" + name.substring(0, name.length() - 5), Files.readString(file, StandardCharsets.UTF_8));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't read recipes from " + RECIPE_DIR + " (set -Dltei.recipes)", e);
+        }
+        return recipes;
+    }
+
+    public static Catalog vanilla() {
+        Map<String, String> json = readRecipeJson();
+        Ids ids = new Ids();
+        List<JsonObject> recipes = new ArrayList<>();
+        for (String text : json.values()) {
+            JsonObject recipe = JsonParser.parseString(text).getAsJsonObject();
+            List<JsonElement> ingredients = RecipeJson.ingredients(recipe);
+            if (ingredients == null) {
+                continue; // Special and trim recipes, which the compiler leaves out anyway
+            }
+            // The compiler sizes its indexes up front, so everything is numbered before the first recipe goes in
+            ids.get(RecipeJson.resultId(recipe));
+            for (JsonElement ingredient : ingredients) {
+                ids.number(ingredient);
+            }
+            recipes.add(recipe);
+        }
+        return new Catalog(ids, json, recipes);
+    }
+
+    public static Catalog synthetic(int itemCount) {
+        Random random = new Random(SEED);
+        Ids ids = new Ids();
+        for (int i = 0; i < itemCount; i++) {
+            ids.get("synthetic:" + WORDS[random.nextInt(WORDS.length)] + "_" + WORDS[random.nextInt(WORDS.length)] + "_" + i);
+        }
+
+        // The bottom tier is raw materials. Everything above has a recipe or two over items from lower tiers,
+        // often the one just below; smelting takes raw materials, the way ores are
+        int tierSize = itemCount / TIERS;
+        List<JsonObject> recipes = new ArrayList<>();
+        for (int item = tierSize; item < itemCount; item++) {
+            int count = random.nextInt(4) == 0 ? 2 : 1;
+            for (int r = 0; r < count; r++) {
+                int width = 1 + random.nextInt(3);
+                int height = 1 + random.nextInt(3);
+                int[][] cells = new int[width * height][];
+                for (int i = 0; i < cells.length; i++) {
+                    cells[i] = random.nextInt(5) == 0 ? alternatives(random, item, tierSize) : new int[]{lowerItem(random, item, tierSize)};
+                }
+                if (random.nextInt(6) == 0) {
+                    recipes.add(smelting(ids, item, random.nextInt(tierSize)));
+                } else {
+                    recipes.add(shaped(ids, item, 1 + random.nextInt(4), width, cells));
+                }
+            }
+        }
+        return new Catalog(ids, Map.of(), recipes);
+    }
+
+    // Something with a long chain under it, for the bill of materials and the planner: a beacon in vanilla, and
+    // the last item in a synthetic catalog, which sits in the top tier
+    public int planTarget() {
+        for (int item = 0; item < ids.length; item++) {
+            if ("minecraft:beacon".equals(ids[item])) {
+                return item;
+            }
+        }
+        for (int item = ids.length - 1; item >= 0; item--) {
+            if (graph.producers(item).length > 0) {
+                return item;
+            }
+        }
+        return 0;
+    }
+
+    // A plausible inventory: stacks of whatever sits in the lower quarter of the catalog, where the raw
+    // materials and early intermediates are
+    public int[] inventory(int stacks) {
+        Random random = new Random(SEED);
+        int[] counts = new int[ids.length];
+        for (int i = 0; i < stacks; i++) {
+            counts[random.nextInt(Math.max(1, ids.length / 4))] += 1 + random.nextInt(64);
+        }
+        return counts;
+    }
+
+    // Codec JSON for a shaped recipe, one key per cell; a cell with several items becomes a list ingredient
+    private static JsonObject shaped(Ids ids, int result, int count, int width, int[][] cells) {
+        JsonObject key = new JsonObject();
+        JsonArray pattern = new JsonArray();
+        for (int row = 0; row < cells.length / width; row++) {
+            StringBuilder line = new StringBuilder();
+            for (int col = 0; col < width; col++) {
+                int cell = row * width + col;
+                String symbol = String.valueOf(KEY_SYMBOLS.charAt(cell));
+                line.append(symbol);
+                if (cells[cell].length == 1) {
+                    key.addProperty(symbol, ids.name(cells[cell][0]));
+                } else {
+                    JsonArray options = new JsonArray();
+                    for (int option : cells[cell]) {
+                        options.add(ids.name(option));
+                    }
+                    key.add(symbol, options);
+                }
+            }
+            pattern.add(line.toString());
+        }
+        JsonObject recipe = new JsonObject();
+        recipe.addProperty("type", "minecraft:crafting_shaped");
+        recipe.add("key", key);
+        recipe.add("pattern", pattern);
+        recipe.add("result", result(ids, result, count));
+        return recipe;
+    }
+
+    private static JsonObject smelting(Ids ids, int result, int input) {
+        JsonObject recipe = new JsonObject();
+        recipe.addProperty("type", "minecraft:smelting");
+        recipe.addProperty("ingredient", ids.name(input));
+        recipe.add("result", result(ids, result, 1));
+        return recipe;
+    }
+
+    private static JsonObject result(Ids ids, int item, int count) {
+        JsonObject result = new JsonObject();
+        result.addProperty("id", ids.name(item));
+        result.addProperty("count", count);
+        return result;
+    }
+
+    private static int lowerItem(Random random, int item, int tierSize) {
+        int tier = Math.min(item / tierSize, TIERS - 1);
+        int from = random.nextBoolean() ? tier - 1 : random.nextInt(tier);
+        return from * tierSize + random.nextInt(tierSize);
+    }
+
+    private static int[] alternatives(Random random, int item, int tierSize) {
+        int[] items = new int[2 + random.nextInt(TAG_SIZE - 1)];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = lowerItem(random, item, tierSize);
+        }
+        return items;
+    }
+
+    // "minecraft:oak_planks" -> "Oak Planks"
+    private static String displayName(String id) {
+        String path = id.substring(id.indexOf(':') + 1);
+        StringBuilder name = new StringBuilder(path.length());
+        for (String word : path.split("_")) {
+            if (!word.isEmpty()) {
+                if (name.length() > 0) {
+                    name.append(' ');
+                }
+                name.append(Character.toUpperCase(word.charAt(0))).append(word, 1, word.length());
+            }
+        }
+        return name.toString();
+    }
+
+    private static final String[] WORDS = {
+        "oak", "birch", "iron", "gold", "copper", "steel", "brass", "crystal", "ender", "nether", "quartz", "redstone",
+        "gear", "plate", "rod", "wire", "dust", "ingot", "block", "frame", "casing", "circuit", "motor", "pipe"
+    };
+
+    // Item and tag numbering. Catalogs add to it while they're put together; after that it only answers lookups
+    private static class Ids implements ItemIds {
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final List<String> names = new ArrayList<>();
+        private final Map<String, int[]> tags = new HashMap<>();
+
+        private int get(String id) {
+            Integer raw = ids.get(id);
+            if (raw == null) {
+                raw = names.size();
+                ids.put(id, raw);
+                names.add(id);
+            }
+            return raw;
+        }
+
+        // Numbers every item the ingredient names, making up members for a tag the first time it's seen
+        private void number(JsonElement ingredient) {
+            if (ingredient.isJsonArray()) {
+                for (JsonElement option : ingredient.getAsJsonArray()) {
+                    number(option);
+                }
+                return;
+            }
+            String id = ingredient.getAsString();
+            if (!id.startsWith("#")) {
+                get(id);
+            } else if (!tags.containsKey(id.substring(1))) {
+                int[] members = new int[TAG_SIZE];
+                for (int i = 0; i < TAG_SIZE; i++) {
+                    members[i] = get(id.substring(1) + "_member_" + i);
+                }
+                tags.put(id.substring(1), members);
+            }
+        }
+
+        private String name(int raw) {
+            return names.get(raw);
+        }
+
+        private String[] names() {
+            return names.toArray(new String[0]);
+        }
+
+        @Override
+        public int size() {
+            return names.size();
+        }
+
+        @Override
+        public int rawId(String id) {
+            return ids.getOrDefault(id, -1);
+        }
+
+        @Override
+        public int[] tag(String tag) {
+            return tags.getOrDefault(tag, new int[0]);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package net.jackson;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// Keeping the craftable-now set current: a full pass (joining a world, a new graph) and the usual tick where a
+// single item's count changed. The count flips between two values so every tick has a real change to apply
+@State(Scope.Benchmark)
+public class CraftabilityBenchmark {
+    @Param({Catalog.VANILLA, Catalog.SYNTHETIC})
+    public String catalog;
+
+    private int[] counts;
+    private CraftabilityEngine engine;
+    private int changedItem;
+
+    @Setup
+    public void setup() {
+        Catalog recipes = Catalog.load(catalog);
+        counts = recipes.inventory(300);
+        engine = new CraftabilityEngine(recipes.graph, RecipeGraph.KIND_CRAFTING);
+        engine.markAllDirty();
+        engine.recompute(item -> counts[item]);
+        // The most used held item, so a change fans out as far as it realistically can
+        changedItem = -1;
+        for (int item = 0; item < counts.length; item++) {
+            if (counts[item] > 0 && (changedItem < 0 || recipes.graph.uses(item).length > recipes.graph.uses(changedItem).length)) {
+                changedItem = item;
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean fullRecompute() {
+        engine.markAllDirty();
+        return engine.recompute(item -> counts[item]);
+    }
+
+    @Benchmark
+    public boolean singleItemChange() {
+        counts[changedItem] = counts[changedItem] == 0 ? 64 : 0;
+        engine.markDirty(changedItem);
+        return engine.recompute(item -> counts[item]);
+    }
+}
@@ -0,0 +1,31 @@
+package net.jackson;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+// Building the recipe graph (with its uses and producer indexes) and the crafting grid lookup from recipes
+// already parsed, through RecipeCompiler as RecipeIndex does - the part of a rebuild on join that scales with
+// the pack. Resolving ingredients is included; reading the JSON text is RecipeLoadBenchmark's
+@State(Scope.Benchmark)
+public class IndexBuildBenchmark {
+    @Param({Catalog.VANILLA, Catalog.SYNTHETIC})
+    public String catalog;
+
+    private Catalog recipes;
+
+    @Setup
+    public void setup() {
+        recipes = Catalog.load(catalog);
+    }
+
+    @Benchmark
+    public void compile(Blackhole blackhole) {
+        RecipeCompiler compiler = recipes.compile();
+        blackhole.consume(compiler.buildGraph());
+        blackhole.consume(compiler.buildGrids());
+    }
+}
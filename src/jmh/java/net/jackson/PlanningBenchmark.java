@@ -0,0 +1,48 @@
+package net.jackson;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+// The planning paths behind the recipe screen: a bill of materials from scratch (new per call, so its memoized
+// choices don't carry over), the intermediate-crafting search against an inventory, and a grid lookup
+@State(Scope.Benchmark)
+public class PlanningBenchmark {
+    @Param({Catalog.VANILLA, Catalog.SYNTHETIC})
+    public String catalog;
+
+    private Catalog recipes;
+    private int target;
+    private int[] counts;
+    private int[][] grids;
+    private int next = 0;
+
+    @Setup
+    public void setup() {
+        recipes = Catalog.load(catalog);
+        target = recipes.planTarget();
+        counts = recipes.inventory(300);
+        grids = recipes.craftingGrids.toArray(new int[0][]);
+    }
+
+    @Benchmark
+    public BillOfMaterials.Result billOfMaterials() {
+        return new BillOfMaterials(recipes.graph, BillOfMaterials.PREFER_CRAFTING).expand(target, 64);
+    }
+
+    @Benchmark
+    public CraftingPlanner.Plan craftingPlan() {
+        return CraftingPlanner.plan(recipes.graph, counts, target, 1, TimeUnit.MILLISECONDS.toNanos(50),
+            RecipeGraph.KIND_CRAFTING, RecipeGraph.KIND_COOKING);
+    }
+
+    @Benchmark
+    public int gridLookup() {
+        next = next + 1 < grids.length ? next + 1 : 0;
+        return recipes.grids.lookup(grids[next]);
+    }
+}
@@ -0,0 +1,62 @@
+package net.jackson;
+
+import com.google.gson.JsonParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.Map;
+
+// Getting the vanilla recipes into memory: parsing every bundled JSON file's text, against decoding the
+// compressed snapshot the server sends (and then parsing what came out of it, which is what the client does),
+// and the whole way from JSON text to the built graph and grid lookup, as the client does on join
+@State(Scope.Benchmark)
+public class RecipeLoadBenchmark {
+    private Map<String, String> json;
+    private byte[] snapshot;
+    private ItemIds ids;
+
+    @Setup
+    public void setup() {
+        json = Catalog.readRecipeJson();
+        snapshot = RecipeSnapshot.full(1, json).encode();
+        ids = Catalog.vanilla().itemIds;
+    }
+
+    @Benchmark
+    public void parseJson(Blackhole blackhole) {
+        for (String text : json.values()) {
+            blackhole.consume(JsonParser.parseString(text));
+        }
+    }
+
+    @Benchmark
+    public RecipeSnapshot decodeSnapshot() throws IOException {
+        return RecipeSnapshot.decode(snapshot);
+    }
+
+    @Benchmark
+    public void decodeSnapshotAndParse(Blackhole blackhole) throws IOException {
+        for (String text : RecipeSnapshot.decode(snapshot).upserts.values()) {
+            blackhole.consume(JsonParser.parseString(text));
+        }
+    }
+
+    @Benchmark
+    public RecipeGraph compileRecipes() {
+        RecipeCompiler compiler = new RecipeCompiler(ids);
+        for (String text : json.values()) {
+            compiler.add(JsonParser.parseString(text).getAsJsonObject());
+        }
+        compiler.buildGrids();
+        return compiler.buildGraph();
+    }
+
+    @Benchmark
+    public byte[] encodeSnapshot() {
+        return RecipeSnapshot.full(1, json).encode();
+    }
+}
@@ -0,0 +1,48 @@
+package net.jackson;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// The overlay's search through ItemSearch: one pass over the whole catalog per query, and building the index,
+// which happens again whenever the language changes
+@State(Scope.Benchmark)
+public class SearchBenchmark {
+    @Param({Catalog.VANILLA, Catalog.SYNTHETIC})
+    public String catalog;
+
+    // A common word, a rarer one, and one that matches nothing and so has to look at everything
+    @Param({"iron", "comparator", "zzz"})
+    public String query;
+
+    private Catalog items;
+    private ItemSearch search;
+
+    @Setup
+    public void setup() {
+        items = Catalog.load(catalog);
+        search = buildIndex();
+    }
+
+    @Benchmark
+    public List<Integer> substring() {
+        String normalized = ItemSearch.normalize(query);
+        List<Integer> results = new ArrayList<>();
+        for (int item = 0; item < search.size(); item++) {
+            if (search.matches(item, normalized)) {
+                results.add(item);
+            }
+        }
+        return results;
+    }
+
+    @Benchmark
+    public ItemSearch buildIndex() {
+        return new ItemSearch(items.ids.length, raw -> items.names[raw], raw -> items.ids[raw]);
+    }
+}
@@ -0,0 +1,132 @@
+package net.jackson;
+
+import net.fabricmc.fabric.api.networking.v1.PayloadTypeRegistry;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
+import net.minecraft.inventory.RecipeInputInventory;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.recipe.CraftingRecipe;
+import net.minecraft.recipe.RecipeEntry;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.registry.RegistryKeys;
+import net.minecraft.screen.AbstractRecipeScreenHandler;
+import net.minecraft.screen.ScreenHandler;
+import net.minecraft.screen.slot.CraftingResultSlot;
+import net.minecraft.screen.slot.Slot;
+import net.minecraft.screen.slot.SlotActionType;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.stat.Stats;
+import net.minecraft.util.Identifier;
+import net.minecraft.world.GameRules;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+// Server side of bulk crafting: one request from the client, and the whole batch is placed and crafted here in
+// the same tick through the recipe book's own slot filler and a shift-click on the result - no per-click packets
+public class BulkCraft {
+    // A full inventory of results is the most one request can make
+    private static final int MAX_CRAFTS = 36 * 64;
+    private static final int FULL_STACK = 64;
+
+    public static void register() {
+        PayloadTypeRegistry.playC2S().register(BulkCraftPayload.ID, BulkCraftPayload.CODEC);
+        PayloadTypeRegistry.playS2C().register(BulkCraftResultPayload.ID, BulkCraftResultPayload.CODEC);
+        ServerPlayNetworking.registerGlobalReceiver(BulkCraftPayload.ID, (payload, context) ->
+            context.responseSender().sendPacket(craft(context.player(), payload)));
+    }
+
+    private static BulkCraftResultPayload craft(ServerPlayerEntity player, BulkCraftPayload request) {
+        // The gates vanilla puts in front of a crafting click, checked before anything in the grid moves
+        ScreenHandler handler = player.currentScreenHandler;
+        if (player.isSpectator() || handler.syncId != request.syncId() || !handler.canUse(player) ||
+            !(handler instanceof AbstractRecipeScreenHandler recipeHandler)) {
+            return rejected();
+        }
+        Identifier id = Identifier.tryParse(request.recipeId());
+        Optional<RecipeEntry<?>> entry = id == null ? Optional.empty() :
+            player.getServer().getRecipeManager().get(RegistryKey.of(RegistryKeys.RECIPE, id));
+        if (entry.isEmpty() || !(entry.get().value() instanceof CraftingRecipe)) {
+            return rejected();
+        }
+        // A crafting table takes any recipe by hand, so unlocking only matters where limited crafting is on
+        if (player.getServerWorld().getGameRules().getBoolean(GameRules.DO_LIMITED_CRAFTING) &&
+            !player.getRecipeBook().isUnlocked(entry.get().id())) {
+            return rejected();
+        }
+
+        // Same slot discovery as the client's SlotMapping, so modded crafting screens work the same way
+        Slot resultSlot = null;
+        List<Slot> grid = new ArrayList<>();
+        for (Slot slot : handler.slots) {
+            if (slot instanceof CraftingResultSlot) {
+                resultSlot = slot;
+            } else if (slot.inventory instanceof RecipeInputInventory) {
+                grid.add(slot);
+            }
+        }
+        if (resultSlot == null || grid.isEmpty()) {
+            return rejected();
+        }
+
+        // Start from an empty grid so whatever was lying in it can't turn into extra crafts
+        if (!clearGrid(player, handler, grid)) {
+            return new BulkCraftResultPayload(0, 0, BulkCraftResultPayload.INVENTORY_FULL);
+        }
+
+        int wanted = Math.min(Math.max(request.crafts(), 0), MAX_CRAFTS);
+        int crafts = 0;
+        int items = 0;
+        int status = BulkCraftResultPayload.DONE;
+        while (crafts < wanted) {
+            // Each plain fill adds one craft's worth to the grid; a craft-all fill tops every slot up to a stack
+            int remaining = wanted - crafts;
+            if (remaining >= FULL_STACK) {
+                recipeHandler.fillInputSlots(true, player.isCreative(), entry.get(), player.getServerWorld(), player.getInventory());
+            } else {
+                for (int i = 0; i < remaining; i++) {
+                    recipeHandler.fillInputSlots(false, player.isCreative(), entry.get(), player.getServerWorld(), player.getInventory());
+                }
+            }
+            ItemStack result = resultSlot.getStack();
+            if (result.isEmpty()) {
+                status = BulkCraftResultPayload.MISSING;
+                break;
+            }
+
+            // Crafted-item stats count exactly what the result slot handed out, remainders and all
+            Item output = result.getItem();
+            int perCraft = result.getCount();
+            int before = player.getStatHandler().getStat(Stats.CRAFTED, output);
+            handler.onSlotClick(resultSlot.id, 0, SlotActionType.QUICK_MOVE, player);
+            int made = player.getStatHandler().getStat(Stats.CRAFTED, output) - before;
+            if (made < perCraft) {
+                status = BulkCraftResultPayload.INVENTORY_FULL;
+                break;
+            }
+            crafts += made / perCraft;
+            items += made;
+        }
+
+        clearGrid(player, handler, grid);
+        handler.sendContentUpdates();
+        return new BulkCraftResultPayload(crafts, items, status);
+    }
+
+    // Shift-clicks every grid slot back into the inventory; false if something didn't fit
+    private static boolean clearGrid(ServerPlayerEntity player, ScreenHandler handler, List<Slot> grid) {
+        boolean cleared = true;
+        for (Slot slot : grid) {
+            if (slot.hasStack()) {
+                handler.quickMove(player, slot.id);
+                cleared &= !slot.hasStack();
+            }
+        }
+        return cleared;
+    }
+
+    private static BulkCraftResultPayload rejected() {
+        return new BulkCraftResultPayload(0, 0, BulkCraftResultPayload.REJECTED);
+    }
+}
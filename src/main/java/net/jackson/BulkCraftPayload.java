@@ -0,0 +1,24 @@
+package net.jackson;
+
+import net.minecraft.network.RegistryByteBuf;
+import net.minecraft.network.codec.PacketCodec;
+import net.minecraft.network.codec.PacketCodecs;
+import net.minecraft.network.packet.CustomPayload;
+import net.minecraft.util.Identifier;
+
+// Client -> server: craft a recipe this many times in the open crafting screen
+public record BulkCraftPayload(int syncId, String recipeId, int crafts) implements CustomPayload {
+    public static final CustomPayload.Id<BulkCraftPayload> ID =
+        new CustomPayload.Id<>(Identifier.of(LessThanEnoughItems.MOD_ID, "bulk_craft"));
+
+    public static final PacketCodec<RegistryByteBuf, BulkCraftPayload> CODEC = PacketCodec.tuple(
+        PacketCodecs.VAR_INT, BulkCraftPayload::syncId,
+        PacketCodecs.STRING, BulkCraftPayload::recipeId,
+        PacketCodecs.VAR_INT, BulkCraftPayload::crafts,
+        BulkCraftPayload::new);
+
+    @Override
+    public Id<? extends CustomPayload> getId() {
+        return ID;
+    }
+}
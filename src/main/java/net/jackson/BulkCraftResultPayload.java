@@ -0,0 +1,29 @@
+package net.jackson;
+
+import net.minecraft.network.RegistryByteBuf;
+import net.minecraft.network.codec.PacketCodec;
+import net.minecraft.network.codec.PacketCodecs;
+import net.minecraft.network.packet.CustomPayload;
+import net.minecraft.util.Identifier;
+
+// Server -> client: what a BulkCraftPayload ended up doing
+public record BulkCraftResultPayload(int crafts, int items, int status) implements CustomPayload {
+    public static final int DONE = 0;
+    public static final int MISSING = 1; // Ran out of ingredients before the requested count
+    public static final int INVENTORY_FULL = 2;
+    public static final int REJECTED = 3; // Screen closed, unknown recipe or no crafting grid
+
+    public static final CustomPayload.Id<BulkCraftResultPayload> ID =
+        new CustomPayload.Id<>(Identifier.of(LessThanEnoughItems.MOD_ID, "bulk_craft_result"));
+
+    public static final PacketCodec<RegistryByteBuf, BulkCraftResultPayload> CODEC = PacketCodec.tuple(
+        PacketCodecs.VAR_INT, BulkCraftResultPayload::crafts,
+        PacketCodecs.VAR_INT, BulkCraftResultPayload::items,
+        PacketCodecs.VAR_INT, BulkCraftResultPayload::status,
+        BulkCraftResultPayload::new);
+
+    @Override
+    public Id<? extends CustomPayload> getId() {
+        return ID;
+    }
+}
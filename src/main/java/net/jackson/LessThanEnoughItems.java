@@ -15,10 +15,13 @@ public class LessThanEnoughItems implements ModInitializer {
 
 	@Override
 	public void onInitialize() {
-		// This code runs as soon as Minecraft is in a mod-load-ready state.
-		// However, some things (like resources) may still be uninitialized.
-		// Proceed with mild caution.
-
-		LOGGER.info("Hello Fabric world!");
+		// Servers (dedicated or integrated) send their own recipes to clients that have the mod
+		RecipeSync.register();
+		// ...and craft whole batches for them in one request
+		BulkCraft.register();
+		// Players without the mod can still look recipes up in chat
+		RecipeCommands.register();
+		// Operators can dump the whole recipe graph for outside tools
+		RecipeExport.register();
 	}
 }
\ No newline at end of file
@@ -0,0 +1,234 @@
+package net.jackson;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+import com.mojang.brigadier.context.CommandContext;
+import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.minecraft.command.argument.ItemStackArgumentType;
+import net.minecraft.item.Item;
+import net.minecraft.item.Items;
+import net.minecraft.registry.Registries;
+import net.minecraft.registry.RegistryKeys;
+import net.minecraft.registry.entry.RegistryEntry;
+import net.minecraft.registry.tag.TagKey;
+import net.minecraft.server.command.CommandManager;
+import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.text.ClickEvent;
+import net.minecraft.text.MutableText;
+import net.minecraft.text.Text;
+import net.minecraft.util.Formatting;
+import net.minecraft.util.Identifier;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// /ltei recipe <item> and /ltei uses <item> for players without the mod. Answered from an index built from the
+// same encoded recipes the sync sends, once per server start or reload; every recipe's chat line is made once,
+// and each item's pages are put together on first request and then shared by everyone who asks
+public class RecipeCommands {
+    private static final int LINES_PER_PAGE = 8;
+
+    private static volatile Index index = new Index(Map.of());
+
+    public static void register() {
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> index = new Index(Map.of()));
+        CommandRegistrationCallback.EVENT.register((dispatcher, registryAccess, environment) -> dispatcher.register(
+            CommandManager.literal("ltei")
+                .then(CommandManager.literal("recipe")
+                    .then(CommandManager.argument("item", ItemStackArgumentType.itemStack(registryAccess))
+                        .executes(context -> show(context, false, 1))
+                        .then(CommandManager.argument("page", IntegerArgumentType.integer(1))
+                            .executes(context -> show(context, false, IntegerArgumentType.getInteger(context, "page"))))))
+                .then(CommandManager.literal("uses")
+                    .then(CommandManager.argument("item", ItemStackArgumentType.itemStack(registryAccess))
+                        .executes(context -> show(context, true, 1))
+                        .then(CommandManager.argument("page", IntegerArgumentType.integer(1))
+                            .executes(context -> show(context, true, IntegerArgumentType.getInteger(context, "page"))))))));
+    }
+
+    // Called by RecipeSync whenever it has re-encoded the server's recipes
+    public static void rebuild(Map<String, String> recipes) {
+        long start = System.nanoTime();
+        index = new Index(recipes);
+        LessThanEnoughItems.LOGGER.info("Recipe command index: {} recipes in {}ms", index.recipeCount,
+            (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static int show(CommandContext<ServerCommandSource> context, boolean uses, int page) {
+        Item item = ItemStackArgumentType.getItemStackArgument(context, "item").getItem();
+        List<Text> pages = index.pages(item, uses);
+        if (pages.isEmpty()) {
+            context.getSource().sendError(Text.literal(uses ? "Nothing uses " : "No recipe makes ").append(item.getName()));
+            return 0;
+        }
+        context.getSource().sendFeedback(() -> pages.get(Math.min(page, pages.size()) - 1), false);
+        return pages.size();
+    }
+
+    private static class Index {
+        private final Map<Item, List<Text>> byOutput = new HashMap<>();
+        private final Map<Item, List<Text>> byInput = new HashMap<>();
+        private final Map<Item, List<Text>> recipePages = new ConcurrentHashMap<>();
+        private final Map<Item, List<Text>> usePages = new ConcurrentHashMap<>();
+        private final int recipeCount;
+
+        private Index(Map<String, String> recipes) {
+            int count = 0;
+            for (String json : recipes.values()) {
+                try {
+                    count += add(JsonParser.parseString(json).getAsJsonObject()) ? 1 : 0;
+                } catch (Exception e) {
+                    // A recipe type this doesn't know how to read - it's still synced, just not listed
+                }
+            }
+            recipeCount = count;
+        }
+
+        private List<Text> pages(Item item, boolean uses) {
+            Map<Item, List<Text>> cache = uses ? usePages : recipePages;
+            List<Text> lines = (uses ? byInput : byOutput).getOrDefault(item, List.of());
+            return cache.computeIfAbsent(item, key -> paginate(key, uses, lines));
+        }
+
+        private boolean add(JsonObject json) {
+            List<JsonElement> ingredients = RecipeJson.ingredients(json);
+            if (ingredients == null) {
+                return false; // Special and trim recipes have no fixed output
+            }
+            Item output = item(RecipeJson.resultId(json));
+            int outputCount = RecipeJson.resultCount(json);
+            if (output == Items.AIR) {
+                return false;
+            }
+            String type = json.get("type").getAsString();
+
+            // Identical slots are shown once with a count, in the order they first appear
+            Map<String, Integer> counts = new LinkedHashMap<>();
+            Map<String, JsonElement> distinct = new LinkedHashMap<>();
+            for (JsonElement ingredient : ingredients) {
+                counts.merge(ingredient.toString(), 1, Integer::sum);
+                distinct.putIfAbsent(ingredient.toString(), ingredient);
+            }
+            MutableText line = Text.literal("[" + typeName(type) + "] ").formatted(Formatting.GRAY);
+            Set<Item> inputs = new LinkedHashSet<>();
+            boolean first = true;
+            for (Map.Entry<String, JsonElement> entry : distinct.entrySet()) {
+                if (!first) {
+                    line.append(Text.literal(" + ").formatted(Formatting.GRAY));
+                }
+                first = false;
+                line.append(Text.literal(counts.get(entry.getKey()) + " ").formatted(Formatting.WHITE))
+                    .append(describe(entry.getValue()));
+                inputs.addAll(alternatives(entry.getValue()));
+            }
+            line.append(Text.literal(" → " + outputCount + " ").formatted(Formatting.GRAY))
+                .append(output.getName().copy().formatted(Formatting.GREEN));
+
+            byOutput.computeIfAbsent(output, item -> new ArrayList<>()).add(line);
+            for (Item input : inputs) {
+                byInput.computeIfAbsent(input, item -> new ArrayList<>()).add(line);
+            }
+            return true;
+        }
+    }
+
+    private static List<Text> paginate(Item item, boolean uses, List<Text> lines) {
+        List<Text> pages = new ArrayList<>();
+        int pageCount = (lines.size() + LINES_PER_PAGE - 1) / LINES_PER_PAGE;
+        String command = "/ltei " + (uses ? "uses " : "recipe ") + Registries.ITEM.getId(item);
+        for (int page = 0; page < pageCount; page++) {
+            MutableText text = Text.literal(uses ? "Uses of " : "Recipes for ").formatted(Formatting.GOLD)
+                .append(item.getName().copy().formatted(Formatting.GOLD))
+                .append(Text.literal(" (" + (page + 1) + "/" + pageCount + ")").formatted(Formatting.GOLD));
+            for (int i = page * LINES_PER_PAGE; i < Math.min(lines.size(), (page + 1) * LINES_PER_PAGE); i++) {
+                text.append(Text.literal("\n")).append(lines.get(i));
+            }
+            if (page + 1 < pageCount) {
+                String next = command + " " + (page + 2);
+                text.append(Text.literal("\n[Next page]").styled(style -> style.withColor(Formatting.AQUA)
+                    .withClickEvent(new ClickEvent(ClickEvent.Action.RUN_COMMAND, next))));
+            }
+            pages.add(text);
+        }
+        return pages;
+    }
+
+    // An ingredient as players read it: the item's name, a tag as #tag, or alternatives joined with "/"
+    private static Text describe(JsonElement ingredient) {
+        if (ingredient.isJsonArray()) {
+            MutableText text = Text.empty();
+            JsonArray options = ingredient.getAsJsonArray();
+            for (int i = 0; i < options.size(); i++) {
+                if (i > 0) {
+                    text.append(Text.literal("/").formatted(Formatting.GRAY));
+                }
+                text.append(describe(options.get(i)));
+            }
+            return text;
+        }
+        String id = ingredient.getAsString();
+        if (id.startsWith("#")) {
+            return Text.literal(id).formatted(Formatting.YELLOW);
+        }
+        return item(id).getName().copy().formatted(Formatting.WHITE);
+    }
+
+    private static List<Item> alternatives(JsonElement ingredient) {
+        List<Item> items = new ArrayList<>();
+        if (ingredient.isJsonArray()) {
+            for (JsonElement option : ingredient.getAsJsonArray()) {
+                items.addAll(alternatives(option));
+            }
+            return items;
+        }
+        String id = ingredient.getAsString();
+        if (id.startsWith("#")) {
+            Identifier tag = Identifier.tryParse(id.substring(1));
+            if (tag != null) {
+                for (RegistryEntry<Item> entry : Registries.ITEM.iterateEntries(TagKey.of(RegistryKeys.ITEM, tag))) {
+                    items.add(entry.value());
+                }
+            }
+        } else if (item(id) != Items.AIR) {
+            items.add(item(id));
+        }
+        return items;
+    }
+
+    private static Item item(String id) {
+        Identifier parsed = Identifier.tryParse(id);
+        return parsed == null ? Items.AIR : Registries.ITEM.get(parsed);
+    }
+
+    private static String typeName(String type) {
+        switch (type) {
+            case "minecraft:crafting_shaped":
+            case "minecraft:crafting_shapeless":
+                return "Crafting";
+            case "minecraft:crafting_transmute":
+                return "Transmute";
+            case "minecraft:smelting":
+                return "Smelting";
+            case "minecraft:blasting":
+                return "Blasting";
+            case "minecraft:smoking":
+                return "Smoking";
+            case "minecraft:campfire_cooking":
+                return "Campfire";
+            case "minecraft:stonecutting":
+                return "Stonecutting";
+            default:
+                return "Smithing";
+        }
+    }
+}
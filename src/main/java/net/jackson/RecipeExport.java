@@ -0,0 +1,287 @@
+package net.jackson;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonWriter;
+import com.mojang.serialization.JsonOps;
+import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
+import net.minecraft.item.Item;
+import net.minecraft.recipe.Recipe;
+import net.minecraft.recipe.RecipeEntry;
+import net.minecraft.registry.Registries;
+import net.minecraft.registry.RegistryKeys;
+import net.minecraft.registry.RegistryOps;
+import net.minecraft.registry.entry.RegistryEntry;
+import net.minecraft.registry.tag.TagKey;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.command.CommandManager;
+import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.text.Text;
+import net.minecraft.util.Identifier;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// /ltei export: writes the server's recipe graph for spreadsheets and planners, as JSON Lines and as a compact
+// binary file. Recipes are encoded and written one at a time, so memory stays flat however big the pack is -
+// the only things held are the tag numbering and the list of recipe references the server already has
+//
+// JSON Lines, one object per line:
+//   {"kind":"item","id":"minecraft:stick","raw":812}
+//   {"kind":"tag","id":"minecraft:planks","items":["minecraft:oak_planks",...]}    before its first use
+//   {"kind":"recipe","id":...,"type":...,"inputs":[{"item"|"tag"|"any":...,"count":n}],"output":{"item":...,"count":n},"json":{...}}
+//
+// Binary (big-endian, varints for counts and ids): "LTEX", format, item count, item ids by raw id, then records
+// until END - TAG (index, name, member raw ids) or RECIPE (id, type, inputs as kind/ref/count, output raw id, count)
+public class RecipeExport {
+    private static final int FORMAT = 1;
+    private static final int END = 0;
+    private static final int TAG = 1;
+    private static final int RECIPE = 2;
+    private static final int INPUT_ITEM = 0;
+    private static final int INPUT_TAG = 1;
+    private static final int INPUT_ANY = 2; // A list of alternatives, written out in place
+
+    private static final String DIRECTORY = "ltei-export";
+    private static final Gson GSON = new Gson();
+
+    private static volatile boolean running = false;
+
+    public static void register() {
+        CommandRegistrationCallback.EVENT.register((dispatcher, registryAccess, environment) -> dispatcher.register(
+            CommandManager.literal("ltei")
+                .then(CommandManager.literal("export")
+                    .requires(source -> source.hasPermissionLevel(2))
+                    .executes(context -> start(context.getSource())))));
+    }
+
+    private static int start(ServerCommandSource source) {
+        if (running) {
+            source.sendError(Text.literal("An export is already running"));
+            return 0;
+        }
+        running = true;
+        MinecraftServer server = source.getServer();
+        // Only references - the recipes themselves are the server's own objects
+        List<RecipeEntry<?>> recipes = new ArrayList<>(server.getRecipeManager().values());
+        RegistryOps<JsonElement> ops = server.getRegistryManager().getOps(JsonOps.INSTANCE);
+        Path directory = server.getRunDirectory().resolve(DIRECTORY);
+        source.sendFeedback(() -> Text.literal("Exporting " + recipes.size() + " recipes to " + DIRECTORY + "/"), true);
+
+        // Encoding and disk writes stay off the server thread
+        Thread thread = new Thread(() -> {
+            String message;
+            try {
+                long start = System.nanoTime();
+                int written = export(recipes, ops, directory);
+                message = "Exported " + written + " recipes in " + (System.nanoTime() - start) / 1_000_000 + "ms";
+            } catch (Exception e) {
+                message = "Export failed: " + e.getMessage();
+            } finally {
+                running = false;
+            }
+            LessThanEnoughItems.LOGGER.info(message);
+            String feedback = message;
+            server.execute(() -> source.sendFeedback(() -> Text.literal(feedback), true));
+        }, "LTEI Export");
+        thread.setDaemon(true);
+        thread.start();
+        return 1;
+    }
+
+    private static int export(List<RecipeEntry<?>> recipes, RegistryOps<JsonElement> ops, Path directory) throws IOException {
+        Files.createDirectories(directory);
+        try (Writer lines = Files.newBufferedWriter(directory.resolve("recipes.jsonl"), StandardCharsets.UTF_8);
+             DataOutputStream binary = new DataOutputStream(new BufferedOutputStream(
+                 Files.newOutputStream(directory.resolve("recipes.bin"))))) {
+            Exporter exporter = new Exporter(lines, binary);
+            exporter.writeItems();
+            int written = 0;
+            for (RecipeEntry<?> entry : recipes) {
+                JsonElement json = Recipe.CODEC.encodeStart(ops, entry.value()).result().orElse(null);
+                if (json != null && json.isJsonObject() && exporter.writeRecipe(entry.id().getValue().toString(), json.getAsJsonObject())) {
+                    written++;
+                }
+            }
+            binary.writeByte(END);
+            return written;
+        }
+    }
+
+    private static class Exporter {
+        private final Writer lines;
+        private final DataOutputStream binary;
+        private final Map<String, Integer> tags = new HashMap<>(); // Tags written so far -> their index
+
+        private Exporter(Writer lines, DataOutputStream binary) {
+            this.lines = lines;
+            this.binary = binary;
+        }
+
+        private void writeItems() throws IOException {
+            binary.writeBytes("LTEX");
+            binary.writeByte(FORMAT);
+            writeVarInt(Registries.ITEM.size());
+            for (int raw = 0; raw < Registries.ITEM.size(); raw++) {
+                String id = Registries.ITEM.getId(Registries.ITEM.get(raw)).toString();
+                binary.writeUTF(id);
+
+                JsonWriter line = line();
+                line.beginObject().name("kind").value("item").name("id").value(id).name("raw").value(raw).endObject();
+                endLine(line);
+            }
+        }
+
+        private boolean writeRecipe(String id, JsonObject json) throws IOException {
+            List<JsonElement> ingredients = RecipeJson.ingredients(json);
+            if (ingredients == null) {
+                return false;
+            }
+            Item output = item(RecipeJson.resultId(json));
+            if (output == null) {
+                return false;
+            }
+
+            // Repeated slots become one edge with a count, and tags are defined before the recipe that uses them
+            Map<String, JsonElement> distinct = new LinkedHashMap<>();
+            Map<String, Integer> counts = new HashMap<>();
+            for (JsonElement ingredient : ingredients) {
+                distinct.putIfAbsent(ingredient.toString(), ingredient);
+                counts.merge(ingredient.toString(), 1, Integer::sum);
+                defineTags(ingredient);
+            }
+
+            String type = json.get("type").getAsString();
+            binary.writeByte(RECIPE);
+            binary.writeUTF(id);
+            binary.writeUTF(type);
+            writeVarInt(distinct.size());
+            JsonWriter line = line();
+            line.beginObject().name("kind").value("recipe").name("id").value(id).name("type").value(type);
+            line.name("inputs").beginArray();
+            for (Map.Entry<String, JsonElement> entry : distinct.entrySet()) {
+                int count = counts.get(entry.getKey());
+                line.beginObject();
+                writeInput(line, entry.getValue());
+                line.name("count").value(count).endObject();
+                writeVarInt(count);
+            }
+            line.endArray();
+            int outputCount = RecipeJson.resultCount(json);
+            line.name("output").beginObject().name("item").value(Registries.ITEM.getId(output).toString())
+                .name("count").value(outputCount).endObject();
+            line.name("json");
+            GSON.toJson(json, line);
+            line.endObject();
+            endLine(line);
+            writeVarInt(Registries.ITEM.getRawId(output));
+            writeVarInt(outputCount);
+            return true;
+        }
+
+        private void writeInput(JsonWriter line, JsonElement ingredient) throws IOException {
+            if (ingredient.isJsonArray()) {
+                binary.writeByte(INPUT_ANY);
+                writeVarInt(ingredient.getAsJsonArray().size());
+                line.name("any").beginArray();
+                for (JsonElement option : ingredient.getAsJsonArray()) {
+                    Item item = item(option.getAsString());
+                    writeVarInt(item == null ? 0 : Registries.ITEM.getRawId(item));
+                    line.value(option.getAsString());
+                }
+                line.endArray();
+                return;
+            }
+            String id = ingredient.getAsString();
+            if (id.startsWith("#")) {
+                binary.writeByte(INPUT_TAG);
+                writeVarInt(tags.get(id.substring(1)));
+                line.name("tag").value(id.substring(1));
+            } else {
+                Item item = item(id);
+                binary.writeByte(INPUT_ITEM);
+                writeVarInt(item == null ? 0 : Registries.ITEM.getRawId(item));
+                line.name("item").value(id);
+            }
+        }
+
+        private void defineTags(JsonElement ingredient) throws IOException {
+            if (!ingredient.isJsonPrimitive() || !ingredient.getAsString().startsWith("#")) {
+                return;
+            }
+            String name = ingredient.getAsString().substring(1);
+            if (tags.containsKey(name)) {
+                return;
+            }
+            int index = tags.size();
+            tags.put(name, index);
+
+            List<Item> members = new ArrayList<>();
+            Identifier tagId = Identifier.tryParse(name);
+            if (tagId != null) {
+                for (RegistryEntry<Item> entry : Registries.ITEM.iterateEntries(TagKey.of(RegistryKeys.ITEM, tagId))) {
+                    members.add(entry.value());
+                }
+            }
+            binary.writeByte(TAG);
+            writeVarInt(index);
+            binary.writeUTF(name);
+            writeVarInt(members.size());
+            JsonWriter line = line();
+            line.beginObject().name("kind").value("tag").name("id").value(name).name("items").beginArray();
+            for (Item member : members) {
+                writeVarInt(Registries.ITEM.getRawId(member));
+                line.value(Registries.ITEM.getId(member).toString());
+            }
+            line.endArray().endObject();
+            endLine(line);
+        }
+
+        // A fresh writer per line over the shared output - JsonWriter only allows one top-level value
+        private JsonWriter line() {
+            return new JsonWriter(new Writer() {
+                @Override
+                public void write(char[] buffer, int offset, int length) throws IOException {
+                    lines.write(buffer, offset, length);
+                }
+
+                @Override
+                public void flush() {
+                }
+
+                @Override
+                public void close() {
+                }
+            });
+        }
+
+        private void endLine(JsonWriter line) throws IOException {
+            line.close();
+            lines.write('\n');
+        }
+
+        private void writeVarInt(int value) throws IOException {
+            while ((value & ~0x7F) != 0) {
+                binary.writeByte((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            binary.writeByte(value);
+        }
+
+        private static Item item(String id) {
+            Identifier parsed = Identifier.tryParse(id);
+            return parsed == null || !Registries.ITEM.containsId(parsed) ? null : Registries.ITEM.get(parsed);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package net.jackson;
+
+import com.google.gson.JsonElement;
+import com.mojang.serialization.JsonOps;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.networking.v1.PayloadTypeRegistry;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
+import net.minecraft.recipe.Recipe;
+import net.minecraft.recipe.RecipeEntry;
+import net.minecraft.registry.RegistryOps;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.network.ServerPlayerEntity;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Server half of the recipe sync: encodes the recipes the server actually loaded (datapacks included) once at
+// startup, hands the encoded snapshot to every player who joins, and after /reload sends only what changed
+public class RecipeSync {
+    // Well under the 1 MiB custom payload limit
+    private static final int PART_SIZE = 256 * 1024;
+
+    private static Map<String, String> current = Map.of();
+    private static int generation = 0;
+    private static List<byte[]> fullParts = List.of();
+    private static int transfers = 0;
+
+    public static void register() {
+        PayloadTypeRegistry.playS2C().register(RecipeSyncPayload.ID, RecipeSyncPayload.CODEC);
+
+        ServerLifecycleEvents.SERVER_STARTED.register(RecipeSync::rebuild);
+        ServerLifecycleEvents.END_DATA_PACK_RELOAD.register((server, resources, success) -> {
+            if (success) {
+                rebuild(server);
+            }
+        });
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> {
+            current = Map.of();
+            fullParts = List.of();
+        });
+        ServerPlayConnectionEvents.JOIN.register((handler, sender, server) -> send(handler.getPlayer(), fullParts));
+    }
+
+    private static void rebuild(MinecraftServer server) {
+        long start = System.nanoTime();
+        Map<String, String> recipes = encodeRecipes(server);
+        long encoded = System.nanoTime();
+
+        Map<String, String> previous = current;
+        int base = generation;
+        boolean first = previous.isEmpty();
+        current = recipes;
+        generation++;
+        RecipeCommands.rebuild(recipes);
+
+        byte[] full = RecipeSnapshot.full(generation, recipes).encode();
+        fullParts = RecipeSnapshot.split(full, PART_SIZE);
+        LessThanEnoughItems.LOGGER.info("Recipe snapshot: {} recipes, {} bytes in {} parts (encode {}ms, compress {}ms)",
+            recipes.size(), full.length, fullParts.size(), (encoded - start) / 1_000_000,
+            (System.nanoTime() - encoded) / 1_000_000);
+        if (first) {
+            return; // Nobody has an older generation to patch
+        }
+
+        RecipeSnapshot delta = RecipeSnapshot.delta(base, generation, previous, recipes);
+        byte[] deltaBytes = delta.encode();
+        LessThanEnoughItems.LOGGER.info("Recipe delta: {} changed, {} removed, {} bytes",
+            delta.upserts.size(), delta.removals.size(), deltaBytes.length);
+        List<byte[]> deltaParts = RecipeSnapshot.split(deltaBytes, PART_SIZE);
+        for (ServerPlayerEntity player : server.getPlayerManager().getPlayerList()) {
+            send(player, deltaParts);
+        }
+    }
+
+    // Each recipe goes through the same codec the datapack loader read it with, so the client sees the usual
+    // recipe JSON regardless of where the recipe came from. Sorted by id so unchanged sets encode identically
+    private static Map<String, String> encodeRecipes(MinecraftServer server) {
+        Map<String, String> recipes = new TreeMap<>();
+        RegistryOps<JsonElement> ops = server.getRegistryManager().getOps(JsonOps.INSTANCE);
+        for (RecipeEntry<?> entry : server.getRecipeManager().values()) {
+            String id = entry.id().getValue().toString();
+            Recipe.CODEC.encodeStart(ops, entry.value())
+                .ifSuccess(json -> recipes.put(id, json.toString()))
+                .ifError(error -> LessThanEnoughItems.LOGGER.warn("Can't encode recipe {}: {}", id, error.message()));
+        }
+        return recipes;
+    }
+
+    private static void send(ServerPlayerEntity player, List<byte[]> parts) {
+        // Vanilla clients and clients without the mod just don't get it
+        if (parts.isEmpty() || !ServerPlayNetworking.canSend(player, RecipeSyncPayload.ID)) {
+            return;
+        }
+        int transfer = ++transfers;
+        for (int i = 0; i < parts.size(); i++) {
+            ServerPlayNetworking.send(player, new RecipeSyncPayload(transfer, i, parts.size(), parts.get(i)));
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package net.jackson;
+
+import net.minecraft.network.RegistryByteBuf;
+import net.minecraft.network.codec.PacketCodec;
+import net.minecraft.network.codec.PacketCodecs;
+import net.minecraft.network.packet.CustomPayload;
+import net.minecraft.util.Identifier;
+
+// One part of an encoded RecipeSnapshot; the client stitches the parts of a transfer back together in order
+public record RecipeSyncPayload(int transfer, int part, int parts, byte[] data) implements CustomPayload {
+    public static final CustomPayload.Id<RecipeSyncPayload> ID =
+        new CustomPayload.Id<>(Identifier.of(LessThanEnoughItems.MOD_ID, "recipe_sync"));
+
+    public static final PacketCodec<RegistryByteBuf, RecipeSyncPayload> CODEC = PacketCodec.tuple(
+        PacketCodecs.VAR_INT, RecipeSyncPayload::transfer,
+        PacketCodecs.VAR_INT, RecipeSyncPayload::part,
+        PacketCodecs.VAR_INT, RecipeSyncPayload::parts,
+        PacketCodecs.BYTE_ARRAY, RecipeSyncPayload::data,
+        RecipeSyncPayload::new);
+
+    @Override
+    public Id<? extends CustomPayload> getId() {
+        return ID;
+    }
+}